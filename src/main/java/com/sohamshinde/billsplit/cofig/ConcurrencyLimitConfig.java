@@ -0,0 +1,52 @@
+package com.sohamshinde.billsplit.cofig;
+
+import com.sohamshinde.billsplit.security.AdaptiveConcurrencyLimiter;
+import com.sohamshinde.billsplit.security.DatabaseConcurrencyAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class ConcurrencyLimitConfig {
+
+    // Starting limits sit below Hikari's default pool of 10 so that both kinds fit at once
+    @Value("${concurrency-limit.read.initial:6}")
+    private int readInitial;
+
+    @Value("${concurrency-limit.read.max:40}")
+    private int readMax;
+
+    @Value("${concurrency-limit.write.initial:4}")
+    private int writeInitial;
+
+    @Value("${concurrency-limit.write.max:20}")
+    private int writeMax;
+
+    @Value("${concurrency-limit.min:2}")
+    private int minLimit;
+
+    // A call slower than this counts as a sign of overload
+    @Value("${concurrency-limit.latency-threshold-ms:250}")
+    private long latencyThresholdMillis;
+
+    @Value("${concurrency-limit.backoff-ratio:0.9}")
+    private double backoffRatio;
+
+    // Share of the read limit that list endpoints may take
+    @Value("${concurrency-limit.bulk-share:0.5}")
+    private double bulkShare;
+
+    @Bean
+    @ConditionalOnProperty(name = "concurrency-limit.enabled", havingValue = "true", matchIfMissing = true)
+    public DatabaseConcurrencyAspect databaseConcurrencyAspect(MeterRegistry meterRegistry) {
+        long thresholdNanos = TimeUnit.MILLISECONDS.toNanos(latencyThresholdMillis);
+        return new DatabaseConcurrencyAspect(
+                new AdaptiveConcurrencyLimiter(readInitial, minLimit, readMax, backoffRatio, thresholdNanos),
+                new AdaptiveConcurrencyLimiter(writeInitial, minLimit, writeMax, backoffRatio, thresholdNanos),
+                bulkShare, meterRegistry);
+    }
+}
@@ -0,0 +1,42 @@
+package com.sohamshinde.billsplit.cofig;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+
+/**
+ * Runs the migrations in {@code db/migration} once Hibernate has brought the mapped tables up to date.
+ *
+ * The tables themselves are still created from the entities (spring.jpa.hibernate.ddl-auto); migrations hold
+ * what the mapping cannot express, such as GIN and expression indexes, and data backfills. Boot would run them
+ * before the EntityManagerFactory, when those tables may not exist yet, so its own run is skipped. They still
+ * finish before the web server starts, so no request ever sees a half-migrated schema.
+ *
+ * With spring.flyway.enabled=false there is nothing to run. Boot then defines no Flyway bean, except in an
+ * AOT-processed build, where that condition was fixed at build time, so the property is also checked here.
+ */
+@Configuration
+public class FlywayConfig {
+
+    @Bean
+    public FlywayMigrationStrategy skipMigrationBeforeHibernate() {
+        return flyway -> {
+        };
+    }
+
+    @Bean
+    @DependsOn("entityManagerFactory")
+    public InitializingBean flywayMigration(ObjectProvider<Flyway> flyway,
+                                            @Value("${spring.flyway.enabled:true}") boolean enabled) {
+        return () -> {
+            if (enabled) {
+                flyway.ifAvailable(Flyway::migrate);
+            }
+        };
+    }
+}
@@ -0,0 +1,92 @@
+package com.sohamshinde.billsplit.cofig;
+
+import com.sohamshinde.billsplit.security.AuthenticatedRateLimitFilter;
+import com.sohamshinde.billsplit.security.RateLimitFilter;
+import com.sohamshinde.billsplit.security.RateLimitFilter.EndpointClass;
+import com.sohamshinde.billsplit.security.RateLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+@Configuration
+public class RateLimitConfig {
+
+    @Value("${rate-limit.enabled:true}")
+    private boolean enabled;
+
+    // Failed logins per email and per IP: a burst of 10, then one every 6 seconds
+    @Value("${rate-limit.login.capacity:10}")
+    private long loginCapacity;
+
+    @Value("${rate-limit.login.refill-per-second:0.1667}")
+    private double loginRefill;
+
+    @Value("${rate-limit.list.capacity:20}")
+    private long listCapacity;
+
+    @Value("${rate-limit.list.refill-per-second:5}")
+    private double listRefill;
+
+    @Value("${rate-limit.read.capacity:60}")
+    private long readCapacity;
+
+    @Value("${rate-limit.read.refill-per-second:30}")
+    private double readRefill;
+
+    @Value("${rate-limit.write.capacity:30}")
+    private long writeCapacity;
+
+    @Value("${rate-limit.write.refill-per-second:10}")
+    private double writeRefill;
+
+    // Bulk registrations per caller: each request may create thousands of accounts, so a burst of 2, then one a minute
+    @Value("${rate-limit.bulk.capacity:2}")
+    private long bulkCapacity;
+
+    @Value("${rate-limit.bulk.refill-per-second:0.0167}")
+    private double bulkRefill;
+
+    // Tokens a node takes from Redis at once; higher means fewer round trips but coarser sharing
+    @Value("${rate-limit.lease-size:5}")
+    private int leaseSize;
+
+    @Bean
+    public RateLimiter rateLimiter(StringRedisTemplate redisTemplate) {
+        return new RateLimiter(redisTemplate);
+    }
+
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(RateLimiter rateLimiter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(new RateLimitFilter(rateLimiter, limits()));
+        // Run before the Spring Security filter chain
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        registration.setEnabled(enabled);
+        return registration;
+    }
+
+    // Charges Basic-authenticated callers once the chain has verified them
+    @Bean
+    public FilterRegistrationBean<AuthenticatedRateLimitFilter> authenticatedRateLimitFilter(RateLimiter rateLimiter) {
+        FilterRegistrationBean<AuthenticatedRateLimitFilter> registration =
+                new FilterRegistrationBean<>(new AuthenticatedRateLimitFilter(rateLimiter, limits()));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+        registration.setEnabled(enabled);
+        return registration;
+    }
+
+    private Map<EndpointClass, RateLimiter.Limit> limits() {
+        Map<EndpointClass, RateLimiter.Limit> limits = new EnumMap<>(EndpointClass.class);
+        limits.put(EndpointClass.LOGIN, new RateLimiter.Limit(loginCapacity, loginRefill, 1));
+        limits.put(EndpointClass.LIST, new RateLimiter.Limit(listCapacity, listRefill, leaseSize));
+        limits.put(EndpointClass.READ, new RateLimiter.Limit(readCapacity, readRefill, leaseSize));
+        limits.put(EndpointClass.WRITE, new RateLimiter.Limit(writeCapacity, writeRefill, leaseSize));
+        limits.put(EndpointClass.BULK, new RateLimiter.Limit(bulkCapacity, bulkRefill, 1));
+        return limits;
+    }
+}
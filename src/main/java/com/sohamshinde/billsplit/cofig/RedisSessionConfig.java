@@ -0,0 +1,30 @@
+package com.sohamshinde.billsplit.cofig;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.session.config.SessionRepositoryCustomizer;
+import org.springframework.session.data.redis.RedisSessionRepository;
+import org.springframework.session.data.redis.config.annotation.web.http.EnableRedisHttpSession;
+
+import java.time.Duration;
+
+/**
+ * Keeps HTTP sessions in Redis instead of the node's heap, so any node can serve any logged-in user
+ * without sticky sessions. A session holds little more than the AuthenticatedUser principal, so each
+ * entry is a few hundred bytes.
+ */
+@Configuration
+@ConditionalOnProperty(name = "session.store", havingValue = "redis")
+@EnableRedisHttpSession(redisNamespace = "billsplit:session")
+public class RedisSessionConfig {
+
+    @Value("${server.servlet.session.timeout:30m}")
+    private Duration timeout = Duration.ofMinutes(30);
+
+    @Bean
+    public SessionRepositoryCustomizer<RedisSessionRepository> sessionTimeoutCustomizer() {
+        return repository -> repository.setDefaultMaxInactiveInterval(timeout);
+    }
+}
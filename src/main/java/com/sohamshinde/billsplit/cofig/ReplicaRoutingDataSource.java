@@ -0,0 +1,196 @@
+package com.sohamshinde.billsplit.cofig;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to a replica and everything else to the primary.
+ *
+ * Must sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} so the
+ * connection is fetched after the transaction's read-only flag is set. Replicas whose replay lag exceeds
+ * {@code maxLagMillis} are taken out of rotation until they catch up. A user whose read-write transaction
+ * committed keeps reading from the primary for {@code readYourWritesMillis}, so they see their own changes
+ * even if the replicas are behind. The window starts at the commit, not when the connection was fetched,
+ * and rolled-back transactions do not open one.
+ *
+ * The window is a Redis key per user that expires with it, so it holds whichever node serves the user's
+ * next request. This node also remembers its own writers and only asks Redis about the others. Without
+ * Redis, or while it is unreachable, only writes committed on this node are seen.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private static final String KEY_PREFIX = "read-your-writes:";
+    private static final long REDIS_RETRY_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private static final String LAG_QUERY =
+            "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END";
+
+    private final Map<String, DataSource> replicas;
+    private final StringRedisTemplate redisTemplate;
+    private final long readYourWritesNanos;
+    private final long maxLagMillis;
+    private volatile long redisDownUntil;
+
+    private final Set<String> healthyReplicas = ConcurrentHashMap.newKeySet();
+    private final ConcurrentMap<String, Long> recentWriters = new ConcurrentHashMap<>();
+    private final AtomicInteger next = new AtomicInteger();
+    // Bound to the transaction once its commit hook is registered
+    private final Object commitHookKey = new Object();
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, StringRedisTemplate redisTemplate,
+                                    long readYourWritesMillis, long maxLagMillis) {
+        this.replicas = new LinkedHashMap<>(replicas);
+        this.redisTemplate = redisTemplate;
+        this.readYourWritesNanos = TimeUnit.MILLISECONDS.toNanos(readYourWritesMillis);
+        this.maxLagMillis = maxLagMillis;
+
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        refreshReplicaHealth();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String user = currentUser();
+
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (user != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+                recordWriteAfterCommit(user);
+            }
+            return PRIMARY;
+        }
+
+        if (user != null && wroteRecently(user)) {
+            return PRIMARY;
+        }
+
+        List<String> candidates = replicas.keySet().stream().filter(healthyReplicas::contains).toList();
+        if (candidates.isEmpty()) {
+            return PRIMARY;
+        }
+        return candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size()));
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replicas.health-check-interval-ms:5000}")
+    public void refreshReplicaHealth() {
+        for (Map.Entry<String, DataSource> replica : replicas.entrySet()) {
+            boolean healthy;
+            try {
+                long lag = replicationLagMillis(replica.getValue());
+                healthy = lag <= maxLagMillis;
+                if (!healthy) {
+                    log.warn("Replica {} is {} ms behind, routing its reads to the primary", replica.getKey(), lag);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Replica {} is unavailable: {}", replica.getKey(), e.getMessage());
+                healthy = false;
+            }
+
+            if (healthy) {
+                healthyReplicas.add(replica.getKey());
+            } else {
+                healthyReplicas.remove(replica.getKey());
+            }
+        }
+    }
+
+    protected long replicationLagMillis(DataSource replica) {
+        Number lag = new JdbcTemplate(replica).queryForObject(LAG_QUERY, Number.class);
+        return lag == null ? 0 : lag.longValue();
+    }
+
+    // One hook per transaction, even if it fetches several connections
+    private void recordWriteAfterCommit(String user) {
+        if (TransactionSynchronizationManager.hasResource(commitHookKey)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(commitHookKey, user);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recordWrite(user);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(commitHookKey);
+            }
+        });
+    }
+
+    private void recordWrite(String user) {
+        long now = System.nanoTime();
+        if (recentWriters.size() > 10_000) {
+            recentWriters.values().removeIf(writtenAt -> now - writtenAt > readYourWritesNanos);
+        }
+        recentWriters.put(user, now);
+
+        if (redisAvailable()) {
+            try {
+                redisTemplate.opsForValue().set(KEY_PREFIX + user, "1", Duration.ofNanos(readYourWritesNanos));
+            } catch (RuntimeException e) {
+                redisFailed(e);
+            }
+        }
+    }
+
+    private boolean wroteRecently(String user) {
+        Long writtenAt = recentWriters.get(user);
+        if (writtenAt != null && System.nanoTime() - writtenAt <= readYourWritesNanos) {
+            return true;
+        }
+        if (!redisAvailable()) {
+            return false;
+        }
+        try {
+            return Boolean.TRUE.equals(redisTemplate.hasKey(KEY_PREFIX + user)); // Written through another node
+        } catch (RuntimeException e) {
+            redisFailed(e);
+            return false;
+        }
+    }
+
+    private boolean redisAvailable() {
+        return redisTemplate != null && System.nanoTime() >= redisDownUntil;
+    }
+
+    private void redisFailed(RuntimeException e) {
+        log.warn("Read-your-writes falling back to this node's writes: {}", e.getMessage());
+        redisDownUntil = System.nanoTime() + REDIS_RETRY_NANOS;
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken || !authentication.isAuthenticated()) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
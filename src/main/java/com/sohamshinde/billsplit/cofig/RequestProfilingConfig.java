@@ -0,0 +1,97 @@
+package com.sohamshinde.billsplit.cofig;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sohamshinde.billsplit.profiling.HibernateProfilingIntegrator;
+import com.sohamshinde.billsplit.profiling.PhaseMarkerFilter;
+import com.sohamshinde.billsplit.profiling.ProfilingJackson2HttpMessageConverter;
+import com.sohamshinde.billsplit.profiling.RedisProfilingPostProcessor;
+import com.sohamshinde.billsplit.profiling.RepositoryProfilingAspect;
+import com.sohamshinde.billsplit.profiling.RequestPhase;
+import com.sohamshinde.billsplit.profiling.RequestProfileEndpoint;
+import com.sohamshinde.billsplit.profiling.RequestProfiler;
+import com.sohamshinde.billsplit.profiling.RequestProfilingFilter;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.util.List;
+
+/**
+ * Wires the per-request phase profiler (see {@link RequestPhase}) and its actuator endpoint.
+ * Off unless {@code request-profile.enabled=true}: every request pays for the timing, and the endpoint exposes per-path timings.
+ */
+@Configuration
+@ConditionalOnProperty(name = "request-profile.enabled", havingValue = "true")
+public class RequestProfilingConfig {
+
+    // Requests at least this slow are kept with their full breakdown
+    @Value("${request-profile.slow-threshold-ms:500}")
+    private long slowThresholdMillis;
+
+    @Value("${request-profile.slow-capacity:50}")
+    private int slowCapacity;
+
+    @Bean
+    public RequestProfiler requestProfiler() {
+        return new RequestProfiler(slowThresholdMillis, slowCapacity);
+    }
+
+    @Bean
+    public RequestProfileEndpoint requestProfileEndpoint(RequestProfiler requestProfiler) {
+        return new RequestProfileEndpoint(requestProfiler);
+    }
+
+    // Right after StartupTimeReporter, so only the container's own work goes unmeasured
+    @Bean
+    public FilterRegistrationBean<RequestProfilingFilter> requestProfilingFilter(RequestProfiler requestProfiler) {
+        FilterRegistrationBean<RequestProfilingFilter> registration = new FilterRegistrationBean<>(new RequestProfilingFilter(requestProfiler));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+
+    // Before the rate limit filter, which takes part in deciding who may get in
+    @Bean
+    public FilterRegistrationBean<PhaseMarkerFilter> authenticationPhaseFilter() {
+        FilterRegistrationBean<PhaseMarkerFilter> registration = new FilterRegistrationBean<>(new PhaseMarkerFilter(RequestPhase.AUTHENTICATION));
+        registration.setName("authenticationPhaseFilter");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 2);
+        return registration;
+    }
+
+    @Bean
+    public FilterRegistrationBean<PhaseMarkerFilter> applicationPhaseFilter() {
+        FilterRegistrationBean<PhaseMarkerFilter> registration = new FilterRegistrationBean<>(new PhaseMarkerFilter(RequestPhase.APPLICATION));
+        registration.setName("applicationPhaseFilter");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+        return registration;
+    }
+
+    @Bean
+    public RepositoryProfilingAspect repositoryProfilingAspect() {
+        return new RepositoryProfilingAspect();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateProfilingCustomizer() {
+        return properties -> properties.put("hibernate.integrator_provider",
+                (IntegratorProvider) () -> List.of(new HibernateProfilingIntegrator()));
+    }
+
+    // Static, so that it is registered before the templates it post-processes are created
+    @Bean
+    public static RedisProfilingPostProcessor redisProfilingPostProcessor() {
+        return new RedisProfilingPostProcessor();
+    }
+
+    // Replaces Boot's JSON converter, keeping its ObjectMapper
+    @Bean
+    public ProfilingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new ProfilingJackson2HttpMessageConverter(objectMapper);
+    }
+}
@@ -1,6 +1,8 @@
 package com.sohamshinde.billsplit.cofig;
 
 
+import com.sohamshinde.billsplit.entity.User;
+import com.sohamshinde.billsplit.security.AuthenticatedUser;
 import com.sohamshinde.billsplit.security.CustomAuthenticationEntryPoint;
 import com.sohamshinde.billsplit.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,6 +16,8 @@ import org.springframework.security.authentication.dao.DaoAuthenticationProvider
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
@@ -35,11 +39,15 @@ public class SecurityConfig {
 
         return http
                 .csrf(csrf -> csrf.disable()) // Disable CSRF protection (for testing only)
+                .authenticationManager(authenticationManager())
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers(HttpMethod.POST, "/api/user").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/user/verify").permitAll()
+                        .requestMatchers("/actuator/health", "/actuator/health/**").authenticated() // Health keeps the default rule
+                        .requestMatchers("/actuator/**").hasRole("ADMIN") // Profiles and resets are for operators only
                         .requestMatchers("/api/lender/**").hasRole("LENDER") // Only lenders can access lender endpoints
-                        .requestMatchers("/api/user/**", "/api/group/**", "/api/expenses/**").hasRole("USER") // Only users can access user endpoints
+                        .requestMatchers(HttpMethod.POST, "/api/user/bulk").hasRole("ADMIN") // Creates accounts for others, so admins only
+                        .requestMatchers("/api/user/**", "/api/group/**", "/api/expenses/**", "/api/settlements/**").hasRole("USER") // Only users can access user endpoints
                         .anyRequest().authenticated()
                 )
                 .formLogin(login -> login
@@ -62,7 +70,13 @@ public class SecurityConfig {
 
     @Bean
     public AuthenticationManager authenticationManager() {
-        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider() {
+            // The password is checked against the full entity, but only the slim principal is kept in the session
+            @Override
+            protected Authentication createSuccessAuthentication(Object principal, Authentication authentication, UserDetails user) {
+                return super.createSuccessAuthentication(AuthenticatedUser.from((User) user), authentication, user);
+            }
+        };
         provider.setUserDetailsService(userService);
         provider.setPasswordEncoder(passwordEncoder());
         return new ProviderManager(provider);
@@ -1,5 +1,6 @@
 package com.sohamshinde.billsplit.cofig;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import springfox.documentation.builders.PathSelectors;
@@ -7,7 +8,9 @@ import springfox.documentation.builders.RequestHandlerSelectors;
 import springfox.documentation.spi.DocumentationType;
 import springfox.documentation.spring.web.plugins.Docket;
 
+// Scanning every handler for the docs is slow; the faststart profile turns it off with the starter's own switch
 @Configuration
+@ConditionalOnProperty(name = "springfox.documentation.enabled", havingValue = "true", matchIfMissing = true)
 public class SpringFoxConfig {
     @Bean
     public Docket api() {
@@ -17,4 +20,4 @@ public class SpringFoxConfig {
                 .paths(PathSelectors.any())
                 .build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,61 @@
+package com.sohamshinde.billsplit.cofig;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Reports cold-start time as seen by clients: the time from JVM start until the application is ready
+ * and until its first request arrives. Both are logged and published as the
+ * {@code application.cold-start.ready.time} and {@code application.cold-start.first-request.time} gauges,
+ * so the default and faststart images can be compared.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Slf4j
+public class StartupTimeReporter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+    private final AtomicBoolean firstRequestSeen = new AtomicBoolean();
+
+    public StartupTimeReporter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reportReady() {
+        long uptimeMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+        log.info("Ready {} ms after JVM start", uptimeMillis);
+        TimeGauge.builder("application.cold-start.ready.time", () -> uptimeMillis, TimeUnit.MILLISECONDS)
+                .description("Time from JVM start until the application is ready")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!firstRequestSeen.get() && firstRequestSeen.compareAndSet(false, true)) {
+            long uptimeMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+            log.info("First request ({} {}) {} ms after JVM start", request.getMethod(), request.getRequestURI(), uptimeMillis);
+            TimeGauge.builder("application.cold-start.first-request.time", () -> uptimeMillis, TimeUnit.MILLISECONDS)
+                    .description("Time from JVM start until the first request arrived")
+                    .register(meterRegistry);
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,35 @@
+package com.sohamshinde.billsplit.cofig;
+
+import com.sohamshinde.billsplit.repository.UserRepository;
+import com.sohamshinde.billsplit.repository.VerificationTokenRepository;
+import com.sohamshinde.billsplit.service.JpaVerificationTokenStore;
+import com.sohamshinde.billsplit.service.RedisVerificationTokenStore;
+import com.sohamshinde.billsplit.service.VerificationTokenStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+@Configuration
+public class VerificationTokenConfig {
+
+    // "redis" or "jpa"
+    @Value("${verification.token-store:redis}")
+    private String tokenStore = "redis";
+
+    // Lets tokens issued into the table before the switch to Redis still verify; it ends by itself when the last one expires
+    @Value("${verification.legacy-fallback:true}")
+    private boolean legacyFallback = true;
+
+    @Bean
+    public VerificationTokenStore verificationTokenStore(StringRedisTemplate redisTemplate,
+                                                         VerificationTokenRepository verificationTokenRepository,
+                                                         UserRepository userRepository) {
+        JpaVerificationTokenStore jpaStore = new JpaVerificationTokenStore(verificationTokenRepository, userRepository);
+        if ("jpa".equalsIgnoreCase(tokenStore)) {
+            return jpaStore;
+        }
+        return new RedisVerificationTokenStore(redisTemplate, legacyFallback ? jpaStore : null,
+                verificationTokenRepository::findLatestExpiry);
+    }
+}
@@ -1,15 +1,26 @@
 package com.sohamshinde.billsplit.controller;
 
 import com.sohamshinde.billsplit.dto.ExpenseDto;
+import com.sohamshinde.billsplit.dto.ExpenseFilterDto;
+import com.sohamshinde.billsplit.dto.ExpenseSearchResultDto;
+import com.sohamshinde.billsplit.enums.ExpenseCategory;
 import com.sohamshinde.billsplit.exceptions.ExpenseException;
 import com.sohamshinde.billsplit.service.ExpenseService;
+import com.sohamshinde.billsplit.service.IdempotencyService;
 import jakarta.validation.Valid;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
 
 @RestController
@@ -18,12 +29,30 @@ import java.util.List;
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class ExpenseController {
 
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+
+    private static final int MAX_PAGE_SIZE = 200;
+
+    private static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
     ExpenseService expenseService;
 
+    IdempotencyService idempotencyService;
+
+    // Retries carrying the same Idempotency-Key get the first response back instead of a duplicate expense
     @PostMapping
-    public ResponseEntity<String> addExpense(@Valid @RequestBody ExpenseDto expenseDto) throws ExpenseException {
-        expenseService.addExpense(expenseDto);
-        return ResponseEntity.ok("Expense added successfully");
+    public ResponseEntity<String> addExpense(@Valid @RequestBody ExpenseDto expenseDto,
+                                             @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) throws ExpenseException {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            expenseService.addExpense(expenseDto);
+            return ResponseEntity.ok("Expense added successfully");
+        }
+
+        IdempotencyService.StoredResponse response = idempotencyService.execute("expense", idempotencyKey, expenseDto, () -> {
+            expenseService.addExpense(expenseDto);
+            return new IdempotencyService.StoredResponse(200, "Expense added successfully");
+        });
+        return ResponseEntity.status(response.status()).body(response.body());
     }
 
     @GetMapping("/{expenseId}")
@@ -32,16 +61,38 @@ public class ExpenseController {
         return ResponseEntity.ok(expense);
     }
 
+    // Filters are optional query parameters (status, category, currency, from, to, minAmount, maxAmount, includeArchived);
+    // sort takes "property,direction" on createdAt, amount or id. The body is one page of expenses, archived ones included
     @GetMapping("/my")
-    public ResponseEntity<List<ExpenseDto>> getExpensesByUser(@PathVariable Long userId) throws ExpenseException {
-        List<ExpenseDto> expenses = expenseService.getExpensesByUser();
-        return ResponseEntity.ok(expenses);
+    public ResponseEntity<List<ExpenseDto>> getExpensesByUser(ExpenseFilterDto filter,
+                                                              @RequestParam(defaultValue = "0") int page,
+                                                              @RequestParam(defaultValue = "50") int size,
+                                                              @RequestParam(required = false) List<String> sort) throws ExpenseException {
+        Page<ExpenseDto> expenses = expenseService.getExpensesByUser(filter, pageRequest(page, size, sort));
+        return pageResponse(expenses);
+    }
+
+    // Ranked full-text search over the caller's expenses; follow nextCursor for further pages
+    @GetMapping("/search")
+    public ResponseEntity<ExpenseSearchResultDto> searchExpenses(@RequestParam(required = false) String q,
+                                                                 @RequestParam(required = false) ExpenseCategory category,
+                                                                 @RequestParam(required = false) BigDecimal minAmount,
+                                                                 @RequestParam(required = false) BigDecimal maxAmount,
+                                                                 @RequestParam(required = false) String after,
+                                                                 @RequestParam(defaultValue = "20") int size) throws ExpenseException {
+        ExpenseSearchResultDto result = expenseService.searchExpenses(q, category, minAmount, maxAmount, after,
+                Math.min(Math.max(size, 1), MAX_SEARCH_PAGE_SIZE));
+        return ResponseEntity.ok(result);
     }
 
     @GetMapping("/group/{groupId}")
-    public ResponseEntity<List<ExpenseDto>> getExpensesByGroup(@PathVariable Long groupId) throws ExpenseException {
-        List<ExpenseDto> expenses = expenseService.getExpensesByGroup(groupId);
-        return ResponseEntity.ok(expenses);
+    public ResponseEntity<List<ExpenseDto>> getExpensesByGroup(@PathVariable Long groupId,
+                                                               ExpenseFilterDto filter,
+                                                               @RequestParam(defaultValue = "0") int page,
+                                                               @RequestParam(defaultValue = "50") int size,
+                                                               @RequestParam(required = false) List<String> sort) throws ExpenseException {
+        Page<ExpenseDto> expenses = expenseService.getExpensesByGroup(groupId, filter, pageRequest(page, size, sort));
+        return pageResponse(expenses);
     }
 
     @PutMapping("/{expenseId}")
@@ -55,4 +106,38 @@ public class ExpenseController {
         expenseService.deleteExpense(expenseId);
         return ResponseEntity.ok("Expense deleted successfully");
     }
+
+    // The page's expenses as a plain array; the total goes in X-Total-Count and the neighbouring pages in Link
+    private static ResponseEntity<List<ExpenseDto>> pageResponse(Page<ExpenseDto> page) {
+        List<String> links = new ArrayList<>();
+        if (page.hasPrevious()) {
+            links.add(pageLink(page.getNumber() - 1, "prev"));
+        }
+        if (page.hasNext()) {
+            links.add(pageLink(page.getNumber() + 1, "next"));
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(TOTAL_COUNT_HEADER, String.valueOf(page.getTotalElements()));
+        if (!links.isEmpty()) {
+            response.header(HttpHeaders.LINK, String.join(", ", links));
+        }
+        return response.body(page.getContent());
+    }
+
+    private static String pageLink(int page, String rel) {
+        String uri = ServletUriComponentsBuilder.fromCurrentRequest().replaceQueryParam("page", page).toUriString();
+        return "<" + uri + ">; rel=\"" + rel + "\"";
+    }
+
+    private static PageRequest pageRequest(int page, int size, List<String> sort) {
+        List<Sort.Order> orders = new ArrayList<>();
+        if (sort != null) {
+            for (String value : sort) {
+                String[] parts = value.split(",");
+                boolean ascending = parts.length > 1 && parts[1].trim().equalsIgnoreCase("asc");
+                orders.add(ascending ? Sort.Order.asc(parts[0].trim()) : Sort.Order.desc(parts[0].trim()));
+            }
+        }
+        return PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE), Sort.by(orders));
+    }
 }
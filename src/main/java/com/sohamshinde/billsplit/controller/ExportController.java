@@ -0,0 +1,97 @@
+package com.sohamshinde.billsplit.controller;
+
+import com.sohamshinde.billsplit.exceptions.GroupException;
+import com.sohamshinde.billsplit.service.LedgerExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Map;
+
+/**
+ * Ledger exports as CSV downloads.
+ *
+ * Exports are written on a small pool owned by this controller, so a burst of large ledgers holds at most
+ * {@code export.max-concurrent} database connections and never competes with the application's other async
+ * work. Once the pool and its queue are full, further exports are answered with 503 and Retry-After.
+ */
+@RestController
+@RequestMapping("/api/export")
+public class ExportController {
+
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
+
+    private final LedgerExportService ledgerExportService;
+    private final ThreadPoolTaskExecutor executor;
+    private final long timeoutMs;
+
+    public ExportController(LedgerExportService ledgerExportService,
+                            @Value("${export.max-concurrent:4}") int maxConcurrent,
+                            @Value("${export.queue-capacity:16}") int queueCapacity,
+                            @Value("${export.timeout-ms:1800000}") long timeoutMs) {
+        this.ledgerExportService = ledgerExportService;
+        this.timeoutMs = timeoutMs; // Long enough for multi-year ledgers
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrent);
+        executor.setMaxPoolSize(maxConcurrent);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("export-");
+        executor.setDaemon(true);
+        executor.initialize();
+    }
+
+    // Full ledger of a group as CSV (Only members can access)
+    @GetMapping("/group/{groupId}")
+    @ResponseStatus(HttpStatus.OK) // The task writes the body itself; there is no return value to render
+    public WebAsyncTask<Void> exportGroupLedger(@PathVariable Long groupId, HttpServletResponse response) {
+        return csv(response, "group-" + groupId + "-ledger.csv", ledgerExportService.exportGroupLedger(groupId));
+    }
+
+    // Every expense the logged-in user pays for or takes part in, as CSV
+    @GetMapping("/my")
+    @ResponseStatus(HttpStatus.OK)
+    public WebAsyncTask<Void> exportMyLedger(HttpServletResponse response) {
+        return csv(response, "my-ledger.csv", ledgerExportService.exportUserLedger());
+    }
+
+    // Headers are only set once the task runs, so a rejected export can still be answered with an error
+    private WebAsyncTask<Void> csv(HttpServletResponse response, String fileName, StreamingResponseBody body) {
+        return new WebAsyncTask<>(timeoutMs, executor, () -> {
+            response.setContentType(TEXT_CSV.toString());
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"");
+            body.writeTo(response.getOutputStream());
+            response.flushBuffer();
+            return null;
+        });
+    }
+
+    // Same mapping as GroupController: group lookups and membership checks answer 403
+    @ExceptionHandler(GroupException.class)
+    public ResponseEntity<String> handleGroupException(GroupException ex) {
+        return ResponseEntity.status(403).body(ex.getMessage());
+    }
+
+    // Every export slot and queue place is taken: the client may retry once one finishes
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<Map<String, String>> handleTaskRejectedException(TaskRejectedException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "30")
+                .body(Map.of(
+                        "error", "Service overloaded",
+                        "message", "Too many exports are running. Please retry shortly."
+                ));
+    }
+}
@@ -1,16 +1,23 @@
 package com.sohamshinde.billsplit.controller;
 
+import com.sohamshinde.billsplit.dto.GroupDetailDto;
 import com.sohamshinde.billsplit.dto.GroupDto;
-import com.sohamshinde.billsplit.entity.Group;
+import com.sohamshinde.billsplit.dto.GroupMemberDto;
+import com.sohamshinde.billsplit.dto.GroupSummaryDto;
+import com.sohamshinde.billsplit.dto.MemberImportResultDto;
 import com.sohamshinde.billsplit.exceptions.GroupException;
 import com.sohamshinde.billsplit.service.GroupService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 
 @Controller
@@ -32,18 +39,34 @@ public class GroupController {
         return ResponseEntity.ok("Group created successfully.");
     }
 
-    // Get all groups for the logged-in user
+    private static final int MAX_PAGE_SIZE = 200;
+
+    // Get summaries of all groups for the logged-in user
     @GetMapping
-    public ResponseEntity<List<Group>> getAllGroupsForAuthenticatedUser() {
-        List<Group> groups = groupService.getAllGroupsForAuthenticatedUser();
+    public ResponseEntity<List<GroupSummaryDto>> getAllGroupsForAuthenticatedUser() {
+        List<GroupSummaryDto> groups = groupService.getGroupSummariesForAuthenticatedUser();
         return ResponseEntity.ok(groups);
     }
 
+    // Get a page of group members (Only members can access)
+    @GetMapping("/{groupId}/members")
+    public ResponseEntity<?> getGroupMembers(@PathVariable Long groupId,
+                                             @RequestParam(defaultValue = "0") int page,
+                                             @RequestParam(defaultValue = "50") int size) {
+        try {
+            Page<GroupMemberDto> members = groupService.getGroupMembers(groupId,
+                    PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE)));
+            return ResponseEntity.ok(members);
+        } catch (GroupException ex) {
+            return ResponseEntity.status(403).body(ex.getMessage());
+        }
+    }
+
     // Get group details (Only members can access)
     @GetMapping("/{groupId}")
     public ResponseEntity<?> getGroupById(@PathVariable Long groupId) {
         try {
-            Group group = groupService.fetchGroupById(groupId);
+            GroupDetailDto group = groupService.getGroupDetails(groupId);
             return ResponseEntity.ok(group);
         } catch (GroupException ex) {
             return ResponseEntity.status(403).body(ex.getMessage());
@@ -61,6 +84,39 @@ public class GroupController {
         }
     }
 
+    // Add members to a group; existing members are left untouched (Only the creator can perform this action)
+    @PostMapping("/{groupId}/members")
+    public ResponseEntity<String> addMembers(@PathVariable Long groupId, @RequestBody List<Long> memberIds) {
+        try {
+            int added = groupService.addMembers(groupId, memberIds);
+            return ResponseEntity.ok(added + " member(s) added.");
+        } catch (GroupException ex) {
+            return ResponseEntity.status(403).body(ex.getMessage());
+        }
+    }
+
+    // Remove members from a group (Only the creator can perform this action)
+    @PostMapping("/{groupId}/members/remove")
+    public ResponseEntity<String> removeMembers(@PathVariable Long groupId, @RequestBody List<Long> memberIds) {
+        try {
+            int removed = groupService.removeMembers(groupId, memberIds);
+            return ResponseEntity.ok(removed + " member(s) removed.");
+        } catch (GroupException ex) {
+            return ResponseEntity.status(403).body(ex.getMessage());
+        }
+    }
+
+    // Bulk import of a large JSON array of user IDs, read from the request stream in batches
+    @PostMapping(value = "/{groupId}/members/import", consumes = "application/json")
+    public ResponseEntity<?> importMembers(@PathVariable Long groupId, HttpServletRequest request) throws IOException {
+        try {
+            MemberImportResultDto result = groupService.importMembers(groupId, request.getInputStream());
+            return ResponseEntity.ok(result);
+        } catch (GroupException ex) {
+            return ResponseEntity.status(403).body(ex.getMessage());
+        }
+    }
+
     // Delete a group (Only the creator can perform this action)
     @DeleteMapping("/{groupId}")
     public ResponseEntity<String> deleteGroup(@PathVariable Long groupId) {
@@ -0,0 +1,40 @@
+package com.sohamshinde.billsplit.controller;
+
+import com.sohamshinde.billsplit.dto.RecurringExpenseDto;
+import com.sohamshinde.billsplit.exceptions.ExpenseException;
+import com.sohamshinde.billsplit.service.RecurringExpenseService;
+import jakarta.validation.Valid;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/expenses/recurring")
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class RecurringExpenseController {
+
+    RecurringExpenseService recurringExpenseService;
+
+    @PostMapping
+    public ResponseEntity<RecurringExpenseDto> createRecurringExpense(@Valid @RequestBody RecurringExpenseDto recurringExpenseDto) throws ExpenseException {
+        RecurringExpenseDto created = recurringExpenseService.createTemplate(recurringExpenseDto);
+        return ResponseEntity.status(HttpStatus.CREATED).body(created);
+    }
+
+    @GetMapping
+    public ResponseEntity<List<RecurringExpenseDto>> getMyRecurringExpenses() {
+        return ResponseEntity.ok(recurringExpenseService.getTemplatesForAuthenticatedUser());
+    }
+
+    @DeleteMapping("/{templateId}")
+    public ResponseEntity<String> stopRecurringExpense(@PathVariable Long templateId) throws ExpenseException {
+        recurringExpenseService.deactivateTemplate(templateId);
+        return ResponseEntity.ok("Recurring expense stopped successfully");
+    }
+}
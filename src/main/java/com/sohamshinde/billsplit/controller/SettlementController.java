@@ -0,0 +1,51 @@
+package com.sohamshinde.billsplit.controller;
+
+import com.sohamshinde.billsplit.dto.BalanceDto;
+import com.sohamshinde.billsplit.dto.SettlementDto;
+import com.sohamshinde.billsplit.exceptions.GroupException;
+import com.sohamshinde.billsplit.service.SettlementService;
+import jakarta.validation.Valid;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/settlements")
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class SettlementController {
+
+    SettlementService settlementService;
+
+    @PostMapping
+    public ResponseEntity<SettlementDto> recordSettlement(@Valid @RequestBody SettlementDto settlementDto,
+                                                          @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return ResponseEntity.ok(settlementService.recordSettlement(settlementDto, idempotencyKey));
+    }
+
+    @PostMapping("/group/{groupId}/settle-all")
+    public ResponseEntity<List<SettlementDto>> settleGroup(@PathVariable Long groupId,
+                                                           @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return ResponseEntity.ok(settlementService.settleGroup(groupId, idempotencyKey));
+    }
+
+    @GetMapping("/group/{groupId}")
+    public ResponseEntity<List<SettlementDto>> getSettlementsForGroup(@PathVariable Long groupId) {
+        return ResponseEntity.ok(settlementService.getSettlementsForGroup(groupId));
+    }
+
+    @GetMapping("/group/{groupId}/balances")
+    public ResponseEntity<List<BalanceDto>> getBalancesForGroup(@PathVariable Long groupId) {
+        return ResponseEntity.ok(settlementService.getBalancesForGroup(groupId));
+    }
+
+    // Same mapping as GroupController: group lookups and membership checks answer 403
+    @ExceptionHandler(GroupException.class)
+    public ResponseEntity<String> handleGroupException(GroupException ex) {
+        return ResponseEntity.status(403).body(ex.getMessage());
+    }
+}
@@ -1,11 +1,15 @@
 package com.sohamshinde.billsplit.controller;
 
+import com.sohamshinde.billsplit.dto.BulkRegistrationDto;
+import com.sohamshinde.billsplit.dto.BulkRegistrationResultDto;
 import com.sohamshinde.billsplit.dto.UserDetailDto;
 import com.sohamshinde.billsplit.dto.UserRegistrationDto;
 import com.sohamshinde.billsplit.dto.UserUpdateDto;
 import com.sohamshinde.billsplit.entity.User;
 import com.sohamshinde.billsplit.exceptions.ResourceNotFoundException;
+import com.sohamshinde.billsplit.service.BulkRegistrationService;
 import com.sohamshinde.billsplit.service.UserService;
+import com.sohamshinde.billsplit.utils.AuthUtil;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -21,9 +25,11 @@ import org.springframework.web.bind.annotation.*;
 public class UserController {
 
     private UserService userService;
+    private BulkRegistrationService bulkRegistrationService;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, BulkRegistrationService bulkRegistrationService) {
         this.userService = userService;
+        this.bulkRegistrationService = bulkRegistrationService;
     }
 
     // Registration endpoint
@@ -35,6 +41,13 @@ public class UserController {
                 .body("User registered successfully. Please check your email for verification.");
     }
 
+    // Bulk registration (e.g. onboarding a company's employees); every account still verifies its own email
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkRegistrationResultDto> registerUsers(@RequestBody @Valid BulkRegistrationDto bulkRegistrationDto) {
+        BulkRegistrationResultDto result = bulkRegistrationService.registerUsers(bulkRegistrationDto.getUsers());
+        return ResponseEntity.status(HttpStatus.CREATED).body(result);
+    }
+
     // Email verification endpoint
     @GetMapping("/verify")
     public ResponseEntity<String> verifyEmail(@RequestParam("token") String token) {
@@ -60,16 +73,14 @@ public class UserController {
     // ✅ Update User Info (Only for Authenticated Users)
     @PutMapping
     public ResponseEntity<String> updateUser(@RequestBody @Valid UserUpdateDto userUpdateDto) {
-        User authenticatedUser = userService.getAuthenticatedUser();
-        userService.updateUser(authenticatedUser.getId(), userUpdateDto);
+        userService.updateUser(AuthUtil.getAuthenticatedUserId(), userUpdateDto);
         return ResponseEntity.ok("User updated successfully.");
     }
 
     // ✅ Deactivate Account (Soft Delete)
     @DeleteMapping
     public ResponseEntity<String> deactivateAccount() {
-        User authenticatedUser = userService.getAuthenticatedUser();
-        userService.deactivateUser(authenticatedUser.getId());
+        userService.deactivateUser(AuthUtil.getAuthenticatedUserId());
 
         // Logout the user (invalidate session)
         SecurityContextHolder.clearContext();
@@ -0,0 +1,15 @@
+package com.sohamshinde.billsplit.dto;
+
+import com.sohamshinde.billsplit.enums.Currency;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+public class BalanceDto {
+    private Long userId;
+    private Currency currency;
+    private BigDecimal balance; // Positive: the member is owed money
+}
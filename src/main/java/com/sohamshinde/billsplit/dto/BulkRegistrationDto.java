@@ -0,0 +1,24 @@
+package com.sohamshinde.billsplit.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Builder
+@Data
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@NoArgsConstructor
+public class BulkRegistrationDto {
+
+    @NotEmpty(message = "At least one user is required.")
+    @Valid
+    List<UserRegistrationDto> users;
+}
@@ -0,0 +1,25 @@
+package com.sohamshinde.billsplit.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Builder
+@Data
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@NoArgsConstructor
+public class BulkRegistrationResultDto {
+
+    int received;
+
+    int registered;
+
+    // Already registered, or listed more than once in the request
+    List<String> skippedEmails;
+}
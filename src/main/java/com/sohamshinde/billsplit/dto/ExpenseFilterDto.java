@@ -0,0 +1,42 @@
+package com.sohamshinde.billsplit.dto;
+
+import com.sohamshinde.billsplit.enums.Currency;
+import com.sohamshinde.billsplit.enums.ExpenseCategory;
+import com.sohamshinde.billsplit.enums.ExpenseStatus;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Optional filters of the expense list endpoints; null fields are not applied
+@Builder
+@Data
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@NoArgsConstructor
+public class ExpenseFilterDto {
+
+    ExpenseStatus status;
+
+    ExpenseCategory category;
+
+    Currency currency;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    LocalDateTime from; // Inclusive, on createdAt
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    LocalDateTime to; // Exclusive, on createdAt
+
+    BigDecimal minAmount;
+
+    BigDecimal maxAmount;
+
+    Boolean includeArchived; // Settled expenses moved out by the archival job; included unless false
+}
@@ -0,0 +1,23 @@
+package com.sohamshinde.billsplit.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+@Builder
+@Data
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@NoArgsConstructor
+public class ExpenseSearchHitDto {
+
+    Long id;
+
+    // Text-search relevance; 0 when the search has no text
+    float rank;
+
+    ExpenseDto expense;
+}
@@ -0,0 +1,23 @@
+package com.sohamshinde.billsplit.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Builder
+@Data
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@NoArgsConstructor
+public class ExpenseSearchResultDto {
+
+    List<ExpenseSearchHitDto> hits;
+
+    // Pass back as "after" to get the next page; null on the last page
+    String nextCursor;
+}
@@ -0,0 +1,27 @@
+package com.sohamshinde.billsplit.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+// A group with its creator and full member list; large groups are better read page by page from /members
+@Builder
+@Data
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@NoArgsConstructor
+public class GroupDetailDto {
+
+    Long id;
+
+    String groupName;
+
+    GroupMemberDto createdBy;
+
+    List<GroupMemberDto> members;
+}
@@ -0,0 +1,33 @@
+package com.sohamshinde.billsplit.dto;
+
+import com.sohamshinde.billsplit.enums.Currency;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Builder
+@Data
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@NoArgsConstructor
+public class GroupSummaryDto {
+
+    Long id;
+
+    String groupName;
+
+    long memberCount;
+
+    // Latest change to the group, its expenses or its settlements
+    LocalDateTime lastActivityAt;
+
+    // The caller's balance per currency; positive means the caller is owed money
+    Map<Currency, BigDecimal> balances;
+}
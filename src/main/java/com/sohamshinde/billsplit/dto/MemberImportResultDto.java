@@ -0,0 +1,23 @@
+package com.sohamshinde.billsplit.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+@Builder
+@Data
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@NoArgsConstructor
+public class MemberImportResultDto {
+
+    long received;
+
+    // Rows actually inserted; unknown IDs and existing members are skipped
+    long added;
+
+    int batches;
+}
@@ -0,0 +1,66 @@
+package com.sohamshinde.billsplit.dto;
+
+import com.sohamshinde.billsplit.enums.Currency;
+import com.sohamshinde.billsplit.enums.ExpenseCategory;
+import com.sohamshinde.billsplit.enums.SplitType;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Builder
+@Data
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@NoArgsConstructor
+public class RecurringExpenseDto {
+
+    Long id; // Populated in responses only
+
+    @NotNull(message = "Amount cannot be null")
+    @PositiveOrZero(message = "Amount cannot be negative")
+    BigDecimal amount;
+
+    @NotNull(message = "Currency must be provided")
+    @Enumerated(EnumType.STRING)
+    Currency currency;
+
+    @Size(max = 255, message = "Description cannot exceed 255 characters")
+    String description;
+
+    @NotNull(message = "Payer ID cannot be null")
+    Long payerId;
+
+    List<Long> participantIds; // Optional if using group-based sharing
+
+    Long groupId; // Optional for group-based expenses
+
+    @NotNull(message = "Split type must be provided")
+    @Enumerated(EnumType.STRING)
+    SplitType splitType;
+
+    Map<Long, BigDecimal> participantShares;
+
+    @NotNull(message = "Expense category must be provided")
+    @Enumerated(EnumType.STRING)
+    ExpenseCategory category;
+
+    // Spring cron format (second minute hour day-of-month month day-of-week) or a macro such as @monthly
+    @NotBlank(message = "Cron expression must be provided")
+    String cronExpression;
+
+    LocalDateTime startAt; // Optional, defaults to now
+
+    LocalDateTime nextRunAt; // Populated in responses only
+
+    Boolean active; // Populated in responses only
+}
@@ -0,0 +1,41 @@
+package com.sohamshinde.billsplit.dto;
+
+import com.sohamshinde.billsplit.enums.Currency;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Builder
+@Data
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@NoArgsConstructor
+public class SettlementDto {
+
+    Long id; // Populated in responses only
+
+    @NotNull(message = "Group ID cannot be null")
+    Long groupId;
+
+    @NotNull(message = "Payer ID cannot be null")
+    Long payerId;
+
+    @NotNull(message = "Payee ID cannot be null")
+    Long payeeId;
+
+    @NotNull(message = "Amount cannot be null")
+    @Positive(message = "Amount must be positive")
+    BigDecimal amount;
+
+    @NotNull(message = "Currency must be provided")
+    @Enumerated(EnumType.STRING)
+    Currency currency;
+
+    LocalDateTime createdAt; // Populated in responses only
+}
@@ -0,0 +1,67 @@
+package com.sohamshinde.billsplit.entity;
+
+import com.sohamshinde.billsplit.dto.ExpenseDto;
+import com.sohamshinde.billsplit.enums.Currency;
+import com.sohamshinde.billsplit.enums.ExpenseCategory;
+import com.sohamshinde.billsplit.enums.ExpenseStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A settled expense moved out of the hot expense tables by the archival job.
+ * The full expense, including participants and shares, is kept as one JSON document;
+ * only the columns needed to find, filter and sort it again are stored separately, under the same names as on
+ * {@link Expense}, so the list filters apply to both.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "expense_archive", indexes = {
+        @Index(name = "idx_expense_archive_group", columnList = "group_id"),
+        @Index(name = "idx_expense_archive_payer", columnList = "payer_id")
+})
+public class ArchivedExpense {
+
+    @Id
+    private Long id; // The ID the expense had while active
+
+    @Column(name = "group_id")
+    private Long groupId;
+
+    @Column(name = "payer_id")
+    private Long payerId;
+
+    // GIN-indexed, for lookups by participant
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "participant_ids", columnDefinition = "bigint[]")
+    private Long[] participantIds;
+
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    private Currency currency;
+
+    @Enumerated(EnumType.STRING)
+    private ExpenseStatus status;
+
+    @Enumerated(EnumType.STRING)
+    private ExpenseCategory category;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(nullable = false, columnDefinition = "jsonb")
+    private ExpenseDto document;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime archivedAt;
+}
@@ -10,19 +10,34 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Entity
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-
+@DynamicUpdate // Edits write only changed columns, so a packed participant array is not rewritten on every update
+@Table(uniqueConstraints = @UniqueConstraint(
+        name = "uk_expense_recurring_occurrence",
+        columnNames = {"recurring_expense_id", "occurrence_at"}),
+        // Scope column first, then the filter, then created_at for the default newest-first order
+        indexes = {
+                @Index(name = "idx_expense_group_created", columnList = "group_id, created_at"),
+                @Index(name = "idx_expense_group_status_created", columnList = "group_id, status, created_at"),
+                @Index(name = "idx_expense_group_category_created", columnList = "group_id, category, created_at"),
+                @Index(name = "idx_expense_payer_created", columnList = "payer_id, created_at"),
+                @Index(name = "idx_expense_payer_status_created", columnList = "payer_id, status, created_at"),
+                @Index(name = "idx_expense_updated", columnList = "updated_at") // Incremental analytics export
+        })
 public class Expense {
 
     @Id
@@ -46,9 +61,10 @@ public class Expense {
     @JoinTable(
             name = "expense_participants",
             joinColumns = @JoinColumn(name = "expense_id"),
-            inverseJoinColumns = @JoinColumn(name = "user_id")
+            inverseJoinColumns = @JoinColumn(name = "user_id"),
+            indexes = @Index(name = "idx_expense_participants_user", columnList = "user_id, expense_id")
     )
-    private List<User> participants;
+    private Set<User> participants; // A set, so Hibernate writes membership changes row by row instead of recreating the bag
 
     @ManyToOne
     @JoinColumn(name = "group_id")
@@ -64,6 +80,18 @@ public class Expense {
     @Column(name = "share")
     private Map<User, BigDecimal> participantShares = new HashMap<>(); // Map of participant to share amount/percentage
 
+    // Compact form of large EQUAL splits, used instead of participants and participantShares (see ExpenseSplits):
+    // the sorted participant IDs, the share each of them owes, and how many of the first IDs owe one cent more
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "participant_ids", columnDefinition = "bigint[]")
+    private Long[] packedParticipantIds;
+
+    @Column(name = "equal_share_base", precision = 19, scale = 2)
+    private BigDecimal equalShareBase;
+
+    @Column(name = "equal_share_remainder")
+    private Integer equalShareRemainder;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private ExpenseStatus status;
@@ -72,6 +100,14 @@ public class Expense {
     @Column(nullable = false)
     private ExpenseCategory category;
 
+    // Set only for expenses materialized from a RecurringExpense template; the unique
+    // constraint on (recurring_expense_id, occurrence_at) makes each occurrence idempotent.
+    @Column(name = "recurring_expense_id")
+    private Long recurringExpenseId;
+
+    @Column(name = "occurrence_at")
+    private LocalDateTime occurrenceAt;
+
     @JsonIgnore
     private LocalDateTime createdAt;
 
@@ -0,0 +1,34 @@
+package com.sohamshinde.billsplit.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Tombstone of a deleted expense, so the incremental analytics export can tell readers to drop it
+ * (see AnalyticsSnapshotService). Group and creation time are kept to place it in the expense's partition.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "expense_deletion", indexes = @Index(name = "idx_expense_deletion_deleted", columnList = "deleted_at"))
+public class ExpenseDeletion {
+
+    @Id
+    @Column(name = "expense_id")
+    private Long expenseId;
+
+    @Column(name = "group_id")
+    private Long groupId;
+
+    private LocalDateTime createdAt;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+}
@@ -24,7 +24,12 @@ public class Group {
     @NonNull
     private String groupName;
 
+    // Set semantics are enforced by the unique key; membership changes go through GroupRepository's delta queries
     @ManyToMany
+    @JoinTable(name = "user_group_members",
+            joinColumns = @JoinColumn(name = "group_id"),
+            inverseJoinColumns = @JoinColumn(name = "members_id"),
+            uniqueConstraints = @UniqueConstraint(name = "uk_user_group_members", columnNames = {"group_id", "members_id"}))
     private List<User> members = new ArrayList<>();
 
     @ManyToOne
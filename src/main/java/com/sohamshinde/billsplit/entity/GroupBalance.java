@@ -0,0 +1,41 @@
+package com.sohamshinde.billsplit.entity;
+
+import com.sohamshinde.billsplit.enums.Currency;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Net position of a member within a group, per currency. Positive means the member is owed money.
+ * Rows are only changed through atomic increments, so concurrent expenses and settlements never
+ * lose updates and never need to lock expense rows.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "group_balance", uniqueConstraints = @UniqueConstraint(
+        name = "uk_group_balance_member_currency",
+        columnNames = {"group_id", "user_id", "currency"}))
+public class GroupBalance {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "group_id", nullable = false)
+    private Long groupId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Currency currency;
+
+    @Column(nullable = false)
+    private BigDecimal balance;
+}
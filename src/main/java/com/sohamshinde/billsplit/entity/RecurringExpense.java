@@ -0,0 +1,110 @@
+package com.sohamshinde.billsplit.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.sohamshinde.billsplit.enums.Currency;
+import com.sohamshinde.billsplit.enums.ExpenseCategory;
+import com.sohamshinde.billsplit.enums.SplitType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Template for an expense that repeats on a cron schedule (rent, subscriptions, utilities).
+ * The scheduler only ever looks at active templates whose {@code nextRunAt} has passed,
+ * so the (active, next_run_at) index keeps each poll proportional to the due work.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "recurring_expense", indexes = @Index(name = "idx_recurring_expense_due", columnList = "active, next_run_at"))
+public class RecurringExpense {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Currency currency;
+
+    private String description;
+
+    @ManyToOne
+    @JoinColumn(name = "payer_id", nullable = false)
+    private User payer;
+
+    // Used only when no group is set; group templates resolve members at each occurrence
+    @ManyToMany
+    @JoinTable(
+            name = "recurring_expense_participants",
+            joinColumns = @JoinColumn(name = "recurring_expense_id"),
+            inverseJoinColumns = @JoinColumn(name = "user_id")
+    )
+    private List<User> participants;
+
+    @ManyToOne
+    @JoinColumn(name = "group_id")
+    private Group group;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private SplitType splitType;
+
+    // Raw shares as submitted (participant ID -> exact amount or percentage)
+    @ElementCollection
+    @CollectionTable(name = "recurring_expense_shares", joinColumns = @JoinColumn(name = "recurring_expense_id"))
+    @MapKeyColumn(name = "user_id")
+    @Column(name = "share")
+    @Builder.Default
+    private Map<Long, BigDecimal> participantShares = new HashMap<>();
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ExpenseCategory category;
+
+    @Column(nullable = false)
+    private String cronExpression;
+
+    @Column(name = "next_run_at")
+    private LocalDateTime nextRunAt;
+
+    private LocalDateTime lastRunAt;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private boolean active = true;
+
+    @ManyToOne
+    @JoinColumn(name = "created_by", nullable = false)
+    private User createdBy;
+
+    @JsonIgnore
+    private LocalDateTime createdAt;
+
+    @JsonIgnore
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,73 @@
+package com.sohamshinde.billsplit.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.sohamshinde.billsplit.enums.Currency;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A repayment from one group member to another. Settlements never edit expenses;
+ * they only move the derived balances in {@link GroupBalance}.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "settlement", indexes = {
+        @Index(name = "idx_settlement_group", columnList = "group_id"),
+        @Index(name = "idx_settlement_batch_key", columnList = "batch_key")
+})
+public class Settlement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne
+    @JoinColumn(name = "group_id", nullable = false)
+    private Group group;
+
+    // The member paying money back
+    @ManyToOne
+    @JoinColumn(name = "payer_id", nullable = false)
+    private User payer;
+
+    // The member receiving the money
+    @ManyToOne
+    @JoinColumn(name = "payee_id", nullable = false)
+    private User payee;
+
+    @Column(nullable = false)
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Currency currency;
+
+    @ManyToOne
+    @JoinColumn(name = "created_by", nullable = false)
+    private User createdBy;
+
+    // Client supplied key of a single payment; the unique constraint rejects concurrent duplicates
+    @Column(name = "idempotency_key", unique = true)
+    private String idempotencyKey;
+
+    // Client supplied key shared by all transfers of one settle-all run
+    @Column(name = "batch_key")
+    private String batchKey;
+
+    @JsonIgnore
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
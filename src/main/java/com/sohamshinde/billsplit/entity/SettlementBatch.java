@@ -0,0 +1,44 @@
+package com.sohamshinde.billsplit.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One settle-all run started with an Idempotency-Key. The row is inserted before any transfer is
+ * computed, so a concurrent retry with the same key fails on the unique key and replays this run,
+ * including runs that produced no transfers at all.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "settlement_batch")
+public class SettlementBatch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Shared with the batch's transfers (Settlement.batchKey)
+    @Column(name = "batch_key", nullable = false, unique = true)
+    private String batchKey;
+
+    @Column(name = "group_id", nullable = false)
+    private Long groupId;
+
+    @Column(name = "created_by", nullable = false)
+    private Long createdBy;
+
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
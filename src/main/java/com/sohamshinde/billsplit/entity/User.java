@@ -54,7 +54,7 @@ public class User implements Serializable, UserDetails {
 
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
-    private Role role; // Either USER or LENDER
+    private Role role; // USER, LENDER or ADMIN
 
     @Column(name = "created_at", updatable = false)
     @JsonIgnore
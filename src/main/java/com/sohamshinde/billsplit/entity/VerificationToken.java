@@ -9,7 +9,8 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "verification_token")
+@Table(name = "verification_token",
+        indexes = @Index(name = "idx_verification_token_expires", columnList = "expires_at")) // Purge batches
 public class VerificationToken {
 
     @Id
@@ -2,5 +2,6 @@ package com.sohamshinde.billsplit.enums;
 
 public enum Role {
     USER,
-    LENDER
+    LENDER,
+    ADMIN // Operators; onboards users in bulk
 }
\ No newline at end of file
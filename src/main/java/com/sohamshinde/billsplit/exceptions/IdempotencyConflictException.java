@@ -0,0 +1,7 @@
+package com.sohamshinde.billsplit.exceptions;
+
+public class IdempotencyConflictException extends RuntimeException {
+    public IdempotencyConflictException(String message) {
+        super(message);
+    }
+}
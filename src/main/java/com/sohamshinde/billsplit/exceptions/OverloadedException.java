@@ -0,0 +1,7 @@
+package com.sohamshinde.billsplit.exceptions;
+
+public class OverloadedException extends RuntimeException {
+    public OverloadedException(String message) {
+        super(message);
+    }
+}
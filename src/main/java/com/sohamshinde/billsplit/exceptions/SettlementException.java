@@ -0,0 +1,7 @@
+package com.sohamshinde.billsplit.exceptions;
+
+public class SettlementException extends RuntimeException {
+    public SettlementException(String message) {
+        super(message);
+    }
+}
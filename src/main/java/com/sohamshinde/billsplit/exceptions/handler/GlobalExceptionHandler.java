@@ -1,9 +1,14 @@
 package com.sohamshinde.billsplit.exceptions.handler;
 
 import com.sohamshinde.billsplit.exceptions.ExpenseException;
+import com.sohamshinde.billsplit.exceptions.IdempotencyConflictException;
 import com.sohamshinde.billsplit.exceptions.InvalidTokenException;
+import com.sohamshinde.billsplit.exceptions.OverloadedException;
+import com.sohamshinde.billsplit.exceptions.ResourceNotFoundException;
+import com.sohamshinde.billsplit.exceptions.SettlementException;
 import com.sohamshinde.billsplit.exceptions.UserAlreadyExistsException;
 import com.sohamshinde.billsplit.exceptions.UserNotFoundException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -44,6 +49,15 @@ public class GlobalExceptionHandler {
         ));
     }
 
+    // Also thrown when the security context holds no authenticated user
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ResponseEntity<Map<String, String>> handleResourceNotFoundException(ResourceNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+                "error", "Resource not found",
+                "message", ex.getMessage()
+        ));
+    }
+
     @ExceptionHandler(ExpenseException.class)
     public ResponseEntity<Map<String, String>> handleExpenseException(ExpenseException ex) {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of(
@@ -52,6 +66,33 @@ public class GlobalExceptionHandler {
         ));
     }
 
+    @ExceptionHandler(SettlementException.class)
+    public ResponseEntity<Map<String, String>> handleSettlementException(SettlementException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of(
+                "error", "Settlement processing error",
+                "message", ex.getMessage()
+        ));
+    }
+
+    @ExceptionHandler(IdempotencyConflictException.class)
+    public ResponseEntity<Map<String, String>> handleIdempotencyConflictException(IdempotencyConflictException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                "error", "Idempotency key conflict",
+                "message", ex.getMessage()
+        ));
+    }
+
+    // Load shedding: the client may retry after a short pause
+    @ExceptionHandler(OverloadedException.class)
+    public ResponseEntity<Map<String, String>> handleOverloadedException(OverloadedException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of(
+                        "error", "Service overloaded",
+                        "message", ex.getMessage()
+                ));
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, Object>> handleValidationException(MethodArgumentNotValidException ex) {
         Map<String, Object> response = Map.of(
@@ -0,0 +1,81 @@
+package com.sohamshinde.billsplit.profiling;
+
+import org.hibernate.HibernateException;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.FlushEvent;
+import org.hibernate.event.spi.FlushEventListener;
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.LoadEvent;
+import org.hibernate.event.spi.LoadEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+/**
+ * Times work Hibernate does outside repository calls: lazy collections and proxies initialized while
+ * DTOs are built count as LAZY_LOADING, flushes at commit as HIBERNATE.
+ *
+ * Each event gets a listener in front of Hibernate's own that enters the phase and one behind it that
+ * leaves it again. If Hibernate's listener throws, the phase is left by whoever entered the enclosing one.
+ */
+public class HibernateProfilingIntegrator implements Integrator {
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.prependListeners(EventType.INIT_COLLECTION, new Listener(true));
+        registry.appendListeners(EventType.INIT_COLLECTION, new Listener(false));
+        registry.prependListeners(EventType.LOAD, new Listener(true));
+        registry.appendListeners(EventType.LOAD, new Listener(false));
+        registry.prependListeners(EventType.FLUSH, new Listener(true));
+        registry.appendListeners(EventType.FLUSH, new Listener(false));
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+
+    private static final class Listener implements InitializeCollectionEventListener, LoadEventListener, FlushEventListener {
+
+        private final boolean before;
+
+        Listener(boolean before) {
+            this.before = before;
+        }
+
+        @Override
+        public void onInitializeCollection(InitializeCollectionEvent event) throws HibernateException {
+            mark(lazyPhase());
+        }
+
+        // Only proxy initialization; find() and query loads already run inside a repository call
+        @Override
+        public void onLoad(LoadEvent event, LoadType loadType) throws HibernateException {
+            if (loadType == LoadEventListener.IMMEDIATE_LOAD) {
+                mark(lazyPhase());
+            }
+        }
+
+        @Override
+        public void onFlush(FlushEvent event) throws HibernateException {
+            mark(RequestPhase.HIBERNATE);
+        }
+
+        private void mark(RequestPhase phase) {
+            if (before) {
+                RequestProfile.enter(phase);
+            } else {
+                RequestProfile.exitInnermost();
+            }
+        }
+
+        // A collection touched by Hibernate itself during a repository call is part of that call
+        private static RequestPhase lazyPhase() {
+            return RequestProfile.currentPhase() == RequestPhase.HIBERNATE ? RequestPhase.HIBERNATE : RequestPhase.LAZY_LOADING;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.sohamshinde.billsplit.profiling;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with power-of-two microsecond buckets: bucket 0 holds everything under
+ * 1 µs, bucket i everything below 2^i µs. Percentiles are reported as the upper bound of their bucket,
+ * so they overstate by at most a factor of two, which is enough to tell a 3 ms phase from a 300 ms one.
+ */
+final class PhaseHistogram {
+
+    // 2^40 µs is about 12 days
+    private static final int BUCKETS = 41;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    void record(long nanos) {
+        long micros = nanos / 1000;
+        int bucket = micros == 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        buckets.incrementAndGet(bucket);
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    long count() {
+        return count.sum();
+    }
+
+    // Upper bound in ms of the bucket holding the given quantile
+    double percentileMillis(double quantile) {
+        long total = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = buckets.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return (1L << i) / 1000.0;
+            }
+        }
+        return (1L << (BUCKETS - 1)) / 1000.0;
+    }
+
+    Map<String, Object> snapshot() {
+        long n = count.sum();
+        long total = totalNanos.sum();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("count", n);
+        result.put("totalMs", toMillis(total));
+        result.put("meanMs", n == 0 ? 0.0 : toMillis(total / n));
+        result.put("p50Ms", percentileMillis(0.50));
+        result.put("p90Ms", percentileMillis(0.90));
+        result.put("p99Ms", percentileMillis(0.99));
+        result.put("maxMs", toMillis(maxNanos.get()));
+        return result;
+    }
+
+    static double toMillis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+}
@@ -0,0 +1,33 @@
+package com.sohamshinde.billsplit.profiling;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+
+import java.io.IOException;
+
+/**
+ * Charges everything further down the filter chain to one phase. Registered around the Spring
+ * Security filter chain to separate authentication from the application.
+ */
+public class PhaseMarkerFilter implements Filter {
+
+    private final RequestPhase phase;
+
+    public PhaseMarkerFilter(RequestPhase phase) {
+        this.phase = phase;
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        int token = RequestProfile.enter(phase);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestProfile.exit(token);
+        }
+    }
+}
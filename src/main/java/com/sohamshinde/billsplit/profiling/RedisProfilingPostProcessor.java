@@ -0,0 +1,82 @@
+package com.sohamshinde.billsplit.profiling;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Charges every command sent through a {@link RedisTemplate} bean to REDIS.
+ *
+ * The template gets a proxy in front of its connection factory; connections and the command interfaces
+ * they hand out ({@code stringCommands()}, {@code keyCommands()}, ...) are proxied in turn, so each command
+ * is timed once wherever the template sends it. The connection factory bean itself is left alone.
+ */
+public class RedisProfilingPostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RedisTemplate<?, ?> template && template.getConnectionFactory() != null
+                && !Proxy.isProxyClass(template.getConnectionFactory().getClass())) {
+            template.setConnectionFactory(profiled(template.getConnectionFactory()));
+        }
+        return bean;
+    }
+
+    static RedisConnectionFactory profiled(RedisConnectionFactory connectionFactory) {
+        return (RedisConnectionFactory) proxy(connectionFactory, (target, method, args) -> {
+            Object result = invoke(target, method, args);
+            return method.getName().endsWith("Connection") && result != null ? profiledConnection(result) : result;
+        });
+    }
+
+    private static Object profiledConnection(Object connection) {
+        return proxy(connection, (target, method, args) -> {
+            if (method.getName().endsWith("Commands") && method.getParameterCount() == 0) {
+                Object commands = invoke(target, method, args);
+                return commands != null ? profiledCommands(commands) : null;
+            }
+            return timed(target, method, args);
+        });
+    }
+
+    private static Object profiledCommands(Object commands) {
+        return proxy(commands, RedisProfilingPostProcessor::timed);
+    }
+
+    private static Object timed(Object target, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            return invoke(target, method, args);
+        }
+        int token = RequestProfile.enter(RequestPhase.REDIS);
+        try {
+            return invoke(target, method, args);
+        } finally {
+            RequestProfile.exit(token);
+        }
+    }
+
+    private interface Handler {
+        Object handle(Object target, Method method, Object[] args) throws Throwable;
+    }
+
+    // Implements every interface of the target, so cluster connections stay cluster connections
+    private static Object proxy(Object target, Handler handler) {
+        InvocationHandler invocationHandler = (proxy, method, args) -> handler.handle(target, method, args);
+        Class<?>[] interfaces = ClassUtils.getAllInterfacesForClass(target.getClass(), RedisProfilingPostProcessor.class.getClassLoader());
+        return Proxy.newProxyInstance(RedisProfilingPostProcessor.class.getClassLoader(), interfaces, invocationHandler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.sohamshinde.billsplit.profiling;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+/**
+ * Charges Spring Data repository calls, and the SQL they run, to HIBERNATE.
+ */
+@Aspect
+public class RepositoryProfilingAspect {
+
+    @Around("target(org.springframework.data.repository.Repository)")
+    public Object profile(ProceedingJoinPoint joinPoint) throws Throwable {
+        int token = RequestProfile.enter(RequestPhase.HIBERNATE);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            RequestProfile.exit(token);
+        }
+    }
+}
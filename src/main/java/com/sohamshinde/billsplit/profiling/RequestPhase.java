@@ -0,0 +1,22 @@
+package com.sohamshinde.billsplit.profiling;
+
+/**
+ * Where the time of a request goes. Every nanosecond of a request is charged to exactly one phase,
+ * so the phases of a request add up to its total.
+ */
+public enum RequestPhase {
+    // Servlet container and the filters outside Spring Security, e.g. loading the HTTP session
+    FILTERS,
+    // The Spring Security filter chain: Basic/form authentication, the session's security context, rate limiting
+    AUTHENTICATION,
+    // Controller and service code not covered by a more specific phase
+    APPLICATION,
+    // Commands sent through the application's Redis templates
+    REDIS,
+    // Repository calls and flushes, including their SQL
+    HIBERNATE,
+    // Lazy proxies and collections initialized outside repository calls, including their SQL
+    LAZY_LOADING,
+    // Writing response bodies as JSON
+    SERIALIZATION
+}
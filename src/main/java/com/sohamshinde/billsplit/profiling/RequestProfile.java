@@ -0,0 +1,124 @@
+package com.sohamshinde.billsplit.profiling;
+
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+/**
+ * Phase timings of the request running on the current thread.
+ *
+ * Phases nest as a stack and time is always charged to the innermost one, so a Redis call inside a
+ * service method counts as REDIS and not also as APPLICATION. Each phase switch costs one
+ * {@link System#nanoTime()} call; outside a profiled request {@link #enter} and {@link #exit} do nothing.
+ */
+public final class RequestProfile {
+
+    private static final ThreadLocal<RequestProfile> CURRENT = new ThreadLocal<>();
+    private static final int PHASES = RequestPhase.values().length;
+
+    private final LongSupplier clock;
+    private final long startedAt;
+    private final long[] nanos = new long[PHASES];
+    private final int[] counts = new int[PHASES];
+    private RequestPhase[] stack = new RequestPhase[16];
+    private int depth;
+    private long lastSwitch;
+    private long totalNanos;
+
+    RequestProfile(LongSupplier clock) {
+        this.clock = clock;
+        this.startedAt = clock.getAsLong();
+        this.lastSwitch = startedAt;
+        stack[depth++] = RequestPhase.FILTERS;
+        counts[RequestPhase.FILTERS.ordinal()]++;
+    }
+
+    static RequestProfile begin() {
+        return begin(System::nanoTime);
+    }
+
+    static RequestProfile begin(LongSupplier clock) {
+        RequestProfile profile = new RequestProfile(clock);
+        CURRENT.set(profile);
+        return profile;
+    }
+
+    static void end(RequestProfile profile) {
+        profile.finish();
+        CURRENT.remove();
+    }
+
+    /**
+     * Charges the time from now on to {@code phase}, until {@link #exit} is called with the returned token.
+     */
+    public static int enter(RequestPhase phase) {
+        RequestProfile profile = CURRENT.get();
+        return profile != null ? profile.push(phase) : -1;
+    }
+
+    // Also leaves any phase entered later and not left, e.g. after an exception
+    public static void exit(int token) {
+        if (token < 0) {
+            return;
+        }
+        RequestProfile profile = CURRENT.get();
+        if (profile != null) {
+            profile.popTo(token);
+        }
+    }
+
+    // For callbacks that come in pairs without a shared stack frame (Hibernate events)
+    static void exitInnermost() {
+        RequestProfile profile = CURRENT.get();
+        if (profile != null && profile.depth > 1) {
+            profile.popTo(profile.depth - 1);
+        }
+    }
+
+    static RequestPhase currentPhase() {
+        RequestProfile profile = CURRENT.get();
+        return profile != null ? profile.stack[profile.depth - 1] : null;
+    }
+
+    int push(RequestPhase phase) {
+        charge();
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth * 2);
+        }
+        stack[depth] = phase;
+        counts[phase.ordinal()]++;
+        return depth++;
+    }
+
+    void popTo(int token) {
+        if (token >= depth || token < 1) {
+            return;
+        }
+        charge();
+        depth = token;
+    }
+
+    void finish() {
+        charge();
+        totalNanos = lastSwitch - startedAt;
+        depth = 1;
+    }
+
+    private void charge() {
+        long now = clock.getAsLong();
+        nanos[stack[depth - 1].ordinal()] += now - lastSwitch;
+        lastSwitch = now;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getNanos(RequestPhase phase) {
+        return nanos[phase.ordinal()];
+    }
+
+    // How often the phase was entered, e.g. the number of Redis commands or lazy loads
+    public int getCount(RequestPhase phase) {
+        return counts[phase.ordinal()];
+    }
+}
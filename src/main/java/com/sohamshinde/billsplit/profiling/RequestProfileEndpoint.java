@@ -0,0 +1,35 @@
+package com.sohamshinde.billsplit.profiling;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@code GET /actuator/requestprofile} returns the phase histograms per endpoint and the slowest recent
+ * requests; {@code DELETE} starts over, e.g. before a load test.
+ */
+@Endpoint(id = "requestprofile")
+public class RequestProfileEndpoint {
+
+    private final RequestProfiler profiler;
+
+    public RequestProfileEndpoint(RequestProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    @ReadOperation
+    public Map<String, Object> profile() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("endpoints", profiler.endpoints());
+        result.put("slowRequests", profiler.slowRequests());
+        return result;
+    }
+
+    @DeleteOperation
+    public void reset() {
+        profiler.reset();
+    }
+}
@@ -0,0 +1,119 @@
+package com.sohamshinde.billsplit.profiling;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Aggregates finished request profiles: per endpoint, a histogram of the total time and one per phase,
+ * and across endpoints a ring buffer of the most recent requests slower than the threshold, each with
+ * its full phase breakdown. Recording is lock-free so that it never becomes the bottleneck it measures.
+ */
+public class RequestProfiler {
+
+    private final ConcurrentHashMap<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<SlowRequest> slowRequests;
+    private final AtomicLong slowRequestCount = new AtomicLong();
+    private final long slowThresholdNanos;
+
+    public RequestProfiler(long slowThresholdMillis, int slowRequestCapacity) {
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+        this.slowRequests = new AtomicReferenceArray<>(Math.max(1, slowRequestCapacity));
+    }
+
+    public void record(String endpoint, int status, RequestProfile profile) {
+        endpoints.computeIfAbsent(endpoint, key -> new EndpointStats()).record(profile);
+        if (profile.getTotalNanos() >= slowThresholdNanos) {
+            int slot = (int) (slowRequestCount.getAndIncrement() % slowRequests.length());
+            slowRequests.set(slot, new SlowRequest(Instant.now(), endpoint, status,
+                    PhaseHistogram.toMillis(profile.getTotalNanos()), breakdown(profile)));
+        }
+    }
+
+    public Map<String, Object> endpoints() {
+        Map<String, Object> result = new TreeMap<>();
+        endpoints.forEach((endpoint, stats) -> result.put(endpoint, stats.snapshot()));
+        return result;
+    }
+
+    // Slowest first
+    public List<SlowRequest> slowRequests() {
+        List<SlowRequest> result = new ArrayList<>();
+        for (int i = 0; i < slowRequests.length(); i++) {
+            SlowRequest request = slowRequests.get(i);
+            if (request != null) {
+                result.add(request);
+            }
+        }
+        result.sort(Comparator.comparingDouble(SlowRequest::totalMs).reversed());
+        return result;
+    }
+
+    public void reset() {
+        endpoints.clear();
+        for (int i = 0; i < slowRequests.length(); i++) {
+            slowRequests.set(i, null);
+        }
+    }
+
+    private static Map<RequestPhase, PhaseTime> breakdown(RequestProfile profile) {
+        Map<RequestPhase, PhaseTime> phases = new EnumMap<>(RequestPhase.class);
+        for (RequestPhase phase : RequestPhase.values()) {
+            if (profile.getCount(phase) > 0) {
+                phases.put(phase, new PhaseTime(PhaseHistogram.toMillis(profile.getNanos(phase)), profile.getCount(phase)));
+            }
+        }
+        return phases;
+    }
+
+    public record PhaseTime(double ms, int count) {
+    }
+
+    public record SlowRequest(Instant at, String endpoint, int status, double totalMs, Map<RequestPhase, PhaseTime> phases) {
+    }
+
+    private static final class EndpointStats {
+
+        private final PhaseHistogram total = new PhaseHistogram();
+        private final Map<RequestPhase, PhaseHistogram> phases = new EnumMap<>(RequestPhase.class);
+
+        EndpointStats() {
+            for (RequestPhase phase : RequestPhase.values()) {
+                phases.put(phase, new PhaseHistogram());
+            }
+        }
+
+        // A phase is only recorded for requests that went through it, so REDIS shows the cost of a request
+        // that touched Redis rather than an average diluted by requests that didn't
+        void record(RequestProfile profile) {
+            total.record(profile.getTotalNanos());
+            phases.forEach((phase, histogram) -> {
+                if (profile.getCount(phase) > 0) {
+                    histogram.record(profile.getNanos(phase));
+                }
+            });
+        }
+
+        Map<String, Object> snapshot() {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("total", total.snapshot());
+            Map<String, Object> phaseSnapshots = new LinkedHashMap<>();
+            phases.forEach((phase, histogram) -> {
+                if (histogram.count() > 0) {
+                    phaseSnapshots.put(phase.name(), histogram.snapshot());
+                }
+            });
+            result.put("phases", phaseSnapshots);
+            return result;
+        }
+    }
+}
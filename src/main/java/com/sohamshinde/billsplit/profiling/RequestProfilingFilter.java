@@ -0,0 +1,43 @@
+package com.sohamshinde.billsplit.profiling;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Profiles every request from the outermost filter on and hands the finished profile to the
+ * {@link RequestProfiler} under the endpoint's route pattern, e.g. {@code GET /api/expenses/{id}}.
+ */
+public class RequestProfilingFilter extends OncePerRequestFilter {
+
+    static final String UNMATCHED = "UNMATCHED";
+
+    private final RequestProfiler profiler;
+
+    public RequestProfilingFilter(RequestProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestProfile profile = RequestProfile.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestProfile.end(profile);
+            profiler.record(endpoint(request), response.getStatus(), profile);
+        }
+    }
+
+    // Keyed by pattern rather than URI, so /api/expenses/1 and /api/expenses/2 share one histogram
+    static String endpoint(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : UNMATCHED);
+    }
+}
@@ -0,0 +1,30 @@
+package com.sohamshinde.billsplit.repository;
+
+import com.sohamshinde.billsplit.entity.AnalyticsWatermark;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface AnalyticsWatermarkRepository extends JpaRepository<AnalyticsWatermark, String> {
+
+    @Modifying
+    @Query(value = "INSERT INTO analytics_watermark (name, watermark) VALUES (:name, :watermark) ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("name") String name, @Param("watermark") LocalDateTime watermark);
+
+    // FOR UPDATE SKIP LOCKED (lock timeout -2): empty while another node is running the same export
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT w FROM AnalyticsWatermark w WHERE w.name = :name")
+    Optional<AnalyticsWatermark> lockByName(@Param("name") String name);
+}
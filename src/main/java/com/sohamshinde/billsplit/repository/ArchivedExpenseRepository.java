@@ -0,0 +1,11 @@
+package com.sohamshinde.billsplit.repository;
+
+import com.sohamshinde.billsplit.entity.ArchivedExpense;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.stereotype.Repository;
+
+// Listed through ExpenseSpecifications, together with the live expenses
+@Repository
+public interface ArchivedExpenseRepository extends JpaRepository<ArchivedExpense, Long>, JpaSpecificationExecutor<ArchivedExpense> {
+}
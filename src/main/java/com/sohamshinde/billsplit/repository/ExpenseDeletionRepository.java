@@ -0,0 +1,21 @@
+package com.sohamshinde.billsplit.repository;
+
+import com.sohamshinde.billsplit.entity.ExpenseDeletion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ExpenseDeletionRepository extends JpaRepository<ExpenseDeletion, Long> {
+
+    // One insert; save() would first look the assigned ID up
+    @Modifying
+    @Query(value = "INSERT INTO expense_deletion (expense_id, group_id, created_at, deleted_at) " +
+            "VALUES (:expenseId, :groupId, :createdAt, :deletedAt) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int record(@Param("expenseId") Long expenseId, @Param("groupId") Long groupId,
+               @Param("createdAt") LocalDateTime createdAt, @Param("deletedAt") LocalDateTime deletedAt);
+}
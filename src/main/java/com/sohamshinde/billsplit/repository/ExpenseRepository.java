@@ -1,16 +1,93 @@
 package com.sohamshinde.billsplit.repository;
 
 import com.sohamshinde.billsplit.entity.Expense;
-import com.sohamshinde.billsplit.entity.Group;
-import com.sohamshinde.billsplit.entity.User;
+import com.sohamshinde.billsplit.enums.ExpenseStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface ExpenseRepository extends JpaRepository<Expense, Long> {
-    List<Expense> findAllByPayerOrParticipantsContaining(User payer, User participant);
+public interface ExpenseRepository extends JpaRepository<Expense, Long>, JpaSpecificationExecutor<Expense> {
+    boolean existsByRecurringExpenseIdAndOccurrenceAt(Long recurringExpenseId, LocalDateTime occurrenceAt);
 
-    List<Expense> findAllByGroup(Group group);
+    // One statement for a whole group, instead of editing each expense
+    @Modifying
+    @Query("UPDATE Expense e SET e.status = :status, e.updatedAt = :now WHERE e.group.id = :groupId AND e.status <> :status")
+    int updateStatusForGroup(@Param("groupId") Long groupId, @Param("status") ExpenseStatus status, @Param("now") LocalDateTime now);
+
+    interface SearchRow {
+        Long getId();
+
+        Float getRank();
+    }
+
+    // Ranked hits among the expenses the user pays for or takes part in, live or archived, after the (rank, id) cursor.
+    // The caller's expenses are collected first, one indexed lookup per way of taking part, and only those are
+    // matched and ranked. The search document must stay identical to the expression indexed in V6.
+    String SEARCH_DOCUMENT = "(setweight(to_tsvector('english', coalesce(e.description, '')), 'A') || " +
+            "setweight(to_tsvector('english', coalesce(e.category, '')), 'B'))";
+
+    // The same document for an archived expense, whose description is only kept in its JSON document
+    String ARCHIVED_SEARCH_DOCUMENT = "(setweight(to_tsvector('english', coalesce(e.document ->> 'description', '')), 'A') || " +
+            "setweight(to_tsvector('english', coalesce(e.category, '')), 'B'))";
+
+    String SEARCH_FILTERS = "AND (CAST(:category AS text) IS NULL OR e.category = CAST(:category AS text)) " +
+            "AND (CAST(:minAmount AS numeric) IS NULL OR e.amount >= CAST(:minAmount AS numeric)) " +
+            "AND (CAST(:maxAmount AS numeric) IS NULL OR e.amount <= CAST(:maxAmount AS numeric)) ";
+
+    @Query(value = "WITH visible AS MATERIALIZED (" +
+            "SELECT e.id FROM expense e WHERE e.payer_id = :userId " +
+            "UNION SELECT p.expense_id FROM expense_participants p WHERE p.user_id = :userId " +
+            "UNION SELECT e.id FROM expense e WHERE e.participant_ids @> ARRAY[CAST(:userId AS bigint)]), " +
+            "archived AS MATERIALIZED (" +
+            "SELECT e.id FROM expense_archive e WHERE e.payer_id = :userId " +
+            "UNION SELECT e.id FROM expense_archive e WHERE e.participant_ids @> ARRAY[CAST(:userId AS bigint)]), " +
+            "q AS (SELECT websearch_to_tsquery('english', CAST(:text AS text)) AS query), " +
+            "hits AS (" +
+            "SELECT e.id AS id, ts_rank_cd(" + SEARCH_DOCUMENT + ", q.query) AS rank " +
+            "FROM visible v JOIN expense e ON e.id = v.id CROSS JOIN q " +
+            "WHERE (CAST(:text AS text) = '' OR " + SEARCH_DOCUMENT + " @@ q.query) " + SEARCH_FILTERS +
+            "UNION ALL " +
+            "SELECT e.id AS id, ts_rank_cd(" + ARCHIVED_SEARCH_DOCUMENT + ", q.query) AS rank " +
+            "FROM archived v JOIN expense_archive e ON e.id = v.id CROSS JOIN q " +
+            "WHERE (CAST(:text AS text) = '' OR " + ARCHIVED_SEARCH_DOCUMENT + " @@ q.query) " + SEARCH_FILTERS + ") " +
+            "SELECT id, rank FROM hits " +
+            "WHERE CAST(:afterRank AS real) IS NULL OR (rank, id) < (CAST(:afterRank AS real), CAST(:afterId AS bigint)) " +
+            "ORDER BY rank DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<SearchRow> search(@Param("userId") Long userId, @Param("text") String text, @Param("category") String category,
+                           @Param("minAmount") BigDecimal minAmount, @Param("maxAmount") BigDecimal maxAmount,
+                           @Param("afterRank") Float afterRank, @Param("afterId") Long afterId, @Param("limit") int limit);
+
+    // Settled expenses untouched since the cutoff, locked with FOR UPDATE SKIP LOCKED (lock timeout -2)
+    // so concurrent archival runs take disjoint batches
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM Expense e WHERE e.status = :status AND e.updatedAt < :cutoff ORDER BY e.id")
+    List<Expense> lockArchivable(@Param("status") ExpenseStatus status, @Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    // Bulk removal of archived expenses; balances are left as they are, since a settled expense stays settled
+    @Modifying
+    @Query(value = "DELETE FROM participant_shares WHERE expense_id IN (:ids)", nativeQuery = true)
+    int deleteSharesByExpenseIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "DELETE FROM expense_participants WHERE expense_id IN (:ids)", nativeQuery = true)
+    int deleteParticipantsByExpenseIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "DELETE FROM expense WHERE id IN (:ids)", nativeQuery = true)
+    int deleteByIds(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,97 @@
+package com.sohamshinde.billsplit.repository;
+
+import com.sohamshinde.billsplit.dto.ExpenseFilterDto;
+import com.sohamshinde.billsplit.entity.ArchivedExpense;
+import com.sohamshinde.billsplit.entity.Expense;
+import com.sohamshinde.billsplit.entity.User;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Building blocks of the filtered expense queries. Each filter compiles to a plain column predicate,
+ * so the composite indexes declared on {@link Expense} can serve the common combinations. {@link ArchivedExpense}
+ * keeps the filtered columns under the same names, so {@link #matching} applies to the archive as well.
+ */
+public final class ExpenseSpecifications {
+
+    private ExpenseSpecifications() {
+    }
+
+    public static <T> Specification<T> matching(ExpenseFilterDto filter) {
+        Specification<T> specification = Specification.where(null);
+        if (filter == null) {
+            return specification;
+        }
+        if (filter.getStatus() != null) {
+            specification = specification.and((root, query, cb) -> cb.equal(root.get("status"), filter.getStatus()));
+        }
+        if (filter.getCategory() != null) {
+            specification = specification.and((root, query, cb) -> cb.equal(root.get("category"), filter.getCategory()));
+        }
+        if (filter.getCurrency() != null) {
+            specification = specification.and((root, query, cb) -> cb.equal(root.get("currency"), filter.getCurrency()));
+        }
+        if (filter.getFrom() != null) {
+            specification = specification.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("createdAt"), filter.getFrom()));
+        }
+        if (filter.getTo() != null) {
+            specification = specification.and((root, query, cb) -> cb.lessThan(root.get("createdAt"), filter.getTo()));
+        }
+        if (filter.getMinAmount() != null) {
+            specification = specification.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("amount"), filter.getMinAmount()));
+        }
+        if (filter.getMaxAmount() != null) {
+            specification = specification.and((root, query, cb) -> cb.lessThanOrEqualTo(root.get("amount"), filter.getMaxAmount()));
+        }
+        return specification;
+    }
+
+    public static Specification<Expense> inGroup(Long groupId) {
+        return (root, query, cb) -> cb.equal(root.get("group").get("id"), groupId);
+    }
+
+    // Paid by the user, or shared with them either as a participant row or inside a packed participant array.
+    // A union of three ID subqueries rather than an OR, so each branch can use its own index.
+    public static Specification<Expense> visibleTo(Long userId) {
+        return (root, query, cb) -> {
+            Subquery<Long> paid = query.subquery(Long.class);
+            Root<Expense> paidRoot = paid.from(Expense.class);
+            paid.select(paidRoot.get("id")).where(cb.equal(paidRoot.get("payer").get("id"), userId));
+
+            Subquery<Long> shared = query.subquery(Long.class);
+            Root<Expense> sharedRoot = shared.from(Expense.class);
+            Join<Expense, User> participants = sharedRoot.join("participants");
+            shared.select(sharedRoot.get("id")).where(cb.equal(participants.get("id"), userId));
+
+            Subquery<Long> packed = query.subquery(Long.class);
+            Root<Expense> packedRoot = packed.from(Expense.class);
+            packed.select(packedRoot.get("id")).where(cb.isTrue(
+                    cb.function("array_contains", Boolean.class, packedRoot.get("packedParticipantIds"), cb.literal(userId))));
+
+            return root.get("id").in(((HibernateCriteriaBuilder) cb).union(paid, shared, packed));
+        };
+    }
+
+    public static Specification<ArchivedExpense> archivedInGroup(Long groupId) {
+        return (root, query, cb) -> cb.equal(root.get("groupId"), groupId);
+    }
+
+    // Paid by the user or shared with them, as a union for the same reason as visibleTo
+    public static Specification<ArchivedExpense> archivedVisibleTo(Long userId) {
+        return (root, query, cb) -> {
+            Subquery<Long> paid = query.subquery(Long.class);
+            Root<ArchivedExpense> paidRoot = paid.from(ArchivedExpense.class);
+            paid.select(paidRoot.get("id")).where(cb.equal(paidRoot.get("payerId"), userId));
+
+            Subquery<Long> shared = query.subquery(Long.class);
+            Root<ArchivedExpense> sharedRoot = shared.from(ArchivedExpense.class);
+            shared.select(sharedRoot.get("id")).where(cb.isTrue(
+                    cb.function("array_contains", Boolean.class, sharedRoot.get("participantIds"), cb.literal(userId))));
+
+            return root.get("id").in(((HibernateCriteriaBuilder) cb).union(paid, shared));
+        };
+    }
+}
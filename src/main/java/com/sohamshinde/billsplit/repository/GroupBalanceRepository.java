@@ -0,0 +1,45 @@
+package com.sohamshinde.billsplit.repository;
+
+import com.sohamshinde.billsplit.entity.GroupBalance;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface GroupBalanceRepository extends JpaRepository<GroupBalance, Long> {
+
+    // Atomic increment; creates the row on first use
+    @Modifying
+    @Query(value = "INSERT INTO group_balance (group_id, user_id, currency, balance) " +
+            "VALUES (:groupId, :userId, :currency, :delta) " +
+            "ON CONFLICT (group_id, user_id, currency) " +
+            "DO UPDATE SET balance = group_balance.balance + EXCLUDED.balance", nativeQuery = true)
+    int addToBalance(@Param("groupId") Long groupId, @Param("userId") Long userId,
+                     @Param("currency") String currency, @Param("delta") BigDecimal delta);
+
+    // Many increments for one group in a single statement. The comma-separated lists are paired by
+    // position; rows are written in (user, currency) order, the same order lockAllByGroupId locks them in
+    @Modifying
+    @Query(value = "INSERT INTO group_balance (group_id, user_id, currency, balance) " +
+            "SELECT :groupId, t.user_id, t.currency, t.delta " +
+            "FROM unnest(CAST(string_to_array(:userIds, ',') AS bigint[]), string_to_array(:currencies, ','), " +
+            "CAST(string_to_array(:deltas, ',') AS numeric[])) AS t(user_id, currency, delta) " +
+            "ORDER BY t.user_id, t.currency " +
+            "ON CONFLICT (group_id, user_id, currency) " +
+            "DO UPDATE SET balance = group_balance.balance + EXCLUDED.balance", nativeQuery = true)
+    int addToBalances(@Param("groupId") Long groupId, @Param("userIds") String userIds,
+                      @Param("currencies") String currencies, @Param("deltas") String deltas);
+
+    List<GroupBalance> findAllByGroupIdOrderByUserId(Long groupId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM GroupBalance b WHERE b.groupId = :groupId ORDER BY b.userId, b.currency")
+    List<GroupBalance> lockAllByGroupId(@Param("groupId") Long groupId);
+}
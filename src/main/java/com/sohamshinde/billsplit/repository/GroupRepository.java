@@ -1,12 +1,19 @@
 package com.sohamshinde.billsplit.repository;
 
 
+import com.sohamshinde.billsplit.dto.GroupMemberDto;
 import com.sohamshinde.billsplit.entity.Group;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,4 +25,57 @@ public interface GroupRepository extends JpaRepository<Group, Long> {
 
     @Override
     Optional<Group> findById(Long aLong);
+
+    // One row per group and balance currency of the member; groups without a balance yield a single row with null currency
+    interface SummaryRow {
+        Long getId();
+
+        String getGroupName();
+
+        Long getMemberCount();
+
+        LocalDateTime getLastActivityAt();
+
+        String getCurrency();
+
+        BigDecimal getBalance();
+    }
+
+    @Query(value = "SELECT g.id AS id, g.group_name AS groupName, " +
+            "(SELECT COUNT(*) FROM user_group_members c WHERE c.group_id = g.id) AS memberCount, " +
+            "GREATEST(g.updated_at, " +
+            "(SELECT MAX(e.updated_at) FROM expense e WHERE e.group_id = g.id), " +
+            "(SELECT MAX(s.created_at) FROM settlement s WHERE s.group_id = g.id)) AS lastActivityAt, " +
+            "b.currency AS currency, b.balance AS balance " +
+            "FROM user_group g " +
+            "JOIN user_group_members m ON m.group_id = g.id AND m.members_id = :memberId " +
+            "LEFT JOIN group_balance b ON b.group_id = g.id AND b.user_id = :memberId " +
+            "ORDER BY lastActivityAt DESC NULLS LAST, g.id", nativeQuery = true)
+    List<SummaryRow> findGroupSummariesByMemberId(@Param("memberId") Long memberId);
+
+    @Query("SELECT COUNT(m) > 0 FROM Group g JOIN g.members m WHERE g.id = :groupId AND m.id = :userId")
+    boolean isMember(@Param("groupId") Long groupId, @Param("userId") Long userId);
+
+    @Query(value = "SELECT new com.sohamshinde.billsplit.dto.GroupMemberDto(m.id, m.name, m.email) " +
+            "FROM Group g JOIN g.members m WHERE g.id = :groupId ORDER BY m.id",
+            countQuery = "SELECT COUNT(m) FROM Group g JOIN g.members m WHERE g.id = :groupId")
+    Page<GroupMemberDto> findMembers(@Param("groupId") Long groupId, Pageable pageable);
+
+    @Query(value = "SELECT members_id FROM user_group_members WHERE group_id = :groupId", nativeQuery = true)
+    List<Long> findMemberIds(@Param("groupId") Long groupId);
+
+    // Inserts only missing rows; unknown user IDs are skipped by the join
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO user_group_members (group_id, members_id) " +
+            "SELECT :groupId, u.id FROM \"user\" u WHERE u.id IN (:userIds) " +
+            "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int addMembers(@Param("groupId") Long groupId, @Param("userIds") Collection<Long> userIds);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "DELETE FROM user_group_members WHERE group_id = :groupId AND members_id IN (:userIds)", nativeQuery = true)
+    int removeMembers(@Param("groupId") Long groupId, @Param("userIds") Collection<Long> userIds);
+
+    @Modifying
+    @Query("UPDATE Group g SET g.updatedAt = :now WHERE g.id = :groupId")
+    int touch(@Param("groupId") Long groupId, @Param("now") LocalDateTime now);
 }
@@ -0,0 +1,29 @@
+package com.sohamshinde.billsplit.repository;
+
+import com.sohamshinde.billsplit.entity.RecurringExpense;
+import com.sohamshinde.billsplit.entity.User;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RecurringExpenseRepository extends JpaRepository<RecurringExpense, Long> {
+
+    // Locks a page of due templates with FOR UPDATE SKIP LOCKED (lock timeout -2),
+    // so several nodes can poll concurrently without materializing the same occurrence
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT r FROM RecurringExpense r WHERE r.active = true AND r.nextRunAt <= :now ORDER BY r.nextRunAt")
+    List<RecurringExpense> lockDueTemplates(@Param("now") LocalDateTime now, Pageable pageable);
+
+    List<RecurringExpense> findAllByCreatedBy(User createdBy);
+}
@@ -0,0 +1,18 @@
+package com.sohamshinde.billsplit.repository;
+
+import com.sohamshinde.billsplit.entity.Settlement;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SettlementRepository extends JpaRepository<Settlement, Long> {
+
+    Optional<Settlement> findByIdempotencyKey(String idempotencyKey);
+
+    List<Settlement> findAllByBatchKeyOrderById(String batchKey);
+
+    List<Settlement> findAllByGroupIdOrderByCreatedAtDesc(Long groupId);
+}
@@ -2,8 +2,12 @@ package com.sohamshinde.billsplit.repository;
 
 import com.sohamshinde.billsplit.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -18,5 +22,29 @@ public interface UserRepository extends JpaRepository<User, Long> {
     // Method to check if a user exists by their phone number
     Boolean existsByPhone(String phone);
 
+    // Returns the subset of the given IDs that belong to existing users
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // Returns the subset of the given emails that are already registered
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    interface InsertedUser {
+        Long getId();
+
+        String getEmail();
+    }
+
+    // Inserts a JSON array of new, not yet verified users in one statement. Emails registered in the meantime
+    // are skipped by ON CONFLICT, and RETURNING reports the rows that were written. Not @Modifying, since
+    // the statement returns rows; callers must run it in a read-write transaction.
+    @Query(value = "INSERT INTO \"user\" (name, email, phone, password, gender, enabled, active, role, created_at, updated_at) " +
+            "SELECT t.name, t.email, t.phone, t.password, t.gender, false, true, 'USER', LOCALTIMESTAMP, LOCALTIMESTAMP " +
+            "FROM jsonb_to_recordset(CAST(:rows AS jsonb)) AS t(name text, email text, phone text, password text, gender boolean) " +
+            "ON CONFLICT (email) DO NOTHING " +
+            "RETURNING id AS id, email AS email", nativeQuery = true)
+    List<InsertedUser> insertUnverified(@Param("rows") String rows);
+
     // Additional methods can be added as needed
 }
\ No newline at end of file
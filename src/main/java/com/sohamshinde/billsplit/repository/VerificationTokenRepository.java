@@ -2,7 +2,38 @@ package com.sohamshinde.billsplit.repository;
 
 import com.sohamshinde.billsplit.entity.VerificationToken;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
 
 public interface VerificationTokenRepository extends JpaRepository<VerificationToken, Long> {
     VerificationToken findByToken(String token); // Method to find token
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM VerificationToken t WHERE t.token = :token")
+    int deleteByTokenValue(@Param("token") String token);
+
+    // Many tokens in one statement; the comma-separated lists are paired by position
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO verification_token (token, user_id, created_at, expires_at) " +
+            "SELECT t.token, t.user_id, LOCALTIMESTAMP, :expiresAt " +
+            "FROM unnest(string_to_array(:tokens, ','), CAST(string_to_array(:userIds, ',') AS bigint[])) AS t(token, user_id)",
+            nativeQuery = true)
+    int insertAll(@Param("tokens") String tokens, @Param("userIds") String userIds, @Param("expiresAt") LocalDateTime expiresAt);
+
+    // When the last token in the table expires; null once the table is empty
+    @Query("SELECT MAX(t.expiresAt) FROM VerificationToken t")
+    LocalDateTime findLatestExpiry();
+
+    // One purge batch; the LIMIT keeps each delete short so it never holds locks on a large part of the table
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM verification_token WHERE id IN " +
+            "(SELECT id FROM verification_token WHERE expires_at < :cutoff ORDER BY expires_at LIMIT :limit)", nativeQuery = true)
+    int deleteExpiredBatch(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
 }
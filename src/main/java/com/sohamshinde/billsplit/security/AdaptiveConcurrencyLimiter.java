@@ -0,0 +1,63 @@
+package com.sohamshinde.billsplit.security;
+
+/**
+ * A concurrency limit that adapts to observed latency (AIMD).
+ *
+ * Each completed call is a sample: a call slower than the latency threshold, or one that failed
+ * because the database was overloaded, multiplies the limit by the backoff ratio; a fast call made
+ * while at least half the limit was in use raises it by one. The limit settles just below the
+ * concurrency at which the database starts queueing, so excess requests are refused instead of
+ * waiting for a pooled connection.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+
+    private double limit;
+    private int inFlight;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio, long latencyThresholdNanos) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * Admits a call if fewer than {@code share} of the current limit are in flight.
+     * Every admitted call must be followed by exactly one {@link #release}.
+     */
+    public synchronized boolean tryAcquire(double share) {
+        int allowed = share >= 1 ? (int) limit : (int) (limit * share);
+        if (inFlight >= allowed) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    public synchronized void release(long latencyNanos, boolean overloaded) {
+        int wasInFlight = inFlight--;
+        if (overloaded || latencyNanos > latencyThresholdNanos) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+        } else if (wasInFlight * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1);
+        }
+    }
+
+    public synchronized boolean isSaturated() {
+        return inFlight >= (int) limit;
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+}
@@ -0,0 +1,49 @@
+package com.sohamshinde.billsplit.security;
+
+import com.sohamshinde.billsplit.security.RateLimitFilter.EndpointClass;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Charges the request budget of callers that {@link RateLimitFilter} could not identify before
+ * authentication, namely Basic credentials not backed by the session. It runs after the Spring Security
+ * filter chain, so the user is the one whose password was just checked; requests that failed authentication
+ * never get here and only count against the failed-login buckets.
+ */
+public class AuthenticatedRateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+    private final Map<EndpointClass, RateLimiter.Limit> limits;
+
+    public AuthenticatedRateLimitFilter(RateLimiter rateLimiter, Map<EndpointClass, RateLimiter.Limit> limits) {
+        this.rateLimiter = rateLimiter;
+        this.limits = limits;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (request.getAttribute(RateLimitFilter.DEFERRED_ATTRIBUTE) instanceof EndpointClass endpointClass) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            String caller = authentication != null && authentication.isAuthenticated()
+                    && !(authentication instanceof AnonymousAuthenticationToken)
+                    ? "user:" + authentication.getName().toLowerCase(Locale.ROOT) : "ip:" + request.getRemoteAddr();
+            RateLimiter.Decision decision = rateLimiter.tryAcquire("req:" + endpointClass + ":" + caller, limits.get(endpointClass));
+            if (!decision.allowed()) {
+                RateLimitFilter.reject(request, response, decision.retryAfterSeconds(), "Rate limit exceeded. Please slow down.");
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+}
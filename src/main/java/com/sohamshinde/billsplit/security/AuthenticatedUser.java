@@ -0,0 +1,34 @@
+package com.sohamshinde.billsplit.security;
+
+import com.sohamshinde.billsplit.entity.User;
+import com.sohamshinde.billsplit.enums.Role;
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * The principal kept in the security context, and therefore in the HTTP session, after login.
+ *
+ * Only what authorization needs is kept: no password hash, no personal data and no JPA state, so a
+ * session stays small and can be serialized to a shared store. Code that needs the full user loads it
+ * through UserService.getAuthenticatedUser.
+ */
+public record AuthenticatedUser(Long id, String email, Role role) implements AuthenticatedPrincipal, Serializable {
+
+    public static AuthenticatedUser from(User user) {
+        return new AuthenticatedUser(user.getId(), user.getEmail(), user.getRole());
+    }
+
+    public List<GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    // Authentication.getName() returns this, as it did with the entity as principal
+    @Override
+    public String getName() {
+        return email;
+    }
+}
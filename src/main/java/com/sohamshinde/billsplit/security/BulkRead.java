@@ -0,0 +1,15 @@
+package com.sohamshinde.billsplit.security;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a read-only service method that returns a list or page. Under load these are shed before
+ * single reads and writes (see {@link DatabaseConcurrencyAspect}).
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface BulkRead {
+}
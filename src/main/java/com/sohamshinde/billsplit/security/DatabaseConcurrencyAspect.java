@@ -0,0 +1,119 @@
+package com.sohamshinde.billsplit.security;
+
+import com.sohamshinde.billsplit.exceptions.OverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.DispatcherServlet;
+
+import java.lang.reflect.Method;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Puts adaptive concurrency limits in front of the service methods called by requests.
+ *
+ * Every public method of a {@link Service} bean is limited, not only the {@link Transactional} ones, so writes
+ * that go through a {@code TransactionTemplate} or straight to a repository are counted too. A method is a read
+ * only when it is marked {@code @Transactional(readOnly = true)}; everything else counts as a write.
+ * Reads and writes have separate limits, and a call over its limit fails at once with
+ * {@link OverloadedException} (503) instead of waiting for a connection. Writes are favoured over list
+ * endpoints: a {@link BulkRead} may only use part of the read limit, and none while writes are at theirs.
+ *
+ * Only the outermost service call of a request is counted, and calls from scheduler threads are
+ * never limited. Neither are calls from the servlet filters, such as the user lookup of the security chain:
+ * a rejection there would surface as a failed login rather than a 503, so limiting starts at the DispatcherServlet.
+ * The aspect runs before the transaction interceptor, so a rejected call never takes a connection.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class DatabaseConcurrencyAspect {
+
+    public enum Priority {WRITE, READ, BULK_READ}
+
+    private static final ThreadLocal<Boolean> INSIDE_LIMIT = new ThreadLocal<>();
+
+    private final AdaptiveConcurrencyLimiter reads;
+    private final AdaptiveConcurrencyLimiter writes;
+    private final double bulkShare;
+    private final Map<Priority, Counter> rejections = new EnumMap<>(Priority.class);
+
+    public DatabaseConcurrencyAspect(AdaptiveConcurrencyLimiter reads, AdaptiveConcurrencyLimiter writes,
+                                     double bulkShare, MeterRegistry meterRegistry) {
+        this.reads = reads;
+        this.writes = writes;
+        this.bulkShare = bulkShare;
+
+        for (Map.Entry<String, AdaptiveConcurrencyLimiter> limiter : Map.of("read", reads, "write", writes).entrySet()) {
+            Gauge.builder("db.concurrency.limit", limiter.getValue(), AdaptiveConcurrencyLimiter::getLimit)
+                    .tag("kind", limiter.getKey())
+                    .register(meterRegistry);
+            Gauge.builder("db.concurrency.in-flight", limiter.getValue(), AdaptiveConcurrencyLimiter::getInFlight)
+                    .tag("kind", limiter.getKey())
+                    .register(meterRegistry);
+        }
+        for (Priority priority : Priority.values()) {
+            rejections.put(priority, Counter.builder("db.concurrency.rejected")
+                    .tag("priority", priority.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
+
+    // IdempotencyService only wraps another service call, which is limited on its own; limiting the wrapper
+    // would hold a permit while duplicates wait for the first request
+    @Around("execution(public * com.sohamshinde.billsplit.service..*(..)) && @within(org.springframework.stereotype.Service) " +
+            "&& !within(com.sohamshinde.billsplit.service.IdempotencyService)")
+    public Object limit(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (INSIDE_LIMIT.get() != null || !isDispatched()) {
+            return joinPoint.proceed();
+        }
+
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Transactional transactional = AnnotatedElementUtils.findMergedAnnotation(method, Transactional.class);
+        Priority priority = transactional == null || !transactional.readOnly() ? Priority.WRITE
+                : method.isAnnotationPresent(BulkRead.class) ? Priority.BULK_READ : Priority.READ;
+        AdaptiveConcurrencyLimiter limiter = priority == Priority.WRITE ? writes : reads;
+        double share = priority != Priority.BULK_READ ? 1 : writes.isSaturated() ? 0 : bulkShare;
+
+        if (!limiter.tryAcquire(share)) {
+            rejections.get(priority).increment();
+            throw new OverloadedException("The service is busy. Please retry shortly.");
+        }
+
+        INSIDE_LIMIT.set(Boolean.TRUE);
+        long start = System.nanoTime();
+        boolean overloaded = false;
+        try {
+            return joinPoint.proceed();
+        } catch (CannotCreateTransactionException | CannotGetJdbcConnectionException | QueryTimeoutException
+                 | TransientDataAccessResourceException e) {
+            overloaded = true; // The pool or the database could not keep up
+            throw e;
+        } finally {
+            INSIDE_LIMIT.remove();
+            limiter.release(System.nanoTime() - start, overloaded);
+        }
+    }
+
+    // The DispatcherServlet marks the requests it is handling; filters run before it does
+    private static boolean isDispatched() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes != null
+                && attributes.getAttribute(DispatcherServlet.WEB_APPLICATION_CONTEXT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null;
+    }
+}
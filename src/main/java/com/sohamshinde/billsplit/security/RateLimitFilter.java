@@ -0,0 +1,167 @@
+package com.sohamshinde.billsplit.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Rejects requests over their budget before Spring Security runs, so throttled clients never reach
+ * the connection pool or the password encoder.
+ *
+ * Request budgets are kept per endpoint class and per caller. Only identities already verified count here:
+ * the session user, or else the client IP for anonymous requests. Requests carrying Basic credentials the
+ * session does not already back are left to {@link AuthenticatedRateLimitFilter}, which charges the user's
+ * budget once Spring Security has checked the password; until then the name in the header is only a claim,
+ * and keying on it would let anyone spend another user's budget. Those requests, and form logins, are
+ * checked here against failed-login buckets for the email and for the IP; only a failed attempt takes a token,
+ * so a user who logs in correctly is never locked out by their own traffic.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    public enum EndpointClass {LOGIN, LIST, READ, WRITE, BULK}
+
+    // Set on requests whose budget is charged after authentication; holds their EndpointClass
+    static final String DEFERRED_ATTRIBUTE = RateLimitFilter.class.getName() + ".DEFERRED";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final RateLimiter rateLimiter;
+    private final Map<EndpointClass, RateLimiter.Limit> limits;
+
+    public RateLimitFilter(RateLimiter rateLimiter, Map<EndpointClass, RateLimiter.Limit> limits) {
+        this.rateLimiter = rateLimiter;
+        this.limits = limits;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String ip = request.getRemoteAddr();
+        boolean formLogin = isFormLogin(request);
+        String claimedUser = claimedUser(request, formLogin);
+        String principal = formLogin ? null : sessionPrincipal(request);
+        RateLimiter.Limit loginLimit = limits.get(EndpointClass.LOGIN);
+
+        // Spring Security skips the password check when the session already holds the claimed user
+        boolean unverified = claimedUser != null && (principal == null || !principal.equalsIgnoreCase(claimedUser));
+        if (unverified) {
+            RateLimiter.Decision byEmail = rateLimiter.peek("login:email:" + claimedUser, loginLimit);
+            RateLimiter.Decision byIp = rateLimiter.peek("login:ip:" + ip, loginLimit);
+            if (!byEmail.allowed() || !byIp.allowed()) {
+                reject(request, response, Math.max(byEmail.retryAfterSeconds(), byIp.retryAfterSeconds()),
+                        "Too many failed login attempts. Please try again later.");
+                return;
+            }
+        }
+
+        EndpointClass endpointClass = formLogin ? EndpointClass.LOGIN : classify(request);
+        if (endpointClass != EndpointClass.LOGIN && unverified) {
+            request.setAttribute(DEFERRED_ATTRIBUTE, endpointClass);
+        } else if (endpointClass != EndpointClass.LOGIN) {
+            String caller = principal != null ? "user:" + principal.toLowerCase(Locale.ROOT) : "ip:" + ip;
+            RateLimiter.Decision decision = rateLimiter.tryAcquire("req:" + endpointClass + ":" + caller, limits.get(endpointClass));
+            if (!decision.allowed()) {
+                reject(request, response, decision.retryAfterSeconds(), "Rate limit exceeded. Please slow down.");
+                return;
+            }
+        }
+
+        filterChain.doFilter(request, response);
+
+        if (claimedUser != null && loginFailed(response, formLogin)) {
+            rateLimiter.tryAcquire("login:email:" + claimedUser, loginLimit);
+            rateLimiter.tryAcquire("login:ip:" + ip, loginLimit);
+        }
+    }
+
+    static EndpointClass classify(HttpServletRequest request) {
+        String method = request.getMethod();
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if ("POST".equals(method) && path.equals("/api/user/bulk")) {
+            return EndpointClass.BULK;
+        }
+        if (!"GET".equals(method) && !"HEAD".equals(method) && !"OPTIONS".equals(method)) {
+            return EndpointClass.WRITE;
+        }
+        if (path.startsWith("/api/expenses/group/") || path.equals("/api/expenses/my")
+                || path.equals("/api/group") || path.startsWith("/api/settlements/group/")) {
+            return EndpointClass.LIST;
+        }
+        return EndpointClass.READ;
+    }
+
+    private static boolean isFormLogin(HttpServletRequest request) {
+        return "POST".equals(request.getMethod())
+                && "/login".equals(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    private static String claimedUser(HttpServletRequest request, boolean formLogin) {
+        String username = null;
+        if (formLogin) {
+            username = request.getParameter("username");
+        } else {
+            String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+            if (header != null && header.regionMatches(true, 0, "Basic ", 0, 6)) {
+                try {
+                    String decoded = new String(Base64.getDecoder().decode(header.substring(6).trim()), StandardCharsets.UTF_8);
+                    int colon = decoded.indexOf(':');
+                    username = colon < 0 ? decoded : decoded.substring(0, colon);
+                } catch (IllegalArgumentException e) {
+                    return null; // Malformed header, Spring Security will reject it
+                }
+            }
+        }
+        return username == null || username.isBlank() ? null : username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String sessionPrincipal(HttpServletRequest request) {
+        HttpSession session = request.getSession(false);
+        if (session == null) {
+            return null;
+        }
+        Object context = session.getAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY);
+        if (context instanceof SecurityContext securityContext && securityContext.getAuthentication() != null) {
+            return securityContext.getAuthentication().getName();
+        }
+        return null;
+    }
+
+    private static boolean loginFailed(HttpServletResponse response, boolean formLogin) {
+        if (response.getStatus() == HttpServletResponse.SC_UNAUTHORIZED) {
+            return true;
+        }
+        String location = response.getHeader(HttpHeaders.LOCATION);
+        return formLogin && location != null && location.contains("error");
+    }
+
+    static void reject(HttpServletRequest request, HttpServletResponse response, long retryAfterSeconds, String message) throws IOException {
+        response.setContentType("application/json");
+        response.setStatus(429);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("timestamp", LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        errorResponse.put("status", 429);
+        errorResponse.put("error", "Too Many Requests");
+        errorResponse.put("message", message);
+        errorResponse.put("path", request.getRequestURI());
+
+        response.getWriter().write(OBJECT_MAPPER.writeValueAsString(errorResponse));
+    }
+}
@@ -0,0 +1,201 @@
+package com.sohamshinde.billsplit.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token buckets shared by all nodes through Redis, with a local fast path.
+ *
+ * The authoritative bucket lives in Redis and is refilled by a Lua script using the Redis clock.
+ * Each node leases a few tokens at a time and serves requests from its lease without a round trip,
+ * so Redis sees roughly one call per {@code leaseSize} requests. Leased tokens are already deducted
+ * from the shared bucket, which keeps the cluster-wide rate within the limit. If Redis is unreachable
+ * every node falls back to a purely local bucket with the same parameters.
+ */
+@Slf4j
+public class RateLimiter {
+
+    private static final String KEY_PREFIX = "ratelimit:";
+    private static final int MAX_LOCAL_BUCKETS = 100_000;
+    private static final long IDLE_EVICTION_NANOS = TimeUnit.MINUTES.toNanos(10);
+    private static final long REDIS_RETRY_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    // Returns {granted, retryAfterMs, tokensLeft}
+    private static final DefaultRedisScript<List> TAKE_SCRIPT = new DefaultRedisScript<>(
+            "local capacity = tonumber(ARGV[1])\n" +
+            "local rate = tonumber(ARGV[2])\n" +
+            "local requested = tonumber(ARGV[3])\n" +
+            "local t = redis.call('TIME')\n" +
+            "local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000)\n" +
+            "local state = redis.call('HMGET', KEYS[1], 'tokens', 'ts')\n" +
+            "local tokens = tonumber(state[1])\n" +
+            "local ts = tonumber(state[2])\n" +
+            "if tokens == nil then tokens = capacity; ts = now end\n" +
+            "tokens = math.min(capacity, tokens + math.max(0, now - ts) / 1000.0 * rate)\n" +
+            "local granted = math.min(requested, math.floor(tokens))\n" +
+            "tokens = tokens - granted\n" +
+            "redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(now))\n" +
+            "redis.call('PEXPIRE', KEYS[1], math.ceil(capacity / rate * 1000) + 1000)\n" +
+            "local retry = 0\n" +
+            "if tokens < 1 then retry = math.ceil((1 - tokens) / rate * 1000) end\n" +
+            "return {granted, retry, math.floor(tokens)}",
+            List.class);
+
+    public record Limit(long capacity, double refillPerSecond, int leaseSize) {
+    }
+
+    public record Decision(boolean allowed, long retryAfterSeconds) {
+        static final Decision ALLOWED = new Decision(true, 0);
+    }
+
+    private final StringRedisTemplate redisTemplate;
+    private final ConcurrentMap<String, LocalBucket> buckets = new ConcurrentHashMap<>();
+    private volatile long redisDownUntil;
+
+    public RateLimiter(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * Takes one token for {@code key}.
+     */
+    public Decision tryAcquire(String key, Limit limit) {
+        LocalBucket bucket = bucket(key, limit);
+        synchronized (bucket) {
+            if (bucket.leased > 0) {
+                bucket.leased--;
+                return Decision.ALLOWED;
+            }
+
+            long[] result = takeFromRedis(key, limit, Math.max(1, limit.leaseSize()));
+            if (result != null) {
+                if (result[0] > 0) {
+                    bucket.leased = result[0] - 1;
+                    return Decision.ALLOWED;
+                }
+                return new Decision(false, toSeconds(result[1]));
+            }
+            return bucket.takeLocal(limit);
+        }
+    }
+
+    /**
+     * Checks whether a token is available without taking it. Reads the shared bucket with a plain HMGET
+     * instead of the take script, so a peek never writes to Redis; the refill since the bucket's last
+     * change is estimated with this node's clock.
+     */
+    public Decision peek(String key, Limit limit) {
+        LocalBucket bucket = bucket(key, limit);
+        synchronized (bucket) {
+            if (bucket.leased > 0) {
+                return Decision.ALLOWED;
+            }
+
+            double[] state = readFromRedis(key);
+            if (state != null) {
+                if (state.length == 0) {
+                    return Decision.ALLOWED; // No bucket yet, so it is full
+                }
+                double tokens = Math.min(limit.capacity(),
+                        state[0] + Math.max(0, System.currentTimeMillis() - state[1]) / 1000.0 * limit.refillPerSecond());
+                return tokens >= 1 ? Decision.ALLOWED
+                        : new Decision(false, toSeconds((long) Math.ceil((1 - tokens) / limit.refillPerSecond() * 1000)));
+            }
+            return bucket.peekLocal(limit);
+        }
+    }
+
+    // {tokens, ts} of the shared bucket, an empty array if it does not exist, or null if Redis is unavailable
+    private double[] readFromRedis(String key) {
+        if (redisTemplate == null || System.nanoTime() < redisDownUntil) {
+            return null;
+        }
+        try {
+            HashOperations<String, String, String> hashOperations = redisTemplate.opsForHash();
+            List<String> state = hashOperations.multiGet(KEY_PREFIX + key, List.of("tokens", "ts"));
+            if (state == null || state.size() < 2 || state.get(0) == null || state.get(1) == null) {
+                return new double[0];
+            }
+            return new double[]{Double.parseDouble(state.get(0)), Double.parseDouble(state.get(1))};
+        } catch (RuntimeException e) {
+            log.warn("Rate limiter falling back to local buckets: {}", e.getMessage());
+            redisDownUntil = System.nanoTime() + REDIS_RETRY_NANOS;
+            return null;
+        }
+    }
+
+    private long[] takeFromRedis(String key, Limit limit, int requested) {
+        if (redisTemplate == null || System.nanoTime() < redisDownUntil) {
+            return null;
+        }
+        try {
+            List<?> result = redisTemplate.execute(TAKE_SCRIPT, List.of(KEY_PREFIX + key),
+                    String.valueOf(limit.capacity()), String.valueOf(limit.refillPerSecond()), String.valueOf(requested));
+            if (result == null || result.size() < 3) {
+                return null;
+            }
+            return new long[]{((Number) result.get(0)).longValue(), ((Number) result.get(1)).longValue(), ((Number) result.get(2)).longValue()};
+        } catch (RuntimeException e) {
+            log.warn("Rate limiter falling back to local buckets: {}", e.getMessage());
+            redisDownUntil = System.nanoTime() + REDIS_RETRY_NANOS;
+            return null;
+        }
+    }
+
+    private LocalBucket bucket(String key, Limit limit) {
+        if (buckets.size() > MAX_LOCAL_BUCKETS) {
+            long now = System.nanoTime();
+            buckets.entrySet().removeIf(entry -> now - entry.getValue().lastAccessNanos > IDLE_EVICTION_NANOS);
+        }
+        LocalBucket bucket = buckets.computeIfAbsent(key, k -> new LocalBucket(limit));
+        bucket.lastAccessNanos = System.nanoTime();
+        return bucket;
+    }
+
+    private static long toSeconds(long millis) {
+        return Math.max(1, (millis + 999) / 1000);
+    }
+
+    private static final class LocalBucket {
+        long leased;
+        double tokens;
+        long lastRefillNanos;
+        volatile long lastAccessNanos;
+
+        LocalBucket(Limit limit) {
+            this.tokens = limit.capacity();
+            this.lastRefillNanos = System.nanoTime();
+        }
+
+        Decision takeLocal(Limit limit) {
+            refill(limit);
+            if (tokens >= 1) {
+                tokens -= 1;
+                return Decision.ALLOWED;
+            }
+            return new Decision(false, retryAfter(limit));
+        }
+
+        Decision peekLocal(Limit limit) {
+            refill(limit);
+            return tokens >= 1 ? Decision.ALLOWED : new Decision(false, retryAfter(limit));
+        }
+
+        private void refill(Limit limit) {
+            long now = System.nanoTime();
+            tokens = Math.min(limit.capacity(), tokens + (now - lastRefillNanos) / 1e9 * limit.refillPerSecond());
+            lastRefillNanos = now;
+        }
+
+        private long retryAfter(Limit limit) {
+            return toSeconds((long) Math.ceil((1 - tokens) / limit.refillPerSecond() * 1000));
+        }
+    }
+}
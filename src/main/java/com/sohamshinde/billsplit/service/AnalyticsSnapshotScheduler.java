@@ -0,0 +1,26 @@
+package com.sohamshinde.billsplit.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class AnalyticsSnapshotScheduler {
+
+    private final AnalyticsSnapshotService analyticsSnapshotService;
+
+    // Off by default: the export directory has to be provisioned first
+    @Value("${analytics.export.enabled:false}")
+    private boolean enabled;
+
+    public AnalyticsSnapshotScheduler(AnalyticsSnapshotService analyticsSnapshotService) {
+        this.analyticsSnapshotService = analyticsSnapshotService;
+    }
+
+    @Scheduled(cron = "${analytics.export.cron:0 0 2 * * *}")
+    public void exportSnapshot() {
+        if (enabled) {
+            analyticsSnapshotService.exportChanges();
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.sohamshinde.billsplit.service;
+
+import com.sohamshinde.billsplit.entity.AnalyticsWatermark;
+import com.sohamshinde.billsplit.repository.AnalyticsWatermarkRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Exports changed expenses and their participant shares as Arrow IPC files for offline analytics,
+ * laid out as {@code <dataset>/month=YYYY-MM/group=<id|none>/part-<run>.arrow} by expense creation month.
+ *
+ * Each run exports the rows updated since the stored watermark. A changed expense is written again in a
+ * new part file, so readers keep the row with the latest updated_at per expense. Deleting an expense leaves
+ * no row to export, so ExpenseService records a tombstone instead, and the {@code deleted} dataset lists those
+ * deleted in the window, in the partition the expense was in: readers drop every expense and share row with
+ * a listed expense_id. IDs are never reused, so a tombstone needs no comparison with updated_at.
+ * Files are written under a temporary name and only renamed once the whole run succeeded; the watermark
+ * row is locked for the run, so only one node exports at a time.
+ */
+@Service
+@Slf4j
+public class AnalyticsSnapshotService {
+
+    static final String WATERMARK_NAME = "expense-snapshot";
+
+    private static final ArrowType ID = new ArrowType.Int(64, true);
+    private static final ArrowType MONEY = new ArrowType.Decimal(38, 2, 128);
+    private static final ArrowType TEXT = ArrowType.Utf8.INSTANCE;
+    private static final ArrowType TIMESTAMP = new ArrowType.Timestamp(TimeUnit.MILLISECOND, null);
+
+    static final Schema EXPENSE_SCHEMA = new Schema(List.of(
+            column("expense_id", ID, false),
+            column("group_id", ID, true),
+            column("payer_id", ID, false),
+            column("amount", MONEY, false),
+            column("currency", TEXT, false),
+            column("category", TEXT, false),
+            column("status", TEXT, false),
+            column("split_type", TEXT, false),
+            column("description", TEXT, true),
+            column("created_at", TIMESTAMP, true),
+            column("updated_at", TIMESTAMP, true)));
+
+    static final Schema SHARE_SCHEMA = new Schema(List.of(
+            column("expense_id", ID, false),
+            column("user_id", ID, false),
+            column("share", MONEY, false),
+            column("currency", TEXT, false),
+            column("updated_at", TIMESTAMP, true)));
+
+    static final Schema DELETED_SCHEMA = new Schema(List.of(
+            column("expense_id", ID, false),
+            column("group_id", ID, true),
+            column("deleted_at", TIMESTAMP, false)));
+
+    // Schema columns first, then the partition keys
+    private static final String PARTITION_COLUMNS = "COALESCE(CAST(e.group_id AS text), 'none') AS group_key, " +
+            "to_char(e.created_at, 'YYYY-MM') AS month ";
+
+    private static final String CHANGED = "e.updated_at > ? AND e.updated_at <= ?";
+
+    private static final String EXPENSE_SQL = "SELECT e.id, e.group_id, e.payer_id, e.amount, e.currency, e.category, e.status, " +
+            "e.split_type, e.description, e.created_at, e.updated_at, " + PARTITION_COLUMNS +
+            "FROM expense e WHERE " + CHANGED + " ORDER BY month, group_key, e.id";
+
+    private static final String SHARE_SQL = "SELECT e.id, s.user_id, s.share, e.currency, e.updated_at, " + PARTITION_COLUMNS +
+            "FROM expense e JOIN participant_shares s ON s.expense_id = e.id " +
+            "WHERE " + CHANGED + " AND e.participant_ids IS NULL " +
+            "UNION ALL " +
+            "SELECT e.id, p.user_id, e.equal_share_base + CASE WHEN p.ord <= e.equal_share_remainder THEN 0.01 ELSE 0 END, " +
+            "e.currency, e.updated_at, " + PARTITION_COLUMNS +
+            "FROM expense e CROSS JOIN LATERAL unnest(e.participant_ids) WITH ORDINALITY AS p(user_id, ord) " +
+            "WHERE " + CHANGED + " AND e.participant_ids IS NOT NULL " +
+            "ORDER BY month, group_key, id, user_id";
+
+    private static final String DELETED_SQL = "SELECT e.expense_id, e.group_id, e.deleted_at, " + PARTITION_COLUMNS +
+            "FROM expense_deletion e WHERE e.deleted_at > ? AND e.deleted_at <= ? ORDER BY month, group_key, e.expense_id";
+
+    private static final DateTimeFormatter RUN_ID = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AnalyticsWatermarkRepository watermarkRepository;
+
+    @Value("${analytics.export.directory:analytics}")
+    private String directory = "analytics";
+
+    @Value("${analytics.export.batch-rows:65536}")
+    private int batchRows = 65536;
+
+    @Value("${analytics.export.fetch-size:1000}")
+    private int fetchSize = 1000;
+
+    // Rows newer than this are left for the next run, so transactions still in flight are not skipped
+    @Value("${analytics.export.safety-lag-seconds:60}")
+    private long safetyLagSeconds = 60;
+
+    public AnalyticsSnapshotService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                    AnalyticsWatermarkRepository watermarkRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.watermarkRepository = watermarkRepository;
+    }
+
+    /**
+     * Runs one incremental export.
+     *
+     * @return the number of files written; 0 when nothing changed or another node is exporting
+     */
+    public int exportChanges() {
+        transactionTemplate.executeWithoutResult(status ->
+                watermarkRepository.insertIfAbsent(WATERMARK_NAME, LocalDateTime.of(1970, 1, 1, 0, 0)));
+
+        Integer files = transactionTemplate.execute(status -> {
+            AnalyticsWatermark watermark = watermarkRepository.lockByName(WATERMARK_NAME).orElse(null);
+            if (watermark == null) {
+                return 0;
+            }
+            LocalDateTime from = watermark.getWatermark();
+            LocalDateTime to = LocalDateTime.now().minusSeconds(safetyLagSeconds);
+            if (!to.isAfter(from)) {
+                return 0;
+            }
+
+            List<Path> written = new ArrayList<>();
+            String runId = RUN_ID.format(to);
+            try (BufferAllocator allocator = new RootAllocator()) {
+                written.addAll(export(allocator, "expenses", EXPENSE_SCHEMA, EXPENSE_SQL, runId, from, to));
+                written.addAll(export(allocator, "shares", SHARE_SCHEMA, SHARE_SQL, runId, from, to, from, to));
+                written.addAll(export(allocator, "deleted", DELETED_SCHEMA, DELETED_SQL, runId, from, to));
+                for (Path file : written) {
+                    Files.move(file, temporaryToFinal(file), StandardCopyOption.ATOMIC_MOVE);
+                }
+            } catch (IOException | RuntimeException e) {
+                written.forEach(AnalyticsSnapshotService::deleteQuietly);
+                throw e instanceof IOException io ? new UncheckedIOException(io) : (RuntimeException) e;
+            }
+
+            watermark.setWatermark(to);
+            watermark.setLastRunAt(LocalDateTime.now());
+            watermarkRepository.save(watermark);
+            log.info("Exported analytics snapshot {} ({} files) for changes in ({}, {}]", runId, written.size(), from, to);
+            return written.size();
+        });
+        return files != null ? files : 0;
+    }
+
+    private List<Path> export(BufferAllocator allocator, String dataset, Schema schema, String sql, String runId,
+                              LocalDateTime... window) throws IOException {
+        PartitionSink sink = new PartitionSink(allocator, Paths.get(directory, dataset), schema, runId);
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                for (int i = 0; i < window.length; i++) {
+                    statement.setTimestamp(i + 1, Timestamp.valueOf(window[i]));
+                }
+                return statement;
+            }, sink);
+        } finally {
+            sink.close();
+        }
+        return sink.files;
+    }
+
+    private static Path temporaryToFinal(Path file) {
+        String name = file.getFileName().toString();
+        return file.resolveSibling(name.substring(0, name.length() - ".tmp".length()));
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete partial snapshot file {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static Field column(String name, ArrowType type, boolean nullable) {
+        return new Field(name, new FieldType(nullable, type, null), null);
+    }
+
+    // Rows arrive sorted by partition, so at most one file is open at a time
+    private final class PartitionSink implements RowCallbackHandler {
+        private final BufferAllocator allocator;
+        private final Path datasetDirectory;
+        private final Schema schema;
+        private final String runId;
+        private final List<Path> files = new ArrayList<>();
+        private String partition;
+        private ArrowPartitionWriter writer;
+
+        PartitionSink(BufferAllocator allocator, Path datasetDirectory, Schema schema, String runId) {
+            this.allocator = allocator;
+            this.datasetDirectory = datasetDirectory;
+            this.schema = schema;
+            this.runId = runId;
+        }
+
+        @Override
+        public void processRow(ResultSet resultSet) throws SQLException {
+            int keyColumn = schema.getFields().size() + 1;
+            String group = resultSet.getString(keyColumn);
+            String month = resultSet.getString(keyColumn + 1);
+            try {
+                if (writer == null || !(month + "/" + group).equals(partition)) {
+                    close();
+                    partition = month + "/" + group;
+                    Path file = datasetDirectory.resolve("month=" + month).resolve("group=" + group)
+                            .resolve("part-" + runId + ".arrow.tmp");
+                    files.add(file);
+                    writer = new ArrowPartitionWriter(schema, allocator, file, batchRows);
+                }
+                writer.append(resultSet);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void close() throws IOException {
+            if (writer != null) {
+                writer.close();
+                writer = null;
+            }
+        }
+    }
+}
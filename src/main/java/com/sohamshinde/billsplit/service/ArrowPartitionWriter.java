@@ -0,0 +1,109 @@
+package com.sohamshinde.billsplit.service;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.DecimalVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.TimeStampMilliVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowFileWriter;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.ZoneOffset;
+
+/**
+ * Writes result set rows into one Arrow IPC file, a record batch every {@code batchRows} rows,
+ * so memory stays bounded by the batch size. Column i of the schema is read from result set column i + 1.
+ * Timestamps are stored without a time zone, as the wall-clock time the database holds.
+ */
+final class ArrowPartitionWriter implements AutoCloseable {
+
+    private final VectorSchemaRoot root;
+    private final FileOutputStream out;
+    private final ArrowFileWriter writer;
+    private final int batchRows;
+    private int rows;
+
+    ArrowPartitionWriter(Schema schema, BufferAllocator allocator, Path file, int batchRows) throws IOException {
+        Files.createDirectories(file.getParent());
+        this.out = new FileOutputStream(file.toFile());
+        this.root = VectorSchemaRoot.create(schema, allocator);
+        this.writer = new ArrowFileWriter(root, null, out.getChannel());
+        this.batchRows = batchRows;
+        root.allocateNew();
+        writer.start();
+    }
+
+    void append(ResultSet resultSet) throws SQLException, IOException {
+        for (int i = 0; i < root.getFieldVectors().size(); i++) {
+            FieldVector vector = root.getVector(i);
+            int column = i + 1;
+            if (vector instanceof BigIntVector bigInt) {
+                long value = resultSet.getLong(column);
+                if (resultSet.wasNull()) {
+                    bigInt.setNull(rows);
+                } else {
+                    bigInt.setSafe(rows, value);
+                }
+            } else if (vector instanceof DecimalVector decimal) {
+                BigDecimal value = resultSet.getBigDecimal(column);
+                if (value == null) {
+                    decimal.setNull(rows);
+                } else {
+                    decimal.setSafe(rows, value.setScale(decimal.getScale(), RoundingMode.UNNECESSARY));
+                }
+            } else if (vector instanceof VarCharVector varChar) {
+                String value = resultSet.getString(column);
+                if (value == null) {
+                    varChar.setNull(rows);
+                } else {
+                    varChar.setSafe(rows, value.getBytes(StandardCharsets.UTF_8));
+                }
+            } else if (vector instanceof TimeStampMilliVector timestamp) {
+                Timestamp value = resultSet.getTimestamp(column);
+                if (value == null) {
+                    timestamp.setNull(rows);
+                } else {
+                    timestamp.setSafe(rows, value.toLocalDateTime().toInstant(ZoneOffset.UTC).toEpochMilli());
+                }
+            } else {
+                throw new IllegalStateException("Unsupported column type: " + vector.getField());
+            }
+        }
+        if (++rows == batchRows) {
+            writeBatch();
+        }
+    }
+
+    private void writeBatch() throws IOException {
+        root.setRowCount(rows);
+        writer.writeBatch();
+        root.allocateNew();
+        rows = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (rows > 0) {
+                writeBatch();
+            }
+            writer.end();
+        } finally {
+            writer.close();
+            root.close();
+            out.close();
+        }
+    }
+}
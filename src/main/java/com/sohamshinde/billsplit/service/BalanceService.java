@@ -0,0 +1,126 @@
+package com.sohamshinde.billsplit.service;
+
+import com.sohamshinde.billsplit.entity.Expense;
+import com.sohamshinde.billsplit.entity.GroupBalance;
+import com.sohamshinde.billsplit.entity.Settlement;
+import com.sohamshinde.billsplit.enums.Currency;
+import com.sohamshinde.billsplit.repository.GroupBalanceRepository;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Maintains the derived per-group balances. Callers pass the state of an expense before and after
+ * a change and only the resulting non-zero deltas are written, always in (group, user, currency)
+ * order so concurrent transactions lock balance rows in the same order. Deltas for one group are
+ * sent as a single statement, so a split across thousands of members is still one round trip.
+ */
+@Service
+public class BalanceService {
+
+    // Keeps each bulk statement's parameter strings to a reasonable size
+    private static final int MAX_ROWS_PER_STATEMENT = 5000;
+
+    private final GroupBalanceRepository groupBalanceRepository;
+
+    public BalanceService(GroupBalanceRepository groupBalanceRepository) {
+        this.groupBalanceRepository = groupBalanceRepository;
+    }
+
+    public record BalanceKey(Long groupId, Long userId, Currency currency) implements Comparable<BalanceKey> {
+        private static final Comparator<BalanceKey> ORDER = Comparator.comparing(BalanceKey::groupId)
+                .thenComparing(BalanceKey::userId)
+                .thenComparing(BalanceKey::currency);
+
+        @Override
+        public int compareTo(BalanceKey other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    /**
+     * Balance contributions of an expense. The payer is credited with the sum of the shares rather
+     * than the raw amount, so rounding never leaves a group's balances summing to non-zero.
+     */
+    public Map<BalanceKey, BigDecimal> contributions(Expense expense) {
+        Map<BalanceKey, BigDecimal> deltas = new TreeMap<>();
+        boolean hasShares = ExpenseSplits.isCompact(expense)
+                || (expense.getParticipantShares() != null && !expense.getParticipantShares().isEmpty());
+        if (expense.getGroup() == null || expense.getPayer() == null || !hasShares) {
+            return deltas;
+        }
+
+        Long groupId = expense.getGroup().getId();
+        BigDecimal[] owedToPayer = {BigDecimal.ZERO};
+        ExpenseSplits.forEachShare(expense, (userId, share) -> {
+            deltas.merge(new BalanceKey(groupId, userId, expense.getCurrency()), share.negate(), BigDecimal::add);
+            owedToPayer[0] = owedToPayer[0].add(share);
+        });
+        deltas.merge(new BalanceKey(groupId, expense.getPayer().getId(), expense.getCurrency()), owedToPayer[0], BigDecimal::add);
+        return deltas;
+    }
+
+    public void applyExpense(Expense expense) {
+        applyChange(Collections.emptyMap(), contributions(expense));
+    }
+
+    public void revertExpense(Expense expense) {
+        applyChange(contributions(expense), Collections.emptyMap());
+    }
+
+    public void applySettlement(Settlement settlement) {
+        Map<BalanceKey, BigDecimal> deltas = new TreeMap<>();
+        Long groupId = settlement.getGroup().getId();
+        deltas.merge(new BalanceKey(groupId, settlement.getPayer().getId(), settlement.getCurrency()), settlement.getAmount(), BigDecimal::add);
+        deltas.merge(new BalanceKey(groupId, settlement.getPayee().getId(), settlement.getCurrency()), settlement.getAmount().negate(), BigDecimal::add);
+        applyChange(Collections.emptyMap(), deltas);
+    }
+
+    /**
+     * Writes the difference between two sets of contributions; identical inputs write nothing.
+     */
+    public void applyChange(Map<BalanceKey, BigDecimal> before, Map<BalanceKey, BigDecimal> after) {
+        Map<BalanceKey, BigDecimal> diff = new TreeMap<>();
+        after.forEach((key, value) -> diff.merge(key, value, BigDecimal::add));
+        before.forEach((key, value) -> diff.merge(key, value.negate(), BigDecimal::add));
+
+        List<Map.Entry<BalanceKey, BigDecimal>> run = new ArrayList<>();
+        for (Map.Entry<BalanceKey, BigDecimal> entry : diff.entrySet()) {
+            if (entry.getValue().signum() == 0) {
+                continue;
+            }
+            if (!run.isEmpty() && (!run.get(0).getKey().groupId().equals(entry.getKey().groupId()) || run.size() == MAX_ROWS_PER_STATEMENT)) {
+                write(run);
+                run.clear();
+            }
+            run.add(entry);
+        }
+        if (!run.isEmpty()) {
+            write(run);
+        }
+    }
+
+    // Writes a run of deltas that all belong to one group
+    private void write(List<Map.Entry<BalanceKey, BigDecimal>> run) {
+        if (run.size() == 1) {
+            BalanceKey key = run.get(0).getKey();
+            groupBalanceRepository.addToBalance(key.groupId(), key.userId(), key.currency().name(), run.get(0).getValue());
+            return;
+        }
+
+        StringJoiner userIds = new StringJoiner(",");
+        StringJoiner currencies = new StringJoiner(",");
+        StringJoiner deltas = new StringJoiner(",");
+        for (Map.Entry<BalanceKey, BigDecimal> entry : run) {
+            userIds.add(entry.getKey().userId().toString());
+            currencies.add(entry.getKey().currency().name());
+            deltas.add(entry.getValue().toPlainString());
+        }
+        groupBalanceRepository.addToBalances(run.get(0).getKey().groupId(), userIds.toString(), currencies.toString(), deltas.toString());
+    }
+
+    public List<GroupBalance> getBalances(Long groupId) {
+        return groupBalanceRepository.findAllByGroupIdOrderByUserId(groupId);
+    }
+}
@@ -0,0 +1,198 @@
+package com.sohamshinde.billsplit.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sohamshinde.billsplit.dto.BulkRegistrationResultDto;
+import com.sohamshinde.billsplit.dto.UserRegistrationDto;
+import com.sohamshinde.billsplit.repository.UserRepository;
+import com.sohamshinde.billsplit.repository.UserRepository.InsertedUser;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Registers many users in one request, e.g. when a company onboards its employees.
+ *
+ * Compared to calling UserService.registerUser per user: existing emails are found with one IN query per
+ * chunk, passwords are hashed in parallel on a fixed-size pool, every batch of users and its verification
+ * tokens is written with one statement each, and verification emails are queued instead of sent inline.
+ * Accounts are created disabled, exactly like single registrations, until their email is verified.
+ */
+@Service
+@Slf4j
+public class BulkRegistrationService {
+
+    // Same link host as single registrations
+    private static final String VERIFICATION_HOST = "localhost:8080";
+
+    private final UserRepository userRepository;
+    private final VerificationTokenStore verificationTokenStore;
+    private final PasswordEncoder passwordEncoder;
+    private final VerificationMailer verificationMailer;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    // BCrypt is deliberately slow; a fixed pool keeps bulk imports from taking every core away from regular requests
+    private final ThreadPoolTaskExecutor hashingExecutor;
+    private final int hashingThreads;
+
+    @Value("${user.bulk-registration.max-users:10000}")
+    private int maxUsers = 10000;
+
+    @Value("${user.bulk-registration.batch-size:1000}")
+    private int batchSize = 1000;
+
+    public BulkRegistrationService(UserRepository userRepository, VerificationTokenStore verificationTokenStore,
+                                   PasswordEncoder passwordEncoder, VerificationMailer verificationMailer,
+                                   TransactionTemplate transactionTemplate, ObjectMapper objectMapper,
+                                   @Value("${user.bulk-registration.hashing-threads:0}") int hashingThreads) {
+        this.userRepository = userRepository;
+        this.verificationTokenStore = verificationTokenStore;
+        this.passwordEncoder = passwordEncoder;
+        this.verificationMailer = verificationMailer;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+
+        // 0 means half the cores
+        this.hashingThreads = hashingThreads > 0 ? hashingThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        hashingExecutor = new ThreadPoolTaskExecutor();
+        hashingExecutor.setCorePoolSize(this.hashingThreads);
+        hashingExecutor.setMaxPoolSize(this.hashingThreads);
+        hashingExecutor.setThreadNamePrefix("password-hash-");
+        hashingExecutor.setDaemon(true);
+        hashingExecutor.initialize();
+    }
+
+    public BulkRegistrationResultDto registerUsers(List<UserRegistrationDto> users) {
+        if (users.size() > maxUsers) {
+            throw new IllegalArgumentException("At most " + maxUsers + " users can be registered per request");
+        }
+
+        List<String> skipped = new ArrayList<>();
+        Map<String, UserRegistrationDto> byEmail = new LinkedHashMap<>();
+        for (UserRegistrationDto user : users) {
+            if (user.getGender() == null) {
+                throw new IllegalArgumentException("Gender is required for " + user.getEmail());
+            }
+            if (byEmail.putIfAbsent(user.getEmail(), user) != null) {
+                skipped.add(user.getEmail());
+            }
+        }
+
+        Set<String> existing = findExistingEmails(new ArrayList<>(byEmail.keySet()));
+        List<UserRegistrationDto> pending = new ArrayList<>(byEmail.size());
+        for (UserRegistrationDto user : byEmail.values()) {
+            if (existing.contains(user.getEmail())) {
+                skipped.add(user.getEmail());
+            } else {
+                pending.add(user);
+            }
+        }
+
+        // Hashing for every batch starts right away, so later batches are hashed while earlier ones are written
+        List<List<UserRegistrationDto>> batches = new ArrayList<>();
+        List<CompletableFuture<List<String>>> hashes = new ArrayList<>();
+        for (int i = 0; i < pending.size(); i += batchSize) {
+            List<UserRegistrationDto> batch = pending.subList(i, Math.min(i + batchSize, pending.size()));
+            batches.add(batch);
+            hashes.add(hashPasswords(batch));
+        }
+
+        int registered = 0;
+        for (int i = 0; i < batches.size(); i++) {
+            List<UserRegistrationDto> batch = batches.get(i);
+            List<String> passwords = hashes.get(i).join();
+            Map<String, Long> userIdsByToken = new LinkedHashMap<>();
+
+            List<InsertedUser> inserted = transactionTemplate.execute(status -> {
+                List<InsertedUser> rows = userRepository.insertUnverified(toJson(batch, passwords));
+                for (InsertedUser row : rows) {
+                    userIdsByToken.put(UUID.randomUUID().toString(), row.getId());
+                }
+                verificationTokenStore.saveAll(userIdsByToken, LocalDateTime.now().plusHours(24));
+                return rows;
+            });
+
+            // Queued only after the commit, so no email links to a token that was rolled back
+            Map<Long, String> tokensByUserId = new LinkedHashMap<>();
+            userIdsByToken.forEach((token, userId) -> tokensByUserId.put(userId, token));
+            Set<String> insertedEmails = new HashSet<>();
+            for (InsertedUser row : inserted) {
+                insertedEmails.add(row.getEmail());
+                UserRegistrationDto user = byEmail.get(row.getEmail());
+                verificationMailer.queue(row.getEmail(), user.getName(), VERIFICATION_HOST, tokensByUserId.get(row.getId()));
+            }
+            // Registered by someone else since the existence check
+            for (UserRegistrationDto user : batch) {
+                if (!insertedEmails.contains(user.getEmail())) {
+                    skipped.add(user.getEmail());
+                }
+            }
+            registered += inserted.size();
+        }
+
+        log.info("Bulk registration: {} received, {} registered, {} skipped", users.size(), registered, skipped.size());
+        return new BulkRegistrationResultDto(users.size(), registered, skipped);
+    }
+
+    private Set<String> findExistingEmails(List<String> emails) {
+        Set<String> existing = new HashSet<>();
+        for (int i = 0; i < emails.size(); i += 1000) {
+            existing.addAll(userRepository.findExistingEmails(emails.subList(i, Math.min(i + 1000, emails.size()))));
+        }
+        return existing;
+    }
+
+    // Splits the batch into one slice per hashing thread; the result keeps the batch order
+    private CompletableFuture<List<String>> hashPasswords(List<UserRegistrationDto> batch) {
+        int sliceSize = Math.max(1, (batch.size() + hashingThreads - 1) / hashingThreads);
+        List<CompletableFuture<List<String>>> slices = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i += sliceSize) {
+            List<UserRegistrationDto> slice = batch.subList(i, Math.min(i + sliceSize, batch.size()));
+            slices.add(CompletableFuture.supplyAsync(() -> {
+                List<String> encoded = new ArrayList<>(slice.size());
+                for (UserRegistrationDto user : slice) {
+                    encoded.add(passwordEncoder.encode(user.getPassword()));
+                }
+                return encoded;
+            }, hashingExecutor));
+        }
+        return CompletableFuture.allOf(slices.toArray(new CompletableFuture[0])).thenApply(done -> {
+            List<String> encoded = new ArrayList<>(batch.size());
+            slices.forEach(slice -> encoded.addAll(slice.join()));
+            return encoded;
+        });
+    }
+
+    private String toJson(List<UserRegistrationDto> batch, List<String> passwords) {
+        List<Map<String, Object>> rows = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            UserRegistrationDto user = batch.get(i);
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("name", user.getName());
+            row.put("email", user.getEmail());
+            row.put("phone", user.getPhone());
+            row.put("password", passwords.get(i));
+            row.put("gender", user.getGender());
+            rows.add(row);
+        }
+        try {
+            return objectMapper.writeValueAsString(rows);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize users", e);
+        }
+    }
+}
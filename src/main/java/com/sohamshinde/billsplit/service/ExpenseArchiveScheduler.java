@@ -0,0 +1,54 @@
+package com.sohamshinde.billsplit.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+@Component
+@Slf4j
+public class ExpenseArchiveScheduler {
+
+    private final ExpenseArchiveService expenseArchiveService;
+
+    @Value("${expense.archive.enabled:true}")
+    private boolean enabled = true;
+
+    // Settled expenses untouched for this long are archived
+    @Value("${expense.archive.min-age-days:365}")
+    private int minAgeDays = 365;
+
+    @Value("${expense.archive.batch-size:500}")
+    private int batchSize = 500;
+
+    // Caps the work done per run; anything left over is picked up by the next run
+    @Value("${expense.archive.max-batches-per-run:100}")
+    private int maxBatchesPerRun = 100;
+
+    public ExpenseArchiveScheduler(ExpenseArchiveService expenseArchiveService) {
+        this.expenseArchiveService = expenseArchiveService;
+    }
+
+    @Scheduled(cron = "${expense.archive.cron:0 30 3 * * *}")
+    public void archiveSettledExpenses() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(minAgeDays);
+        int archived = 0;
+
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int handled = expenseArchiveService.archiveBatch(cutoff);
+            archived += handled;
+            if (handled < batchSize) {
+                break;
+            }
+        }
+
+        if (archived > 0) {
+            log.info("Archived {} settled expenses older than {}", archived, cutoff);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.sohamshinde.billsplit.service;
+
+import com.sohamshinde.billsplit.entity.ArchivedExpense;
+import com.sohamshinde.billsplit.entity.Expense;
+import com.sohamshinde.billsplit.enums.ExpenseStatus;
+import com.sohamshinde.billsplit.repository.ArchivedExpenseRepository;
+import com.sohamshinde.billsplit.repository.ExpenseRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves settled expenses that have not changed for a while out of the hot expense tables into
+ * {@link ArchivedExpense}. Reads fall back to the archive (see ExpenseService), so clients do not notice the move.
+ */
+@Service
+public class ExpenseArchiveService {
+
+    private final ExpenseRepository expenseRepository;
+    private final ArchivedExpenseRepository archivedExpenseRepository;
+    private final ExpenseService expenseService;
+
+    @Value("${expense.archive.batch-size:500}")
+    private int batchSize = 500;
+
+    public ExpenseArchiveService(ExpenseRepository expenseRepository, ArchivedExpenseRepository archivedExpenseRepository,
+                                 ExpenseService expenseService) {
+        this.expenseRepository = expenseRepository;
+        this.archivedExpenseRepository = archivedExpenseRepository;
+        this.expenseService = expenseService;
+    }
+
+    /**
+     * Archives one batch of expenses settled before {@code cutoff}. The copy and the delete share a transaction,
+     * so an expense is never in both places or in neither.
+     *
+     * @return the number of expenses archived; a full batch means more may be waiting
+     */
+    @Transactional
+    public int archiveBatch(LocalDateTime cutoff) {
+        List<Expense> expenses = expenseRepository.lockArchivable(ExpenseStatus.SETTLED, cutoff, PageRequest.of(0, batchSize));
+        if (expenses.isEmpty()) {
+            return 0;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<ArchivedExpense> archived = new ArrayList<>(expenses.size());
+        List<Long> ids = new ArrayList<>(expenses.size());
+        for (Expense expense : expenses) {
+            archived.add(ArchivedExpense.builder()
+                    .id(expense.getId())
+                    .groupId(expense.getGroup() != null ? expense.getGroup().getId() : null)
+                    .payerId(expense.getPayer().getId())
+                    .participantIds(ExpenseSplits.participantIds(expense).toArray(new Long[0]))
+                    .amount(expense.getAmount())
+                    .currency(expense.getCurrency())
+                    .status(expense.getStatus())
+                    .category(expense.getCategory())
+                    .document(expenseService.convertToDto(expense))
+                    .createdAt(expense.getCreatedAt())
+                    .archivedAt(now)
+                    .build());
+            ids.add(expense.getId());
+        }
+
+        archivedExpenseRepository.saveAll(archived);
+        archivedExpenseRepository.flush();
+        expenseRepository.deleteSharesByExpenseIds(ids);
+        expenseRepository.deleteParticipantsByExpenseIds(ids);
+        expenseRepository.deleteByIds(ids);
+        return expenses.size();
+    }
+}
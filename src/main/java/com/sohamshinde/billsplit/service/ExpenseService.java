@@ -1,48 +1,91 @@
 package com.sohamshinde.billsplit.service;
 
 import com.sohamshinde.billsplit.dto.ExpenseDto;
+import com.sohamshinde.billsplit.dto.ExpenseFilterDto;
+import com.sohamshinde.billsplit.dto.ExpenseSearchHitDto;
+import com.sohamshinde.billsplit.dto.ExpenseSearchResultDto;
+import com.sohamshinde.billsplit.entity.ArchivedExpense;
 import com.sohamshinde.billsplit.entity.Expense;
 import com.sohamshinde.billsplit.entity.Group;
 import com.sohamshinde.billsplit.entity.User;
 import com.sohamshinde.billsplit.exceptions.ExpenseException;
+import com.sohamshinde.billsplit.repository.ArchivedExpenseRepository;
+import com.sohamshinde.billsplit.repository.ExpenseDeletionRepository;
 import com.sohamshinde.billsplit.repository.ExpenseRepository;
+import com.sohamshinde.billsplit.repository.ExpenseSpecifications;
+import com.sohamshinde.billsplit.security.BulkRead;
+import com.sohamshinde.billsplit.enums.ExpenseCategory;
+import com.sohamshinde.billsplit.enums.ExpenseStatus;
 import com.sohamshinde.billsplit.enums.SplitType;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
-import static com.sohamshinde.billsplit.utils.AuthUtil.getAuthenticatedUser;
+import static com.sohamshinde.billsplit.utils.AuthUtil.getAuthenticatedUserId;
 
 @Service
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class ExpenseService {
 
+    // Properties the list endpoints may sort on; each is the last column of the composite indexes on Expense
+    private static final Set<String> SORTABLE_PROPERTIES = Set.of("createdAt", "amount", "id");
+
     private UserService userService;
 
     private GroupService groupService;
 
     private ExpenseRepository expenseRepository;
 
+    private BalanceService balanceService;
+
+    private ArchivedExpenseRepository archivedExpenseRepository;
+
+    private ExpenseDeletionRepository expenseDeletionRepository;
+
     @Value("${cache.expense.enabled:false}") // Default is false if not set
     private boolean isCacheEnabled;
 
     private RedisTemplate<String, ExpenseDto> redisTemplate;
 
-    public ExpenseService(UserService userService, GroupService groupService, ExpenseRepository expenseRepository, RedisTemplate<String, ExpenseDto> redisTemplate) {
+    // Participant lists at least this long are resolved in bulk and computed with fork/join
+    @Value("${expense.parallel.min-participants:20000}")
+    private int parallelThreshold = 20000;
+
+    // EQUAL splits with at least this many participants are stored packed (see ExpenseSplits); 0 disables packing
+    @Value("${expense.compact.min-participants:1000}")
+    private int compactMinParticipants = 1000;
+
+    public ExpenseService(UserService userService, GroupService groupService, ExpenseRepository expenseRepository,
+                          BalanceService balanceService, RedisTemplate<String, ExpenseDto> redisTemplate,
+                          ArchivedExpenseRepository archivedExpenseRepository, ExpenseDeletionRepository expenseDeletionRepository) {
         this.userService = userService;
         this.expenseRepository = expenseRepository;
+        this.archivedExpenseRepository = archivedExpenseRepository;
+        this.expenseDeletionRepository = expenseDeletionRepository;
         this.groupService = groupService;
+        this.balanceService = balanceService;
         this.redisTemplate = redisTemplate;
     }
 
+    @Transactional(rollbackFor = ExpenseException.class)
     public void addExpense(ExpenseDto expenseDto) throws ExpenseException {
         if (expenseDto.getAmount() == null) {
             throw new ExpenseException("Amount cannot be null");
@@ -65,7 +108,9 @@ public class ExpenseService {
             }
             participants = group.getMembers();
         } else if (expenseDto.getParticipantIds() != null) {
-            participants = expenseDto.getParticipantIds().stream()
+            participants = expenseDto.getParticipantIds().size() >= parallelThreshold
+                    ? userService.fetchUsersInBulk(expenseDto.getParticipantIds())
+                    : expenseDto.getParticipantIds().stream()
                     .map(userService::fetchUserById)
                     .filter(Objects::nonNull)
                     .collect(Collectors.toList());
@@ -76,18 +121,22 @@ public class ExpenseService {
             throw new ExpenseException("Either group ID or participant IDs must be provided");
         }
 
+        // ✅ Large equal splits are packed into the expense row instead of one row per participant
+        boolean pack = ExpenseSplits.shouldPack(expenseDto.getSplitType(), participants.size(), compactMinParticipants);
+
         // ✅ Use the common method to calculate shares
-        Map<User, BigDecimal> participantShares = calculateShares(
+        Map<User, BigDecimal> participantShares = pack ? new HashMap<>() : calculateShares(
                 expenseDto.getSplitType(),
                 expenseDto.getAmount(),
                 participants,
-                expenseDto.getParticipantShares()
+                expenseDto.getParticipantShares(),
+                parallelThreshold
         );
 
         Expense expense = Expense.builder()
                 .payer(payer)
                 .group(expenseDto.getGroupId() != null ? groupService.fetchGroupById(expenseDto.getGroupId()) : null)
-                .participants(participants)
+                .participants(pack ? new HashSet<>() : new HashSet<>(participants))
                 .amount(expenseDto.getAmount())
                 .currency(expenseDto.getCurrency())
                 .description(expenseDto.getDescription())
@@ -96,15 +145,32 @@ public class ExpenseService {
                 .status(expenseDto.getStatus())
                 .category(expenseDto.getCategory())
                 .build();
+        if (pack) {
+            ExpenseSplits.pack(expense, participants.stream().map(User::getId).collect(Collectors.toList()));
+        }
 
         expenseRepository.save(expense);
+        balanceService.applyExpense(expense);
     }
 
-    private static Map<User, BigDecimal> calculateShares(
+    static Map<User, BigDecimal> calculateShares(
             SplitType splitType,
             BigDecimal totalAmount,
             List<User> participants,
             Map<Long, BigDecimal> participantShares) throws ExpenseException {
+        return calculateShares(splitType, totalAmount, participants, participantShares, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Lists with at least {@code parallelThreshold} entries are summed and computed with fork/join;
+     * the result is identical to the sequential path.
+     */
+    static Map<User, BigDecimal> calculateShares(
+            SplitType splitType,
+            BigDecimal totalAmount,
+            List<User> participants,
+            Map<Long, BigDecimal> participantShares,
+            int parallelThreshold) throws ExpenseException {
 
         Map<User, BigDecimal> calculatedShares = new HashMap<>();
 
@@ -123,18 +189,15 @@ public class ExpenseService {
                 if (participantShares == null || participantShares.isEmpty()) {
                     throw new ExpenseException("Participant shares must be provided for PERCENTAGE split type");
                 }
-                BigDecimal totalPercentage = participantShares.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+                BigDecimal totalPercentage = ParallelShares.sum(new ArrayList<>(participantShares.values()), parallelThreshold);
                 if (totalPercentage.compareTo(BigDecimal.valueOf(100)) != 0) {
                     throw new ExpenseException("Total percentage must equal 100%");
                 }
-                for (Map.Entry<Long, BigDecimal> entry : participantShares.entrySet()) {
-                    User participant = participants.stream()
-                            .filter(p -> p.getId().equals(entry.getKey()))
-                            .findFirst()
-                            .orElseThrow(() -> new ExpenseException("Invalid participant ID: " + entry.getKey()));
-
-                    BigDecimal individualShare = totalAmount.multiply(entry.getValue()).divide(BigDecimal.valueOf(100), 2, BigDecimal.ROUND_HALF_UP);
-                    calculatedShares.put(participant, individualShare);
+                List<Map.Entry<User, BigDecimal>> percentages = resolveParticipants(participants, participantShares);
+                List<BigDecimal> amounts = ParallelShares.map(percentages, entry ->
+                        totalAmount.multiply(entry.getValue()).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP), parallelThreshold);
+                for (int i = 0; i < percentages.size(); i++) {
+                    calculatedShares.put(percentages.get(i).getKey(), amounts.get(i));
                 }
                 break;
 
@@ -142,17 +205,12 @@ public class ExpenseService {
                 if (participantShares == null || participantShares.isEmpty()) {
                     throw new ExpenseException("Participant shares must be provided for EXACT split type");
                 }
-                BigDecimal totalExactAmount = participantShares.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+                BigDecimal totalExactAmount = ParallelShares.sum(new ArrayList<>(participantShares.values()), parallelThreshold);
                 if (totalExactAmount.compareTo(totalAmount) != 0) {
                     throw new ExpenseException("Total exact shares must equal the total amount");
                 }
-                for (Map.Entry<Long, BigDecimal> entry : participantShares.entrySet()) {
-                    User participant = participants.stream()
-                            .filter(p -> p.getId().equals(entry.getKey()))
-                            .findFirst()
-                            .orElseThrow(() -> new ExpenseException("Invalid participant ID: " + entry.getKey()));
-
-                    calculatedShares.put(participant, entry.getValue());
+                for (Map.Entry<User, BigDecimal> entry : resolveParticipants(participants, participantShares)) {
+                    calculatedShares.put(entry.getKey(), entry.getValue());
                 }
                 break;
 
@@ -163,8 +221,31 @@ public class ExpenseService {
         return calculatedShares;
     }
 
+    // Pairs each requested share with its participant through an ID index, in ascending ID order
+    private static List<Map.Entry<User, BigDecimal>> resolveParticipants(List<User> participants, Map<Long, BigDecimal> participantShares)
+            throws ExpenseException {
+        Map<Long, User> participantsById = new HashMap<>();
+        for (User participant : participants) {
+            participantsById.putIfAbsent(participant.getId(), participant);
+        }
+
+        List<Long> userIds = new ArrayList<>(participantShares.keySet());
+        Collections.sort(userIds);
+
+        List<Map.Entry<User, BigDecimal>> resolved = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) {
+            User participant = participantsById.get(userId);
+            if (participant == null) {
+                throw new ExpenseException("Invalid participant ID: " + userId);
+            }
+            resolved.add(new AbstractMap.SimpleImmutableEntry<>(participant, participantShares.get(userId)));
+        }
+        return resolved;
+    }
+
+    @Transactional(readOnly = true)
     public ExpenseDto getExpenseById(Long expenseId) throws ExpenseException {
-        User authenticatedUser = getAuthenticatedUser();
+        Long authenticatedUserId = getAuthenticatedUserId();
         String cacheKey = "expense:" + expenseId; // ✅ Cache key for Redis
 
         // ✅ If caching is enabled, check Redis before querying the database
@@ -180,16 +261,25 @@ public class ExpenseService {
 
         // ⚠️ If cache is disabled or expense is not in Redis, fetch from DB
         System.out.println("⚠️ Fetching from Database...");
-        Expense expense = expenseRepository.findById(expenseId)
-                .orElseThrow(() -> new ExpenseException("Expense not found with ID: " + expenseId));
-
-        // ✅ Access control check
-        if (!expense.getPayer().equals(authenticatedUser) && !expense.getParticipants().contains(authenticatedUser)) {
-            throw new ExpenseException("Access denied: You are not a part of this expense");
+        Expense expense = expenseRepository.findById(expenseId).orElse(null);
+        ExpenseDto expenseDto;
+        if (expense != null) {
+            // ✅ Access control check
+            if (!authenticatedUserId.equals(expense.getPayer().getId()) && !ExpenseSplits.hasParticipant(expense, authenticatedUserId)) {
+                throw new ExpenseException("Access denied: You are not a part of this expense");
+            }
+            expenseDto = convertToDto(expense);
+        } else {
+            // Settled expenses moved out by the archival job are still readable
+            ArchivedExpense archived = archivedExpenseRepository.findById(expenseId)
+                    .orElseThrow(() -> new ExpenseException("Expense not found with ID: " + expenseId));
+            if (!authenticatedUserId.equals(archived.getPayerId())
+                    && !Arrays.asList(archived.getParticipantIds()).contains(authenticatedUserId)) {
+                throw new ExpenseException("Access denied: You are not a part of this expense");
+            }
+            expenseDto = archived.getDocument();
         }
 
-        ExpenseDto expenseDto = convertToDto(expense);
-
         // ✅ Store in Redis only if caching is enabled
         if (isCacheEnabled) {
             redisTemplate.opsForValue().set(cacheKey, expenseDto, 10, TimeUnit.MINUTES); // Cache for 10 mins
@@ -199,40 +289,172 @@ public class ExpenseService {
         return expenseDto;
     }
 
-    public List<ExpenseDto> getExpensesByUser() {
-        User authenticatedUser = getAuthenticatedUser();
-        List<Expense> expenses = expenseRepository.findAllByPayerOrParticipantsContaining(authenticatedUser, authenticatedUser);
-        return expenses.stream().map(this::convertToDto).collect(Collectors.toList());
-    }
+    /**
+     * Searches the caller's expenses by description text, category and amount range.
+     * Hits are ordered by relevance and then by newest ID; {@code after} is the cursor of the previous page.
+     */
+    @Transactional(readOnly = true)
+    @BulkRead
+    public ExpenseSearchResultDto searchExpenses(String text, ExpenseCategory category, BigDecimal minAmount,
+                                                 BigDecimal maxAmount, String after, int size) throws ExpenseException {
+        if (minAmount != null && maxAmount != null && minAmount.compareTo(maxAmount) > 0) {
+            throw new ExpenseException("Minimum amount cannot exceed maximum amount");
+        }
+        Float afterRank = null;
+        Long afterId = null;
+        if (after != null && !after.isBlank()) {
+            try {
+                String[] cursor = new String(Base64.getUrlDecoder().decode(after), StandardCharsets.UTF_8).split(":");
+                afterRank = Float.valueOf(cursor[0]);
+                afterId = Long.valueOf(cursor[1]);
+            } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                throw new ExpenseException("Invalid search cursor");
+            }
+        }
 
+        // One extra row tells whether another page exists
+        List<ExpenseRepository.SearchRow> rows = expenseRepository.search(getAuthenticatedUserId(),
+                text != null ? text.trim() : "", category != null ? category.name() : null,
+                minAmount, maxAmount, afterRank, afterId, size + 1);
+        boolean hasMore = rows.size() > size;
+        if (hasMore) {
+            rows = rows.subList(0, size);
+        }
+
+        Map<Long, Expense> expenses = new HashMap<>();
+        expenseRepository.findAllById(rows.stream().map(ExpenseRepository.SearchRow::getId).collect(Collectors.toList()))
+                .forEach(expense -> expenses.put(expense.getId(), expense));
+        // Hits not in the expense table came from the archive
+        List<Long> archivedIds = rows.stream().map(ExpenseRepository.SearchRow::getId)
+                .filter(id -> !expenses.containsKey(id)).collect(Collectors.toList());
+        Map<Long, ExpenseDto> archived = new HashMap<>();
+        if (!archivedIds.isEmpty()) {
+            archivedExpenseRepository.findAllById(archivedIds).forEach(expense -> archived.put(expense.getId(), expense.getDocument()));
+        }
 
-    public List<ExpenseDto> getExpensesByGroup(Long groupId) throws ExpenseException {
-        User authenticatedUser = getAuthenticatedUser();
-        Group group = groupService.fetchGroupById(groupId);
+        List<ExpenseSearchHitDto> hits = new ArrayList<>(rows.size());
+        for (ExpenseRepository.SearchRow row : rows) {
+            Expense expense = expenses.get(row.getId());
+            ExpenseDto document = expense != null ? convertToDto(expense) : archived.get(row.getId());
+            if (document != null) {
+                hits.add(new ExpenseSearchHitDto(row.getId(), row.getRank(), document));
+            }
+        }
 
-        if (group == null) {
-            throw new ExpenseException("Group not found");
+        String nextCursor = null;
+        if (hasMore) {
+            ExpenseRepository.SearchRow last = rows.get(rows.size() - 1);
+            nextCursor = Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((last.getRank() + ":" + last.getId()).getBytes(StandardCharsets.UTF_8));
         }
+        return new ExpenseSearchResultDto(hits, nextCursor);
+    }
+
+    @Transactional(readOnly = true)
+    @BulkRead
+    public Page<ExpenseDto> getExpensesByUser(ExpenseFilterDto filter, Pageable pageable) throws ExpenseException {
+        Long userId = getAuthenticatedUserId();
+        return listExpenses(ExpenseSpecifications.visibleTo(userId).and(ExpenseSpecifications.matching(filter)),
+                ExpenseSpecifications.archivedVisibleTo(userId).and(ExpenseSpecifications.matching(filter)),
+                filter, withStableSort(pageable));
+    }
 
-        if (!group.getMembers().contains(authenticatedUser)) {
+    @Transactional(readOnly = true)
+    @BulkRead
+    public Page<ExpenseDto> getExpensesByGroup(Long groupId, ExpenseFilterDto filter, Pageable pageable) throws ExpenseException {
+        // A missing group has no members, so this also covers unknown IDs without loading the group
+        if (!groupService.isMember(groupId, getAuthenticatedUserId())) {
             throw new ExpenseException("Access denied: You are not a member of this group");
         }
 
-        List<Expense> expenses = expenseRepository.findAllByGroup(group);
-        return expenses.stream().map(this::convertToDto).collect(Collectors.toList());
+        return listExpenses(ExpenseSpecifications.inGroup(groupId).and(ExpenseSpecifications.matching(filter)),
+                ExpenseSpecifications.archivedInGroup(groupId).and(ExpenseSpecifications.matching(filter)),
+                filter, withStableSort(pageable));
     }
 
+    /**
+     * One page of live and archived expenses in a single order. Each table returns its first rows up to the end of
+     * the requested page, already sorted, and the page is cut from their merge; only its rows are converted.
+     * The archive holds settled expenses only, so it is skipped when the filter asks for another status
+     * or leaves archived expenses out.
+     */
+    private Page<ExpenseDto> listExpenses(Specification<Expense> live, Specification<ArchivedExpense> archived,
+                                          ExpenseFilterDto filter, Pageable pageable) {
+        boolean skipArchive = filter != null && (Boolean.FALSE.equals(filter.getIncludeArchived())
+                || (filter.getStatus() != null && filter.getStatus() != ExpenseStatus.SETTLED));
+        if (skipArchive) {
+            return expenseRepository.findAll(live, pageable).map(this::convertToDto);
+        }
+
+        Pageable window = PageRequest.of(0, (int) Math.min(pageable.getOffset() + pageable.getPageSize(), Integer.MAX_VALUE),
+                pageable.getSort());
+        Page<Expense> liveRows = expenseRepository.findAll(live, window);
+        Page<ArchivedExpense> archivedRows = archivedExpenseRepository.findAll(archived, window);
+
+        List<ListedExpense> merged = new ArrayList<>(liveRows.getNumberOfElements() + archivedRows.getNumberOfElements());
+        liveRows.forEach(expense -> merged.add(new ListedExpense(expense.getCreatedAt(), expense.getAmount(), expense.getId(), expense, null)));
+        archivedRows.forEach(expense -> merged.add(new ListedExpense(expense.getCreatedAt(), expense.getAmount(), expense.getId(), null, expense)));
+        merged.sort(ListedExpense.ordering(pageable.getSort()));
+
+        List<ExpenseDto> content = merged.stream()
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .map(row -> row.live() != null ? convertToDto(row.live()) : row.archived().getDocument())
+                .collect(Collectors.toList());
+        return new PageImpl<>(content, pageable, liveRows.getTotalElements() + archivedRows.getTotalElements());
+    }
+
+    // A row of either table, by the properties the lists sort on
+    private record ListedExpense(LocalDateTime createdAt, BigDecimal amount, Long id, Expense live, ArchivedExpense archived) {
+
+        // The order Postgres gives the same Sort: nulls last ascending, first descending
+        static Comparator<ListedExpense> ordering(Sort sort) {
+            Comparator<ListedExpense> ordering = null;
+            for (Sort.Order order : sort) {
+                Comparator<ListedExpense> next = switch (order.getProperty()) {
+                    case "createdAt" -> Comparator.comparing(ListedExpense::createdAt, Comparator.nullsLast(Comparator.naturalOrder()));
+                    case "amount" -> Comparator.comparing(ListedExpense::amount, Comparator.nullsLast(Comparator.naturalOrder()));
+                    default -> Comparator.comparing(ListedExpense::id, Comparator.nullsLast(Comparator.naturalOrder()));
+                };
+                if (order.isDescending()) {
+                    next = next.reversed();
+                }
+                ordering = ordering == null ? next : ordering.thenComparing(next);
+            }
+            return ordering;
+        }
+    }
+
+    // Newest first by default; the ID tie-breaker keeps pages stable when sort values repeat
+    private static Pageable withStableSort(Pageable pageable) throws ExpenseException {
+        for (Sort.Order order : pageable.getSort()) {
+            if (!SORTABLE_PROPERTIES.contains(order.getProperty())) {
+                throw new ExpenseException("Cannot sort expenses by: " + order.getProperty());
+            }
+        }
+        Sort sort = pageable.getSort().isSorted() ? pageable.getSort() : Sort.by(Sort.Direction.DESC, "createdAt");
+        if (sort.getOrderFor("id") == null) {
+            sort = sort.and(Sort.by(Sort.Direction.DESC, "id"));
+        }
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
+    }
+
+    @Transactional(rollbackFor = ExpenseException.class)
     public void updateExpense(Long expenseId, ExpenseDto expenseDto) throws ExpenseException {
         Expense expense = expenseRepository.findById(expenseId)
                 .orElseThrow(() -> new ExpenseException("Expense not found with ID: " + expenseId));
 
-        User authenticatedUser = userService.getAuthenticatedUser(); // Get logged-in user
+        // Balance contributions before the edit; only the difference is written afterwards
+        Map<BalanceService.BalanceKey, BigDecimal> contributionsBefore = balanceService.contributions(expense);
+
+        // Compared by ID: User equality covers every field, so a copy loaded elsewhere would not match
+        Long authenticatedUserId = getAuthenticatedUserId();
 
         // ✅ Prevent NullPointerException when checking if the user has permission
-        boolean isPayer = expense.getPayer() != null && expense.getPayer().equals(authenticatedUser);
-        boolean isParticipant = expense.getParticipants() != null && expense.getParticipants().contains(authenticatedUser);
+        boolean isPayer = expense.getPayer() != null && authenticatedUserId.equals(expense.getPayer().getId());
+        boolean isParticipant = ExpenseSplits.hasParticipant(expense, authenticatedUserId);
         boolean isGroupMember = expense.getGroup() != null && expense.getGroup().getMembers() != null
-                && expense.getGroup().getMembers().contains(authenticatedUser);
+                && expense.getGroup().getMembers().stream().anyMatch(member -> authenticatedUserId.equals(member.getId()));
 
         System.out.println("DEBUG: isPayer=" + isPayer + ", isParticipant=" + isParticipant + ", isGroupMember=" + isGroupMember);
 
@@ -240,7 +462,15 @@ public class ExpenseService {
             throw new ExpenseException("You do not have permission to update this expense.");
         }
 
+        // Only settling the group marks expenses SETTLED (see SettlementService); clients cannot set a status
+        if (expenseDto.getStatus() != null && expenseDto.getStatus() != expense.getStatus()) {
+            throw new ExpenseException("The status of an expense cannot be changed directly.");
+        }
+
         // ✅ Update basic fields if provided
+        boolean amountChanged = expenseDto.getAmount() != null
+                && (expense.getAmount() == null || expense.getAmount().compareTo(expenseDto.getAmount()) != 0);
+        boolean currencyChanged = expenseDto.getCurrency() != null && expenseDto.getCurrency() != expense.getCurrency();
         if (expenseDto.getAmount() != null) {
             expense.setAmount(expenseDto.getAmount());
         }
@@ -250,84 +480,140 @@ public class ExpenseService {
         if (expenseDto.getDescription() != null) {
             expense.setDescription(expenseDto.getDescription());
         }
-        if (expenseDto.getStatus() != null) {
-            expense.setStatus(expenseDto.getStatus());
-        }
         if (expenseDto.getCategory() != null) {
             expense.setCategory(expenseDto.getCategory());
         }
 
-        // ✅ Fetch updated participants (if changed)
-        List<User> updatedParticipants = new ArrayList<>(
-                expense.getParticipants() != null ? expense.getParticipants() : Collections.emptyList()
-        );
-
-        boolean participantsUpdated = false;
-
+        // ✅ Resolve participants only if the request names them
+        Set<User> requestedParticipants = null;
         if (expenseDto.getGroupId() != null) {
             Group group = groupService.fetchGroupById(expenseDto.getGroupId());
             if (group == null) {
                 throw new ExpenseException("Invalid Group ID");
             }
-            updatedParticipants = group.getMembers();
-            participantsUpdated = true;
+            requestedParticipants = new HashSet<>(group.getMembers());
         } else if (expenseDto.getParticipantIds() != null) {
-            updatedParticipants = expenseDto.getParticipantIds().stream()
+            requestedParticipants = expenseDto.getParticipantIds().stream()
                     .map(userService::fetchUserById)
                     .filter(Objects::nonNull)
-                    .collect(Collectors.toList());
-            if (updatedParticipants.isEmpty()) {
+                    .collect(Collectors.toSet());
+            if (requestedParticipants.isEmpty()) {
                 throw new ExpenseException("No valid participants found");
             }
-            participantsUpdated = true;
         }
 
-        expense.setParticipants(updatedParticipants);
+        // ✅ Membership counts as changed only if the set of IDs differs; scalar-only edits write no join rows
+        Set<Long> currentIds = new HashSet<>(ExpenseSplits.participantIds(expense));
+        boolean participantsUpdated = requestedParticipants != null
+                && !requestedParticipants.stream().map(User::getId).collect(Collectors.toSet()).equals(currentIds);
 
         // ✅ **Recalculate shares only if required**
-        boolean shouldRecalculateShares = expenseDto.getSplitType() != null || participantsUpdated;
+        boolean sharesProvided = expenseDto.getParticipantShares() != null && !expenseDto.getParticipantShares().isEmpty();
+        boolean shouldRecalculateShares = expenseDto.getSplitType() != null || participantsUpdated
+                || (amountChanged && (expense.getSplitType() == SplitType.EQUAL || sharesProvided));
+
+        // What a settled expense owed has been paid back; changing it would reopen balances that were cleared
+        if (expense.getStatus() == ExpenseStatus.SETTLED && (amountChanged || currencyChanged || shouldRecalculateShares)) {
+            throw new ExpenseException("The amount and shares of a settled expense cannot be changed.");
+        }
 
         if (shouldRecalculateShares) {
             SplitType newSplitType = expenseDto.getSplitType() != null ? expenseDto.getSplitType() : expense.getSplitType();
 
             // Validate participantShares if updating to PERCENTAGE or EXACT
             if (newSplitType == SplitType.PERCENTAGE || newSplitType == SplitType.EXACT) {
-                if (expenseDto.getParticipantShares() == null || expenseDto.getParticipantShares().isEmpty()) {
+                if (!sharesProvided) {
                     throw new ExpenseException("Participant shares must be provided for " + newSplitType + " split type.");
                 }
             }
 
             expense.setSplitType(newSplitType);
-            expense.setParticipantShares(
-                    calculateShares(newSplitType, expense.getAmount(), updatedParticipants, expenseDto.getParticipantShares())
-            );
+            Set<Long> newIds = participantsUpdated
+                    ? requestedParticipants.stream().map(User::getId).collect(Collectors.toSet())
+                    : currentIds;
+
+            if (ExpenseSplits.shouldPack(newSplitType, newIds.size(), compactMinParticipants)) {
+                ExpenseSplits.pack(expense, newIds);
+            } else {
+                boolean wasPacked = ExpenseSplits.isCompact(expense);
+                if (wasPacked) {
+                    // Leaving the packed form: the participants have to be written out as rows again
+                    if (!participantsUpdated) {
+                        requestedParticipants = new HashSet<>(userService.fetchUsersByIds(new ArrayList<>(currentIds)));
+                    }
+                    ExpenseSplits.unpack(expense);
+                }
+                if (participantsUpdated || wasPacked) {
+                    mergeParticipants(expense, requestedParticipants);
+                }
+
+                List<User> participants = new ArrayList<>(expense.getParticipants() != null ? expense.getParticipants() : Collections.emptySet());
+                mergeShares(expense, calculateShares(newSplitType, expense.getAmount(), participants, expenseDto.getParticipantShares(), parallelThreshold));
+            }
         }
 
         // ✅ Save updated expense
         expenseRepository.save(expense);
+        balanceService.applyChange(contributionsBefore, balanceService.contributions(expense));
+    }
+
+
+    // Mutates the persistent set in place so Hibernate issues one insert or delete per changed participant
+    private static void mergeParticipants(Expense expense, Set<User> participants) {
+        if (expense.getParticipants() == null) {
+            expense.setParticipants(new HashSet<>(participants));
+            return;
+        }
+        expense.getParticipants().retainAll(participants);
+        expense.getParticipants().addAll(participants);
     }
 
+    // Same for shares: removed users are deleted, and only entries whose value changed are updated
+    static void mergeShares(Expense expense, Map<User, BigDecimal> shares) {
+        Map<User, BigDecimal> current = expense.getParticipantShares();
+        if (current == null) {
+            expense.setParticipantShares(new HashMap<>(shares));
+            return;
+        }
+
+        for (User user : new ArrayList<>(current.keySet())) {
+            if (!shares.containsKey(user)) {
+                current.remove(user);
+            }
+        }
+        for (Map.Entry<User, BigDecimal> share : shares.entrySet()) {
+            BigDecimal existing = current.get(share.getKey());
+            if (existing == null || existing.compareTo(share.getValue()) != 0) {
+                current.put(share.getKey(), share.getValue());
+            }
+        }
+    }
 
+    @Transactional(rollbackFor = ExpenseException.class)
     public void deleteExpense(Long expenseId) throws ExpenseException {
         Expense expense = expenseRepository.findById(expenseId)
                 .orElseThrow(() -> new ExpenseException("Expense not found with ID: " + expenseId));
+        // Its share of the balances has already been paid back through settlements; reverting it would reopen them
+        if (expense.getStatus() == ExpenseStatus.SETTLED) {
+            throw new ExpenseException("Settled expenses cannot be deleted");
+        }
+        balanceService.revertExpense(expense);
+        // The analytics export only sees rows that still exist; the tombstone tells its readers to drop this one
+        expenseDeletionRepository.record(expense.getId(), expense.getGroup() != null ? expense.getGroup().getId() : null,
+                expense.getCreatedAt(), LocalDateTime.now());
         expenseRepository.delete(expense);
     }
 
-    private ExpenseDto convertToDto(Expense expense) {
+    ExpenseDto convertToDto(Expense expense) {
         return ExpenseDto.builder()
                 .amount(expense.getAmount())
                 .currency(expense.getCurrency())
                 .description(expense.getDescription())
                 .groupId(expense.getGroup() != null ? expense.getGroup().getId() : null)
                 .payerId(expense.getPayer() != null ? expense.getPayer().getId() : null) // ✅ Handle null payer
-                .participantIds(expense.getParticipants() != null ?
-                        expense.getParticipants().stream().map(User::getId).collect(Collectors.toList()) : new ArrayList<>()) // ✅ Handle null participants
+                .participantIds(ExpenseSplits.participantIds(expense)) // ✅ Handles null and packed participants
                 .splitType(expense.getSplitType())
-                .participantShares(expense.getParticipantShares() != null ?
-                        expense.getParticipantShares().entrySet().stream()
-                                .collect(Collectors.toMap(entry -> entry.getKey().getId(), Map.Entry::getValue))
-                        : new HashMap<>()) // ✅ Handle null shares
+                .participantShares(ExpenseSplits.sharesByUserId(expense)) // ✅ Expands packed shares
                 .status(expense.getStatus())
                 .category(expense.getCategory())
                 .build();
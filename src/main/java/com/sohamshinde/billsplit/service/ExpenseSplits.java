@@ -0,0 +1,112 @@
+package com.sohamshinde.billsplit.service;
+
+import com.sohamshinde.billsplit.entity.Expense;
+import com.sohamshinde.billsplit.entity.User;
+import com.sohamshinde.billsplit.enums.SplitType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * Reads and writes the participants and shares of an expense in either of its two forms.
+ *
+ * Small splits use the participants join table and the participant_shares collection. An EQUAL split with
+ * many participants is packed instead: the participant IDs go into one sorted array on the expense row and
+ * the shares are described by a base amount plus a remainder count, where the first {@code remainder}
+ * participants in ID order owe one extra cent. Writing it is still linear in the number of participants, but
+ * it is one array value on the expense row instead of a join row and a share row per participant. Shares are
+ * only expanded, one at a time, when a caller iterates them; the group balance update does that, so it stays
+ * one row per participant as well.
+ */
+final class ExpenseSplits {
+
+    private static final BigDecimal ONE_CENT = new BigDecimal("0.01");
+
+    private ExpenseSplits() {
+    }
+
+    static boolean isCompact(Expense expense) {
+        return expense.getPackedParticipantIds() != null;
+    }
+
+    static boolean shouldPack(SplitType splitType, int participantCount, int minParticipants) {
+        return splitType == SplitType.EQUAL && minParticipants > 0 && participantCount >= minParticipants;
+    }
+
+    /**
+     * Switches the expense to the packed form, splitting its amount equally between {@code userIds}.
+     * Unlike the expanded EQUAL split the packed shares always add up to the exact amount.
+     */
+    static void pack(Expense expense, Collection<Long> userIds) {
+        Long[] ids = userIds.stream().distinct().sorted().toArray(Long[]::new);
+        if (ids.length == 0) {
+            throw new IllegalArgumentException("An equal split needs at least one participant");
+        }
+
+        long totalCents = expense.getAmount().setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+        long baseCents = Math.floorDiv(totalCents, ids.length);
+
+        expense.setPackedParticipantIds(ids);
+        expense.setEqualShareBase(BigDecimal.valueOf(baseCents, 2));
+        expense.setEqualShareRemainder((int) (totalCents - baseCents * ids.length));
+
+        if (expense.getParticipants() != null) {
+            expense.getParticipants().clear();
+        }
+        if (expense.getParticipantShares() != null) {
+            expense.getParticipantShares().clear();
+        }
+    }
+
+    static void unpack(Expense expense) {
+        expense.setPackedParticipantIds(null);
+        expense.setEqualShareBase(null);
+        expense.setEqualShareRemainder(null);
+    }
+
+    /**
+     * Visits every participant's share without building a map of all of them.
+     */
+    static void forEachShare(Expense expense, BiConsumer<Long, BigDecimal> consumer) {
+        if (isCompact(expense)) {
+            Long[] ids = expense.getPackedParticipantIds();
+            BigDecimal base = expense.getEqualShareBase();
+            BigDecimal withRemainder = base.add(ONE_CENT);
+            int remainder = expense.getEqualShareRemainder() != null ? expense.getEqualShareRemainder() : 0;
+            for (int i = 0; i < ids.length; i++) {
+                consumer.accept(ids[i], i < remainder ? withRemainder : base);
+            }
+        } else if (expense.getParticipantShares() != null) {
+            expense.getParticipantShares().forEach((user, share) -> consumer.accept(user.getId(), share));
+        }
+    }
+
+    static Map<Long, BigDecimal> sharesByUserId(Expense expense) {
+        Map<Long, BigDecimal> shares = new HashMap<>();
+        forEachShare(expense, shares::put);
+        return shares;
+    }
+
+    static List<Long> participantIds(Expense expense) {
+        if (isCompact(expense)) {
+            return Arrays.asList(expense.getPackedParticipantIds());
+        }
+        if (expense.getParticipants() == null) {
+            return new ArrayList<>();
+        }
+        // A getter per element is too little work to pay for forking
+        return expense.getParticipants().stream().map(User::getId).collect(Collectors.toList());
+    }
+
+    // Membership by ID, for callers that only have the authenticated principal
+    static boolean hasParticipant(Expense expense, Long userId) {
+        if (isCompact(expense)) {
+            return Arrays.binarySearch(expense.getPackedParticipantIds(), userId) >= 0;
+        }
+        return expense.getParticipants() != null
+                && expense.getParticipants().stream().anyMatch(participant -> userId.equals(participant.getId()));
+    }
+}
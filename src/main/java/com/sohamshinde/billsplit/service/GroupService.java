@@ -1,37 +1,68 @@
 package com.sohamshinde.billsplit.service;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.sohamshinde.billsplit.dto.GroupDetailDto;
 import com.sohamshinde.billsplit.dto.GroupDto;
+import com.sohamshinde.billsplit.dto.GroupMemberDto;
+import com.sohamshinde.billsplit.dto.GroupSummaryDto;
+import com.sohamshinde.billsplit.dto.MemberImportResultDto;
 import com.sohamshinde.billsplit.entity.Group;
 import com.sohamshinde.billsplit.entity.User;
+import com.sohamshinde.billsplit.enums.Currency;
 import com.sohamshinde.billsplit.exceptions.GroupException;
-import com.sohamshinde.billsplit.exceptions.UserNotFoundException;
 import com.sohamshinde.billsplit.repository.GroupRepository;
+import com.sohamshinde.billsplit.security.BulkRead;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.Optional;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static com.sohamshinde.billsplit.utils.AuthUtil.getAuthenticatedUserId;
 
 @Service
 @Slf4j
 public class GroupService {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
     private GroupRepository groupRepository;
 
     private UserService userService;
 
-    public GroupService(GroupRepository groupRepository, @Lazy UserService userService) {
+    private TransactionTemplate transactionTemplate;
+
+    // Keeps the IN lists of membership deltas well below the driver's bind parameter limit
+    @Value("${group.members.batch-size:1000}")
+    private int batchSize = 1000;
+
+    public GroupService(GroupRepository groupRepository, @Lazy UserService userService, TransactionTemplate transactionTemplate) {
         this.groupRepository = groupRepository;
         this.userService = userService;
+        this.transactionTemplate = transactionTemplate;
     }
 
+    // Only needed where the entity itself is stored; access checks compare IDs from the principal
     private User getAuthenticatedUser() {
-        return (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        return userService.getAuthenticatedUser();
     }
 
+    private static boolean hasMember(Group group, Long userId) {
+        return group.getMembers().stream().anyMatch(member -> userId.equals(member.getId()));
+    }
+
+    // Members are initialized before the transaction ends, so callers outside one can still read them
+    @Transactional(readOnly = true)
     public Group fetchGroupById(Long id) throws GroupException {
         Group group = groupRepository.findById(id)
                 .orElseThrow(() -> new GroupException("Group not found"));
@@ -41,8 +72,7 @@ public class GroupService {
         }
 
         // Ensure the authenticated user is part of this group
-        User user = getAuthenticatedUser();
-        if (!group.getMembers().contains(user)) {
+        if (!hasMember(group, getAuthenticatedUserId())) {
             throw new GroupException("You do not have permission to access this group.");
         }
 
@@ -50,6 +80,7 @@ public class GroupService {
     }
 
     // Create a group (Creator = Logged-in User)
+    @Transactional
     public void createGroup(GroupDto groupDto) {
         User creator = getAuthenticatedUser();
 
@@ -74,33 +105,89 @@ public class GroupService {
     }
 
     // Get group by ID (Only if the logged-in user is a member)
+    @Transactional(readOnly = true)
     public Group getGroupById(Long groupId) throws GroupException {
-        User authenticatedUser = getAuthenticatedUser();
-
         Group group = groupRepository.findById(groupId)
                 .orElseThrow(() -> new GroupException("Group not found"));
 
         // Check if the logged-in user is a member of the group
-        if (!group.getMembers().contains(authenticatedUser)) {
+        if (!hasMember(group, getAuthenticatedUserId())) {
             throw new GroupException("Access denied: You are not a member of this group");
         }
 
         return group;
     }
 
+    // Group details for the API: the group row, a membership check and the members as DTOs, nothing loaded lazily
+    @Transactional(readOnly = true)
+    public GroupDetailDto getGroupDetails(Long groupId) throws GroupException {
+        Group group = groupRepository.findById(groupId)
+                .orElseThrow(() -> new GroupException("Group not found"));
+        if (!groupRepository.isMember(groupId, getAuthenticatedUserId())) {
+            throw new GroupException("You do not have permission to access this group.");
+        }
+
+        User creator = group.getCreatedBy();
+        return GroupDetailDto.builder()
+                .id(group.getId())
+                .groupName(group.getGroupName())
+                .createdBy(new GroupMemberDto(creator.getId(), creator.getName(), creator.getEmail()))
+                .members(groupRepository.findMembers(groupId, Pageable.unpaged()).getContent())
+                .build();
+    }
+
     // Get all groups for the authenticated user
+    @Transactional(readOnly = true)
+    @BulkRead
     public List<Group> getAllGroupsForAuthenticatedUser() {
-        User user = getAuthenticatedUser();
-        return groupRepository.findGroupsByMemberId(user.getId());
+        return groupRepository.findGroupsByMemberId(getAuthenticatedUserId());
+    }
+
+    // Lightweight listing of the user's groups, built from a single aggregate query
+    @Transactional(readOnly = true)
+    @BulkRead
+    public List<GroupSummaryDto> getGroupSummariesForAuthenticatedUser() {
+        Map<Long, GroupSummaryDto> summaries = new LinkedHashMap<>();
+        for (GroupRepository.SummaryRow row : groupRepository.findGroupSummariesByMemberId(getAuthenticatedUserId())) {
+            GroupSummaryDto summary = summaries.computeIfAbsent(row.getId(), id -> GroupSummaryDto.builder()
+                    .id(id)
+                    .groupName(row.getGroupName())
+                    .memberCount(row.getMemberCount() != null ? row.getMemberCount() : 0)
+                    .lastActivityAt(row.getLastActivityAt())
+                    .balances(new EnumMap<>(Currency.class))
+                    .build());
+            if (row.getCurrency() != null) {
+                summary.getBalances().put(Currency.valueOf(row.getCurrency()), row.getBalance());
+            }
+        }
+        return new ArrayList<>(summaries.values());
+    }
+
+    public boolean isMember(Long groupId, Long userId) {
+        return groupRepository.isMember(groupId, userId);
+    }
+
+    // Get one page of a group's members (Only members can access)
+    @Transactional(readOnly = true)
+    @BulkRead
+    public Page<GroupMemberDto> getGroupMembers(Long groupId, Pageable pageable) throws GroupException {
+        if (!groupRepository.existsById(groupId)) {
+            throw new GroupException("Group not found");
+        }
+        if (!groupRepository.isMember(groupId, getAuthenticatedUserId())) {
+            throw new GroupException("You do not have permission to access this group.");
+        }
+        return groupRepository.findMembers(groupId, pageable);
     }
 
     // Delete a group (Only the creator can perform this action)
+    @Transactional
     public void deleteGroup(Long groupId) throws GroupException {
         Group group = groupRepository.findById(groupId)
                 .orElseThrow(() -> new GroupException("Group not found"));
 
 
-        if (!group.getCreatedBy().equals(getAuthenticatedUser())) {
+        if (!getAuthenticatedUserId().equals(group.getCreatedBy().getId())) {
             throw new GroupException("You do not have permission to delete this group.");
         }
 
@@ -108,12 +195,11 @@ public class GroupService {
     }
 
     // Update a group (Only the creator can perform this action)
+    @Transactional
     public Group updateGroup(Long groupId, GroupDto groupDto) throws GroupException {
         Group group = fetchGroupById(groupId);
 
-        System.out.println(group.getGroupName());
-
-        if (!group.getCreatedBy().equals(getAuthenticatedUser())) {
+        if (!getAuthenticatedUserId().equals(group.getCreatedBy().getId())) {
             throw new GroupException("You do not have permission to update this group.");
         }
 
@@ -121,18 +207,135 @@ public class GroupService {
             group.setGroupName(groupDto.getGroupName());
         }
 
+        Set<Long> toAdd = Collections.emptySet();
+        Set<Long> toRemove = Collections.emptySet();
         if (groupDto.getMemberIds() != null && !groupDto.getMemberIds().isEmpty()) {
-            try {
-                List<User> members = userService.fetchUsersByIds(groupDto.getMemberIds());
-                if (members.isEmpty()) {
-                    throw new GroupException("Invalid member IDs");
-                }
-                group.setMembers(members);
-            } catch (UserNotFoundException e) {
+            Set<Long> requested = new LinkedHashSet<>(groupDto.getMemberIds());
+            // The creator always stays a member, as in createGroup
+            requested.add(group.getCreatedBy().getId());
+            if (userService.findExistingUserIds(requested).size() != requested.size()) {
                 throw new GroupException("Invalid member IDs");
             }
+
+            // Only the difference is written; replacing the collection would rewrite every join row
+            Set<Long> current = group.getMembers().stream().map(User::getId).collect(Collectors.toSet());
+            toAdd = new LinkedHashSet<>(requested);
+            toAdd.removeAll(current);
+            toRemove = new LinkedHashSet<>(current);
+            toRemove.removeAll(requested);
+        }
+
+        Group saved = groupRepository.save(group);
+        for (List<Long> batch : partition(toAdd)) {
+            groupRepository.addMembers(groupId, batch);
+        }
+        for (List<Long> batch : partition(toRemove)) {
+            groupRepository.removeMembers(groupId, batch);
+        }
+        return saved;
+    }
+
+    // Add members to a group (Only the creator can perform this action)
+    @Transactional
+    public int addMembers(Long groupId, List<Long> memberIds) throws GroupException {
+        fetchGroupForCreator(groupId);
+
+        Set<Long> requested = new LinkedHashSet<>(memberIds);
+        if (requested.isEmpty() || userService.findExistingUserIds(requested).size() != requested.size()) {
+            throw new GroupException("Invalid member IDs");
+        }
+
+        int added = 0;
+        for (List<Long> batch : partition(requested)) {
+            added += groupRepository.addMembers(groupId, batch);
+        }
+        groupRepository.touch(groupId, LocalDateTime.now());
+        return added;
+    }
+
+    // Remove members from a group (Only the creator can perform this action)
+    @Transactional
+    public int removeMembers(Long groupId, List<Long> memberIds) throws GroupException {
+        Group group = fetchGroupForCreator(groupId);
+
+        Set<Long> requested = new LinkedHashSet<>(memberIds);
+        if (requested.contains(group.getCreatedBy().getId())) {
+            throw new GroupException("The group creator cannot be removed.");
+        }
+
+        int removed = 0;
+        for (List<Long> batch : partition(requested)) {
+            removed += groupRepository.removeMembers(groupId, batch);
+        }
+        groupRepository.touch(groupId, LocalDateTime.now());
+        return removed;
+    }
+
+    /**
+     * Adds the users in a JSON array of IDs without holding the whole list in memory.
+     * IDs are read from the stream and inserted in batches, each in its own transaction;
+     * the inserts are idempotent, so a failed import can simply be sent again.
+     * Unknown IDs and existing members are skipped.
+     */
+    public MemberImportResultDto importMembers(Long groupId, InputStream body) throws GroupException, IOException {
+        fetchGroupForCreator(groupId);
+
+        long received = 0;
+        long added = 0;
+        int batches = 0;
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new GroupException("Expected a JSON array of user IDs");
+            }
+
+            List<Long> batch = new ArrayList<>(batchSize);
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token != JsonToken.VALUE_NUMBER_INT) {
+                    throw new GroupException("Expected a JSON array of user IDs");
+                }
+                batch.add(parser.getLongValue());
+                received++;
+
+                if (batch.size() == batchSize) {
+                    added += insertBatch(groupId, batch);
+                    batches++;
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                added += insertBatch(groupId, batch);
+                batches++;
+            }
         }
 
-        return groupRepository.save(group);
+        transactionTemplate.executeWithoutResult(status -> groupRepository.touch(groupId, LocalDateTime.now()));
+        log.info("Imported {} of {} members into group {} in {} batches", added, received, groupId, batches);
+        return new MemberImportResultDto(received, added, batches);
+    }
+
+    private int insertBatch(Long groupId, List<Long> batch) {
+        Integer inserted = transactionTemplate.execute(status -> groupRepository.addMembers(groupId, batch));
+        return inserted == null ? 0 : inserted;
+    }
+
+    // Loads the group without its members and checks that the caller created it
+    private Group fetchGroupForCreator(Long groupId) throws GroupException {
+        Group group = groupRepository.findById(groupId)
+                .orElseThrow(() -> new GroupException("Group not found"));
+
+        if (!getAuthenticatedUserId().equals(group.getCreatedBy().getId())) {
+            throw new GroupException("You do not have permission to update this group.");
+        }
+        return group;
+    }
+
+    private <T> List<List<T>> partition(Collection<T> values) {
+        List<T> list = new ArrayList<>(values);
+        List<List<T>> batches = new ArrayList<>();
+        for (int i = 0; i < list.size(); i += batchSize) {
+            batches.add(list.subList(i, Math.min(i + batchSize, list.size())));
+        }
+        return batches;
     }
 }
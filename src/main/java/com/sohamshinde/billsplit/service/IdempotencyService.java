@@ -0,0 +1,212 @@
+package com.sohamshinde.billsplit.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sohamshinde.billsplit.exceptions.IdempotencyConflictException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.*;
+
+/**
+ * Makes a request handler run at most once per client supplied key.
+ *
+ * The first request claims the key with SET NX and a short in-flight TTL, runs the handler and stores
+ * its response under the same key for {@code responseTtl}. Retries get the stored response back without
+ * touching the database. Duplicates arriving while the first request is still running wait for its
+ * result: on the same node through a local future, across nodes by polling the key.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    private static final String KEY_PREFIX = "idempotency:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final UserService userService;
+
+    private final ConcurrentMap<String, CompletableFuture<StoredResponse>> localInFlight = new ConcurrentHashMap<>();
+
+    @Value("${idempotency.response-ttl-hours:24}")
+    private long responseTtlHours = 24;
+
+    // Bounds how long a crashed request can keep its key claimed
+    @Value("${idempotency.in-flight-ttl-seconds:30}")
+    private long inFlightTtlSeconds = 30;
+
+    @Value("${idempotency.wait-timeout-ms:10000}")
+    private long waitTimeoutMs = 10000;
+
+    public IdempotencyService(StringRedisTemplate redisTemplate, ObjectMapper objectMapper, UserService userService) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.userService = userService;
+    }
+
+    public record StoredResponse(int status, String body) {
+    }
+
+    // Value kept in Redis; status and body are only set once the request completed
+    record Entry(String state, String fingerprint, Integer status, String body) {
+        static final String IN_FLIGHT = "IN_FLIGHT";
+        static final String DONE = "DONE";
+    }
+
+    @FunctionalInterface
+    public interface IdempotentAction<E extends Exception> {
+        StoredResponse run() throws E;
+    }
+
+    /**
+     * Runs {@code action} once for the given key and returns its (possibly replayed) response.
+     *
+     * @param scope   operation name, keeps keys of different endpoints apart
+     * @param request request payload; reusing a key with a different payload is rejected
+     */
+    public <E extends Exception> StoredResponse execute(String scope, String key, Object request, IdempotentAction<E> action) throws E {
+        String redisKey = KEY_PREFIX + scope + ":" + userService.getAuthenticatedUserId() + ":" + key;
+        String fingerprint = fingerprint(request);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitTimeoutMs);
+
+        while (true) {
+            Boolean claimed;
+            try {
+                claimed = redisTemplate.opsForValue().setIfAbsent(redisKey,
+                        write(new Entry(Entry.IN_FLIGHT, fingerprint, null, null)), Duration.ofSeconds(inFlightTtlSeconds));
+            } catch (RedisConnectionFailureException e) {
+                // Fail open: a duplicate is cheaper than rejecting every write while Redis is down
+                log.warn("Redis unavailable, processing {} without idempotency protection", redisKey);
+                return action.run();
+            }
+
+            if (Boolean.TRUE.equals(claimed)) {
+                return runClaimed(redisKey, fingerprint, action);
+            }
+
+            StoredResponse replayed = awaitResult(redisKey, fingerprint, deadline);
+            if (replayed != null) {
+                return replayed;
+            }
+            // The owner failed and released the key; try to claim it ourselves
+        }
+    }
+
+    private <E extends Exception> StoredResponse runClaimed(String redisKey, String fingerprint, IdempotentAction<E> action) throws E {
+        CompletableFuture<StoredResponse> future = new CompletableFuture<>();
+        localInFlight.put(redisKey, future);
+        try {
+            StoredResponse response;
+            try {
+                response = action.run();
+            } catch (Exception e) {
+                // Nothing was stored, so release the key and let a retry run again
+                redisTemplate.delete(redisKey);
+                future.completeExceptionally(e);
+                throw e;
+            }
+
+            try {
+                redisTemplate.opsForValue().set(redisKey,
+                        write(new Entry(Entry.DONE, fingerprint, response.status(), response.body())), Duration.ofHours(responseTtlHours));
+            } catch (RuntimeException e) {
+                // The write already happened; failing the request now would only invite a duplicate retry
+                log.warn("Could not store idempotent response for {}", redisKey, e);
+            }
+            future.complete(response);
+            return response;
+        } finally {
+            localInFlight.remove(redisKey, future);
+        }
+    }
+
+    /**
+     * Waits for the request currently owning the key.
+     *
+     * @return the stored response, or {@code null} if the owner gave the key up
+     */
+    private StoredResponse awaitResult(String redisKey, String fingerprint, long deadline) {
+        CompletableFuture<StoredResponse> local = localInFlight.get(redisKey);
+        if (local != null) {
+            try {
+                long remaining = deadline - System.nanoTime();
+                StoredResponse response = local.get(Math.max(remaining, 0), TimeUnit.NANOSECONDS);
+                checkFingerprint(redisKey, fingerprint);
+                return response;
+            } catch (ExecutionException e) {
+                return null;
+            } catch (TimeoutException e) {
+                throw stillInFlight();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw stillInFlight();
+            }
+        }
+
+        long backoffMs = 10;
+        while (System.nanoTime() < deadline) {
+            String value = redisTemplate.opsForValue().get(redisKey);
+            if (value == null) {
+                return null;
+            }
+            Entry entry = read(value);
+            if (!entry.fingerprint().equals(fingerprint)) {
+                throw new IdempotencyConflictException("Idempotency key was already used for a different request");
+            }
+            if (Entry.DONE.equals(entry.state())) {
+                return new StoredResponse(entry.status(), entry.body());
+            }
+            try {
+                Thread.sleep(backoffMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            backoffMs = Math.min(backoffMs * 2, 200);
+        }
+        throw stillInFlight();
+    }
+
+    private void checkFingerprint(String redisKey, String fingerprint) {
+        String value = redisTemplate.opsForValue().get(redisKey);
+        if (value != null && !read(value).fingerprint().equals(fingerprint)) {
+            throw new IdempotencyConflictException("Idempotency key was already used for a different request");
+        }
+    }
+
+    private IdempotencyConflictException stillInFlight() {
+        return new IdempotencyConflictException("A request with this idempotency key is still being processed");
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not fingerprint request", e);
+        }
+    }
+
+    private String write(Entry entry) {
+        try {
+            return objectMapper.writeValueAsString(entry);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize idempotency entry", e);
+        }
+    }
+
+    private Entry read(String value) {
+        try {
+            return objectMapper.readValue(value, Entry.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read idempotency entry", e);
+        }
+    }
+}
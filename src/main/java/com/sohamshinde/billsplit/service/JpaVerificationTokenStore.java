@@ -0,0 +1,59 @@
+package com.sohamshinde.billsplit.service;
+
+import com.sohamshinde.billsplit.entity.VerificationToken;
+import com.sohamshinde.billsplit.repository.UserRepository;
+import com.sohamshinde.billsplit.repository.VerificationTokenRepository;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Keeps tokens in the verification_token table. Expired rows are removed by VerificationTokenPurgeScheduler.
+ */
+public class JpaVerificationTokenStore implements VerificationTokenStore {
+
+    private final VerificationTokenRepository verificationTokenRepository;
+    private final UserRepository userRepository;
+
+    public JpaVerificationTokenStore(VerificationTokenRepository verificationTokenRepository, UserRepository userRepository) {
+        this.verificationTokenRepository = verificationTokenRepository;
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public void save(String token, Long userId, LocalDateTime expiresAt) {
+        verificationTokenRepository.save(new VerificationToken(token, userRepository.getReferenceById(userId), expiresAt));
+    }
+
+    @Override
+    public void saveAll(Map<String, Long> userIdsByToken, LocalDateTime expiresAt) {
+        if (userIdsByToken.isEmpty()) {
+            return;
+        }
+        StringBuilder tokens = new StringBuilder();
+        StringBuilder userIds = new StringBuilder();
+        userIdsByToken.forEach((token, userId) -> {
+            if (!tokens.isEmpty()) {
+                tokens.append(',');
+                userIds.append(',');
+            }
+            tokens.append(token); // UUIDs, so never contain a comma
+            userIds.append(userId);
+        });
+        verificationTokenRepository.insertAll(tokens.toString(), userIds.toString(), expiresAt);
+    }
+
+    @Override
+    public Optional<Long> consume(String token) {
+        VerificationToken verificationToken = verificationTokenRepository.findByToken(token);
+        if (verificationToken == null || verificationToken.getExpiresAt().isBefore(LocalDateTime.now())) {
+            return Optional.empty();
+        }
+        // Only the request whose delete removes the row gets the user, so a token cannot be used twice
+        if (verificationTokenRepository.deleteByTokenValue(token) == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(verificationToken.getUser().getId());
+    }
+}
@@ -0,0 +1,167 @@
+package com.sohamshinde.billsplit.service;
+
+import com.sohamshinde.billsplit.exceptions.GroupException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+import static com.sohamshinde.billsplit.utils.AuthUtil.getAuthenticatedUserId;
+
+/**
+ * Writes expense ledgers as CSV, one row per expense participant.
+ *
+ * Rows are read through a forward-only cursor with a fixed fetch size and written straight to the response,
+ * so memory use does not grow with the size of the ledger. Packed EQUAL splits and archived expenses are
+ * expanded in SQL, in the same query as the other expenses, so the ledger is in created_at order whatever form
+ * each expense is in.
+ */
+@Service
+public class LedgerExportService {
+
+    static final String HEADER = "expense_id,created_at,group_id,description,category,currency,amount,status,split_type,payer_id,participant_id,share";
+
+    private static final String COLUMNS = "e.id, e.created_at, e.group_id, e.description, e.category, e.currency, e.amount, " +
+            "e.status, e.split_type, e.payer_id, ";
+
+    private static final String GROUP_SCOPE = "e.group_id = ?";
+
+    private static final String USER_SCOPE = "e.id IN (SELECT x.id FROM expense x WHERE x.payer_id = ? " +
+            "UNION SELECT p.expense_id FROM expense_participants p WHERE p.user_id = ? " +
+            "UNION SELECT y.id FROM expense y WHERE y.participant_ids @> ARRAY[CAST(? AS bigint)])";
+
+    private static final String ARCHIVED_GROUP_SCOPE = "a.group_id = ?";
+
+    private static final String ARCHIVED_USER_SCOPE = "a.id IN (SELECT x.id FROM expense_archive x WHERE x.payer_id = ? " +
+            "UNION SELECT y.id FROM expense_archive y WHERE y.participant_ids @> ARRAY[CAST(? AS bigint)])";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final GroupService groupService;
+
+    @Value("${export.fetch-size:1000}")
+    private int fetchSize = 1000;
+
+    public LedgerExportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, GroupService groupService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.groupService = groupService;
+        // The PostgreSQL driver only streams with a fetch size inside a transaction
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    // Access is checked here, on the request thread, before any bytes are written
+    public StreamingResponseBody exportGroupLedger(Long groupId) throws GroupException {
+        // A missing group has no members, so this also covers unknown IDs
+        if (!groupService.isMember(groupId, getAuthenticatedUserId())) {
+            throw new GroupException("You do not have permission to access this group.");
+        }
+        return out -> writeLedger(out, GROUP_SCOPE, new Object[]{groupId}, ARCHIVED_GROUP_SCOPE, new Object[]{groupId});
+    }
+
+    public StreamingResponseBody exportUserLedger() {
+        Long userId = getAuthenticatedUserId();
+        return out -> writeLedger(out, USER_SCOPE, new Object[]{userId, userId, userId},
+                ARCHIVED_USER_SCOPE, new Object[]{userId, userId});
+    }
+
+    void writeLedger(OutputStream out, String scope, Object[] args, String archivedScope, Object[] archivedArgs) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(HEADER);
+        writer.write('\n');
+        writer.flush(); // The client sees the download start before the first query returns
+
+        // All three forms in one query, so the whole ledger comes out in created_at order
+        Object[] allScopes = new Object[args.length * 2 + archivedArgs.length];
+        System.arraycopy(args, 0, allScopes, 0, args.length);
+        System.arraycopy(args, 0, allScopes, args.length, args.length);
+        System.arraycopy(archivedArgs, 0, allScopes, args.length * 2, archivedArgs.length);
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> stream(writer,
+                    "SELECT " + COLUMNS + "s.user_id, s.share, s.user_id AS sort_key " +
+                            "FROM expense e JOIN participant_shares s ON s.expense_id = e.id " +
+                            "WHERE " + scope + " AND e.participant_ids IS NULL " +
+                            "UNION ALL " +
+                            "SELECT " + COLUMNS + "p.user_id, " +
+                            "e.equal_share_base + CASE WHEN p.ord <= e.equal_share_remainder THEN 0.01 ELSE 0 END, p.ord " +
+                            "FROM expense e CROSS JOIN LATERAL unnest(e.participant_ids) WITH ORDINALITY AS p(user_id, ord) " +
+                            "WHERE " + scope + " AND e.participant_ids IS NOT NULL " +
+                            "UNION ALL " +
+                            // Archived expenses keep their shares, already expanded, in the document (as in V3)
+                            "SELECT a.id, a.created_at, a.group_id, a.document ->> 'description', a.category, a.currency, a.amount, " +
+                            "a.status, a.document ->> 'splitType', a.payer_id, CAST(s.key AS bigint), CAST(s.value AS numeric), " +
+                            "CAST(s.key AS bigint) " +
+                            "FROM expense_archive a CROSS JOIN LATERAL jsonb_each_text(a.document -> 'participantShares') AS s(key, value) " +
+                            "WHERE " + archivedScope + " AND jsonb_typeof(a.document -> 'participantShares') = 'object' " +
+                            "ORDER BY 2, 1, 13", allScopes));
+        } catch (UncheckedIOException e) {
+            throw e.getCause(); // Usually the client went away
+        }
+        writer.flush();
+    }
+
+    private void stream(Writer writer, String sql, Object[] args) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            for (int i = 0; i < args.length; i++) {
+                statement.setObject(i + 1, args[i]);
+            }
+            return statement;
+        }, resultSet -> {
+            try {
+                writeRow(writer, resultSet);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static void writeRow(Writer writer, ResultSet resultSet) throws IOException, SQLException {
+        Timestamp createdAt = resultSet.getTimestamp(2);
+        writer.write(String.valueOf(resultSet.getLong(1)));
+        writer.write(',');
+        writer.write(createdAt != null ? createdAt.toLocalDateTime().toString() : "");
+        writer.write(',');
+        writer.write(nullToEmpty(resultSet.getObject(3)));
+        writer.write(',');
+        writer.write(csvField(resultSet.getString(4)));
+        for (int column = 5; column <= 12; column++) {
+            writer.write(',');
+            writer.write(nullToEmpty(resultSet.getObject(column)));
+        }
+        writer.write('\n');
+    }
+
+    private static String nullToEmpty(Object value) {
+        return value != null ? value.toString() : "";
+    }
+
+    // Quotes free text per RFC 4180 and defuses values a spreadsheet would evaluate as a formula
+    static String csvField(String value) {
+        if (value == null || value.isEmpty()) {
+            return "";
+        }
+        if ("=+-@".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+}
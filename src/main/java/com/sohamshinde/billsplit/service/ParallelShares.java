@@ -0,0 +1,108 @@
+package com.sohamshinde.billsplit.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+
+/**
+ * Fork/join helpers for share calculation over very large participant lists.
+ *
+ * Inputs shorter than the caller's threshold are processed by a plain loop. Longer ones are split into
+ * index ranges and every result is written back at its own index, so the output order never depends on
+ * scheduling. Totals are exact because BigDecimal addition is associative, which makes the parallel
+ * path return exactly what the sequential one does.
+ */
+final class ParallelShares {
+
+    // Ranges at most this long are handled by a single task
+    private static final int LEAF_SIZE = 4096;
+
+    private ParallelShares() {
+    }
+
+    static BigDecimal sum(List<BigDecimal> values, int threshold) {
+        if (values.size() < threshold) {
+            BigDecimal total = BigDecimal.ZERO;
+            for (BigDecimal value : values) {
+                total = total.add(value);
+            }
+            return total;
+        }
+        return ForkJoinPool.commonPool().invoke(new SumTask(new ArrayList<>(values), 0, values.size()));
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T, R> List<R> map(List<T> input, Function<? super T, ? extends R> mapper, int threshold) {
+        if (input.size() < threshold) {
+            List<R> output = new ArrayList<>(input.size());
+            for (T element : input) {
+                output.add(mapper.apply(element));
+            }
+            return output;
+        }
+        Object[] output = new Object[input.size()];
+        ForkJoinPool.commonPool().invoke(new MapTask<>(new ArrayList<>(input), mapper, output, 0, input.size()));
+        return (List<R>) Arrays.asList(output);
+    }
+
+    private static final class SumTask extends RecursiveTask<BigDecimal> {
+        private final List<BigDecimal> values;
+        private final int from;
+        private final int to;
+
+        SumTask(List<BigDecimal> values, int from, int to) {
+            this.values = values;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected BigDecimal compute() {
+            if (to - from <= LEAF_SIZE) {
+                BigDecimal total = BigDecimal.ZERO;
+                for (int i = from; i < to; i++) {
+                    total = total.add(values.get(i));
+                }
+                return total;
+            }
+            int middle = (from + to) >>> 1;
+            SumTask left = new SumTask(values, from, middle);
+            left.fork();
+            BigDecimal right = new SumTask(values, middle, to).compute();
+            return left.join().add(right);
+        }
+    }
+
+    private static final class MapTask<T, R> extends RecursiveAction {
+        private final List<T> input;
+        private final Function<? super T, ? extends R> mapper;
+        private final Object[] output;
+        private final int from;
+        private final int to;
+
+        MapTask(List<T> input, Function<? super T, ? extends R> mapper, Object[] output, int from, int to) {
+            this.input = input;
+            this.mapper = mapper;
+            this.output = output;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_SIZE) {
+                for (int i = from; i < to; i++) {
+                    output[i] = mapper.apply(input.get(i));
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new MapTask<>(input, mapper, output, from, middle), new MapTask<>(input, mapper, output, middle, to));
+        }
+    }
+}
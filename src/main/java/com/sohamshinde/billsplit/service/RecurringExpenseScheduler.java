@@ -0,0 +1,44 @@
+package com.sohamshinde.billsplit.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+@Component
+@Slf4j
+public class RecurringExpenseScheduler {
+
+    private final RecurringExpenseService recurringExpenseService;
+
+    @Value("${recurring.expense.batch-size:100}")
+    private int batchSize;
+
+    // Caps the work done per poll; anything left over is picked up by the next poll
+    @Value("${recurring.expense.max-batches-per-run:10}")
+    private int maxBatchesPerRun;
+
+    public RecurringExpenseScheduler(RecurringExpenseService recurringExpenseService) {
+        this.recurringExpenseService = recurringExpenseService;
+    }
+
+    @Scheduled(fixedDelayString = "${recurring.expense.poll-interval-ms:60000}")
+    public void materializeDueOccurrences() {
+        LocalDateTime now = LocalDateTime.now();
+        int templates = 0;
+
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int handled = recurringExpenseService.materializeDueBatch(now);
+            templates += handled;
+            if (handled < batchSize) {
+                break;
+            }
+        }
+
+        if (templates > 0) {
+            log.info("Materialized recurring expenses for {} templates", templates);
+        }
+    }
+}
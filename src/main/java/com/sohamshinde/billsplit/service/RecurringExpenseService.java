@@ -0,0 +1,229 @@
+package com.sohamshinde.billsplit.service;
+
+import com.sohamshinde.billsplit.dto.RecurringExpenseDto;
+import com.sohamshinde.billsplit.entity.Expense;
+import com.sohamshinde.billsplit.entity.Group;
+import com.sohamshinde.billsplit.entity.RecurringExpense;
+import com.sohamshinde.billsplit.entity.User;
+import com.sohamshinde.billsplit.enums.ExpenseStatus;
+import com.sohamshinde.billsplit.exceptions.ExpenseException;
+import com.sohamshinde.billsplit.repository.ExpenseRepository;
+import com.sohamshinde.billsplit.repository.RecurringExpenseRepository;
+import com.sohamshinde.billsplit.security.BulkRead;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+@Service
+@Slf4j
+public class RecurringExpenseService {
+
+    private final RecurringExpenseRepository recurringExpenseRepository;
+    private final ExpenseRepository expenseRepository;
+    private final UserService userService;
+    private final GroupService groupService;
+    private final BalanceService balanceService;
+
+    @Value("${recurring.expense.batch-size:100}")
+    private int batchSize = 100;
+
+    // Upper bound of occurrences materialized per template per batch, so a long outage
+    // is worked off over several polls instead of in one burst of inserts
+    @Value("${recurring.expense.max-catch-up:12}")
+    private int maxCatchUp = 12;
+
+    @Value("${expense.compact.min-participants:1000}")
+    private int compactMinParticipants = 1000;
+
+    public RecurringExpenseService(RecurringExpenseRepository recurringExpenseRepository, ExpenseRepository expenseRepository,
+                                   UserService userService, GroupService groupService, BalanceService balanceService) {
+        this.recurringExpenseRepository = recurringExpenseRepository;
+        this.expenseRepository = expenseRepository;
+        this.userService = userService;
+        this.groupService = groupService;
+        this.balanceService = balanceService;
+    }
+
+    @Transactional
+    public RecurringExpenseDto createTemplate(RecurringExpenseDto dto) throws ExpenseException {
+        if (dto.getCronExpression() == null || !CronExpression.isValidExpression(dto.getCronExpression())) {
+            throw new ExpenseException("Invalid cron expression: " + dto.getCronExpression());
+        }
+
+        User creator = userService.getAuthenticatedUser();
+        User payer = userService.fetchUserById(dto.getPayerId());
+        if (payer == null) {
+            throw new ExpenseException("Payer not found");
+        }
+
+        Group group = null;
+        List<User> participants;
+        if (dto.getGroupId() != null) {
+            group = groupService.fetchGroupById(dto.getGroupId());
+            if (group == null) {
+                throw new ExpenseException("Invalid Group ID");
+            }
+            participants = group.getMembers();
+        } else if (dto.getParticipantIds() != null) {
+            participants = dto.getParticipantIds().stream()
+                    .map(userService::fetchUserById)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+            if (participants.isEmpty()) {
+                throw new ExpenseException("No valid participants found");
+            }
+        } else {
+            throw new ExpenseException("Either group ID or participant IDs must be provided");
+        }
+
+        // Reject shares that could never be materialized before persisting the template
+        ExpenseService.calculateShares(dto.getSplitType(), dto.getAmount(), participants, dto.getParticipantShares());
+
+        CronExpression cron = CronExpression.parse(dto.getCronExpression());
+        LocalDateTime startAt = dto.getStartAt() != null ? dto.getStartAt() : LocalDateTime.now();
+
+        RecurringExpense template = RecurringExpense.builder()
+                .amount(dto.getAmount())
+                .currency(dto.getCurrency())
+                .description(dto.getDescription())
+                .payer(payer)
+                .group(group)
+                .participants(group == null ? new ArrayList<>(participants) : null)
+                .splitType(dto.getSplitType())
+                .participantShares(dto.getParticipantShares() != null ? new HashMap<>(dto.getParticipantShares()) : new HashMap<>())
+                .category(dto.getCategory())
+                .cronExpression(dto.getCronExpression())
+                .nextRunAt(cron.next(startAt.minusNanos(1)))
+                .createdBy(creator)
+                .build();
+
+        return convertToDto(recurringExpenseRepository.save(template));
+    }
+
+    @Transactional(readOnly = true)
+    @BulkRead
+    public List<RecurringExpenseDto> getTemplatesForAuthenticatedUser() {
+        User user = userService.getAuthenticatedUser();
+        return recurringExpenseRepository.findAllByCreatedBy(user).stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional
+    public void deactivateTemplate(Long templateId) throws ExpenseException {
+        RecurringExpense template = recurringExpenseRepository.findById(templateId)
+                .orElseThrow(() -> new ExpenseException("Recurring expense not found with ID: " + templateId));
+
+        if (!template.getCreatedBy().getId().equals(userService.getAuthenticatedUserId())) {
+            throw new ExpenseException("You do not have permission to stop this recurring expense.");
+        }
+
+        template.setActive(false);
+        recurringExpenseRepository.save(template);
+    }
+
+    /**
+     * Materializes the due occurrences of one batch of templates and advances their next run.
+     *
+     * @return the number of templates handled; a full batch means more work may be due
+     */
+    @Transactional
+    public int materializeDueBatch(LocalDateTime now) {
+        List<RecurringExpense> due = recurringExpenseRepository.lockDueTemplates(now, PageRequest.of(0, batchSize));
+        List<Expense> occurrences = new ArrayList<>();
+
+        for (RecurringExpense template : due) {
+            CronExpression cron = CronExpression.parse(template.getCronExpression());
+            LocalDateTime occurrenceAt = template.getNextRunAt();
+            int materialized = 0;
+
+            while (occurrenceAt != null && !occurrenceAt.isAfter(now) && materialized < maxCatchUp) {
+                if (!expenseRepository.existsByRecurringExpenseIdAndOccurrenceAt(template.getId(), occurrenceAt)) {
+                    Expense expense = buildOccurrence(template, occurrenceAt);
+                    if (expense != null) {
+                        occurrences.add(expense);
+                    }
+                }
+                template.setLastRunAt(occurrenceAt);
+                occurrenceAt = cron.next(occurrenceAt);
+                materialized++;
+            }
+
+            template.setNextRunAt(occurrenceAt);
+            if (occurrenceAt == null) {
+                template.setActive(false); // Schedule has no further fire times
+            }
+        }
+
+        expenseRepository.saveAll(occurrences);
+        occurrences.forEach(balanceService::applyExpense);
+        recurringExpenseRepository.saveAll(due);
+        return due.size();
+    }
+
+    private Expense buildOccurrence(RecurringExpense template, LocalDateTime occurrenceAt) {
+        List<User> participants = template.getGroup() != null
+                ? new ArrayList<>(template.getGroup().getMembers())
+                : new ArrayList<>(template.getParticipants());
+
+        boolean pack = ExpenseSplits.shouldPack(template.getSplitType(), participants.size(), compactMinParticipants);
+
+        Map<User, BigDecimal> shares = new HashMap<>();
+        try {
+            if (!pack) {
+                shares = ExpenseService.calculateShares(template.getSplitType(), template.getAmount(), participants,
+                        template.getParticipantShares());
+            }
+        } catch (ExpenseException e) {
+            // e.g. an EXACT share references someone who has since left the group
+            log.warn("Skipping occurrence {} of recurring expense {}: {}", occurrenceAt, template.getId(), e.getMessage());
+            return null;
+        }
+
+        Expense occurrence = Expense.builder()
+                .payer(template.getPayer())
+                .group(template.getGroup())
+                .participants(pack ? new HashSet<>() : new HashSet<>(participants))
+                .amount(template.getAmount())
+                .currency(template.getCurrency())
+                .description(template.getDescription())
+                .splitType(template.getSplitType())
+                .participantShares(shares)
+                .status(ExpenseStatus.PENDING)
+                .category(template.getCategory())
+                .recurringExpenseId(template.getId())
+                .occurrenceAt(occurrenceAt)
+                .build();
+        if (pack) {
+            ExpenseSplits.pack(occurrence, participants.stream().map(User::getId).collect(Collectors.toList()));
+        }
+        return occurrence;
+    }
+
+    private RecurringExpenseDto convertToDto(RecurringExpense template) {
+        return RecurringExpenseDto.builder()
+                .id(template.getId())
+                .amount(template.getAmount())
+                .currency(template.getCurrency())
+                .description(template.getDescription())
+                .payerId(template.getPayer() != null ? template.getPayer().getId() : null)
+                .groupId(template.getGroup() != null ? template.getGroup().getId() : null)
+                .participantIds(template.getParticipants() != null ?
+                        template.getParticipants().stream().map(User::getId).collect(Collectors.toList()) : new ArrayList<>())
+                .splitType(template.getSplitType())
+                .participantShares(template.getParticipantShares())
+                .category(template.getCategory())
+                .cronExpression(template.getCronExpression())
+                .nextRunAt(template.getNextRunAt())
+                .active(template.isActive())
+                .build();
+    }
+}
@@ -0,0 +1,85 @@
+package com.sohamshinde.billsplit.service;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Keeps each token under its own Redis key with a TTL ending at {@code expiresAt}, so expired tokens
+ * disappear on their own. Verification is a single GETDEL, which hands a token to exactly one caller.
+ *
+ * Tokens issued before the switch to Redis are still in the verification_token table; when a fallback
+ * store is given, tokens missing from Redis are looked up there. The fallback turns itself off once the last
+ * of those tokens has expired: {@code legacyExpiry} is asked once, on the first miss, when that happens.
+ * New tokens only go to Redis, so the answer never moves, and an empty table ends the fallback at once.
+ */
+public class RedisVerificationTokenStore implements VerificationTokenStore {
+
+    private static final String KEY_PREFIX = "verification:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final VerificationTokenStore legacyStore;
+    private final Supplier<LocalDateTime> legacyExpiry;
+    private volatile LocalDateTime legacyUntil;
+
+    public RedisVerificationTokenStore(StringRedisTemplate redisTemplate, VerificationTokenStore legacyStore,
+                                       Supplier<LocalDateTime> legacyExpiry) {
+        this.redisTemplate = redisTemplate;
+        this.legacyStore = legacyStore;
+        this.legacyExpiry = legacyExpiry;
+    }
+
+    @Override
+    public void save(String token, Long userId, LocalDateTime expiresAt) {
+        Duration ttl = Duration.between(LocalDateTime.now(), expiresAt);
+        if (ttl.isNegative() || ttl.isZero()) {
+            return;
+        }
+        redisTemplate.opsForValue().set(KEY_PREFIX + token, String.valueOf(userId), ttl);
+    }
+
+    // One pipelined round trip for the whole batch
+    @Override
+    public void saveAll(Map<String, Long> userIdsByToken, LocalDateTime expiresAt) {
+        Duration ttl = Duration.between(LocalDateTime.now(), expiresAt);
+        if (userIdsByToken.isEmpty() || ttl.isNegative() || ttl.isZero()) {
+            return;
+        }
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> stringOperations = (RedisOperations<String, String>) operations;
+                userIdsByToken.forEach((token, userId) ->
+                        stringOperations.opsForValue().set(KEY_PREFIX + token, String.valueOf(userId), ttl));
+                return null;
+            }
+        });
+    }
+
+    @Override
+    public Optional<Long> consume(String token) {
+        String userId = redisTemplate.opsForValue().getAndDelete(KEY_PREFIX + token);
+        if (userId != null) {
+            return Optional.of(Long.valueOf(userId));
+        }
+        return legacyStore != null && legacyActive() ? legacyStore.consume(token) : Optional.empty();
+    }
+
+    private boolean legacyActive() {
+        LocalDateTime until = legacyUntil;
+        if (until == null) {
+            LocalDateTime latest = legacyExpiry.get();
+            until = latest != null ? latest : LocalDateTime.MIN;
+            legacyUntil = until;
+        }
+        return LocalDateTime.now().isBefore(until);
+    }
+}
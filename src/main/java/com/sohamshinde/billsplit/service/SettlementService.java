@@ -0,0 +1,285 @@
+package com.sohamshinde.billsplit.service;
+
+import com.sohamshinde.billsplit.dto.BalanceDto;
+import com.sohamshinde.billsplit.dto.SettlementDto;
+import com.sohamshinde.billsplit.entity.Group;
+import com.sohamshinde.billsplit.entity.GroupBalance;
+import com.sohamshinde.billsplit.entity.Settlement;
+import com.sohamshinde.billsplit.entity.SettlementBatch;
+import com.sohamshinde.billsplit.entity.User;
+import com.sohamshinde.billsplit.enums.Currency;
+import com.sohamshinde.billsplit.enums.ExpenseStatus;
+import com.sohamshinde.billsplit.exceptions.IdempotencyConflictException;
+import com.sohamshinde.billsplit.exceptions.SettlementException;
+import com.sohamshinde.billsplit.repository.ExpenseRepository;
+import com.sohamshinde.billsplit.repository.GroupBalanceRepository;
+import com.sohamshinde.billsplit.repository.SettlementBatchRepository;
+import com.sohamshinde.billsplit.repository.SettlementRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+@Service
+@Slf4j
+public class SettlementService {
+
+    private final SettlementRepository settlementRepository;
+    private final SettlementBatchRepository settlementBatchRepository;
+    private final GroupBalanceRepository groupBalanceRepository;
+    private final ExpenseRepository expenseRepository;
+    private final GroupService groupService;
+    private final UserService userService;
+    private final BalanceService balanceService;
+    private final TransactionTemplate transactionTemplate;
+
+    public SettlementService(SettlementRepository settlementRepository, SettlementBatchRepository settlementBatchRepository,
+                             GroupBalanceRepository groupBalanceRepository, ExpenseRepository expenseRepository,
+                             GroupService groupService, UserService userService, BalanceService balanceService,
+                             TransactionTemplate transactionTemplate) {
+        this.settlementRepository = settlementRepository;
+        this.settlementBatchRepository = settlementBatchRepository;
+        this.groupBalanceRepository = groupBalanceRepository;
+        this.expenseRepository = expenseRepository;
+        this.groupService = groupService;
+        this.userService = userService;
+        this.balanceService = balanceService;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Records a single repayment. A retry with the same idempotency key returns the original
+     * settlement; a concurrent duplicate loses on the unique key and also returns the winner.
+     */
+    public SettlementDto recordSettlement(SettlementDto dto, String idempotencyKey) {
+        User authenticatedUser = userService.getAuthenticatedUser();
+
+        if (idempotencyKey != null) {
+            Optional<Settlement> existing = settlementRepository.findByIdempotencyKey(idempotencyKey);
+            if (existing.isPresent()) {
+                return replay(existing.get(), dto, authenticatedUser);
+            }
+        }
+
+        try {
+            return transactionTemplate.execute(status -> convertToDto(insertSettlement(dto, idempotencyKey, authenticatedUser)));
+        } catch (DataIntegrityViolationException e) {
+            if (idempotencyKey == null) {
+                throw e;
+            }
+            Settlement winner = settlementRepository.findByIdempotencyKey(idempotencyKey)
+                    .orElseThrow(() -> e);
+            return replay(winner, dto, authenticatedUser);
+        }
+    }
+
+    private Settlement insertSettlement(SettlementDto dto, String idempotencyKey, User authenticatedUser) {
+        if (dto.getPayerId().equals(dto.getPayeeId())) {
+            throw new SettlementException("Payer and payee must be different members");
+        }
+        if (!authenticatedUser.getId().equals(dto.getPayerId()) && !authenticatedUser.getId().equals(dto.getPayeeId())) {
+            throw new SettlementException("You can only record settlements you are part of");
+        }
+
+        Group group = groupService.fetchGroupById(dto.getGroupId());
+        User payer = findMember(group, dto.getPayerId());
+        User payee = findMember(group, dto.getPayeeId());
+
+        Settlement settlement = Settlement.builder()
+                .group(group)
+                .payer(payer)
+                .payee(payee)
+                .amount(dto.getAmount())
+                .currency(dto.getCurrency())
+                .createdBy(authenticatedUser)
+                .idempotencyKey(idempotencyKey)
+                .build();
+
+        // Flush first so a duplicate key fails before any balance is touched
+        Settlement saved = settlementRepository.saveAndFlush(settlement);
+        balanceService.applySettlement(saved);
+        return saved;
+    }
+
+    /**
+     * Settles every open balance of a group in one transaction: the balance rows are locked,
+     * the minimal set of transfers is recorded and all pending expenses are marked settled
+     * with a single bulk update. A run with an idempotency key first claims the key in
+     * settlement_batch, so a retry, concurrent or not, returns the transfers of the first run.
+     */
+    public List<SettlementDto> settleGroup(Long groupId, String idempotencyKey) {
+        User authenticatedUser = userService.getAuthenticatedUser();
+
+        if (idempotencyKey != null) {
+            Optional<SettlementBatch> existing = settlementBatchRepository.findByBatchKey(idempotencyKey);
+            if (existing.isPresent()) {
+                return replayBatch(existing.get(), groupId, authenticatedUser);
+            }
+        }
+
+        try {
+            return transactionTemplate.execute(status -> settle(groupId, idempotencyKey, authenticatedUser));
+        } catch (DataIntegrityViolationException e) {
+            if (idempotencyKey == null) {
+                throw e;
+            }
+            // The concurrent run holding the key has committed by the time the insert fails
+            SettlementBatch winner = settlementBatchRepository.findByBatchKey(idempotencyKey)
+                    .orElseThrow(() -> e);
+            return replayBatch(winner, groupId, authenticatedUser);
+        }
+    }
+
+    private List<SettlementDto> settle(Long groupId, String idempotencyKey, User authenticatedUser) {
+        if (idempotencyKey != null) {
+            settlementBatchRepository.saveAndFlush(SettlementBatch.builder()
+                    .batchKey(idempotencyKey)
+                    .groupId(groupId)
+                    .createdBy(authenticatedUser.getId())
+                    .build());
+        }
+
+        Group group = groupService.fetchGroupById(groupId);
+        Map<Long, User> members = group.getMembers().stream()
+                .collect(Collectors.toMap(User::getId, member -> member, (a, b) -> a));
+
+        List<GroupBalance> balances = groupBalanceRepository.lockAllByGroupId(groupId);
+        List<Settlement> transfers = new ArrayList<>();
+
+        Map<Currency, List<GroupBalance>> byCurrency = balances.stream()
+                .collect(Collectors.groupingBy(GroupBalance::getCurrency, TreeMap::new, Collectors.toList()));
+        for (Map.Entry<Currency, List<GroupBalance>> entry : byCurrency.entrySet()) {
+            for (Transfer transfer : minimalTransfers(entry.getValue())) {
+                transfers.add(Settlement.builder()
+                        .group(group)
+                        .payer(members.computeIfAbsent(transfer.fromUserId(), userService::fetchUserById))
+                        .payee(members.computeIfAbsent(transfer.toUserId(), userService::fetchUserById))
+                        .amount(transfer.amount())
+                        .currency(entry.getKey())
+                        .createdBy(authenticatedUser)
+                        .batchKey(idempotencyKey)
+                        .build());
+            }
+        }
+
+        // Balances are locked, so they can be adjusted in place rather than through increments
+        Map<String, GroupBalance> balanceIndex = new HashMap<>();
+        balances.forEach(balance -> balanceIndex.put(balance.getUserId() + ":" + balance.getCurrency(), balance));
+        for (Settlement transfer : transfers) {
+            GroupBalance from = balanceIndex.get(transfer.getPayer().getId() + ":" + transfer.getCurrency());
+            GroupBalance to = balanceIndex.get(transfer.getPayee().getId() + ":" + transfer.getCurrency());
+            from.setBalance(from.getBalance().add(transfer.getAmount()));
+            to.setBalance(to.getBalance().subtract(transfer.getAmount()));
+        }
+
+        settlementRepository.saveAll(transfers);
+        int settledExpenses = expenseRepository.updateStatusForGroup(groupId, ExpenseStatus.SETTLED, LocalDateTime.now());
+        log.info("Settled group {} with {} transfers covering {} expenses", groupId, transfers.size(), settledExpenses);
+
+        return transfers.stream().map(this::convertToDto).collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<SettlementDto> getSettlementsForGroup(Long groupId) {
+        groupService.fetchGroupById(groupId); // Membership check
+        return settlementRepository.findAllByGroupIdOrderByCreatedAtDesc(groupId).stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<BalanceDto> getBalancesForGroup(Long groupId) {
+        groupService.fetchGroupById(groupId); // Membership check
+        return balanceService.getBalances(groupId).stream()
+                .map(balance -> new BalanceDto(balance.getUserId(), balance.getCurrency(), balance.getBalance()))
+                .collect(Collectors.toList());
+    }
+
+    record Transfer(Long fromUserId, Long toUserId, BigDecimal amount) {
+    }
+
+    /**
+     * Greedy matching of the largest debtor with the largest creditor; yields at most n - 1
+     * transfers for n non-zero balances. Ties are broken by user ID so the result is deterministic.
+     */
+    static List<Transfer> minimalTransfers(List<GroupBalance> balances) {
+        Comparator<long[]> byAmountDesc = Comparator.<long[]>comparingLong(entry -> -entry[1]).thenComparingLong(entry -> entry[0]);
+        PriorityQueue<long[]> creditors = new PriorityQueue<>(byAmountDesc);
+        PriorityQueue<long[]> debtors = new PriorityQueue<>(byAmountDesc);
+
+        // Work in minor units (cents) so the matching is exact
+        for (GroupBalance balance : balances) {
+            long cents = balance.getBalance().setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+            if (cents > 0) {
+                creditors.add(new long[]{balance.getUserId(), cents});
+            } else if (cents < 0) {
+                debtors.add(new long[]{balance.getUserId(), -cents});
+            }
+        }
+
+        List<Transfer> transfers = new ArrayList<>();
+        while (!creditors.isEmpty() && !debtors.isEmpty()) {
+            long[] creditor = creditors.poll();
+            long[] debtor = debtors.poll();
+            long amount = Math.min(creditor[1], debtor[1]);
+
+            transfers.add(new Transfer(debtor[0], creditor[0], BigDecimal.valueOf(amount, 2)));
+
+            if (creditor[1] > amount) {
+                creditors.add(new long[]{creditor[0], creditor[1] - amount});
+            }
+            if (debtor[1] > amount) {
+                debtors.add(new long[]{debtor[0], debtor[1] - amount});
+            }
+        }
+        return transfers;
+    }
+
+    private User findMember(Group group, Long userId) {
+        return group.getMembers().stream()
+                .filter(member -> member.getId().equals(userId))
+                .findFirst()
+                .orElseThrow(() -> new SettlementException("User " + userId + " is not a member of this group"));
+    }
+
+    private SettlementDto replay(Settlement existing, SettlementDto request, User authenticatedUser) {
+        boolean samePayload = existing.getGroup().getId().equals(request.getGroupId())
+                && existing.getPayer().getId().equals(request.getPayerId())
+                && existing.getPayee().getId().equals(request.getPayeeId())
+                && existing.getAmount().compareTo(request.getAmount()) == 0
+                && existing.getCurrency() == request.getCurrency();
+
+        if (!existing.getCreatedBy().getId().equals(authenticatedUser.getId()) || !samePayload) {
+            throw new IdempotencyConflictException("Idempotency key was already used for a different request");
+        }
+        return convertToDto(existing);
+    }
+
+    private List<SettlementDto> replayBatch(SettlementBatch batch, Long groupId, User authenticatedUser) {
+        if (!batch.getGroupId().equals(groupId) || !batch.getCreatedBy().equals(authenticatedUser.getId())) {
+            throw new IdempotencyConflictException("Idempotency key was already used for a different request");
+        }
+        return settlementRepository.findAllByBatchKeyOrderById(batch.getBatchKey()).stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toList());
+    }
+
+    private SettlementDto convertToDto(Settlement settlement) {
+        return SettlementDto.builder()
+                .id(settlement.getId())
+                .groupId(settlement.getGroup().getId())
+                .payerId(settlement.getPayer().getId())
+                .payeeId(settlement.getPayee().getId())
+                .amount(settlement.getAmount())
+                .currency(settlement.getCurrency())
+                .createdAt(settlement.getCreatedAt())
+                .build();
+    }
+}
@@ -2,7 +2,6 @@ package com.sohamshinde.billsplit.service;
 
 import com.sohamshinde.billsplit.dto.UserUpdateDto;
 import com.sohamshinde.billsplit.entity.User;
-import com.sohamshinde.billsplit.entity.VerificationToken;
 import com.sohamshinde.billsplit.dto.UserRegistrationDto;
 import com.sohamshinde.billsplit.enums.Role;
 import com.sohamshinde.billsplit.exceptions.InvalidTokenException;
@@ -10,24 +9,22 @@ import com.sohamshinde.billsplit.exceptions.ResourceNotFoundException;
 import com.sohamshinde.billsplit.exceptions.UserAlreadyExistsException;
 import com.sohamshinde.billsplit.exceptions.UserNotFoundException;
 import com.sohamshinde.billsplit.repository.UserRepository;
-import com.sohamshinde.billsplit.repository.VerificationTokenRepository;
+import com.sohamshinde.billsplit.utils.AuthUtil;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import com.mailersend.sdk.emails.Email;
-import com.mailersend.sdk.MailerSend;
-import com.mailersend.sdk.MailerSendResponse;
-import com.mailersend.sdk.exceptions.MailerSendException;
+import org.springframework.transaction.annotation.Transactional;
 
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -36,16 +33,16 @@ import java.util.stream.Collectors;
 public class UserService implements UserDetailsService {
 
     private final UserRepository userRepository;
-    private final VerificationTokenRepository verificationTokenRepository;
+    private final VerificationTokenStore verificationTokenStore;
     private final PasswordEncoder passwordEncoder;
+    private final VerificationMailer verificationMailer;
 
-    @Value("${mailerSend.apiKey}")
-    private String mailersendAPIKey;
-
-    public UserService(UserRepository userRepository, VerificationTokenRepository verificationTokenRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, VerificationTokenStore verificationTokenStore, PasswordEncoder passwordEncoder,
+                       VerificationMailer verificationMailer) {
         this.userRepository = userRepository;
-        this.verificationTokenRepository = verificationTokenRepository;
+        this.verificationTokenStore = verificationTokenStore;
         this.passwordEncoder = passwordEncoder;
+        this.verificationMailer = verificationMailer;
     }
 
     // Method to register a user
@@ -72,18 +69,14 @@ public class UserService implements UserDetailsService {
 
         // Generate verification token
         String token = UUID.randomUUID().toString();
-        VerificationToken verificationToken = new VerificationToken();
-        verificationToken.setToken(token);
-        verificationToken.setUser(user);
-        verificationToken.setExpiresAt(LocalDateTime.now().plusHours(24));
 
-        sendEmail(userRegistrationDto.getEmail(), userRegistrationDto.getName(), "localhost:8080", token);
+        verificationMailer.send(userRegistrationDto.getEmail(), userRegistrationDto.getName(), "localhost:8080", token);
         System.out.println(3);
 
-        verificationTokenRepository.save(verificationToken); // Save token to the database
+        verificationTokenStore.save(token, user.getId(), LocalDateTime.now().plusHours(24)); // Save token, valid for 24 hours
         System.out.println(4);
 
-        System.out.println(verificationToken.getToken());
+        System.out.println(token);
         System.out.println(5);
 
     }
@@ -91,54 +84,71 @@ public class UserService implements UserDetailsService {
 
     // Method to verify the email with token
     public void verifyEmail(String token) {
-        VerificationToken verificationToken = verificationTokenRepository.findByToken(token);
-
-        // Handle invalid token
-        if (verificationToken == null) {
-            throw new InvalidTokenException("Invalid verification token");
-        }
-
-        // Check if token is expired
-        if (verificationToken.getExpiresAt().isBefore(LocalDateTime.now())) {
-            throw new InvalidTokenException("Verification token has expired");
-        }
+        // Consuming the token also deletes it, so it cannot be used again
+        Long userId = verificationTokenStore.consume(token)
+                .orElseThrow(() -> new InvalidTokenException("Invalid or expired verification token"));
 
         // Ensure the token is linked to a valid user
-        User user = verificationToken.getUser();
-        if (user == null) {
-            throw new InvalidTokenException("Associated user not found for the token.");
-        }
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new InvalidTokenException("Associated user not found for the token."));
 
         // Enable user and save
         user.setEnabled(true);
         userRepository.save(user);
-
-        // Delete the verification token after successful verification
-        verificationTokenRepository.delete(verificationToken);
     }
 
+    @Transactional(readOnly = true)
     public User fetchUserById(Long id) {
         return userRepository.findById(id)
                 .orElseThrow(() -> new UserNotFoundException("User with ID " + id + " not found"));
     }
 
+    @Transactional(readOnly = true)
     public List<User> fetchUsersByIds(List<Long> userIds) {
         return userIds.stream().map(userId -> userRepository.findById(userId).orElseThrow(() -> new UserNotFoundException("User with ID " + userId + " not found"))).collect(Collectors.toList());
     }
 
+    // Same contract as mapping fetchUserById over the IDs, but with one query per chunk instead of one per user
+    @Transactional(readOnly = true)
+    public List<User> fetchUsersInBulk(List<Long> userIds) {
+        Map<Long, User> found = new HashMap<>();
+        for (int i = 0; i < userIds.size(); i += 1000) {
+            userRepository.findAllById(userIds.subList(i, Math.min(i + 1000, userIds.size())))
+                    .forEach(user -> found.put(user.getId(), user));
+        }
+
+        List<User> users = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) {
+            User user = found.get(userId);
+            if (user == null) {
+                throw new UserNotFoundException("User with ID " + userId + " not found");
+            }
+            users.add(user);
+        }
+        return users;
+    }
+
+    @Transactional(readOnly = true)
+    public List<Long> findExistingUserIds(Collection<Long> userIds) {
+        return userRepository.findExistingIds(userIds);
+    }
+
     @Override
+    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
         return userRepository.findByEmail(email).orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
     }
 
+    // The session only holds the slim principal, so the entity is loaded here; inside a transaction
+    // repeated calls are served from the persistence context
+    @Transactional(readOnly = true)
     public User getAuthenticatedUser() throws UserNotFoundException {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-
-        if (authentication == null || authentication.getPrincipal() == null || !(authentication.getPrincipal() instanceof UserDetails)) {
-            throw new ResourceNotFoundException("User not found");
-        }
+        return userRepository.findById(AuthUtil.getAuthenticatedUserId())
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+    }
 
-        return (User) authentication.getPrincipal();
+    public Long getAuthenticatedUserId() {
+        return AuthUtil.getAuthenticatedUserId();
     }
 
     // Update User Information
@@ -162,50 +172,4 @@ public class UserService implements UserDetailsService {
         userRepository.save(user);
     }
 
-    private void sendEmail(String emailId, String name, String host, String token) {
-
-        String url = host + "/api/user/verify?token=" + token;
-
-        Email email = new Email();
-
-        email.setFrom("Bill Split", "verify@sohamshinde.info");
-        email.addRecipient(name, emailId);
-
-        email.setSubject("Verify your Bill Split account");
-
-        String html = "<div class=\"container\">\n" +
-                "        <div class=\"header\">Verify Your Email</div>\n" +
-                "        <p class=\"message\">Hello,</p>\n" +
-                "        <p class=\"message\">\n" +
-                "            Thank you for registering. To complete your sign-up, please verify your email address by clicking the button below:\n" +
-                "        </p>\n" +
-                "        <a class=\"verify-button\" href=\"" + url + "\" target=\"_blank\">Verify Email</a>\n" +
-                "        <p class=\"message\">\n" +
-                "           If the above button doens't work for you copy paste this link in browser \n" + url +
-                "        </p>\n" +
-                "        <p class=\"message\">\n" +
-                "            If you didn't request this email, please ignore it.\n" +
-                "        </p>\n" +
-                "        <div class=\"footer\">\n" +
-                "            &copy; 2025 Bill Split | All rights reserved.\n" +
-                "        </div>\n" +
-                "    </div>";
-
-//        System.out.println(html);
-
-        email.setHtml(html);
-
-        MailerSend ms = new MailerSend();
-
-        ms.setToken(mailersendAPIKey);
-
-//        System.out.println("mailersendAPIKey" + mailersendAPIKey);
-        try {
-            MailerSendResponse response = ms.emails().send(email);
-//            System.out.println(response.messageId);
-        } catch (MailerSendException e) {
-            e.printStackTrace();
-        }
-    }
-
 }
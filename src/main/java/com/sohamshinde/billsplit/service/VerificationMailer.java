@@ -0,0 +1,98 @@
+package com.sohamshinde.billsplit.service;
+
+import com.mailersend.sdk.MailerSend;
+import com.mailersend.sdk.MailerSendResponse;
+import com.mailersend.sdk.emails.Email;
+import com.mailersend.sdk.exceptions.MailerSendException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Sends account verification emails through MailerSend.
+ *
+ * {@link #queue} hands the email to a small dedicated pool instead of sending it on the caller's thread,
+ * so bulk registrations return once the users are stored. The queue lives in memory: emails still
+ * waiting when the application stops are not sent.
+ */
+@Component
+@Slf4j
+public class VerificationMailer {
+
+    private final ThreadPoolTaskExecutor executor;
+
+    @Value("${mailerSend.apiKey}")
+    private String mailersendAPIKey;
+
+    public VerificationMailer(@Value("${verification.mail.threads:2}") int threads,
+                              @Value("${verification.mail.queue-capacity:20000}") int queueCapacity) {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("verification-mail-");
+        executor.setDaemon(true);
+        // A full queue slows the submitting request down instead of dropping emails
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+    }
+
+    public void queue(String emailId, String name, String host, String token) {
+        executor.execute(() -> {
+            try {
+                send(emailId, name, host, token);
+            } catch (RuntimeException e) {
+                log.warn("Could not send verification email to {}", emailId, e);
+            }
+        });
+    }
+
+    public void send(String emailId, String name, String host, String token) {
+
+        String url = host + "/api/user/verify?token=" + token;
+
+        Email email = new Email();
+
+        email.setFrom("Bill Split", "verify@sohamshinde.info");
+        email.addRecipient(name, emailId);
+
+        email.setSubject("Verify your Bill Split account");
+
+        String html = "<div class=\"container\">\n" +
+                "        <div class=\"header\">Verify Your Email</div>\n" +
+                "        <p class=\"message\">Hello,</p>\n" +
+                "        <p class=\"message\">\n" +
+                "            Thank you for registering. To complete your sign-up, please verify your email address by clicking the button below:\n" +
+                "        </p>\n" +
+                "        <a class=\"verify-button\" href=\"" + url + "\" target=\"_blank\">Verify Email</a>\n" +
+                "        <p class=\"message\">\n" +
+                "           If the above button doens't work for you copy paste this link in browser \n" + url +
+                "        </p>\n" +
+                "        <p class=\"message\">\n" +
+                "            If you didn't request this email, please ignore it.\n" +
+                "        </p>\n" +
+                "        <div class=\"footer\">\n" +
+                "            &copy; 2025 Bill Split | All rights reserved.\n" +
+                "        </div>\n" +
+                "    </div>";
+
+//        System.out.println(html);
+
+        email.setHtml(html);
+
+        MailerSend ms = new MailerSend();
+
+        ms.setToken(mailersendAPIKey);
+
+//        System.out.println("mailersendAPIKey" + mailersendAPIKey);
+        try {
+            MailerSendResponse response = ms.emails().send(email);
+//            System.out.println(response.messageId);
+        } catch (MailerSendException e) {
+            e.printStackTrace();
+        }
+    }
+}
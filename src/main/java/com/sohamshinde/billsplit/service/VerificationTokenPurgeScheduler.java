@@ -0,0 +1,55 @@
+package com.sohamshinde.billsplit.service;
+
+import com.sohamshinde.billsplit.repository.VerificationTokenRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Deletes expired rows from the verification_token table, which otherwise keeps every token that was never used.
+ */
+@Component
+@Slf4j
+public class VerificationTokenPurgeScheduler {
+
+    private final VerificationTokenRepository verificationTokenRepository;
+
+    @Value("${verification.purge.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${verification.purge.batch-size:1000}")
+    private int batchSize = 1000;
+
+    // Caps the work done per run; anything left over is picked up by the next run
+    @Value("${verification.purge.max-batches-per-run:100}")
+    private int maxBatchesPerRun = 100;
+
+    public VerificationTokenPurgeScheduler(VerificationTokenRepository verificationTokenRepository) {
+        this.verificationTokenRepository = verificationTokenRepository;
+    }
+
+    @Scheduled(cron = "${verification.purge.cron:0 15 * * * *}")
+    public void purgeExpiredTokens() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now();
+        int purged = 0;
+
+        // Each batch commits on its own, so a long backlog never turns into one long-running delete
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int deleted = verificationTokenRepository.deleteExpiredBatch(cutoff, batchSize);
+            purged += deleted;
+            if (deleted < batchSize) {
+                break;
+            }
+        }
+
+        if (purged > 0) {
+            log.info("Purged {} verification tokens that expired before {}", purged, cutoff);
+        }
+    }
+}
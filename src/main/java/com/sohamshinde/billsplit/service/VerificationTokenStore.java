@@ -0,0 +1,28 @@
+package com.sohamshinde.billsplit.service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Where email verification tokens live between registration and verification.
+ * The implementation is picked by {@code verification.token-store} (see VerificationTokenConfig).
+ */
+public interface VerificationTokenStore {
+
+    void save(String token, Long userId, LocalDateTime expiresAt);
+
+    /**
+     * Stores tokens for many users at once (bulk registration). Implementations write them in as few round trips as they can.
+     */
+    default void saveAll(Map<String, Long> userIdsByToken, LocalDateTime expiresAt) {
+        userIdsByToken.forEach((token, userId) -> save(token, userId, expiresAt));
+    }
+
+    /**
+     * Removes the token and returns the ID of the user it was issued to. A token can be consumed only once.
+     *
+     * @return empty if the token is unknown, already used or expired
+     */
+    Optional<Long> consume(String token);
+}
@@ -1,12 +1,23 @@
 package com.sohamshinde.billsplit.utils;
 
-import com.sohamshinde.billsplit.entity.User;
+import com.sohamshinde.billsplit.exceptions.ResourceNotFoundException;
+import com.sohamshinde.billsplit.security.AuthenticatedUser;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 public class AuthUtil {
 
-    // Common method to get the authenticated user from the security context
-    public static User getAuthenticatedUser() {
-        return (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+    // Common method to get the logged-in principal from the security context
+    public static AuthenticatedUser getAuthenticatedPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof AuthenticatedUser principal)) {
+            throw new ResourceNotFoundException("User not found");
+        }
+        return principal;
+    }
+
+    // For checks that only compare IDs; no database access
+    public static Long getAuthenticatedUserId() {
+        return getAuthenticatedPrincipal().id();
     }
 }
@@ -0,0 +1,17 @@
+-- Earlier builds could add a member to a group twice, and ddl-auto=update cannot add uk_user_group_members
+-- while such duplicates exist; it only logs the failure. Keep one row of each pair, then add the key, which
+-- addMembers' ON CONFLICT DO NOTHING relies on. The lock holds off concurrent inserts until the key exists.
+
+LOCK TABLE user_group_members IN SHARE ROW EXCLUSIVE MODE;
+
+DELETE FROM user_group_members m
+USING user_group_members d
+WHERE m.group_id = d.group_id AND m.members_id = d.members_id AND m.ctid > d.ctid;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'uk_user_group_members') THEN
+        ALTER TABLE user_group_members ADD CONSTRAINT uk_user_group_members UNIQUE (group_id, members_id);
+    END IF;
+END
+$$;
@@ -0,0 +1,4 @@
+-- Packed form of large equal splits (see ExpenseSplits). Nullable, so adding the columns only touches the catalog
+ALTER TABLE expense ADD COLUMN IF NOT EXISTS participant_ids bigint[];
+ALTER TABLE expense ADD COLUMN IF NOT EXISTS equal_share_base numeric(19, 2);
+ALTER TABLE expense ADD COLUMN IF NOT EXISTS equal_share_remainder integer;
@@ -0,0 +1,18 @@
+-- Settled expenses moved out by the archival job (see ArchivedExpense). Created here rather than left to
+-- ddl-auto, so the group_balance backfill (V3) can read it on any database
+CREATE TABLE IF NOT EXISTS expense_archive (
+    id              bigint PRIMARY KEY,
+    group_id        bigint,
+    payer_id        bigint,
+    participant_ids bigint[],
+    amount          numeric(38, 2),
+    currency        varchar(255),
+    status          varchar(255),
+    category        varchar(255),
+    document        jsonb NOT NULL,
+    created_at      timestamp(6),
+    archived_at     timestamp(6)
+);
+
+CREATE INDEX IF NOT EXISTS idx_expense_archive_group ON expense_archive (group_id);
+CREATE INDEX IF NOT EXISTS idx_expense_archive_payer ON expense_archive (payer_id);
@@ -0,0 +1,43 @@
+-- group_balance was introduced after groups already had expenses, and is only changed incrementally from then on.
+-- Rebuild it from everything that moves a balance, exactly as BalanceService does:
+--   * each participant owes their share, and the payer is owed the sum of the shares (expanded and packed splits)
+--   * archived expenses count like the active ones they were, using the shares in their document
+--   * a settlement credits its payer and debits its payee
+-- Writers take ROW EXCLUSIVE on group_balance, so the lock below waits for in-flight increments and holds off new
+-- ones until the rebuilt rows are committed; those increments then apply on top of the rebuilt balances.
+
+LOCK TABLE group_balance IN SHARE ROW EXCLUSIVE MODE;
+
+DELETE FROM group_balance;
+
+WITH shares AS (
+    SELECT e.group_id, e.payer_id, e.currency, ps.user_id, ps.share
+    FROM expense e
+    JOIN participant_shares ps ON ps.expense_id = e.id
+    WHERE e.group_id IS NOT NULL
+    UNION ALL
+    SELECT e.group_id, e.payer_id, e.currency, p.user_id,
+           e.equal_share_base + CASE WHEN p.ord <= coalesce(e.equal_share_remainder, 0) THEN 0.01 ELSE 0 END
+    FROM expense e
+    CROSS JOIN LATERAL unnest(e.participant_ids) WITH ORDINALITY AS p(user_id, ord)
+    WHERE e.group_id IS NOT NULL AND e.participant_ids IS NOT NULL
+    UNION ALL
+    SELECT a.group_id, a.payer_id, a.document ->> 'currency', CAST(s.key AS bigint), CAST(s.value AS numeric)
+    FROM expense_archive a
+    CROSS JOIN LATERAL jsonb_each_text(a.document -> 'participantShares') AS s(key, value)
+    WHERE a.group_id IS NOT NULL AND jsonb_typeof(a.document -> 'participantShares') = 'object'
+),
+deltas AS (
+    SELECT group_id, user_id, currency, -share AS delta FROM shares
+    UNION ALL
+    SELECT group_id, payer_id, currency, share FROM shares
+    UNION ALL
+    SELECT group_id, payer_id, currency, amount FROM settlement
+    UNION ALL
+    SELECT group_id, payee_id, currency, -amount FROM settlement
+)
+INSERT INTO group_balance (group_id, user_id, currency, balance)
+SELECT group_id, user_id, currency, sum(delta)
+FROM deltas
+GROUP BY group_id, user_id, currency
+ORDER BY group_id, user_id, currency;
@@ -0,0 +1,3 @@
+-- Lookup of packed expenses by participant: participant_ids @> ARRAY[?]
+-- Built without blocking writes; Flyway runs CONCURRENTLY statements outside a transaction
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_expense_participant_ids ON expense USING GIN (participant_ids);
@@ -0,0 +1,3 @@
+-- Earlier builds kept the search document in a generated search_vector column, which rewrote the whole table
+-- when it was added. The search now indexes the expression itself (V6); dropping the column only touches the catalog
+ALTER TABLE expense DROP COLUMN IF EXISTS search_vector;
@@ -0,0 +1,5 @@
+-- Full-text search over description and category. ExpenseRepository.search repeats this expression verbatim,
+-- which is what lets Postgres match it to the index
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_expense_search_document ON expense USING GIN ((
+    setweight(to_tsvector('english', coalesce(description, '')), 'A') ||
+    setweight(to_tsvector('english', coalesce(category, '')), 'B')));
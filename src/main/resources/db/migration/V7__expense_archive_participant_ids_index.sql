@@ -0,0 +1,2 @@
+-- Archived expenses by participant, for the read fallback
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_expense_archive_participant_ids ON expense_archive USING GIN (participant_ids);
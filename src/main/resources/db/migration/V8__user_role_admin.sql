@@ -0,0 +1,4 @@
+-- Hibernate created the role column with a check listing the roles of the time; ddl-auto=update never widens it,
+-- so ADMIN accounts would be rejected on existing databases
+ALTER TABLE "user" DROP CONSTRAINT IF EXISTS user_role_check;
+ALTER TABLE "user" ADD CONSTRAINT user_role_check CHECK (role IN ('USER', 'LENDER', 'ADMIN'));
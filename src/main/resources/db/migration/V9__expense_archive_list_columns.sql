@@ -0,0 +1,13 @@
+-- The expense lists now merge archived expenses in, filtering and sorting them on the same columns as live ones.
+-- Hibernate adds the columns on startup; rows archived before then only have the values inside their document
+ALTER TABLE expense_archive ADD COLUMN IF NOT EXISTS amount numeric(38, 2);
+ALTER TABLE expense_archive ADD COLUMN IF NOT EXISTS currency varchar(255);
+ALTER TABLE expense_archive ADD COLUMN IF NOT EXISTS status varchar(255);
+ALTER TABLE expense_archive ADD COLUMN IF NOT EXISTS category varchar(255);
+
+UPDATE expense_archive
+SET amount = CAST(document ->> 'amount' AS numeric),
+    currency = document ->> 'currency',
+    status = document ->> 'status',
+    category = document ->> 'category'
+WHERE amount IS NULL;
@@ -0,0 +1,202 @@
+package com.sohamshinde.billsplit.cofig;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final Map<DataSource, Long> lag = new HashMap<>();
+    private DataSource replicaA, replicaB;
+    private ReplicaRoutingDataSource routing;
+    private StringRedisTemplate redisTemplate;
+    private Set<String> redisKeys;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        replicaA = mock(DataSource.class);
+        replicaB = mock(DataSource.class);
+        lag.put(replicaA, 0L);
+        lag.put(replicaB, 0L);
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-0", replicaA);
+        replicas.put("replica-1", replicaB);
+
+        redisKeys = new HashSet<>();
+        redisTemplate = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        doAnswer(invocation -> redisKeys.add(invocation.getArgument(0))).when(valueOperations)
+                .set(anyString(), anyString(), any(Duration.class));
+        when(redisTemplate.hasKey(anyString())).thenAnswer(invocation -> redisKeys.contains(invocation.getArgument(0, String.class)));
+
+        routing = node(replicas);
+
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "alice@example.com", null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+    }
+
+    // Another application node, sharing the replicas and Redis
+    private ReplicaRoutingDataSource node(Map<String, DataSource> replicas) {
+        ReplicaRoutingDataSource node = new ReplicaRoutingDataSource(mock(DataSource.class), replicas, redisTemplate, 5000, 1000) {
+            @Override
+            protected long replicationLagMillis(DataSource replica) {
+                return lag.get(replica);
+            }
+        };
+        node.afterPropertiesSet();
+        return node;
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.clear();
+        SecurityContextHolder.clearContext();
+    }
+
+    private void beginTransaction(boolean readOnly) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.initSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+    }
+
+    // Runs the registered hooks the way the transaction manager does at the end of a transaction
+    private void completeTransaction(boolean committed) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        if (committed) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        int status = committed ? TransactionSynchronization.STATUS_COMMITTED : TransactionSynchronization.STATUS_ROLLED_BACK;
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.clear();
+    }
+
+    /**
+     * ✅ Test: Read-only transactions are spread across the replicas
+     */
+    @Test
+    void testReadOnlyGoesToReplicas() {
+        beginTransaction(true);
+
+        assertEquals("replica-0", routing.determineCurrentLookupKey());
+        assertEquals("replica-1", routing.determineCurrentLookupKey());
+    }
+
+    /**
+     * ✅ Test: Read-write transactions go to the primary
+     */
+    @Test
+    void testReadWriteGoesToPrimary() {
+        beginTransaction(false);
+
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+    }
+
+    /**
+     * ✅ Test: A user who just wrote reads from the primary, other users still use replicas
+     */
+    @Test
+    void testReadYourWrites() {
+        beginTransaction(false);
+        routing.determineCurrentLookupKey();
+
+        completeTransaction(true);
+
+        beginTransaction(true);
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "bob@example.com", null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+        assertNotEquals(ReplicaRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+    }
+
+    /**
+     * ✅ Test: The window follows the user to another node through Redis, and this node still keeps it when Redis fails
+     */
+    @Test
+    void testReadYourWritesAcrossNodes() {
+        beginTransaction(false);
+        routing.determineCurrentLookupKey();
+        completeTransaction(true);
+
+        ReplicaRoutingDataSource otherNode = node(Map.of("replica-0", replicaA));
+        beginTransaction(true);
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, otherNode.determineCurrentLookupKey());
+
+        when(redisTemplate.hasKey(anyString())).thenThrow(new RedisConnectionFailureException("down"));
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+        assertNotEquals(ReplicaRoutingDataSource.PRIMARY, otherNode.determineCurrentLookupKey());
+    }
+
+    /**
+     * ✅ Test: A rolled-back write does not pin the user to the primary
+     */
+    @Test
+    void testRolledBackWriteKeepsReplicas() {
+        beginTransaction(false);
+        routing.determineCurrentLookupKey();
+        completeTransaction(false);
+
+        beginTransaction(true);
+        assertNotEquals(ReplicaRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+    }
+
+    /**
+     * ✅ Test: The write is registered once per transaction, however many connections it fetches
+     */
+    @Test
+    void testOneCommitHookPerTransaction() {
+        beginTransaction(false);
+        routing.determineCurrentLookupKey();
+        routing.determineCurrentLookupKey();
+
+        assertEquals(1, TransactionSynchronizationManager.getSynchronizations().size());
+    }
+
+    /**
+     * ❌ Test: Lagging replicas leave the rotation; with none left reads fall back to the primary
+     */
+    @Test
+    void testLaggingReplicasAreSkipped() {
+        lag.put(replicaA, 5000L);
+        routing.refreshReplicaHealth();
+        beginTransaction(true);
+
+        assertEquals("replica-1", routing.determineCurrentLookupKey());
+        assertEquals("replica-1", routing.determineCurrentLookupKey());
+
+        lag.put(replicaB, 5000L);
+        routing.refreshReplicaHealth();
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+    }
+}
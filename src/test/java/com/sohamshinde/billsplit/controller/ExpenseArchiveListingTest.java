@@ -0,0 +1,110 @@
+package com.sohamshinde.billsplit.controller;
+
+import com.sohamshinde.billsplit.dto.ExpenseDto;
+import com.sohamshinde.billsplit.entity.Group;
+import com.sohamshinde.billsplit.entity.User;
+import com.sohamshinde.billsplit.enums.Currency;
+import com.sohamshinde.billsplit.enums.ExpenseCategory;
+import com.sohamshinde.billsplit.enums.ExpenseStatus;
+import com.sohamshinde.billsplit.enums.SplitType;
+import com.sohamshinde.billsplit.repository.GroupRepository;
+import com.sohamshinde.billsplit.security.AuthenticatedUser;
+import com.sohamshinde.billsplit.service.ExpenseArchiveService;
+import com.sohamshinde.billsplit.service.ExpenseService;
+import com.sohamshinde.billsplit.sqlbudget.StatementBudgetTestSupport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Archives a settled expense with {@link ExpenseArchiveService} and reads it back over HTTP, the way clients list expenses.
+ */
+@AutoConfigureMockMvc
+class ExpenseArchiveListingTest extends StatementBudgetTestSupport {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private ExpenseArchiveService expenseArchiveService;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private static RequestPostProcessor as(User user) {
+        AuthenticatedUser principal = AuthenticatedUser.from(user);
+        return authentication(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    /**
+     * ✅ Test: An archived expense stays in the lists, filtered like a live one, unless the client leaves the archive out
+     */
+    @Test
+    void testArchivedExpenseIsListed() throws Exception {
+        List<User> members = createUsers(2);
+        User payer = members.get(0);
+        User friend = members.get(1);
+
+        Group group = new Group();
+        group.setGroupName("Archive Group");
+        group.setCreatedBy(payer);
+        group.setMembers(new ArrayList<>(members));
+        Long groupId = groupRepository.save(group).getId();
+
+        authenticate(payer);
+        expenseService.addExpense(ExpenseDto.builder()
+                .amount(new BigDecimal("80.00"))
+                .currency(Currency.INR)
+                .description("Old cabin trip")
+                .payerId(payer.getId())
+                .groupId(groupId)
+                .splitType(SplitType.EQUAL)
+                .status(ExpenseStatus.PENDING)
+                .category(ExpenseCategory.TRAVEL)
+                .build());
+
+        // Settled long before anything else in the shared database, so this batch takes only this expense
+        jdbcTemplate.update("UPDATE expense SET status = 'SETTLED', updated_at = '2000-01-01' WHERE group_id = ?", groupId);
+        assertEquals(1, expenseArchiveService.archiveBatch(LocalDateTime.parse("2000-01-02T00:00:00")));
+
+        mockMvc.perform(get("/api/expenses/group/{groupId}", groupId).with(as(friend)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "1"))
+                .andExpect(jsonPath("$[0].description").value("Old cabin trip"))
+                .andExpect(jsonPath("$[0].status").value("SETTLED"));
+
+        mockMvc.perform(get("/api/expenses/my").param("category", "TRAVEL").with(as(friend)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "1"))
+                .andExpect(jsonPath("$[0].description").value("Old cabin trip"));
+
+        mockMvc.perform(get("/api/expenses/my").param("includeArchived", "false").with(as(friend)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "0"));
+
+        mockMvc.perform(get("/api/expenses/group/{groupId}", groupId).with(as(createUsers(1).get(0))))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,60 @@
+package com.sohamshinde.billsplit.controller;
+
+import com.sohamshinde.billsplit.entity.User;
+import com.sohamshinde.billsplit.enums.Role;
+import com.sohamshinde.billsplit.security.AuthenticatedUser;
+import com.sohamshinde.billsplit.sqlbudget.StatementBudgetTestSupport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks who may call POST /api/user/bulk, which creates accounts for other people.
+ */
+@AutoConfigureMockMvc
+class UserBulkRegistrationAccessTest extends StatementBudgetTestSupport {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private static RequestPostProcessor as(User user) {
+        AuthenticatedUser principal = AuthenticatedUser.from(user);
+        return authentication(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    /**
+     * ❌ Test: A regular user is refused before the request body is read
+     */
+    @Test
+    void testBulkRegistrationForbiddenForUser() throws Exception {
+        User user = createUsers(1).get(0);
+
+        mockMvc.perform(post("/api/user/bulk").with(as(user))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"users\": []}"))
+                .andExpect(status().isForbidden());
+    }
+
+    /**
+     * ✅ Test: An admin gets through to the controller, where the empty list fails validation
+     */
+    @Test
+    void testBulkRegistrationAllowedForAdmin() throws Exception {
+        User admin = createUsers(1).get(0);
+        admin.setRole(Role.ADMIN);
+        admin = userRepository.save(admin);
+
+        mockMvc.perform(post("/api/user/bulk").with(as(admin))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"users\": []}"))
+                .andExpect(status().isBadRequest());
+    }
+}
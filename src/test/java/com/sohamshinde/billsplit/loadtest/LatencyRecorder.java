@@ -0,0 +1,65 @@
+package com.sohamshinde.billsplit.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects per-endpoint latencies and summarizes them as throughput and p50/p99/p999.
+ */
+final class LatencyRecorder {
+
+    record Summary(String endpoint, long requests, long errors, double throughputPerSecond,
+                   double p50Millis, double p99Millis, double p999Millis, double maxMillis) {
+    }
+
+    private final Map<String, Samples> samples = new ConcurrentHashMap<>();
+
+    void record(String endpoint, long nanos, boolean error) {
+        samples.computeIfAbsent(endpoint, key -> new Samples()).add(nanos, error);
+    }
+
+    Map<String, Summary> summarize(double elapsedSeconds) {
+        Map<String, Summary> summaries = new LinkedHashMap<>();
+        samples.keySet().stream().sorted().forEach(endpoint -> {
+            Samples endpointSamples = samples.get(endpoint);
+            long[] sorted;
+            long errors;
+            synchronized (endpointSamples) {
+                sorted = Arrays.copyOf(endpointSamples.values, endpointSamples.size);
+                errors = endpointSamples.errors;
+            }
+            Arrays.sort(sorted);
+            summaries.put(endpoint, new Summary(endpoint, sorted.length, errors, sorted.length / elapsedSeconds,
+                    percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999),
+                    sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6));
+        });
+        return summaries;
+    }
+
+    // Nearest-rank percentile, in milliseconds
+    static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(quantile * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length, rank) - 1)] / 1e6;
+    }
+
+    private static final class Samples {
+        long[] values = new long[1024];
+        int size;
+        long errors;
+
+        synchronized void add(long nanos, boolean error) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = nanos;
+            if (error) {
+                errors++;
+            }
+        }
+    }
+}
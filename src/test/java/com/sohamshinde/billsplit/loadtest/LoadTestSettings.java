@@ -0,0 +1,60 @@
+package com.sohamshinde.billsplit.loadtest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Load-test parameters, read from {@code -Dloadtest.*} system properties so runs can be compared
+ * by changing one knob at a time. The {@code max-*} bounds are what a run must stay under to pass.
+ */
+record LoadTestSettings(
+        int users,
+        int groups,
+        int maxGroupSize,
+        double zipfExponent,
+        int concurrency,
+        int warmupSeconds,
+        int durationSeconds,
+        long seed,
+        Map<Operation, Integer> mix,
+        double maxErrorRate,
+        int maxP50Millis,
+        int maxP99Millis) {
+
+    enum Operation {
+        CREATE_EXPENSE,
+        LIST_GROUP_EXPENSES,
+        LIST_GROUPS,
+        GET_EXPENSE,
+        UPDATE_EXPENSE,
+        GET_USER
+    }
+
+    static LoadTestSettings fromSystemProperties() {
+        Map<Operation, Integer> mix = new LinkedHashMap<>();
+        mix.put(Operation.CREATE_EXPENSE, intProperty("mix.create", 20));
+        mix.put(Operation.LIST_GROUP_EXPENSES, intProperty("mix.list-expenses", 25));
+        mix.put(Operation.LIST_GROUPS, intProperty("mix.list-groups", 10));
+        mix.put(Operation.GET_EXPENSE, intProperty("mix.get", 30));
+        mix.put(Operation.UPDATE_EXPENSE, intProperty("mix.update", 10));
+        mix.put(Operation.GET_USER, intProperty("mix.get-user", 5));
+
+        return new LoadTestSettings(
+                intProperty("users", 2000),
+                intProperty("groups", 200),
+                intProperty("max-group-size", 500),
+                Double.parseDouble(System.getProperty("loadtest.zipf-exponent", "1.1")),
+                intProperty("concurrency", 32),
+                intProperty("warmup-seconds", 10),
+                intProperty("duration-seconds", 30),
+                Long.parseLong(System.getProperty("loadtest.seed", "42")),
+                mix,
+                Double.parseDouble(System.getProperty("loadtest.max-error-rate", "0.01")),
+                intProperty("max-p50-ms", 100),
+                intProperty("max-p99-ms", 1000));
+    }
+
+    private static int intProperty(String name, int defaultValue) {
+        return Integer.parseInt(System.getProperty("loadtest." + name, String.valueOf(defaultValue)));
+    }
+}
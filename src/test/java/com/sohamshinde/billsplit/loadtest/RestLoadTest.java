@@ -0,0 +1,369 @@
+package com.sohamshinde.billsplit.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.sohamshinde.billsplit.entity.Group;
+import com.sohamshinde.billsplit.entity.User;
+import com.sohamshinde.billsplit.enums.Role;
+import com.sohamshinde.billsplit.loadtest.LoadTestSettings.Operation;
+import com.sohamshinde.billsplit.repository.GroupRepository;
+import com.sohamshinde.billsplit.repository.UserRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives the REST layer end to end with many simulated users and reports throughput and latency per endpoint.
+ *
+ * The app runs against throwaway Postgres and Redis containers. Users and groups are seeded directly,
+ * with Zipf-distributed group sizes, and every simulated user logs in once through the form login so that
+ * requests reuse a session instead of paying for BCrypt each time. After a warm-up the operation mix from
+ * {@link LoadTestSettings} runs for a fixed time. The report is printed and written to
+ * {@code target/loadtest/report-<timestamp>.json} so runs can be diffed. A failed login fails the test at once,
+ * and the run fails if any endpoint goes over the error rate or p50/p99 bounds in the settings.
+ *
+ * Run with {@code mvn -Ploadtest test}; it is excluded from the default build.
+ */
+@Tag("loadtest")
+@Testcontainers
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.hibernate.ddl-auto=update",
+        "rate-limit.enabled=false",
+        "cache.expense.enabled=false",
+        "mailerSend.apiKey=loadtest",
+        "logging.level.org.hibernate.SQL=warn"
+})
+class RestLoadTest {
+
+    private static final String PASSWORD = "loadtest-password";
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Container
+    static GenericContainer<?> redis = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    @DynamicPropertySource
+    static void containerProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.data.redis.url", redis::getHost);
+        registry.add("spring.data.redis.port", () -> redis.getMappedPort(6379));
+        registry.add("spring.data.redis.password", () -> "");
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .enable(SerializationFeature.INDENT_OUTPUT);
+
+    // A logged-in user with its session and the groups it belongs to
+    private record SimulatedUser(long id, HttpClient client, List<Long> groupIds) {
+    }
+
+    // Expenses known to exist, as {id, payerId}, per group
+    private volatile Map<Long, List<long[]>> expensesByGroup = Map.of();
+
+    @Test
+    void restWorkload() throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        List<SimulatedUser> simulatedUsers = seed(settings);
+
+        ExecutorService workers = Executors.newFixedThreadPool(settings.concurrency());
+        try {
+            run(workers, simulatedUsers, settings, settings.warmupSeconds(), new LatencyRecorder());
+            refreshKnownExpenses();
+
+            LatencyRecorder recorder = new LatencyRecorder();
+            long started = System.nanoTime();
+            run(workers, simulatedUsers, settings, settings.durationSeconds(), recorder);
+            double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+
+            Map<String, LatencyRecorder.Summary> summaries = recorder.summarize(elapsedSeconds);
+            report(settings, elapsedSeconds, summaries);
+            assertWithinBounds(settings, summaries);
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private List<SimulatedUser> seed(LoadTestSettings settings) throws Exception {
+        Random random = new Random(settings.seed()); // Seeded data is repeatable; per-request choices are not
+        String passwordHash = passwordEncoder.encode(PASSWORD);
+
+        List<User> users = new ArrayList<>(settings.users());
+        for (int i = 0; i < settings.users(); i++) {
+            User user = new User();
+            user.setName("Load User " + i);
+            user.setEmail("load" + i + "@example.com");
+            user.setPhone(String.format("9%09d", i));
+            user.setPassword(passwordHash);
+            user.setGender(i % 2 == 0);
+            user.setEnabled(true);
+            user.setActive(true);
+            user.setRole(Role.USER);
+            users.add(user);
+        }
+        users = userRepository.saveAll(users);
+
+        Map<Long, List<Long>> groupsByUser = new HashMap<>();
+        int[] sizes = ZipfDistribution.sizes(settings.groups(), Math.min(settings.maxGroupSize(), users.size()), 2,
+                settings.zipfExponent());
+        for (int g = 0; g < sizes.length; g++) {
+            List<User> shuffled = new ArrayList<>(users);
+            Collections.shuffle(shuffled, random);
+            List<User> members = new ArrayList<>(shuffled.subList(0, sizes[g]));
+
+            Group group = new Group();
+            group.setGroupName("Load Group " + g);
+            group.setCreatedBy(members.get(0));
+            group.setMembers(members);
+            Long groupId = groupRepository.save(group).getId();
+            members.forEach(member -> groupsByUser.computeIfAbsent(member.getId(), id -> new ArrayList<>()).add(groupId));
+        }
+
+        // Only members of at least one group act; each logs in once, in parallel
+        ExecutorService loginPool = Executors.newFixedThreadPool(settings.concurrency());
+        try {
+            List<Future<SimulatedUser>> logins = new ArrayList<>();
+            for (User user : users) {
+                List<Long> groupIds = groupsByUser.get(user.getId());
+                if (groupIds != null) {
+                    logins.add(loginPool.submit(() -> new SimulatedUser(user.getId(), login(user.getEmail()), groupIds)));
+                }
+            }
+            List<SimulatedUser> simulatedUsers = new ArrayList<>(logins.size());
+            for (Future<SimulatedUser> login : logins) {
+                simulatedUsers.add(login.get());
+            }
+            return simulatedUsers;
+        } finally {
+            loginPool.shutdown();
+        }
+    }
+
+    private HttpClient login(String email) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        String form = "username=" + URLEncoder.encode(email, StandardCharsets.UTF_8)
+                + "&password=" + URLEncoder.encode(PASSWORD, StandardCharsets.UTF_8);
+        HttpResponse<Void> response = client.send(HttpRequest.newBuilder(uri("/login"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build(), HttpResponse.BodyHandlers.discarding());
+        // A failed form login also redirects, to /login?error, so check that the session actually works
+        String location = response.headers().firstValue("Location").orElse("");
+        assertEquals(302, response.statusCode(), "Login of " + email + " returned " + response.statusCode());
+        assertFalse(location.contains("error"), "Login of " + email + " was rejected");
+        int status = client.send(HttpRequest.newBuilder(uri("/api/user")).GET().build(),
+                HttpResponse.BodyHandlers.discarding()).statusCode();
+        assertEquals(200, status, "Session of " + email + " is not authenticated");
+        return client;
+    }
+
+    // Every endpoint must have run, and stayed under the error rate and latency bounds from the settings
+    private static void assertWithinBounds(LoadTestSettings settings, Map<String, LatencyRecorder.Summary> summaries) {
+        List<String> violations = new ArrayList<>();
+        settings.mix().forEach((operation, weight) -> {
+            if (weight > 0 && !summaries.containsKey(operation.name())) {
+                violations.add(operation.name() + ": no requests");
+            }
+        });
+        for (LatencyRecorder.Summary summary : summaries.values()) {
+            double errorRate = summary.requests() == 0 ? 0 : (double) summary.errors() / summary.requests();
+            if (errorRate > settings.maxErrorRate()) {
+                violations.add(String.format("%s: error rate %.4f > %.4f", summary.endpoint(), errorRate, settings.maxErrorRate()));
+            }
+            if (summary.p50Millis() > settings.maxP50Millis()) {
+                violations.add(String.format("%s: p50 %.2f ms > %d ms", summary.endpoint(), summary.p50Millis(), settings.maxP50Millis()));
+            }
+            if (summary.p99Millis() > settings.maxP99Millis()) {
+                violations.add(String.format("%s: p99 %.2f ms > %d ms", summary.endpoint(), summary.p99Millis(), settings.maxP99Millis()));
+            }
+        }
+        assertTrue(violations.isEmpty(), "Load test out of bounds:\n" + String.join("\n", violations));
+    }
+
+    private void run(ExecutorService workers, List<SimulatedUser> simulatedUsers, LoadTestSettings settings,
+                     int seconds, LatencyRecorder recorder) throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        int totalWeight = settings.mix().values().stream().mapToInt(Integer::intValue).sum();
+
+        List<Future<?>> running = new ArrayList<>();
+        for (int i = 0; i < settings.concurrency(); i++) {
+            running.add(workers.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    SimulatedUser user = simulatedUsers.get(random.nextInt(simulatedUsers.size()));
+                    Operation operation = pick(settings.mix(), random.nextInt(totalWeight));
+                    HttpRequest request = request(operation, user, random);
+                    if (request == null) {
+                        continue; // e.g. nothing to read yet during warm-up
+                    }
+
+                    long start = System.nanoTime();
+                    boolean error;
+                    try {
+                        int status = user.client().send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        error = status >= 400;
+                    } catch (Exception e) {
+                        error = true;
+                    }
+                    recorder.record(operation.name(), System.nanoTime() - start, error);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> worker : running) {
+            worker.get();
+        }
+    }
+
+    private static Operation pick(Map<Operation, Integer> mix, int roll) {
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Empty operation mix");
+    }
+
+    private HttpRequest request(Operation operation, SimulatedUser user, ThreadLocalRandom random) throws Exception {
+        long groupId = user.groupIds().get(random.nextInt(user.groupIds().size()));
+        switch (operation) {
+            case CREATE_EXPENSE:
+                Map<String, Object> expense = new LinkedHashMap<>();
+                expense.put("amount", String.format("%d.%02d", 1 + random.nextInt(500), random.nextInt(100)));
+                expense.put("currency", "INR");
+                expense.put("description", "Load test expense");
+                expense.put("payerId", user.id());
+                expense.put("groupId", groupId);
+                expense.put("splitType", "EQUAL");
+                expense.put("status", "PENDING");
+                expense.put("category", "FOOD");
+                return json(uri("/api/expenses"), "POST", expense);
+            case LIST_GROUP_EXPENSES:
+                return HttpRequest.newBuilder(uri("/api/expenses/group/" + groupId + "?size=50")).GET().build();
+            case LIST_GROUPS:
+                return HttpRequest.newBuilder(uri("/api/group")).GET().build();
+            case GET_USER:
+                return HttpRequest.newBuilder(uri("/api/user")).GET().build();
+            case GET_EXPENSE:
+            case UPDATE_EXPENSE:
+                List<long[]> expenses = expensesByGroup.get(groupId);
+                if (expenses == null || expenses.isEmpty()) {
+                    return null;
+                }
+                long[] target = expenses.get(random.nextInt(expenses.size()));
+                if (operation == Operation.GET_EXPENSE) {
+                    return HttpRequest.newBuilder(uri("/api/expenses/" + target[0])).GET().build();
+                }
+                if (target[1] != user.id()) {
+                    return null; // Only the payer may edit
+                }
+                return json(uri("/api/expenses/" + target[0]), "PUT", Map.of("description", "Edited " + random.nextInt(1000)));
+            default:
+                throw new IllegalArgumentException("Unknown operation: " + operation);
+        }
+    }
+
+    private void refreshKnownExpenses() {
+        Map<Long, List<long[]>> byGroup = new HashMap<>();
+        jdbcTemplate.query("SELECT id, group_id, payer_id FROM expense WHERE group_id IS NOT NULL", resultSet -> {
+            byGroup.computeIfAbsent(resultSet.getLong(2), id -> new ArrayList<>())
+                    .add(new long[]{resultSet.getLong(1), resultSet.getLong(3)});
+        });
+        expensesByGroup = byGroup;
+    }
+
+    private HttpRequest json(URI uri, String method, Object body) throws Exception {
+        return HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private void report(LoadTestSettings settings, double elapsedSeconds, Map<String, LatencyRecorder.Summary> summaries)
+            throws Exception {
+        StringBuilder table = new StringBuilder(String.format("%n%-20s %9s %7s %10s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+        for (LatencyRecorder.Summary summary : summaries.values()) {
+            table.append(String.format("%-20s %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    summary.endpoint(), summary.requests(), summary.errors(), summary.throughputPerSecond(),
+                    summary.p50Millis(), summary.p99Millis(), summary.p999Millis(), summary.maxMillis()));
+        }
+        System.out.println(table);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("settings", settings);
+        report.put("elapsedSeconds", elapsedSeconds);
+        report.put("endpoints", summaries.values());
+        Path directory = Paths.get("target", "loadtest");
+        Files.createDirectories(directory);
+        Path file = directory.resolve("report-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+        objectMapper.writeValue(file.toFile(), report);
+        System.out.println("Load test report written to " + file.toAbsolutePath());
+    }
+}
@@ -0,0 +1,19 @@
+package com.sohamshinde.billsplit.loadtest;
+
+/**
+ * Zipf weights over ranks 1..n: rank k gets weight 1 / k^exponent, so a few groups are large and most are small.
+ */
+final class ZipfDistribution {
+
+    private ZipfDistribution() {
+    }
+
+    // Size of the group at each rank, with the first one at maxSize and none smaller than minSize
+    static int[] sizes(int count, int maxSize, int minSize, double exponent) {
+        int[] sizes = new int[count];
+        for (int rank = 1; rank <= count; rank++) {
+            sizes[rank - 1] = Math.max(minSize, (int) Math.round(maxSize / Math.pow(rank, exponent)));
+        }
+        return sizes;
+    }
+}
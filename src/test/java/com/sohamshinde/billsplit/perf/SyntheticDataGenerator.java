@@ -0,0 +1,543 @@
+package com.sohamshinde.billsplit.perf;
+
+import com.sohamshinde.billsplit.enums.Currency;
+import com.sohamshinde.billsplit.enums.ExpenseCategory;
+import com.sohamshinde.billsplit.enums.ExpenseStatus;
+import com.sohamshinde.billsplit.enums.SplitType;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Bulk-loads a synthetic but realistic data set (users, groups, memberships, expenses, participants,
+ * shares, settlements and the derived group balances) with PostgreSQL COPY, bypassing BCrypt, email and JPA.
+ *
+ * Everything is derived from a seed: group members from one random stream, and each expense from its own
+ * stream keyed by its index. That lets expenses, participants and shares be written in three separate COPY
+ * passes that replay the same expenses, so foreign keys hold without buffering anything. Shares follow the
+ * application's rules: EQUAL rounds each share half-up, large EQUAL splits are packed, EXACT and PERCENTAGE
+ * shares add up exactly. A {@code settledFraction} of the groups has been settled the way
+ * {@code SettlementService.settleGroup} does it: all their expenses are SETTLED, and settlements with the
+ * minimal transfers bring their balances back to zero. All expenses of the other groups are PENDING.
+ * IDs continue after the current maximum, so existing rows are kept.
+ *
+ * The schema must exist (start the application once). Usage, with PERF_DB_URL, PERF_DB_USER and PERF_DB_PASSWORD set:
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.sohamshinde.billsplit.perf.SyntheticDataGenerator -Dsynthetic.expenses=10000000}
+ * or run the main method from the IDE. All users get the password {@code synthetic.password}.
+ */
+public class SyntheticDataGenerator {
+
+    public record Settings(
+            int users,
+            int groups,
+            long expenses,
+            int maxGroupSize,
+            double groupSizeExponent,
+            Map<SplitType, Integer> splitTypes,
+            Map<Currency, Integer> currencies,
+            double settledFraction,
+            int historyDays,
+            int compactMinParticipants,
+            LocalDateTime now,
+            String password,
+            long seed) {
+
+        public static Settings fromSystemProperties() {
+            return new Settings(
+                    Integer.parseInt(property("users", "1000000")),
+                    Integer.parseInt(property("groups", "200000")),
+                    Long.parseLong(property("expenses", "10000000")),
+                    Integer.parseInt(property("max-group-size", "5000")),
+                    Double.parseDouble(property("group-size-exponent", "1.1")),
+                    weights(SplitType.class, property("split-types", "EQUAL=70,EXACT=20,PERCENTAGE=10")),
+                    weights(Currency.class, property("currencies", "INR=55,USD=25,EUR=12,GBP=8")),
+                    Double.parseDouble(property("settled-fraction", "0.4")),
+                    Integer.parseInt(property("history-days", "1095")),
+                    Integer.parseInt(property("compact-min-participants", "1000")),
+                    LocalDateTime.parse(property("now", "2025-01-01T00:00:00")),
+                    property("password", "synthetic"),
+                    Long.parseLong(property("seed", "42")));
+        }
+
+        private static String property(String name, String defaultValue) {
+            return System.getProperty("synthetic." + name, defaultValue);
+        }
+
+        // "A=3,B=1" -> {A: 3, B: 1}
+        public static <E extends Enum<E>> Map<E, Integer> weights(Class<E> type, String spec) {
+            Map<E, Integer> weights = new LinkedHashMap<>();
+            for (String entry : spec.split(",")) {
+                String[] parts = entry.split("=");
+                weights.put(Enum.valueOf(type, parts[0].trim()), Integer.parseInt(parts[1].trim()));
+            }
+            return weights;
+        }
+    }
+
+    // One expense as the application would have stored it; shareCents is null for the packed form
+    record GeneratedExpense(long id, int groupIndex, long payerId, Currency currency, SplitType splitType,
+                            long amountCents, ExpenseStatus status, ExpenseCategory category, LocalDateTime createdAt,
+                            String description, long[] participantIds, long[] shareCents) {
+
+        boolean packed() {
+            return shareCents == null;
+        }
+
+        long packedBaseCents() {
+            return Math.floorDiv(amountCents, participantIds.length);
+        }
+
+        int packedRemainder() {
+            return (int) (amountCents - packedBaseCents() * participantIds.length);
+        }
+    }
+
+    private static final String[] PLACES = {"Goa", "Mumbai", "Pune", "Berlin", "Lisbon", "London", "Austin", "Tokyo"};
+    private static final String[] THINGS = {"Dinner", "Lunch", "Groceries", "Taxi", "Hotel", "Fuel", "Tickets", "Drinks", "Rent", "Electricity"};
+    private static final ExpenseCategory[] CATEGORIES = ExpenseCategory.values();
+    private static final Currency[] CURRENCIES = Currency.values();
+
+    private final Settings settings;
+    private final long userBase;
+    private final long groupBase;
+    private final long expenseBase;
+    private final int[][] members; // Per group, sorted user indexes
+    private final boolean[] settled; // Per group, whether it was settled up
+
+    SyntheticDataGenerator(Settings settings, long userBase, long groupBase, long expenseBase) {
+        this.settings = settings;
+        this.userBase = userBase;
+        this.groupBase = groupBase;
+        this.expenseBase = expenseBase;
+        this.members = assignMembers(settings);
+        this.settled = assignSettled(settings);
+    }
+
+    public static void main(String[] args) throws Exception {
+        try (Connection connection = DriverManager.getConnection(System.getenv("PERF_DB_URL"),
+                System.getenv("PERF_DB_USER"), System.getenv("PERF_DB_PASSWORD"))) {
+            populate(connection, Settings.fromSystemProperties());
+        }
+    }
+
+    /**
+     * Adds a data set to the database behind {@code connection}, after the rows already there.
+     * Tests use this to put realistic volumes behind query plans.
+     */
+    public static void populate(Connection connection, Settings settings) throws SQLException {
+        execute(connection, "SET synchronous_commit = off");
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(settings,
+                maxId(connection, "\"user\""), maxId(connection, "user_group"), maxId(connection, "expense"));
+        generator.load(connection);
+    }
+
+    void load(Connection connection) throws SQLException {
+        long started = System.nanoTime();
+        copyUsers(connection);
+        copyGroups(connection);
+        copyMemberships(connection);
+        copyExpenses(connection);
+        copyParticipants(connection);
+        copySharesAndBalances(connection);
+
+        for (String table : new String[]{"\"user\"", "user_group", "expense", "settlement", "group_balance"}) {
+            execute(connection, "SELECT setval(pg_get_serial_sequence('" + table + "', 'id'), " +
+                    "(SELECT COALESCE(MAX(id), 1) FROM " + table + "))");
+        }
+        execute(connection, "ANALYZE");
+        log("done in %.1f s", (System.nanoTime() - started) / 1e9);
+    }
+
+    private void copyUsers(Connection connection) throws SQLException {
+        String passwordHash = new BCryptPasswordEncoder().encode(settings.password());
+        String createdAt = settings.now().minusDays(settings.historyDays()).toString();
+        try (CopyStream copy = new CopyStream(connection, "\"user\"",
+                "id, name, email, phone, password, gender, enabled, active, role, created_at, updated_at")) {
+            for (int i = 0; i < settings.users(); i++) {
+                long id = userBase + i + 1;
+                copy.row(id, "Synthetic User " + id, "user" + id + "@synthetic.billsplit", String.format("9%09d", id % 1_000_000_000L),
+                        passwordHash, i % 2 == 0, true, true, "USER", createdAt, createdAt);
+            }
+            log("user: %d rows", copy.rows);
+        }
+    }
+
+    private void copyGroups(Connection connection) throws SQLException {
+        String createdAt = settings.now().minusDays(settings.historyDays()).toString();
+        try (CopyStream copy = new CopyStream(connection, "user_group", "id, group_name, created_by, created_at, updated_at")) {
+            for (int g = 0; g < members.length; g++) {
+                copy.row(groupBase + g + 1, "Synthetic Group " + (groupBase + g + 1), userBase + members[g][0] + 1, createdAt, createdAt);
+            }
+            log("user_group: %d rows", copy.rows);
+        }
+    }
+
+    private void copyMemberships(Connection connection) throws SQLException {
+        try (CopyStream copy = new CopyStream(connection, "user_group_members", "group_id, members_id")) {
+            for (int g = 0; g < members.length; g++) {
+                for (int member : members[g]) {
+                    copy.row(groupBase + g + 1, userBase + member + 1);
+                }
+            }
+            log("user_group_members: %d rows", copy.rows);
+        }
+    }
+
+    private void copyExpenses(Connection connection) throws SQLException {
+        try (CopyStream copy = new CopyStream(connection, "expense", "id, amount, currency, description, payer_id, group_id, " +
+                "split_type, status, category, created_at, updated_at, participant_ids, equal_share_base, equal_share_remainder")) {
+            for (long i = 0; i < settings.expenses(); i++) {
+                GeneratedExpense expense = expense(i);
+                String createdAt = expense.createdAt().toString();
+                // Settling a group stamps its expenses with the time of the settle-all run
+                String updatedAt = expense.status() == ExpenseStatus.SETTLED ? settings.now().toString() : createdAt;
+                copy.row(expense.id(), cents(expense.amountCents()), expense.currency(), expense.description(), expense.payerId(),
+                        groupBase + expense.groupIndex() + 1, expense.splitType(), expense.status(), expense.category(),
+                        createdAt, updatedAt,
+                        expense.packed() ? arrayLiteral(expense.participantIds()) : null,
+                        expense.packed() ? cents(expense.packedBaseCents()) : null,
+                        expense.packed() ? expense.packedRemainder() : null);
+                progress("expense", copy.rows);
+            }
+            log("expense: %d rows", copy.rows);
+        }
+    }
+
+    private void copyParticipants(Connection connection) throws SQLException {
+        try (CopyStream copy = new CopyStream(connection, "expense_participants", "expense_id, user_id")) {
+            for (long i = 0; i < settings.expenses(); i++) {
+                GeneratedExpense expense = expense(i);
+                if (!expense.packed()) {
+                    for (long participantId : expense.participantIds()) {
+                        copy.row(expense.id(), participantId);
+                    }
+                }
+                progress("expense_participants", i + 1);
+            }
+            log("expense_participants: %d rows", copy.rows);
+        }
+    }
+
+    // Balances follow BalanceService: each participant owes their share, the payer is owed the sum of the shares,
+    // and a settlement credits its payer and debits its payee
+    private void copySharesAndBalances(Connection connection) throws SQLException {
+        Map<Long, long[]> balances = new HashMap<>();
+        try (CopyStream copy = new CopyStream(connection, "participant_shares", "expense_id, user_id, share")) {
+            for (long i = 0; i < settings.expenses(); i++) {
+                GeneratedExpense expense = expense(i);
+                long total = 0;
+                for (int p = 0; p < expense.participantIds().length; p++) {
+                    long participantId = expense.participantIds()[p];
+                    long share = expense.packed()
+                            ? expense.packedBaseCents() + (p < expense.packedRemainder() ? 1 : 0)
+                            : expense.shareCents()[p];
+                    if (!expense.packed()) {
+                        copy.row(expense.id(), participantId, cents(share));
+                    }
+                    balances.computeIfAbsent(balanceKey(expense.groupIndex(), participantId), key -> new long[CURRENCIES.length])
+                            [expense.currency().ordinal()] -= share;
+                    total += share;
+                }
+                balances.computeIfAbsent(balanceKey(expense.groupIndex(), expense.payerId()), key -> new long[CURRENCIES.length])
+                        [expense.currency().ordinal()] += total;
+                progress("participant_shares", i + 1);
+            }
+            log("participant_shares: %d rows", copy.rows);
+        }
+
+        copySettlements(connection, balances);
+
+        try (CopyStream copy = new CopyStream(connection, "group_balance", "group_id, user_id, currency, balance")) {
+            for (Map.Entry<Long, long[]> entry : balances.entrySet()) {
+                for (int c = 0; c < CURRENCIES.length; c++) {
+                    // Settled groups net to zero and get no rows; a missing row reads as a zero balance
+                    if (entry.getValue()[c] != 0) {
+                        copy.row(groupBase + (entry.getKey() >>> 32) + 1, entry.getKey() & 0xFFFFFFFFL, CURRENCIES[c], cents(entry.getValue()[c]));
+                    }
+                }
+            }
+            log("group_balance: %d rows", copy.rows);
+        }
+    }
+
+    // The transfers settleGroup would record for each settled group, applied to the balances
+    private void copySettlements(Connection connection, Map<Long, long[]> balances) throws SQLException {
+        Map<Integer, Map<Long, long[]>> settledBalances = new HashMap<>();
+        balances.forEach((key, perCurrency) -> {
+            int groupIndex = (int) (key >>> 32);
+            if (settled[groupIndex]) {
+                settledBalances.computeIfAbsent(groupIndex, g -> new HashMap<>()).put(key & 0xFFFFFFFFL, perCurrency);
+            }
+        });
+
+        String createdAt = settings.now().toString();
+        long id = maxId(connection, "settlement");
+        try (CopyStream copy = new CopyStream(connection, "settlement",
+                "id, group_id, payer_id, payee_id, amount, currency, created_by, created_at")) {
+            for (Map.Entry<Integer, Map<Long, long[]>> group : settledBalances.entrySet()) {
+                long createdBy = userBase + members[group.getKey()][0] + 1;
+                for (Currency currency : CURRENCIES) {
+                    Map<Long, Long> centsByUser = new HashMap<>();
+                    group.getValue().forEach((userId, perCurrency) -> centsByUser.put(userId, perCurrency[currency.ordinal()]));
+                    for (long[] transfer : minimalTransfers(centsByUser)) {
+                        copy.row(++id, groupBase + group.getKey() + 1, transfer[0], transfer[1], cents(transfer[2]), currency,
+                                createdBy, createdAt);
+                        group.getValue().get(transfer[0])[currency.ordinal()] += transfer[2];
+                        group.getValue().get(transfer[1])[currency.ordinal()] -= transfer[2];
+                    }
+                }
+            }
+            log("settlement: %d rows", copy.rows);
+        }
+    }
+
+    // SettlementService.minimalTransfers in cents: {fromUserId, toUserId, cents}, largest debtor to largest creditor
+    static List<long[]> minimalTransfers(Map<Long, Long> centsByUser) {
+        Comparator<long[]> byAmountDesc = Comparator.<long[]>comparingLong(entry -> -entry[1]).thenComparingLong(entry -> entry[0]);
+        PriorityQueue<long[]> creditors = new PriorityQueue<>(byAmountDesc);
+        PriorityQueue<long[]> debtors = new PriorityQueue<>(byAmountDesc);
+        centsByUser.forEach((userId, cents) -> {
+            if (cents > 0) {
+                creditors.add(new long[]{userId, cents});
+            } else if (cents < 0) {
+                debtors.add(new long[]{userId, -cents});
+            }
+        });
+
+        List<long[]> transfers = new ArrayList<>();
+        while (!creditors.isEmpty() && !debtors.isEmpty()) {
+            long[] creditor = creditors.poll();
+            long[] debtor = debtors.poll();
+            long amount = Math.min(creditor[1], debtor[1]);
+            transfers.add(new long[]{debtor[0], creditor[0], amount});
+            if (creditor[1] > amount) {
+                creditors.add(new long[]{creditor[0], creditor[1] - amount});
+            }
+            if (debtor[1] > amount) {
+                debtors.add(new long[]{debtor[0], debtor[1] - amount});
+            }
+        }
+        return transfers;
+    }
+
+    private static long balanceKey(int groupIndex, long userId) {
+        return ((long) groupIndex << 32) | userId;
+    }
+
+    /**
+     * The expense with the given index; the same settings and seed always give the same expense.
+     */
+    GeneratedExpense expense(long index) {
+        SplittableRandom random = new SplittableRandom(settings.seed() * 0x9E3779B97F4A7C15L + index);
+        int groupIndex = random.nextInt(members.length);
+        int[] groupMembers = members[groupIndex];
+        long[] participantIds = new long[groupMembers.length];
+        for (int m = 0; m < groupMembers.length; m++) {
+            participantIds[m] = userBase + groupMembers[m] + 1;
+        }
+        int n = participantIds.length;
+
+        SplitType splitType = pick(settings.splitTypes(), random);
+        if (n >= settings.compactMinParticipants()) {
+            splitType = SplitType.EQUAL; // Nobody enters exact amounts for thousands of people
+        }
+        // Log-normal amounts around 25.00, at least one cent per participant
+        long amountCents = Math.max(n, Math.min(10_000_000L, Math.round(Math.exp(Math.log(2500) + random.nextGaussian()))));
+
+        long[] shareCents;
+        if (splitType == SplitType.EQUAL) {
+            shareCents = n >= settings.compactMinParticipants() ? null : equalShares(amountCents, n);
+        } else if (splitType == SplitType.EXACT) {
+            shareCents = composition(amountCents, n, random);
+        } else {
+            long[] basisPoints = composition(10_000, n, random);
+            shareCents = new long[n];
+            for (int p = 0; p < n; p++) {
+                shareCents[p] = (amountCents * basisPoints[p] * 2 + 10_000) / 20_000; // HALF_UP
+            }
+        }
+
+        LocalDateTime createdAt = settings.now().minusSeconds(random.nextLong(settings.historyDays() * 86_400L));
+        return new GeneratedExpense(
+                expenseBase + index + 1,
+                groupIndex,
+                participantIds[random.nextInt(n)],
+                pick(settings.currencies(), random),
+                splitType,
+                amountCents,
+                settled[groupIndex] ? ExpenseStatus.SETTLED : ExpenseStatus.PENDING,
+                CATEGORIES[random.nextInt(CATEGORIES.length)],
+                createdAt,
+                THINGS[random.nextInt(THINGS.length)] + " in " + PLACES[random.nextInt(PLACES.length)],
+                participantIds,
+                shareCents);
+    }
+
+    // What ExpenseService stores for an EQUAL split: every share rounded half-up
+    static long[] equalShares(long amountCents, int n) {
+        long[] shares = new long[n];
+        Arrays.fill(shares, (amountCents * 2 + n) / (2L * n));
+        return shares;
+    }
+
+    // n positive parts that add up exactly to total
+    static long[] composition(long total, int n, SplittableRandom random) {
+        double[] weights = new double[n];
+        double weightSum = 0;
+        for (int p = 0; p < n; p++) {
+            weights[p] = random.nextDouble() + 0.1;
+            weightSum += weights[p];
+        }
+        long[] parts = new long[n];
+        long spare = total - n;
+        long assigned = 0;
+        for (int p = 0; p < n; p++) {
+            parts[p] = 1 + (long) Math.floor(spare * weights[p] / weightSum);
+            assigned += parts[p];
+        }
+        for (int p = 0; assigned < total; p = (p + 1) % n) {
+            parts[p]++;
+            assigned++;
+        }
+        return parts;
+    }
+
+    // Zipf-sized groups of distinct, sorted user indexes; the largest has maxGroupSize members, none fewer than 2
+    static int[][] assignMembers(Settings settings) {
+        SplittableRandom random = new SplittableRandom(settings.seed());
+        int maxSize = Math.min(settings.maxGroupSize(), settings.users());
+        int[][] members = new int[settings.groups()][];
+        for (int g = 0; g < members.length; g++) {
+            int size = Math.max(2, (int) Math.round(maxSize / Math.pow(g + 1, settings.groupSizeExponent())));
+            // Floyd's sampling of `size` distinct users
+            Set<Integer> chosen = new HashSet<>(size * 2);
+            for (int j = settings.users() - size; j < settings.users(); j++) {
+                int candidate = random.nextInt(j + 1);
+                chosen.add(chosen.contains(candidate) ? j : candidate);
+            }
+            members[g] = chosen.stream().mapToInt(Integer::intValue).sorted().toArray();
+        }
+        return members;
+    }
+
+    // Whether each group was settled up, from its own stream so it does not shift the memberships
+    static boolean[] assignSettled(Settings settings) {
+        SplittableRandom random = new SplittableRandom(settings.seed() ^ 0x5DEECE66DL);
+        boolean[] settled = new boolean[settings.groups()];
+        for (int g = 0; g < settled.length; g++) {
+            settled[g] = random.nextDouble() < settings.settledFraction();
+        }
+        return settled;
+    }
+
+    private static <E> E pick(Map<E, Integer> weights, SplittableRandom random) {
+        int roll = random.nextInt(weights.values().stream().mapToInt(Integer::intValue).sum());
+        for (Map.Entry<E, Integer> entry : weights.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Empty weights");
+    }
+
+    private static String cents(long cents) {
+        return (cents < 0 ? "-" : "") + Math.abs(cents) / 100 + "." + String.format("%02d", Math.abs(cents) % 100);
+    }
+
+    private static String arrayLiteral(long[] values) {
+        StringBuilder literal = new StringBuilder(values.length * 8).append('{');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                literal.append(',');
+            }
+            literal.append(values[i]);
+        }
+        return literal.append('}').toString();
+    }
+
+    private static long maxId(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static void progress(String table, long done) {
+        if (done % 1_000_000 == 0) {
+            log("%s: %d expenses", table, done);
+        }
+    }
+
+    private static void log(String format, Object... args) {
+        System.out.printf("[synthetic] " + format + "%n", args);
+    }
+
+    // Buffers rows in COPY text format and sends them in ~1 MB chunks
+    private static final class CopyStream implements AutoCloseable {
+        private final CopyIn copyIn;
+        private final StringBuilder buffer = new StringBuilder(1 << 20);
+        long rows;
+
+        CopyStream(Connection connection, String table, String columns) throws SQLException {
+            this.copyIn = connection.unwrap(PGConnection.class).getCopyAPI()
+                    .copyIn("COPY " + table + " (" + columns + ") FROM STDIN");
+        }
+
+        // Values must not contain tabs, newlines or backslashes; null becomes \N
+        void row(Object... values) throws SQLException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    buffer.append('\t');
+                }
+                buffer.append(values[i] == null ? "\\N" : values[i]);
+            }
+            buffer.append('\n');
+            rows++;
+            if (buffer.length() >= 1 << 20) {
+                flush();
+            }
+        }
+
+        private void flush() throws SQLException {
+            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+            buffer.setLength(0);
+        }
+
+        @Override
+        public void close() throws SQLException {
+            if (!copyIn.isActive()) {
+                return;
+            }
+            flush();
+            copyIn.endCopy();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.sohamshinde.billsplit.profiling;
+
+import com.sohamshinde.billsplit.entity.User;
+import com.sohamshinde.billsplit.security.AuthenticatedUser;
+import com.sohamshinde.billsplit.sqlbudget.StatementBudgetTestSupport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.context.ApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks who may reach the actuator, and that the request profiler stays off unless it is enabled.
+ */
+@AutoConfigureMockMvc
+class RequestProfileEndpointAccessTest extends StatementBudgetTestSupport {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    private static RequestPostProcessor as(User user) {
+        AuthenticatedUser principal = AuthenticatedUser.from(user);
+        return authentication(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    /**
+     * ❌ Test: A regular user can neither read nor reset the profile, but still sees health
+     */
+    @Test
+    void testProfileForbiddenForUser() throws Exception {
+        User user = createUsers(1).get(0);
+
+        mockMvc.perform(get("/actuator/requestprofile").with(as(user))).andExpect(status().isForbidden());
+        mockMvc.perform(delete("/actuator/requestprofile").with(as(user))).andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/health").with(as(user))).andExpect(status().isOk());
+    }
+
+    /**
+     * ✅ Test: Without request-profile.enabled neither the profiler nor its endpoint exists
+     */
+    @Test
+    void testProfilerOffByDefault() {
+        assertTrue(applicationContext.getBeansOfType(RequestProfiler.class).isEmpty());
+        assertTrue(applicationContext.getBeansOfType(RequestProfileEndpoint.class).isEmpty());
+    }
+}
@@ -0,0 +1,147 @@
+package com.sohamshinde.billsplit.profiling;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestProfilerTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private void advanceMillis(long millis) {
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    // FILTERS 1 ms, AUTHENTICATION 2 ms, APPLICATION 3 ms around a 4 ms repository call and 5 ms of serialization
+    private RequestProfile profileRequest() {
+        RequestProfile profile = RequestProfile.begin(clock::get);
+        advanceMillis(1);
+        int authentication = RequestProfile.enter(RequestPhase.AUTHENTICATION);
+        advanceMillis(2);
+        int application = RequestProfile.enter(RequestPhase.APPLICATION);
+        advanceMillis(1);
+        int repository = RequestProfile.enter(RequestPhase.HIBERNATE);
+        advanceMillis(4);
+        RequestProfile.exit(repository);
+        advanceMillis(2);
+        int serialization = RequestProfile.enter(RequestPhase.SERIALIZATION);
+        advanceMillis(5);
+        RequestProfile.exit(serialization);
+        RequestProfile.exit(application);
+        RequestProfile.exit(authentication);
+        RequestProfile.end(profile);
+        return profile;
+    }
+
+    /**
+     * ✅ Test: Time is charged only to the innermost phase, so the phases add up to the total
+     */
+    @Test
+    void testProfile_ChargesInnermostPhase() {
+        RequestProfile profile = profileRequest();
+
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1), profile.getNanos(RequestPhase.FILTERS));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(2), profile.getNanos(RequestPhase.AUTHENTICATION));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(3), profile.getNanos(RequestPhase.APPLICATION));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(4), profile.getNanos(RequestPhase.HIBERNATE));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(5), profile.getNanos(RequestPhase.SERIALIZATION));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(15), profile.getTotalNanos());
+        assertEquals(0, profile.getCount(RequestPhase.REDIS));
+    }
+
+    /**
+     * ✅ Test: Leaving an outer phase also leaves inner phases that were never left, e.g. after an exception
+     */
+    @Test
+    void testExit_UnwindsAbandonedPhases() {
+        RequestProfile profile = RequestProfile.begin(clock::get);
+        int application = RequestProfile.enter(RequestPhase.APPLICATION);
+        RequestProfile.enter(RequestPhase.LAZY_LOADING);
+        advanceMillis(3);
+        RequestProfile.exit(application);
+        assertEquals(RequestPhase.FILTERS, RequestProfile.currentPhase());
+        advanceMillis(1);
+        RequestProfile.end(profile);
+
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(3), profile.getNanos(RequestPhase.LAZY_LOADING));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1), profile.getNanos(RequestPhase.FILTERS));
+        assertNull(RequestProfile.currentPhase());
+    }
+
+    /**
+     * ✅ Test: Outside a profiled request, entering and leaving phases does nothing
+     */
+    @Test
+    void testEnter_WithoutProfile() {
+        int token = RequestProfile.enter(RequestPhase.REDIS);
+
+        assertEquals(-1, token);
+        assertDoesNotThrow(() -> RequestProfile.exit(token));
+        assertDoesNotThrow(RequestProfile::exitInnermost);
+    }
+
+    /**
+     * ✅ Test: Percentiles report the upper bound of their power-of-two bucket
+     */
+    @Test
+    void testHistogram_Percentiles() {
+        PhaseHistogram histogram = new PhaseHistogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(3));
+        }
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(100));
+
+        assertEquals(0.004, histogram.percentileMillis(0.50));
+        assertEquals(0.004, histogram.percentileMillis(0.99));
+        assertEquals(131.072, histogram.percentileMillis(1.0));
+        assertEquals(100L, histogram.count());
+        assertEquals(100.0, histogram.snapshot().get("maxMs"));
+    }
+
+    /**
+     * ✅ Test: Endpoint histograms only include the phases a request went through
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRecord_PerEndpointPhases() {
+        RequestProfiler profiler = new RequestProfiler(500, 10);
+        profiler.record("GET /api/expenses/{id}", 200, profileRequest());
+
+        Map<String, Object> endpoint = (Map<String, Object>) profiler.endpoints().get("GET /api/expenses/{id}");
+        Map<String, Object> phases = (Map<String, Object>) endpoint.get("phases");
+        assertEquals(1L, ((Map<String, Object>) endpoint.get("total")).get("count"));
+        assertTrue(phases.containsKey("HIBERNATE"));
+        assertFalse(phases.containsKey("REDIS"));
+        assertTrue(profiler.slowRequests().isEmpty());
+    }
+
+    /**
+     * ✅ Test: Slow requests are kept in a ring buffer, slowest first, with their breakdown
+     */
+    @Test
+    void testRecord_SlowRequestRingBuffer() {
+        RequestProfiler profiler = new RequestProfiler(10, 2);
+        for (long millis : new long[]{600, 20, 5, 30}) {
+            RequestProfile profile = RequestProfile.begin(clock::get);
+            advanceMillis(millis);
+            RequestProfile.end(profile);
+            profiler.record("GET /api/expenses/{id}", 200, profile);
+        }
+
+        // 600 ms was overwritten by the newer slow requests; 5 ms was below the threshold
+        List<RequestProfiler.SlowRequest> slow = profiler.slowRequests();
+        assertEquals(2, slow.size());
+        assertEquals(30.0, slow.get(0).totalMs());
+        assertEquals(20.0, slow.get(1).totalMs());
+        assertEquals(new RequestProfiler.PhaseTime(30.0, 1), slow.get(0).phases().get(RequestPhase.FILTERS));
+
+        profiler.reset();
+        assertTrue(profiler.slowRequests().isEmpty());
+        assertTrue(profiler.endpoints().isEmpty());
+    }
+}
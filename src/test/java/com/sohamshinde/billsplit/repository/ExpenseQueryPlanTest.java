@@ -0,0 +1,133 @@
+package com.sohamshinde.billsplit.repository;
+
+import com.sohamshinde.billsplit.dto.ExpenseFilterDto;
+import com.sohamshinde.billsplit.enums.Currency;
+import com.sohamshinde.billsplit.enums.ExpenseCategory;
+import com.sohamshinde.billsplit.enums.ExpenseStatus;
+import com.sohamshinde.billsplit.enums.SplitType;
+import com.sohamshinde.billsplit.perf.SyntheticDataGenerator;
+import com.sohamshinde.billsplit.service.ExpenseService;
+import com.sohamshinde.billsplit.sqlbudget.StatementBudgetTestSupport;
+import com.sohamshinde.billsplit.sqlbudget.StatementCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Guards the composite indexes behind the filtered expense lists.
+ *
+ * A synthetic data set of 200,000 expenses is loaded once with {@link SyntheticDataGenerator}: uniformly busy groups,
+ * Zipf-sized memberships and a few packed splits. Each case calls the service, records the statements it sends,
+ * and runs EXPLAIN on the expense queries with the same bound parameters. The planner keeps its defaults,
+ * so a Seq Scan on expense means it found no index cheaper than reading the table for that filter.
+ */
+class ExpenseQueryPlanTest extends StatementBudgetTestSupport {
+
+    private static final LocalDateTime NOW = LocalDateTime.parse("2025-01-01T00:00:00");
+    private static boolean loaded;
+    private static Long busyGroupId;
+    private static Long busyGroupMemberId;
+    private static Long busyUserId;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void loadData() throws Exception {
+        if (loaded) {
+            return;
+        }
+        SyntheticDataGenerator.Settings settings = new SyntheticDataGenerator.Settings(
+                20_000, 4_000, 200_000, 400, 1.1,
+                SyntheticDataGenerator.Settings.weights(SplitType.class, "EQUAL=70,EXACT=20,PERCENTAGE=10"),
+                SyntheticDataGenerator.Settings.weights(Currency.class, "INR=55,USD=25,EUR=12,GBP=8"),
+                0.4, 1095, 200, NOW, "plan-test", 42);
+        try (Connection connection = dataSource.getConnection()) {
+            SyntheticDataGenerator.populate(connection, settings);
+        }
+        busyGroupId = jdbcTemplate.queryForObject(
+                "SELECT group_id FROM expense GROUP BY group_id ORDER BY count(*) DESC LIMIT 1", Long.class);
+        busyGroupMemberId = jdbcTemplate.queryForObject(
+                "SELECT min(members_id) FROM user_group_members WHERE group_id = ?", Long.class, busyGroupId);
+        busyUserId = jdbcTemplate.queryForObject(
+                "SELECT payer_id FROM expense GROUP BY payer_id ORDER BY count(*) DESC LIMIT 1", Long.class);
+        loaded = true;
+    }
+
+    static Stream<Arguments> filters() {
+        return Stream.of(
+                Arguments.of("group", new ExpenseFilterDto()),
+                Arguments.of("group", ExpenseFilterDto.builder().status(ExpenseStatus.PENDING).build()),
+                Arguments.of("group", ExpenseFilterDto.builder().category(ExpenseCategory.FOOD).build()),
+                Arguments.of("group", ExpenseFilterDto.builder().currency(Currency.USD).from(NOW.minusDays(30)).build()),
+                Arguments.of("group", ExpenseFilterDto.builder()
+                        .minAmount(new BigDecimal("10.00")).maxAmount(new BigDecimal("100.00")).build()),
+                Arguments.of("user", new ExpenseFilterDto()),
+                Arguments.of("user", ExpenseFilterDto.builder().status(ExpenseStatus.SETTLED).build()),
+                Arguments.of("user", ExpenseFilterDto.builder().category(ExpenseCategory.TRAVEL).from(NOW.minusDays(90)).build())
+        );
+    }
+
+    @ParameterizedTest(name = "{0} {1}")
+    @MethodSource("filters")
+    void filterUsesIndex(String scope, ExpenseFilterDto filter) throws Exception {
+        boolean group = scope.equals("group");
+        authenticate(userRepository.findById(group ? busyGroupMemberId : busyUserId).orElseThrow());
+
+        List<StatementCounter.Executed> statements;
+        StatementCounter.start();
+        try {
+            if (group) {
+                expenseService.getExpensesByGroup(busyGroupId, filter, PageRequest.of(0, 50));
+            } else {
+                expenseService.getExpensesByUser(filter, PageRequest.of(0, 50));
+            }
+        } finally {
+            statements = StatementCounter.stopWithBindings();
+        }
+
+        // The page and count queries; participant and share loads go to their own tables
+        for (StatementCounter.Executed statement : statements) {
+            if (statement.sql().matches("(?is)\\s*select\\b.*\\bfrom expense \\w+\\b.*")) {
+                String plan = explain(statement);
+                assertFalse(plan.matches("(?s).*Seq Scan on expense\\s.*"),
+                        "Sequential scan for:\n" + statement.sql() + "\n" + plan);
+            }
+        }
+    }
+
+    private String explain(StatementCounter.Executed statement) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement explain = connection.prepareStatement("EXPLAIN " + statement.sql())) {
+            statement.bind(explain);
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet resultSet = explain.executeQuery()) {
+                while (resultSet.next()) {
+                    plan.append(resultSet.getString(1)).append('\n');
+                }
+            }
+            return plan.toString();
+        }
+    }
+}
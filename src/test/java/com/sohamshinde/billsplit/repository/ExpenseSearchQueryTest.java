@@ -0,0 +1,141 @@
+package com.sohamshinde.billsplit.repository;
+
+import com.sohamshinde.billsplit.dto.ExpenseDto;
+import com.sohamshinde.billsplit.dto.ExpenseSearchHitDto;
+import com.sohamshinde.billsplit.dto.ExpenseSearchResultDto;
+import com.sohamshinde.billsplit.entity.User;
+import com.sohamshinde.billsplit.enums.Currency;
+import com.sohamshinde.billsplit.enums.ExpenseCategory;
+import com.sohamshinde.billsplit.enums.ExpenseStatus;
+import com.sohamshinde.billsplit.enums.SplitType;
+import com.sohamshinde.billsplit.service.ExpenseService;
+import com.sohamshinde.billsplit.sqlbudget.StatementBudgetTestSupport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the native search query in {@link ExpenseRepository#search} against Postgres with the migrated
+ * schema, through {@link ExpenseService#searchExpenses}.
+ *
+ * {@code reader} takes part in one expense as payer, one through the participants table and one through a
+ * packed participant array; a fourth expense with the same words belongs to other users only.
+ */
+class ExpenseSearchQueryTest extends StatementBudgetTestSupport {
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User reader;
+    private Long paidId;
+    private Long sharedId;
+    private Long packedId;
+    private Long hiddenId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        List<User> users = createUsers(3);
+        reader = users.get(0);
+        User friend = users.get(1);
+        User stranger = users.get(2);
+
+        paidId = add(reader, List.of(reader, friend), "Pizza dinner downtown", ExpenseCategory.FOOD);
+        sharedId = add(friend, List.of(friend, reader), "Dinner cruise tickets", ExpenseCategory.ENTERTAINMENT);
+        packedId = add(stranger, List.of(stranger), "Team dinner", ExpenseCategory.FOOD);
+        hiddenId = add(stranger, List.of(stranger, friend), "Pizza dinner for two", ExpenseCategory.FOOD);
+
+        // What ExpenseSplits.pack leaves behind: no join rows, the IDs in the sorted array
+        jdbcTemplate.update("DELETE FROM expense_participants WHERE expense_id = ?", packedId);
+        jdbcTemplate.update("UPDATE expense SET participant_ids = ARRAY[?, ?]::bigint[] WHERE id = ?",
+                Math.min(reader.getId(), stranger.getId()), Math.max(reader.getId(), stranger.getId()), packedId);
+
+        authenticate(reader);
+    }
+
+    private Long add(User payer, List<User> participants, String description, ExpenseCategory category) throws Exception {
+        authenticate(payer);
+        expenseService.addExpense(ExpenseDto.builder()
+                .amount(new BigDecimal("60.00"))
+                .currency(Currency.INR)
+                .description(description)
+                .payerId(payer.getId())
+                .participantIds(participants.stream().map(User::getId).collect(Collectors.toList()))
+                .splitType(SplitType.EQUAL)
+                .status(ExpenseStatus.PENDING)
+                .category(category)
+                .build());
+        return jdbcTemplate.queryForObject("SELECT max(id) FROM expense WHERE description = ?", Long.class, description);
+    }
+
+    private Set<Long> ids(ExpenseSearchResultDto result) {
+        return result.getHits().stream().map(ExpenseSearchHitDto::getId).collect(Collectors.toSet());
+    }
+
+    /**
+     * ✅ Test: Every way of taking part is found, and nothing the reader is not part of
+     */
+    @Test
+    void testSearchMatchesOnlyVisibleExpenses() throws Exception {
+        ExpenseSearchResultDto result = expenseService.searchExpenses("dinner", null, null, null, null, 10);
+
+        assertEquals(Set.of(paidId, sharedId, packedId), ids(result));
+        assertFalse(ids(result).contains(hiddenId));
+        assertNull(result.getNextCursor());
+    }
+
+    /**
+     * ✅ Test: Description words outrank category words, and filters apply on top of the text match
+     */
+    @Test
+    void testSearchRanksAndFilters() throws Exception {
+        ExpenseSearchResultDto pizza = expenseService.searchExpenses("pizza", null, null, null, null, 10);
+        assertEquals(List.of(paidId), pizza.getHits().stream().map(ExpenseSearchHitDto::getId).toList());
+        assertTrue(pizza.getHits().get(0).getRank() > 0);
+
+        ExpenseSearchResultDto food = expenseService.searchExpenses("dinner", ExpenseCategory.FOOD, null, null, null, 10);
+        assertEquals(Set.of(paidId, packedId), ids(food));
+
+        ExpenseSearchResultDto none = expenseService.searchExpenses("", null, new BigDecimal("100.00"), null, null, 10);
+        assertTrue(none.getHits().isEmpty());
+    }
+
+    /**
+     * ✅ Test: The (rank, id) cursor walks every hit exactly once
+     */
+    @Test
+    void testSearchCursorPages() throws Exception {
+        ExpenseSearchResultDto first = expenseService.searchExpenses("", null, null, null, null, 2);
+        assertEquals(2, first.getHits().size());
+        assertNotNull(first.getNextCursor());
+
+        ExpenseSearchResultDto second = expenseService.searchExpenses("", null, null, null, first.getNextCursor(), 2);
+        assertEquals(1, second.getHits().size());
+        assertNull(second.getNextCursor());
+
+        Set<Long> all = ids(first);
+        all.addAll(ids(second));
+        assertEquals(Set.of(paidId, sharedId, packedId), all);
+    }
+
+    /**
+     * ✅ Test: The migration created the expression index the query is written against
+     */
+    @Test
+    void testSearchIndexExists() {
+        Integer indexes = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_indexes WHERE tablename = 'expense' AND indexname = 'idx_expense_search_document'",
+                Integer.class);
+        assertEquals(1, indexes);
+    }
+}
@@ -0,0 +1,85 @@
+package com.sohamshinde.billsplit.repository;
+
+import com.sohamshinde.billsplit.dto.ExpenseDto;
+import com.sohamshinde.billsplit.entity.Expense;
+import com.sohamshinde.billsplit.entity.User;
+import com.sohamshinde.billsplit.enums.Currency;
+import com.sohamshinde.billsplit.enums.ExpenseCategory;
+import com.sohamshinde.billsplit.enums.ExpenseStatus;
+import com.sohamshinde.billsplit.enums.SplitType;
+import com.sohamshinde.billsplit.service.ExpenseService;
+import com.sohamshinde.billsplit.sqlbudget.StatementBudgetTestSupport;
+import com.sohamshinde.billsplit.sqlbudget.StatementCounter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs {@link ExpenseSpecifications} on Postgres, where Hibernate renders the criteria functions for the real dialect.
+ */
+class ExpenseSpecificationsTest extends StatementBudgetTestSupport {
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long add(User payer, List<User> participants, String description) throws Exception {
+        authenticate(payer);
+        expenseService.addExpense(ExpenseDto.builder()
+                .amount(new BigDecimal("30.00"))
+                .currency(Currency.INR)
+                .description(description)
+                .payerId(payer.getId())
+                .participantIds(participants.stream().map(User::getId).collect(Collectors.toList()))
+                .splitType(SplitType.EQUAL)
+                .status(ExpenseStatus.PENDING)
+                .category(ExpenseCategory.FOOD)
+                .build());
+        return jdbcTemplate.queryForObject("SELECT max(id) FROM expense WHERE payer_id = ?", Long.class, payer.getId());
+    }
+
+    /**
+     * ✅ Test: array_contains in visibleTo renders valid SQL and finds a user who is only in a packed array
+     */
+    @Test
+    void testVisibleToMatchesPackedParticipants() throws Exception {
+        List<User> users = createUsers(3);
+        User reader = users.get(0);
+        User payer = users.get(1);
+        User other = users.get(2);
+
+        Long packedId = add(payer, List.of(payer, other), "Packed");
+        Long otherId = add(other, List.of(other, payer), "Not shared");
+        // What ExpenseSplits.pack leaves behind: no join rows, the IDs in the sorted array
+        jdbcTemplate.update("DELETE FROM expense_participants WHERE expense_id = ?", packedId);
+        jdbcTemplate.update("UPDATE expense SET participant_ids = ARRAY[?, ?]::bigint[] WHERE id = ?",
+                Math.min(reader.getId(), payer.getId()), Math.max(reader.getId(), payer.getId()), packedId);
+
+        List<String> statements;
+        Set<Long> visible;
+        StatementCounter.start();
+        try {
+            visible = expenseRepository.findAll(ExpenseSpecifications.visibleTo(reader.getId())).stream()
+                    .map(Expense::getId)
+                    .collect(Collectors.toSet());
+        } finally {
+            statements = StatementCounter.stop();
+        }
+
+        assertEquals(Set.of(packedId), visible);
+        assertFalse(visible.contains(otherId));
+        assertTrue(statements.get(0).contains("participant_ids"), statements.get(0));
+    }
+}
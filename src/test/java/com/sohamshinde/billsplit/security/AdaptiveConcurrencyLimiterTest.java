@@ -0,0 +1,88 @@
+package com.sohamshinde.billsplit.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long THRESHOLD = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+    /**
+     * ✅ Test: Calls beyond the limit are refused until one completes
+     */
+    @Test
+    void testTryAcquire_RejectsOverLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 0.5, THRESHOLD);
+
+        assertTrue(limiter.tryAcquire(1));
+        assertTrue(limiter.tryAcquire(1));
+        assertFalse(limiter.tryAcquire(1));
+        assertTrue(limiter.isSaturated());
+
+        limiter.release(FAST, false);
+        assertTrue(limiter.tryAcquire(1));
+    }
+
+    /**
+     * ✅ Test: A partial share admits only its part of the limit, and a zero share admits nothing
+     */
+    @Test
+    void testTryAcquire_Share() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 10, 0.5, THRESHOLD);
+
+        assertTrue(limiter.tryAcquire(0.5));
+        assertTrue(limiter.tryAcquire(0.5));
+        assertFalse(limiter.tryAcquire(0.5));
+        assertFalse(limiter.tryAcquire(0));
+        assertTrue(limiter.tryAcquire(1));
+    }
+
+    /**
+     * ✅ Test: Slow or overloaded calls shrink the limit multiplicatively, never below the minimum
+     */
+    @Test
+    void testRelease_BacksOffOnSlowCalls() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 2, 10, 0.5, THRESHOLD);
+
+        limiter.tryAcquire(1);
+        limiter.release(SLOW, false);
+        assertEquals(4, limiter.getLimit());
+
+        limiter.tryAcquire(1);
+        limiter.release(FAST, true);
+        assertEquals(2, limiter.getLimit());
+
+        limiter.tryAcquire(1);
+        limiter.release(SLOW, false);
+        assertEquals(2, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    /**
+     * ✅ Test: Fast calls grow the limit by one only while it is well used, up to the maximum
+     */
+    @Test
+    void testRelease_GrowsWhenBusy() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 5, 0.5, THRESHOLD);
+
+        limiter.tryAcquire(1);
+        limiter.release(FAST, false); // 1 of 4 in use: no growth
+        assertEquals(4, limiter.getLimit());
+
+        limiter.tryAcquire(1);
+        limiter.tryAcquire(1);
+        limiter.release(FAST, false); // 2 of 4 in use
+        assertEquals(5, limiter.getLimit());
+
+        limiter.tryAcquire(1);
+        limiter.tryAcquire(1);
+        limiter.tryAcquire(1);
+        limiter.release(FAST, false);
+        assertEquals(5, limiter.getLimit());
+    }
+}
@@ -0,0 +1,235 @@
+package com.sohamshinde.billsplit.security;
+
+import com.sohamshinde.billsplit.dto.UserUpdateDto;
+import com.sohamshinde.billsplit.entity.User;
+import com.sohamshinde.billsplit.exceptions.OverloadedException;
+import com.sohamshinde.billsplit.repository.ExpenseRepository;
+import com.sohamshinde.billsplit.repository.GroupBalanceRepository;
+import com.sohamshinde.billsplit.repository.SettlementBatchRepository;
+import com.sohamshinde.billsplit.repository.SettlementRepository;
+import com.sohamshinde.billsplit.repository.UserRepository;
+import com.sohamshinde.billsplit.service.BalanceService;
+import com.sohamshinde.billsplit.service.GroupService;
+import com.sohamshinde.billsplit.service.IdempotencyService;
+import com.sohamshinde.billsplit.service.SettlementService;
+import com.sohamshinde.billsplit.service.UserService;
+import com.sohamshinde.billsplit.service.VerificationMailer;
+import com.sohamshinde.billsplit.service.VerificationTokenStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.DispatcherServlet;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs real services behind {@link DatabaseConcurrencyAspect} proxies, with the repositories mocked,
+ * to check which calls are limited and against which limit.
+ */
+class DatabaseConcurrencyAspectTest {
+
+    private static final long THRESHOLD = TimeUnit.MILLISECONDS.toNanos(250);
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private AdaptiveConcurrencyLimiter reads;
+    private AdaptiveConcurrencyLimiter writes;
+    private SimpleMeterRegistry meterRegistry;
+    private UserService userService;
+    private SettlementService settlementService;
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        reads = new AdaptiveConcurrencyLimiter(1, 1, 1, 0.5, THRESHOLD);
+        writes = new AdaptiveConcurrencyLimiter(1, 1, 1, 0.5, THRESHOLD);
+        meterRegistry = new SimpleMeterRegistry();
+        DatabaseConcurrencyAspect aspect = new DatabaseConcurrencyAspect(reads, writes, 0.5, meterRegistry);
+
+        userService = proxy(new UserService(userRepository, mock(VerificationTokenStore.class), mock(PasswordEncoder.class),
+                mock(VerificationMailer.class)), aspect);
+        idempotencyService = proxy(new IdempotencyService(redisTemplate, new ObjectMapper(), userService), aspect);
+        settlementService = proxy(new SettlementService(mock(SettlementRepository.class), mock(SettlementBatchRepository.class),
+                mock(GroupBalanceRepository.class), mock(ExpenseRepository.class), mock(GroupService.class),
+                mock(UserService.class), mock(BalanceService.class), transactionTemplate), aspect);
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(dispatchedRequest()));
+    }
+
+    // What the DispatcherServlet leaves on a request it is handling
+    private static MockHttpServletRequest dispatchedRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute(DispatcherServlet.WEB_APPLICATION_CONTEXT_ATTRIBUTE, mock(WebApplicationContext.class));
+        return request;
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        SecurityContextHolder.clearContext();
+    }
+
+    private static <T> T proxy(T target, DatabaseConcurrencyAspect aspect) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(aspect);
+        return factory.getProxy();
+    }
+
+    private double rejected(String priority) {
+        return meterRegistry.get("db.concurrency.rejected").tag("priority", priority).counter().count();
+    }
+
+    /**
+     * ✅ Test: A write through TransactionTemplate holds a write permit while the transaction runs
+     */
+    @Test
+    void testTransactionTemplateWriteIsLimited() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            assertEquals(1, writes.getInFlight());
+            assertEquals(0, reads.getInFlight());
+            return List.of();
+        });
+
+        settlementService.settleGroup(10L, null);
+
+        verify(transactionTemplate, times(1)).execute(any());
+        assertEquals(0, writes.getInFlight());
+    }
+
+    /**
+     * ❌ Test: A TransactionTemplate write is rejected before the transaction starts when writes are at their limit
+     */
+    @Test
+    void testTransactionTemplateWriteRejected() {
+        assertTrue(writes.tryAcquire(1));
+
+        assertThrows(OverloadedException.class, () -> settlementService.settleGroup(10L, null));
+
+        verifyNoInteractions(transactionTemplate);
+        assertEquals(1, rejected("write"));
+    }
+
+    /**
+     * ❌ Test: A service method without @Transactional counts as a write
+     */
+    @Test
+    void testUnannotatedMethodCountsAsWrite() {
+        assertTrue(writes.tryAcquire(1));
+
+        assertThrows(OverloadedException.class, () -> userService.updateUser(1L, new UserUpdateDto()));
+
+        verifyNoInteractions(userRepository);
+        assertEquals(1, rejected("write"));
+        assertEquals(0, reads.getInFlight());
+    }
+
+    /**
+     * ✅ Test: A read-only method takes the read limit, so it still runs while writes are at theirs
+     */
+    @Test
+    void testReadOnlyMethodUsesReadLimit() {
+        assertTrue(writes.tryAcquire(1));
+        User user = new User();
+        user.setId(1L);
+        when(userRepository.findById(1L)).thenAnswer(invocation -> {
+            assertEquals(1, reads.getInFlight());
+            return Optional.of(user);
+        });
+
+        assertSame(user, userService.fetchUserById(1L));
+        assertEquals(0, reads.getInFlight());
+    }
+
+    /**
+     * ✅ Test: Calls outside a request, such as scheduled jobs, are never limited
+     */
+    @Test
+    void testCallOutsideRequestNotLimited() {
+        RequestContextHolder.resetRequestAttributes();
+        assertTrue(writes.tryAcquire(1));
+        User user = new User();
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        userService.updateUser(1L, new UserUpdateDto());
+
+        verify(userRepository, times(1)).save(user);
+        assertEquals(0, rejected("write"));
+    }
+
+    /**
+     * ✅ Test: The security chain's user lookup runs before the DispatcherServlet and is never limited,
+     * so an overload cannot turn into a failed login
+     */
+    @Test
+    void testCallFromFilterChainNotLimited() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        assertTrue(reads.tryAcquire(1));
+        User user = new User();
+        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(user));
+
+        assertSame(user, userService.loadUserByUsername("user@example.com"));
+
+        assertEquals(0, rejected("read"));
+        assertEquals(1, reads.getInFlight());
+    }
+
+    /**
+     * ✅ Test: The idempotency wrapper takes no permit; only the write it wraps is limited
+     */
+    @Test
+    void testIdempotencyWrapperNotLimited() {
+        User user = new User();
+        user.setId(1L);
+        SecurityContext securityContext = mock(SecurityContext.class);
+        when(securityContext.getAuthentication()).thenReturn(new UsernamePasswordAuthenticationToken(AuthenticatedUser.from(user), null));
+        SecurityContextHolder.setContext(securityContext);
+        // Without Redis the action runs straight away
+        when(redisTemplate.opsForValue()).thenThrow(new RedisConnectionFailureException("down"));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.save(user)).thenAnswer(invocation -> {
+            assertEquals(1, writes.getInFlight());
+            return user;
+        });
+
+        IdempotencyService.StoredResponse response = idempotencyService.execute("user", "key-1", "payload", () -> {
+            assertEquals(0, writes.getInFlight());
+            userService.updateUser(1L, new UserUpdateDto());
+            return new IdempotencyService.StoredResponse(200, "ok");
+        });
+
+        assertEquals(200, response.status());
+        verify(userRepository, times(1)).save(user);
+        assertEquals(0, writes.getInFlight());
+    }
+}
@@ -0,0 +1,123 @@
+package com.sohamshinde.billsplit.security;
+
+import com.sohamshinde.billsplit.entity.User;
+import com.sohamshinde.billsplit.enums.Role;
+import com.sohamshinde.billsplit.security.RateLimitFilter.EndpointClass;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Checks which bucket each filter charges: before authentication only verified identities count,
+ * and Basic callers are charged after the security chain has checked them.
+ */
+class RateLimitFilterTest {
+
+    private RateLimiter rateLimiter;
+    private RateLimitFilter rateLimitFilter;
+    private AuthenticatedRateLimitFilter authenticatedRateLimitFilter;
+
+    @BeforeEach
+    void setUp() {
+        rateLimiter = mock(RateLimiter.class);
+        when(rateLimiter.tryAcquire(anyString(), any())).thenReturn(RateLimiter.Decision.ALLOWED);
+        when(rateLimiter.peek(anyString(), any())).thenReturn(RateLimiter.Decision.ALLOWED);
+
+        Map<EndpointClass, RateLimiter.Limit> limits = new EnumMap<>(EndpointClass.class);
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            limits.put(endpointClass, new RateLimiter.Limit(10, 1, 1));
+        }
+        rateLimitFilter = new RateLimitFilter(rateLimiter, limits);
+        authenticatedRateLimitFilter = new AuthenticatedRateLimitFilter(rateLimiter, limits);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static MockHttpServletRequest basicRequest(String email) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/user/profile");
+        request.setRemoteAddr("10.0.0.1");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Basic " +
+                Base64.getEncoder().encodeToString((email + ":secret").getBytes(StandardCharsets.UTF_8)));
+        return request;
+    }
+
+    /**
+     * ✅ Test: The user named in Basic credentials is only charged once authenticated, never on the claim alone
+     */
+    @Test
+    void testBasicCallerChargedAfterAuthentication() throws Exception {
+        MockHttpServletRequest request = basicRequest("victim@example.com");
+
+        rateLimitFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        verify(rateLimiter, never()).tryAcquire(startsWith("req:"), any());
+        assertEquals(EndpointClass.READ, request.getAttribute(RateLimitFilter.DEFERRED_ATTRIBUTE));
+
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("victim@example.com");
+        user.setRole(Role.USER);
+        AuthenticatedUser principal = AuthenticatedUser.from(user);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        authenticatedRateLimitFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        verify(rateLimiter).tryAcquire(eq("req:READ:user:victim@example.com"), any());
+    }
+
+    /**
+     * ✅ Test: Anonymous requests are charged to the IP before authentication, and not again after it
+     */
+    @Test
+    void testAnonymousCallerChargedByIp() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/user/profile");
+        request.setRemoteAddr("10.0.0.1");
+
+        rateLimitFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        authenticatedRateLimitFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        verify(rateLimiter, times(1)).tryAcquire(startsWith("req:"), any());
+        verify(rateLimiter).tryAcquire(eq("req:READ:ip:10.0.0.1"), any());
+    }
+
+    /**
+     * ❌ Test: An authenticated caller over their budget is rejected before the controller
+     */
+    @Test
+    void testAuthenticatedCallerRejected() throws Exception {
+        MockHttpServletRequest request = basicRequest("user@example.com");
+        rateLimitFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("user@example.com", null, List.of()));
+        when(rateLimiter.tryAcquire(eq("req:READ:user:user@example.com"), any())).thenReturn(new RateLimiter.Decision(false, 3));
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        authenticatedRateLimitFilter.doFilter(request, response, chain);
+
+        assertEquals(429, response.getStatus());
+        assertEquals("3", response.getHeader(HttpHeaders.RETRY_AFTER));
+        assertNull(chain.getRequest());
+    }
+}
@@ -0,0 +1,110 @@
+package com.sohamshinde.billsplit.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RateLimiterTest {
+
+    private final RateLimiter.Limit limit = new RateLimiter.Limit(3, 0.001, 5);
+
+    /**
+     * ✅ Test: Without Redis the local bucket allows the burst, then rejects with Retry-After
+     */
+    @Test
+    void testTryAcquire_LocalBucket() {
+        RateLimiter rateLimiter = new RateLimiter(null);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(rateLimiter.tryAcquire("user:a", limit).allowed());
+        }
+        RateLimiter.Decision rejected = rateLimiter.tryAcquire("user:a", limit);
+
+        assertFalse(rejected.allowed());
+        assertTrue(rejected.retryAfterSeconds() >= 1);
+        assertTrue(rateLimiter.tryAcquire("user:b", limit).allowed());
+    }
+
+    /**
+     * ✅ Test: Tokens leased from Redis are served locally without further round trips
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testTryAcquire_UsesLeaseFromRedis() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of(5L, 0L, 10L), List.of(0L, 2000L, 0L));
+        RateLimiter rateLimiter = new RateLimiter(redisTemplate);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(rateLimiter.tryAcquire("user:a", limit).allowed());
+        }
+        RateLimiter.Decision rejected = rateLimiter.tryAcquire("user:a", limit);
+
+        assertFalse(rejected.allowed());
+        assertEquals(2, rejected.retryAfterSeconds());
+        verify(redisTemplate, times(2)).execute(any(RedisScript.class), anyList(), any(Object[].class));
+    }
+
+    /**
+     * ✅ Test: Peeking a login bucket does not take a token
+     */
+    @Test
+    void testPeek_DoesNotConsume() {
+        RateLimiter rateLimiter = new RateLimiter(null);
+        RateLimiter.Limit login = new RateLimiter.Limit(1, 0.001, 1);
+
+        assertTrue(rateLimiter.peek("login:ip:1.2.3.4", login).allowed());
+        assertTrue(rateLimiter.peek("login:ip:1.2.3.4", login).allowed());
+        rateLimiter.tryAcquire("login:ip:1.2.3.4", login);
+
+        assertFalse(rateLimiter.peek("login:ip:1.2.3.4", login).allowed());
+    }
+
+    /**
+     * ✅ Test: Peeking reads the shared bucket with HMGET and never runs the take script
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPeek_ReadsRedisWithoutWriting() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        HashOperations<String, Object, Object> hashOperations = mock(HashOperations.class);
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        String now = String.valueOf(System.currentTimeMillis());
+        when(hashOperations.multiGet(eq("ratelimit:login:ip:1.2.3.4"), anyCollection())).thenReturn(Arrays.asList("0.2", now));
+        when(hashOperations.multiGet(eq("ratelimit:login:ip:5.6.7.8"), anyCollection())).thenReturn(Arrays.asList(null, null));
+        RateLimiter rateLimiter = new RateLimiter(redisTemplate);
+        RateLimiter.Limit login = new RateLimiter.Limit(10, 0.1, 1);
+
+        RateLimiter.Decision exhausted = rateLimiter.peek("login:ip:1.2.3.4", login);
+        assertFalse(exhausted.allowed());
+        assertTrue(exhausted.retryAfterSeconds() >= 7);
+        assertTrue(rateLimiter.peek("login:ip:5.6.7.8", login).allowed());
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), any(Object[].class));
+    }
+
+    /**
+     * ❌ Test: A Redis outage falls back to local buckets instead of failing requests
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testTryAcquire_RedisDownFallsBackToLocal() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+        RateLimiter rateLimiter = new RateLimiter(redisTemplate);
+
+        assertTrue(rateLimiter.tryAcquire("user:a", limit).allowed());
+        assertTrue(rateLimiter.tryAcquire("user:a", limit).allowed());
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class), anyList(), any(Object[].class));
+    }
+}
@@ -0,0 +1,75 @@
+package com.sohamshinde.billsplit.service;
+
+import com.sohamshinde.billsplit.entity.Expense;
+import com.sohamshinde.billsplit.entity.Group;
+import com.sohamshinde.billsplit.entity.User;
+import com.sohamshinde.billsplit.enums.Currency;
+import com.sohamshinde.billsplit.enums.SplitType;
+import com.sohamshinde.billsplit.repository.GroupBalanceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BalanceServiceTest {
+
+    @Mock
+    private GroupBalanceRepository groupBalanceRepository;
+
+    @InjectMocks
+    private BalanceService balanceService;
+
+    private Expense packedExpense;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        User payer = new User();
+        payer.setId(1L);
+        Group group = new Group();
+        group.setId(10L);
+
+        packedExpense = Expense.builder()
+                .payer(payer)
+                .group(group)
+                .amount(new BigDecimal("10.00"))
+                .currency(Currency.INR)
+                .splitType(SplitType.EQUAL)
+                .build();
+        ExpenseSplits.pack(packedExpense, List.of(3L, 1L, 2L));
+    }
+
+    /**
+     * ✅ Test: Packed shares expand to exact contributions that sum to zero
+     */
+    @Test
+    void testContributions_PackedExpense() {
+        Map<BalanceService.BalanceKey, BigDecimal> contributions = balanceService.contributions(packedExpense);
+
+        assertEquals(new BigDecimal("6.66"), contributions.get(new BalanceService.BalanceKey(10L, 1L, Currency.INR)));
+        assertEquals(new BigDecimal("-3.33"), contributions.get(new BalanceService.BalanceKey(10L, 2L, Currency.INR)));
+        assertEquals(new BigDecimal("-3.33"), contributions.get(new BalanceService.BalanceKey(10L, 3L, Currency.INR)));
+        assertEquals(0, contributions.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add).signum());
+    }
+
+    /**
+     * ✅ Test: All deltas of one group are written with a single statement, in user order
+     */
+    @Test
+    void testApplyExpense_OneStatementPerGroup() {
+        balanceService.applyExpense(packedExpense);
+
+        verify(groupBalanceRepository, times(1)).addToBalances(10L, "1,2,3", "INR,INR,INR", "6.66,-3.33,-3.33");
+        verify(groupBalanceRepository, never()).addToBalance(anyLong(), anyLong(), anyString(), any());
+    }
+}
@@ -0,0 +1,151 @@
+package com.sohamshinde.billsplit.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sohamshinde.billsplit.dto.BulkRegistrationResultDto;
+import com.sohamshinde.billsplit.dto.UserRegistrationDto;
+import com.sohamshinde.billsplit.repository.UserRepository;
+import com.sohamshinde.billsplit.repository.UserRepository.InsertedUser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BulkRegistrationServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private VerificationTokenStore verificationTokenStore;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private VerificationMailer verificationMailer;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private BulkRegistrationService bulkRegistrationService;
+
+    private record Row(Long id, String email) implements InsertedUser {
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public String getEmail() {
+            return email;
+        }
+    }
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        when(passwordEncoder.encode(anyString())).thenAnswer(invocation -> "hashed-" + invocation.getArgument(0));
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(List.of());
+
+        bulkRegistrationService = new BulkRegistrationService(userRepository, verificationTokenStore, passwordEncoder,
+                verificationMailer, transactionTemplate, new ObjectMapper(), 2);
+    }
+
+    private static UserRegistrationDto user(String email) {
+        return new UserRegistrationDto("User " + email, email, "9876543210", "pw-" + email, true);
+    }
+
+    /**
+     * ✅ Test: New users are inserted with hashed passwords; existing and repeated emails are skipped
+     */
+    @Test
+    void testRegisterUsers_SkipsExistingAndDuplicates() {
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(List.of("c@example.com"));
+        when(userRepository.insertUnverified(anyString())).thenReturn(List.of(new Row(1L, "a@example.com"), new Row(2L, "b@example.com")));
+
+        BulkRegistrationResultDto result = bulkRegistrationService.registerUsers(List.of(
+                user("a@example.com"), user("b@example.com"), user("b@example.com"), user("c@example.com")));
+
+        assertEquals(4, result.getReceived());
+        assertEquals(2, result.getRegistered());
+        assertEquals(List.of("b@example.com", "c@example.com"), result.getSkippedEmails());
+
+        ArgumentCaptor<String> rows = ArgumentCaptor.forClass(String.class);
+        verify(userRepository, times(1)).findExistingEmails(anyCollection());
+        verify(userRepository, times(1)).insertUnverified(rows.capture());
+        assertTrue(rows.getValue().contains("hashed-pw-a@example.com"));
+        assertFalse(rows.getValue().contains("c@example.com"));
+
+        ArgumentCaptor<Map<String, Long>> tokens = ArgumentCaptor.forClass(Map.class);
+        verify(verificationTokenStore, times(1)).saveAll(tokens.capture(), any(LocalDateTime.class));
+        assertEquals(2, tokens.getValue().size());
+
+        tokens.getValue().forEach((token, userId) -> {
+            String email = userId == 1L ? "a@example.com" : "b@example.com";
+            verify(verificationMailer).queue(eq(email), anyString(), anyString(), eq(token));
+        });
+        verifyNoMoreInteractions(verificationMailer);
+    }
+
+    /**
+     * ✅ Test: An email registered between the check and the insert is reported as skipped
+     */
+    @Test
+    void testRegisterUsers_ConflictOnInsertIsSkipped() {
+        when(userRepository.insertUnverified(anyString())).thenReturn(List.of(new Row(1L, "a@example.com")));
+
+        BulkRegistrationResultDto result = bulkRegistrationService.registerUsers(List.of(user("a@example.com"), user("b@example.com")));
+
+        assertEquals(1, result.getRegistered());
+        assertEquals(List.of("b@example.com"), result.getSkippedEmails());
+        verify(verificationMailer, times(1)).queue(eq("a@example.com"), anyString(), anyString(), anyString());
+    }
+
+    /**
+     * ✅ Test: Users are written in batches, with a single existence check for all of them
+     */
+    @Test
+    void testRegisterUsers_WritesInBatches() {
+        ReflectionTestUtils.setField(bulkRegistrationService, "batchSize", 2);
+        when(userRepository.insertUnverified(anyString())).thenReturn(List.of());
+
+        List<UserRegistrationDto> users = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            users.add(user("user" + i + "@example.com"));
+        }
+        bulkRegistrationService.registerUsers(users);
+
+        verify(userRepository, times(1)).findExistingEmails(anyCollection());
+        verify(userRepository, times(3)).insertUnverified(anyString());
+        verify(passwordEncoder, times(5)).encode(anyString());
+    }
+
+    /**
+     * ❌ Test: Requests above the configured size are rejected before any work is done
+     */
+    @Test
+    void testRegisterUsers_TooManyUsers() {
+        ReflectionTestUtils.setField(bulkRegistrationService, "maxUsers", 1);
+
+        assertThrows(IllegalArgumentException.class, () ->
+                bulkRegistrationService.registerUsers(List.of(user("a@example.com"), user("b@example.com"))));
+        verifyNoInteractions(userRepository);
+    }
+}
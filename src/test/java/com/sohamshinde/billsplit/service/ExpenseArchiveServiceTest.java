@@ -0,0 +1,95 @@
+package com.sohamshinde.billsplit.service;
+
+import com.sohamshinde.billsplit.dto.ExpenseDto;
+import com.sohamshinde.billsplit.entity.ArchivedExpense;
+import com.sohamshinde.billsplit.entity.Expense;
+import com.sohamshinde.billsplit.entity.Group;
+import com.sohamshinde.billsplit.entity.User;
+import com.sohamshinde.billsplit.enums.ExpenseStatus;
+import com.sohamshinde.billsplit.repository.ArchivedExpenseRepository;
+import com.sohamshinde.billsplit.repository.ExpenseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ExpenseArchiveServiceTest {
+
+    @Mock
+    private ExpenseRepository expenseRepository;
+
+    @Mock
+    private ArchivedExpenseRepository archivedExpenseRepository;
+
+    @Mock
+    private ExpenseService expenseService;
+
+    @InjectMocks
+    private ExpenseArchiveService expenseArchiveService;
+
+    private final LocalDateTime cutoff = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    /**
+     * ✅ Test: A batch is copied into the archive and then removed from the hot tables
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testArchiveBatch_MovesExpenses() {
+        User payer = new User();
+        payer.setId(1L);
+        User participant = new User();
+        participant.setId(2L);
+        Group group = new Group();
+        group.setId(10L);
+        Expense expense = Expense.builder().id(7L).amount(new BigDecimal("60.00")).payer(payer).group(group)
+                .participants(new HashSet<>(Set.of(payer, participant))).status(ExpenseStatus.SETTLED).build();
+        ExpenseDto document = ExpenseDto.builder().amount(new BigDecimal("60.00")).build();
+        when(expenseRepository.lockArchivable(eq(ExpenseStatus.SETTLED), eq(cutoff), any(Pageable.class))).thenReturn(List.of(expense));
+        when(expenseService.convertToDto(expense)).thenReturn(document);
+
+        assertEquals(1, expenseArchiveService.archiveBatch(cutoff));
+
+        ArgumentCaptor<List<ArchivedExpense>> saved = ArgumentCaptor.forClass(List.class);
+        verify(archivedExpenseRepository).saveAll(saved.capture());
+        ArchivedExpense archived = saved.getValue().get(0);
+        assertEquals(7L, archived.getId());
+        assertEquals(10L, archived.getGroupId());
+        assertEquals(Set.of(1L, 2L), Set.of(archived.getParticipantIds()));
+        assertSame(document, archived.getDocument());
+
+        verify(expenseRepository).deleteSharesByExpenseIds(List.of(7L));
+        verify(expenseRepository).deleteParticipantsByExpenseIds(List.of(7L));
+        verify(expenseRepository).deleteByIds(List.of(7L));
+    }
+
+    /**
+     * ✅ Test: Nothing due means nothing is written or deleted
+     */
+    @Test
+    void testArchiveBatch_NothingDue() {
+        when(expenseRepository.lockArchivable(eq(ExpenseStatus.SETTLED), eq(cutoff), any(Pageable.class))).thenReturn(List.of());
+
+        assertEquals(0, expenseArchiveService.archiveBatch(cutoff));
+        verifyNoInteractions(archivedExpenseRepository);
+        verify(expenseRepository, never()).deleteByIds(any());
+    }
+}
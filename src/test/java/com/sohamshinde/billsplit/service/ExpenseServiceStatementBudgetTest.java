@@ -0,0 +1,146 @@
+package com.sohamshinde.billsplit.service;
+
+import com.sohamshinde.billsplit.dto.ExpenseDto;
+import com.sohamshinde.billsplit.dto.ExpenseFilterDto;
+import com.sohamshinde.billsplit.entity.Group;
+import com.sohamshinde.billsplit.entity.User;
+import com.sohamshinde.billsplit.enums.Currency;
+import com.sohamshinde.billsplit.enums.ExpenseCategory;
+import com.sohamshinde.billsplit.enums.ExpenseStatus;
+import com.sohamshinde.billsplit.enums.SplitType;
+import com.sohamshinde.billsplit.repository.GroupRepository;
+import com.sohamshinde.billsplit.sqlbudget.SqlStatementBudget;
+import com.sohamshinde.billsplit.sqlbudget.StatementBudgetTestSupport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * SQL statement budgets for every public {@link ExpenseService} operation.
+ *
+ * The fixture is a group of ten members with ten EQUAL expenses paid by {@code owner}. Converting an
+ * expense to its DTO currently loads its participants and shares, so list budgets include two statements
+ * per returned expense; anything more per row breaks them. Writes insert one row per participant and share.
+ */
+class ExpenseServiceStatementBudgetTest extends StatementBudgetTestSupport {
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User owner;
+    private Long groupId;
+    private List<Long> expenseIds;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        List<User> members = createUsers(10);
+        owner = members.get(0);
+
+        Group group = new Group();
+        group.setGroupName("Budget Group");
+        group.setCreatedBy(owner);
+        group.setMembers(new ArrayList<>(members));
+        groupId = groupRepository.save(group).getId();
+
+        authenticate(owner);
+        for (int i = 0; i < 10; i++) {
+            ExpenseDto dto = expense("Dinner " + i);
+            expenseService.addExpense(dto);
+        }
+        expenseIds = jdbcTemplate.queryForList("SELECT id FROM expense WHERE group_id = ? ORDER BY id", Long.class, groupId);
+    }
+
+    private ExpenseDto expense(String description) {
+        return ExpenseDto.builder()
+                .amount(new BigDecimal("100.00"))
+                .currency(Currency.INR)
+                .description(description)
+                .payerId(owner.getId())
+                .groupId(groupId)
+                .splitType(SplitType.EQUAL)
+                .status(ExpenseStatus.PENDING)
+                .category(ExpenseCategory.FOOD)
+                .build();
+    }
+
+    /**
+     * ✅ Test: Adding a group expense writes one row per participant and share and one balance upsert
+     */
+    @Test
+    @SqlStatementBudget(27)
+    void testAddExpense() throws Exception {
+        ExpenseDto dto = expense("Taxi");
+        expenseService.addExpense(dto);
+    }
+
+    /**
+     * ✅ Test: Reading one expense loads it with its payer and group, then its participants and shares
+     */
+    @Test
+    @SqlStatementBudget(4)
+    void testGetExpenseById() throws Exception {
+        ExpenseDto expense = expenseService.getExpenseById(expenseIds.get(0));
+        assertEquals(10, expense.getParticipantIds().size());
+    }
+
+    /**
+     * ✅ Test: A page of search hits is the ranked search, one bulk load and the DTO conversion
+     */
+    @Test
+    @SqlStatementBudget(15)
+    void testSearchExpenses() throws Exception {
+        expenseService.searchExpenses("dinner", null, null, null, null, 5);
+    }
+
+    /**
+     * ✅ Test: A filtered page of the user's expenses, with the archive queried alongside
+     */
+    @Test
+    @SqlStatementBudget(15)
+    void testGetExpensesByUserPaged() throws Exception {
+        expenseService.getExpensesByUser(new ExpenseFilterDto(), PageRequest.of(0, 5));
+    }
+
+    /**
+     * ✅ Test: A filtered page of a group's expenses
+     */
+    @Test
+    @SqlStatementBudget(15)
+    void testGetExpensesByGroupPaged() throws Exception {
+        expenseService.getExpensesByGroup(groupId, new ExpenseFilterDto(), PageRequest.of(0, 5));
+    }
+
+    /**
+     * ✅ Test: A description-only edit writes the expense row and no participant, share or balance rows
+     */
+    @Test
+    @SqlStatementBudget(6)
+    void testUpdateExpense() throws Exception {
+        ExpenseDto dto = new ExpenseDto();
+        dto.setDescription("Dinner, renamed");
+        expenseService.updateExpense(expenseIds.get(0), dto);
+    }
+
+    /**
+     * ✅ Test: Deleting reverts the balances in one statement, records one tombstone and removes the collections by key
+     */
+    @Test
+    @SqlStatementBudget(8)
+    void testDeleteExpense() throws Exception {
+        expenseService.deleteExpense(expenseIds.get(0));
+    }
+}
@@ -1,23 +1,41 @@
 package com.sohamshinde.billsplit.service;
 
 import com.sohamshinde.billsplit.dto.ExpenseDto;
+import com.sohamshinde.billsplit.dto.ExpenseFilterDto;
+import com.sohamshinde.billsplit.dto.ExpenseSearchResultDto;
+import com.sohamshinde.billsplit.entity.ArchivedExpense;
 import com.sohamshinde.billsplit.entity.Expense;
 import com.sohamshinde.billsplit.entity.Group;
 import com.sohamshinde.billsplit.entity.User;
 import com.sohamshinde.billsplit.enums.Currency;
+import com.sohamshinde.billsplit.enums.ExpenseCategory;
+import com.sohamshinde.billsplit.enums.ExpenseStatus;
 import com.sohamshinde.billsplit.enums.SplitType;
 import com.sohamshinde.billsplit.exceptions.ExpenseException;
+import com.sohamshinde.billsplit.repository.ExpenseRepository.SearchRow;
+import com.sohamshinde.billsplit.repository.ArchivedExpenseRepository;
+import com.sohamshinde.billsplit.repository.ExpenseDeletionRepository;
 import com.sohamshinde.billsplit.repository.ExpenseRepository;
+import com.sohamshinde.billsplit.security.AuthenticatedUser;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContext;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -35,6 +53,15 @@ class ExpenseServiceTest {
     @Mock
     private ExpenseRepository expenseRepository;
 
+    @Mock
+    private BalanceService balanceService;
+
+    @Mock
+    private ArchivedExpenseRepository archivedExpenseRepository;
+
+    @Mock
+    private ExpenseDeletionRepository expenseDeletionRepository;
+
     @InjectMocks
     private ExpenseService expenseService;
 
@@ -67,8 +94,9 @@ class ExpenseServiceTest {
 
         // ✅ Mock Security Context for Authentication
         SecurityContext securityContext = mock(SecurityContext.class);
-        when(securityContext.getAuthentication()).thenReturn(new UsernamePasswordAuthenticationToken(payer, null));
+        when(securityContext.getAuthentication()).thenReturn(new UsernamePasswordAuthenticationToken(AuthenticatedUser.from(payer), null));
         SecurityContextHolder.setContext(securityContext);
+        when(userService.getAuthenticatedUser()).thenReturn(payer);
     }
 
     /**
@@ -151,6 +179,7 @@ class ExpenseServiceTest {
 
         expenseService.addExpense(expenseDto);
         verify(expenseRepository, times(1)).save(any(Expense.class));
+        verify(balanceService, times(1)).applyExpense(any(Expense.class));
     }
 
     /**
@@ -251,7 +280,7 @@ class ExpenseServiceTest {
                 .description("Trip Expense")
                 .payer(payer)
                 .group(group)
-                .participants(Arrays.asList(participant1, participant2))
+                .participants(new HashSet<>(Arrays.asList(participant1, participant2)))
                 .splitType(SplitType.EQUAL)
                 .build();
 
@@ -277,56 +306,6 @@ class ExpenseServiceTest {
         assertEquals("Expense not found with ID: 99", exception.getMessage());
     }
 
-    /**
-     * ✅ Test Get Expenses for Authenticated User
-     */
-    @Test
-    void testGetExpensesForAuthenticatedUser() {
-        // Mock authenticated user
-        when(userService.getAuthenticatedUser()).thenReturn(payer);
-
-        // Mock expenses for the authenticated user
-        Expense expense1 = Expense.builder().id(1L).payer(payer).amount(new BigDecimal("100.00")).currency(Currency.USD).build();
-        Expense expense2 = Expense.builder().id(2L).payer(payer).amount(new BigDecimal("200.00")).currency(Currency.USD).build();
-
-        when(expenseRepository.findAllByPayerOrParticipantsContaining(payer, payer))
-                .thenReturn(Arrays.asList(expense1, expense2));
-
-        List<ExpenseDto> result = expenseService.getExpensesByUser();
-
-        assertEquals(2, result.size());
-        assertEquals(new BigDecimal("100.00"), result.get(0).getAmount());
-        assertEquals(new BigDecimal("200.00"), result.get(1).getAmount());
-    }
-
-    /**
-     * ✅ Test Get Expenses by Group
-     */
-    @Test
-    void testGetExpensesByGroup() throws ExpenseException {
-        Expense expense1 = Expense.builder().id(1L).group(group).amount(new BigDecimal("150.00")).currency(Currency.USD).build();
-        Expense expense2 = Expense.builder().id(2L).group(group).amount(new BigDecimal("250.00")).currency(Currency.USD).build();
-
-        when(expenseRepository.findAllByGroup(group)).thenReturn(Arrays.asList(expense1, expense2));
-
-        List<ExpenseDto> result = expenseService.getExpensesByGroup(10L);
-
-        assertEquals(2, result.size());
-        assertEquals(new BigDecimal("150.00"), result.get(0).getAmount());
-        assertEquals(new BigDecimal("250.00"), result.get(1).getAmount());
-    }
-
-    /**
-     * ❌ Test Get Expenses by Invalid Group
-     */
-    @Test
-    void testGetExpensesByInvalidGroup() {
-        when(groupService.fetchGroupById(99L)).thenReturn(null);
-
-        ExpenseException exception = assertThrows(ExpenseException.class, () -> expenseService.getExpensesByGroup(99L));
-        assertEquals("Group not found", exception.getMessage());
-    }
-
     /**
      * ✅ Test Update Expense
      */
@@ -339,7 +318,7 @@ class ExpenseServiceTest {
                 .currency(Currency.USD)
                 .description("Old Description")
                 .splitType(SplitType.EQUAL)
-                .participants(Arrays.asList(participant1, participant2)) // ✅ Ensure participants are set
+                .participants(new HashSet<>(Arrays.asList(participant1, participant2))) // ✅ Ensure participants are set
                 .build();
 
         when(expenseRepository.findById(1L)).thenReturn(Optional.of(expense));
@@ -379,7 +358,7 @@ class ExpenseServiceTest {
                 .currency(Currency.USD)
                 .description("Old Description")
                 .payer(payer)
-                .participants(Arrays.asList(participant1, participant2))
+                .participants(new HashSet<>(Arrays.asList(participant1, participant2)))
                 .splitType(SplitType.EQUAL)
                 .build();
 
@@ -406,6 +385,42 @@ class ExpenseServiceTest {
         verify(expenseRepository, times(1)).save(expense);
     }
 
+    /**
+     * ❌ Test: A settled expense keeps its amount and shares, and no expense takes a status from the client
+     */
+    @Test
+    void testUpdateExpense_SettledAndStatusRejected() throws ExpenseException {
+        Expense expense = Expense.builder()
+                .id(1L)
+                .amount(new BigDecimal("100.00"))
+                .currency(Currency.USD)
+                .description("Old Desc")
+                .payer(payer)
+                .participants(new HashSet<>(Arrays.asList(participant1, participant2)))
+                .splitType(SplitType.EQUAL)
+                .status(ExpenseStatus.SETTLED)
+                .build();
+        when(expenseRepository.findById(1L)).thenReturn(Optional.of(expense));
+
+        ExpenseException exception = assertThrows(ExpenseException.class,
+                () -> expenseService.updateExpense(1L, ExpenseDto.builder().amount(new BigDecimal("150.00")).build()));
+        assertEquals("The amount and shares of a settled expense cannot be changed.", exception.getMessage());
+        assertThrows(ExpenseException.class, () -> expenseService.updateExpense(1L, ExpenseDto.builder()
+                .splitType(SplitType.EXACT).participantShares(Map.of(2L, new BigDecimal("100.00"))).build()));
+
+        expense.setStatus(ExpenseStatus.PENDING);
+        exception = assertThrows(ExpenseException.class,
+                () -> expenseService.updateExpense(1L, ExpenseDto.builder().status(ExpenseStatus.SETTLED).build()));
+        assertEquals("The status of an expense cannot be changed directly.", exception.getMessage());
+        verify(expenseRepository, never()).save(any(Expense.class));
+
+        // Renaming a settled expense is still allowed
+        expense.setStatus(ExpenseStatus.SETTLED);
+        expenseService.updateExpense(1L, ExpenseDto.builder().description("Renamed").status(ExpenseStatus.SETTLED).build());
+        assertEquals("Renamed", expense.getDescription());
+        verify(expenseRepository, times(1)).save(expense);
+    }
+
     @Test
     void testUpdateExpense_OnlyDescription() throws ExpenseException {
         Expense expense = Expense.builder()
@@ -414,7 +429,7 @@ class ExpenseServiceTest {
                 .currency(Currency.USD)
                 .description("Old Desc")
                 .payer(payer)
-                .participants(Arrays.asList(participant1, participant2))
+                .participants(new HashSet<>(Arrays.asList(participant1, participant2)))
                 .splitType(SplitType.EQUAL)
                 .build();
 
@@ -439,7 +454,7 @@ class ExpenseServiceTest {
         Expense expense = Expense.builder()
                 .id(1L)
                 .payer(participant1) // A different user is the payer
-                .participants(Arrays.asList(participant2))
+                .participants(new HashSet<>(Arrays.asList(participant2)))
                 .splitType(SplitType.EQUAL)
                 .build();
 
@@ -452,12 +467,63 @@ class ExpenseServiceTest {
         assertEquals("You do not have permission to update this expense.", exception.getMessage());
     }
 
+    /**
+     * ✅ Test: The payer is recognised by ID, even when the loaded entity differs from the principal's user in other fields
+     */
+    @Test
+    void testUpdateExpense_PayerMatchedById() throws ExpenseException {
+        User payerCopy = new User();
+        payerCopy.setId(1L);
+        payerCopy.setName("Loaded elsewhere");
+        Expense expense = Expense.builder()
+                .id(1L)
+                .amount(new BigDecimal("100.00"))
+                .payer(payerCopy)
+                .participants(new HashSet<>(Arrays.asList(participant1, participant2)))
+                .splitType(SplitType.EQUAL)
+                .build();
+
+        when(expenseRepository.findById(1L)).thenReturn(Optional.of(expense));
+
+        expenseService.updateExpense(1L, ExpenseDto.builder().description("Renamed").build());
+
+        assertEquals("Renamed", expense.getDescription());
+        verify(userService, never()).getAuthenticatedUser();
+    }
+
+    /**
+     * ✅ Test: A member of the expense's group may update it without being payer or participant
+     */
+    @Test
+    void testUpdateExpense_GroupMemberMatchedById() throws ExpenseException {
+        User memberCopy = new User();
+        memberCopy.setId(1L);
+        memberCopy.setName("Loaded with the group");
+        Group otherGroup = new Group();
+        otherGroup.setId(11L);
+        otherGroup.setMembers(Arrays.asList(memberCopy, participant1));
+        Expense expense = Expense.builder()
+                .id(1L)
+                .amount(new BigDecimal("100.00"))
+                .payer(participant1)
+                .group(otherGroup)
+                .participants(new HashSet<>(Arrays.asList(participant1, participant2)))
+                .splitType(SplitType.EQUAL)
+                .build();
+
+        when(expenseRepository.findById(1L)).thenReturn(Optional.of(expense));
+
+        expenseService.updateExpense(1L, ExpenseDto.builder().description("Renamed").build());
+
+        assertEquals("Renamed", expense.getDescription());
+    }
+
     @Test
     void testUpdateExpense_InvalidGroup() {
         Expense expense = Expense.builder()
                 .id(1L)
                 .payer(payer)
-                .participants(Arrays.asList(participant1, participant2))
+                .participants(new HashSet<>(Arrays.asList(participant1, participant2)))
                 .splitType(SplitType.EQUAL)
                 .build();
 
@@ -497,9 +563,26 @@ class ExpenseServiceTest {
         when(expenseRepository.findById(1L)).thenReturn(Optional.of(expense));
 
         expenseService.deleteExpense(1L);
+        verify(balanceService, times(1)).revertExpense(expense);
+        verify(expenseDeletionRepository, times(1)).record(eq(1L), isNull(), isNull(), any(LocalDateTime.class));
         verify(expenseRepository, times(1)).delete(expense);
     }
 
+    /**
+     * ❌ Test: A settled expense cannot be deleted, as that would reopen balances already paid back
+     */
+    @Test
+    void testDeleteSettledExpense() {
+        Expense expense = Expense.builder().id(1L).status(ExpenseStatus.SETTLED).build();
+        when(expenseRepository.findById(1L)).thenReturn(Optional.of(expense));
+
+        ExpenseException exception = assertThrows(ExpenseException.class, () -> expenseService.deleteExpense(1L));
+        assertEquals("Settled expenses cannot be deleted", exception.getMessage());
+        verify(balanceService, never()).revertExpense(any());
+        verify(expenseRepository, never()).delete(any(Expense.class));
+        verifyNoInteractions(expenseDeletionRepository);
+    }
+
     /**
      * ❌ Test Delete Non-Existent Expense
      */
@@ -511,5 +594,281 @@ class ExpenseServiceTest {
         assertEquals("Expense not found with ID: 99", exception.getMessage());
     }
 
+    /**
+     * ✅ Test: A description-only edit leaves participants and shares untouched
+     */
+    @Test
+    void testUpdateExpense_ScalarOnlyKeepsCollections() throws ExpenseException {
+        Set<User> participants = new HashSet<>(Arrays.asList(participant1, participant2));
+        Map<User, BigDecimal> shares = new HashMap<>(Map.of(participant1, new BigDecimal("50.00"), participant2, new BigDecimal("50.00")));
+        Expense expense = Expense.builder()
+                .id(1L)
+                .amount(new BigDecimal("100.00"))
+                .payer(payer)
+                .participants(participants)
+                .participantShares(shares)
+                .splitType(SplitType.EQUAL)
+                .build();
+
+        when(expenseRepository.findById(1L)).thenReturn(Optional.of(expense));
+        when(userService.getAuthenticatedUser()).thenReturn(payer);
+
+        expenseService.updateExpense(1L, ExpenseDto.builder().description("Dinner").amount(new BigDecimal("100")).build());
+
+        assertSame(participants, expense.getParticipants());
+        assertSame(shares, expense.getParticipantShares());
+        assertEquals(Set.of(participant1, participant2), expense.getParticipants());
+        assertEquals(new BigDecimal("50.00"), shares.get(participant1));
+    }
+
+    /**
+     * ✅ Test: Changing participants only adds and removes the differing entries
+     */
+    @Test
+    void testUpdateExpense_ParticipantDelta() throws ExpenseException {
+        BigDecimal unchangedShare = new BigDecimal("50.00");
+        Set<User> participants = new HashSet<>(Arrays.asList(participant1, participant2));
+        Map<User, BigDecimal> shares = new HashMap<>(Map.of(participant1, unchangedShare, participant2, new BigDecimal("50.00")));
+        Expense expense = Expense.builder()
+                .id(1L)
+                .amount(new BigDecimal("100.00"))
+                .payer(payer)
+                .participants(participants)
+                .participantShares(shares)
+                .splitType(SplitType.EQUAL)
+                .build();
+
+        when(expenseRepository.findById(1L)).thenReturn(Optional.of(expense));
+        when(userService.getAuthenticatedUser()).thenReturn(payer);
+
+        expenseService.updateExpense(1L, ExpenseDto.builder().participantIds(Arrays.asList(1L, 2L)).build());
+
+        assertSame(participants, expense.getParticipants());
+        assertEquals(Set.of(payer, participant1), participants);
+        assertSame(shares, expense.getParticipantShares());
+        assertEquals(Set.of(payer, participant1), shares.keySet());
+        assertSame(unchangedShare, shares.get(participant1)); // Equal value, so the entry was not rewritten
+    }
+
+    /**
+     * ✅ Test: Large equal splits are stored as a packed ID array with a base share and remainder
+     */
+    @Test
+    void testAddExpense_PackedEqualSplit() throws ExpenseException {
+        ReflectionTestUtils.setField(expenseService, "compactMinParticipants", 3);
+        ExpenseDto expenseDto = ExpenseDto.builder()
+                .amount(new BigDecimal("100.00"))
+                .currency(Currency.USD)
+                .payerId(1L)
+                .groupId(10L)
+                .splitType(SplitType.EQUAL)
+                .build();
 
-}
\ No newline at end of file
+        expenseService.addExpense(expenseDto);
+
+        ArgumentCaptor<Expense> saved = ArgumentCaptor.forClass(Expense.class);
+        verify(expenseRepository).save(saved.capture());
+        Expense expense = saved.getValue();
+        assertArrayEquals(new Long[]{1L, 2L, 3L}, expense.getPackedParticipantIds());
+        assertEquals(new BigDecimal("33.33"), expense.getEqualShareBase());
+        assertEquals(1, expense.getEqualShareRemainder());
+        assertTrue(expense.getParticipants().isEmpty());
+        assertTrue(expense.getParticipantShares().isEmpty());
+        assertEquals(new BigDecimal("33.34"), ExpenseSplits.sharesByUserId(expense).get(1L));
+    }
+
+    /**
+     * ✅ Test: The fork/join path returns exactly the shares of the sequential path
+     */
+    @Test
+    void testCalculateShares_ParallelMatchesSequential() throws ExpenseException {
+        List<User> users = new ArrayList<>();
+        Map<Long, BigDecimal> percentages = new HashMap<>();
+        Map<Long, BigDecimal> exact = new HashMap<>();
+        for (long id = 1; id <= 10_000; id++) {
+            User user = new User();
+            user.setId(id);
+            users.add(user);
+            percentages.put(id, new BigDecimal("0.01"));
+            exact.put(id, new BigDecimal("1.25"));
+        }
+
+        BigDecimal total = new BigDecimal("12500.00");
+        assertEquals(ExpenseService.calculateShares(SplitType.PERCENTAGE, total, users, percentages, Integer.MAX_VALUE),
+                ExpenseService.calculateShares(SplitType.PERCENTAGE, total, users, percentages, 1));
+        assertEquals(ExpenseService.calculateShares(SplitType.EXACT, total, users, exact, Integer.MAX_VALUE),
+                ExpenseService.calculateShares(SplitType.EXACT, total, users, exact, 1));
+
+        exact.put(20_000L, BigDecimal.ZERO);
+        ExpenseException exception = assertThrows(ExpenseException.class,
+                () -> ExpenseService.calculateShares(SplitType.EXACT, total, users, exact, 1));
+        assertEquals("Invalid participant ID: 20000", exception.getMessage());
+    }
+
+    /**
+     * ✅ Test: Search keeps the ranked order, scopes to the caller and pages with a (rank, id) cursor
+     */
+    @Test
+    void testSearchExpenses_RankedKeysetPages() throws ExpenseException {
+        Expense dinner = Expense.builder().id(7L).amount(new BigDecimal("80.00")).description("Dinner in Goa").payer(payer).build();
+        Expense drinks = Expense.builder().id(4L).amount(new BigDecimal("20.00")).description("Drinks after dinner").payer(payer).build();
+        when(expenseRepository.search(1L, "dinner goa", null, null, null, null, null, 3))
+                .thenReturn(List.of(searchRow(7L, 0.5f), searchRow(4L, 0.1f), searchRow(2L, 0.1f)));
+        when(expenseRepository.findAllById(List.of(7L, 4L))).thenReturn(List.of(drinks, dinner));
+
+        ExpenseSearchResultDto page = expenseService.searchExpenses(" dinner goa ", null, null, null, null, 2);
+
+        assertEquals(List.of(7L, 4L), page.getHits().stream().map(hit -> hit.getId()).toList());
+        assertEquals("Dinner in Goa", page.getHits().get(0).getExpense().getDescription());
+        assertNotNull(page.getNextCursor());
+
+        expenseService.searchExpenses("dinner goa", null, null, null, page.getNextCursor(), 2);
+        verify(expenseRepository).search(1L, "dinner goa", null, null, null, 0.1f, 4L, 3);
+    }
+
+    /**
+     * ✅ Test: A hit that is no longer in the expense table is read from its archive document
+     */
+    @Test
+    void testSearchExpenses_ArchivedHit() throws ExpenseException {
+        ExpenseDto document = ExpenseDto.builder().amount(new BigDecimal("40.00")).description("Old dinner").build();
+        when(expenseRepository.search(1L, "dinner", null, null, null, null, null, 21))
+                .thenReturn(List.of(searchRow(9L, 0.5f)));
+        when(expenseRepository.findAllById(List.of(9L))).thenReturn(List.of());
+        when(archivedExpenseRepository.findAllById(List.of(9L)))
+                .thenReturn(List.of(ArchivedExpense.builder().id(9L).document(document).build()));
+
+        ExpenseSearchResultDto page = expenseService.searchExpenses("dinner", null, null, null, null, 20);
+
+        assertEquals(1, page.getHits().size());
+        assertSame(document, page.getHits().get(0).getExpense());
+    }
+
+    /**
+     * ❌ Test: A tampered cursor or an inverted amount range is rejected
+     */
+    @Test
+    void testSearchExpenses_InvalidArguments() {
+        assertThrows(ExpenseException.class,
+                () -> expenseService.searchExpenses("dinner", null, null, null, "not-a-cursor", 20));
+        assertThrows(ExpenseException.class,
+                () -> expenseService.searchExpenses("dinner", null, new BigDecimal("50"), new BigDecimal("10"), null, 20));
+    }
+
+    private static SearchRow searchRow(Long id, Float rank) {
+        return new SearchRow() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Float getRank() {
+                return rank;
+            }
+        };
+    }
+
+    /**
+     * ✅ Test: Filtered group listing is paged in the database, newest first with an ID tie-breaker
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetExpensesByGroup_FilteredPage() throws ExpenseException {
+        Expense expense = Expense.builder().id(5L).amount(new BigDecimal("12.00")).payer(payer).group(group).build();
+        when(groupService.isMember(10L, 1L)).thenReturn(true);
+        when(expenseRepository.findAll(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(expense)));
+        when(archivedExpenseRepository.findAll(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of()));
+
+        Page<ExpenseDto> page = expenseService.getExpensesByGroup(10L,
+                ExpenseFilterDto.builder().category(ExpenseCategory.FOOD).build(), PageRequest.of(0, 20));
+
+        assertEquals(1, page.getContent().size());
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(expenseRepository).findAll(any(Specification.class), pageable.capture());
+        assertEquals(Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id")), pageable.getValue().getSort());
+    }
+
+    /**
+     * ✅ Test: Archived expenses are merged into the group listing in the same order, and only the page is converted
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetExpensesByGroup_MergesArchive() throws ExpenseException {
+        Expense recent = Expense.builder().id(5L).amount(new BigDecimal("12.00")).payer(payer).group(group)
+                .createdAt(LocalDateTime.parse("2024-03-01T10:00:00")).build();
+        Expense older = Expense.builder().id(3L).amount(new BigDecimal("30.00")).payer(payer).group(group)
+                .createdAt(LocalDateTime.parse("2024-01-01T10:00:00")).build();
+        ExpenseDto document = ExpenseDto.builder().amount(new BigDecimal("40.00")).status(ExpenseStatus.SETTLED).build();
+        ArchivedExpense archived = ArchivedExpense.builder().id(4L).amount(new BigDecimal("40.00"))
+                .createdAt(LocalDateTime.parse("2024-02-01T10:00:00")).document(document).build();
+        when(groupService.isMember(10L, 1L)).thenReturn(true);
+        when(expenseRepository.findAll(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(recent, older), PageRequest.of(0, 2), 7));
+        when(archivedExpenseRepository.findAll(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(archived), PageRequest.of(0, 2), 1));
+
+        Page<ExpenseDto> page = expenseService.getExpensesByGroup(10L, new ExpenseFilterDto(), PageRequest.of(1, 1));
+
+        assertEquals(List.of(document), page.getContent());
+        assertEquals(8, page.getTotalElements());
+        ArgumentCaptor<Pageable> window = ArgumentCaptor.forClass(Pageable.class);
+        verify(archivedExpenseRepository).findAll(any(Specification.class), window.capture());
+        assertEquals(0, window.getValue().getPageNumber());
+        assertEquals(2, window.getValue().getPageSize());
+    }
+
+    /**
+     * ✅ Test: The archive is not queried when the filter leaves it out or asks for a status it never holds
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetExpensesByGroup_SkipsArchive() throws ExpenseException {
+        when(groupService.isMember(10L, 1L)).thenReturn(true);
+        when(expenseRepository.findAll(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of()));
+
+        expenseService.getExpensesByGroup(10L, ExpenseFilterDto.builder().includeArchived(false).build(), PageRequest.of(0, 20));
+        expenseService.getExpensesByGroup(10L, ExpenseFilterDto.builder().status(ExpenseStatus.PENDING).build(), PageRequest.of(0, 20));
+
+        verify(expenseRepository, times(2)).findAll(any(Specification.class), any(Pageable.class));
+        verifyNoInteractions(archivedExpenseRepository);
+    }
+
+    /**
+     * ❌ Test: Non-members and unindexed sort properties are rejected before querying
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetExpensesByGroup_Rejected() {
+        when(groupService.isMember(10L, 1L)).thenReturn(false);
+        assertThrows(ExpenseException.class,
+                () -> expenseService.getExpensesByGroup(10L, new ExpenseFilterDto(), PageRequest.of(0, 20)));
+
+        when(groupService.isMember(10L, 1L)).thenReturn(true);
+        assertThrows(ExpenseException.class,
+                () -> expenseService.getExpensesByGroup(10L, new ExpenseFilterDto(), PageRequest.of(0, 20, Sort.by("description"))));
+
+        verify(expenseRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+        verifyNoInteractions(archivedExpenseRepository);
+    }
+
+    /**
+     * ✅ Test: An archived expense is still found by ID, for its payer and participants only
+     */
+    @Test
+    void testGetExpenseById_FallsBackToArchive() throws ExpenseException {
+        ExpenseDto document = ExpenseDto.builder().amount(new BigDecimal("40.00")).description("Old trip").build();
+        when(expenseRepository.findById(9L)).thenReturn(Optional.empty());
+        when(archivedExpenseRepository.findById(9L)).thenReturn(Optional.of(ArchivedExpense.builder()
+                .id(9L).payerId(3L).participantIds(new Long[]{1L, 3L}).document(document).build()));
+
+        assertSame(document, expenseService.getExpenseById(9L));
+
+        when(archivedExpenseRepository.findById(9L)).thenReturn(Optional.of(ArchivedExpense.builder()
+                .id(9L).payerId(3L).participantIds(new Long[]{2L, 3L}).document(document).build()));
+        assertThrows(ExpenseException.class, () -> expenseService.getExpenseById(9L));
+    }
+}
@@ -0,0 +1,188 @@
+package com.sohamshinde.billsplit.service;
+
+import com.sohamshinde.billsplit.dto.GroupDetailDto;
+import com.sohamshinde.billsplit.dto.GroupDto;
+import com.sohamshinde.billsplit.entity.Group;
+import com.sohamshinde.billsplit.entity.User;
+import com.sohamshinde.billsplit.repository.GroupRepository;
+import com.sohamshinde.billsplit.sqlbudget.SqlStatementBudget;
+import com.sohamshinde.billsplit.sqlbudget.StatementBudgetTestSupport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * SQL statement budgets for every public {@link GroupService} operation.
+ * The fixture is a group of ten members created by {@code owner}; a lazy load per member
+ * would add ten statements and break the budget.
+ */
+class GroupServiceStatementBudgetTest extends StatementBudgetTestSupport {
+
+    @Autowired
+    private GroupService groupService;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    private User owner;
+    private List<User> members;
+    private List<User> outsiders;
+    private Long groupId;
+
+    @BeforeEach
+    void setUp() {
+        members = createUsers(10);
+        outsiders = createUsers(3);
+        owner = members.get(0);
+        groupId = saveGroup(members);
+        authenticate(owner);
+    }
+
+    private Long saveGroup(List<User> groupMembers) {
+        Group group = new Group();
+        group.setGroupName("Budget Group");
+        group.setCreatedBy(groupMembers.get(0));
+        group.setMembers(new ArrayList<>(groupMembers));
+        return groupRepository.save(group).getId();
+    }
+
+    private List<Long> ids(List<User> users) {
+        return users.stream().map(User::getId).toList();
+    }
+
+    /**
+     * ✅ Test: Loading a group reads the group and its members once each
+     */
+    @Test
+    @SqlStatementBudget(2)
+    void testFetchGroupById() throws Exception {
+        Group group = groupService.fetchGroupById(groupId);
+        assertEquals(10, group.getMembers().size());
+    }
+
+    /**
+     * ✅ Test: getGroupById has the same cost as fetchGroupById
+     */
+    @Test
+    @SqlStatementBudget(2)
+    void testGetGroupById() throws Exception {
+        groupService.getGroupById(groupId);
+    }
+
+    /**
+     * ✅ Test: Group details are the group row, the membership check and one projection of the members
+     */
+    @Test
+    @SqlStatementBudget(3)
+    void testGetGroupDetails() throws Exception {
+        GroupDetailDto group = groupService.getGroupDetails(groupId);
+        assertEquals(10, group.getMembers().size());
+    }
+
+    /**
+     * ✅ Test: Creating a group loads the creator, looks up each requested member and writes one row per member
+     */
+    @Test
+    @SqlStatementBudget(23)
+    void testCreateGroup() throws Exception {
+        GroupDto dto = new GroupDto();
+        dto.setGroupName("Created Group");
+        dto.setMemberIds(ids(members.subList(1, 10)));
+        groupService.createGroup(dto);
+    }
+
+    /**
+     * ✅ Test: Listing the user's groups is one query plus their creators
+     */
+    @Test
+    @SqlStatementBudget(3)
+    void testGetAllGroupsForAuthenticatedUser() throws Exception {
+        groupService.getAllGroupsForAuthenticatedUser();
+    }
+
+    /**
+     * ✅ Test: Group summaries come from a single aggregate query
+     */
+    @Test
+    @SqlStatementBudget(1)
+    void testGetGroupSummariesForAuthenticatedUser() throws Exception {
+        groupService.getGroupSummariesForAuthenticatedUser();
+    }
+
+    /**
+     * ✅ Test: Membership is checked with one query
+     */
+    @Test
+    @SqlStatementBudget(1)
+    void testIsMember() throws Exception {
+        groupService.isMember(groupId, owner.getId());
+    }
+
+    /**
+     * ✅ Test: A page of members costs the existence and membership checks, the page and its count
+     */
+    @Test
+    @SqlStatementBudget(4)
+    void testGetGroupMembers() throws Exception {
+        groupService.getGroupMembers(groupId, PageRequest.of(0, 5));
+    }
+
+    /**
+     * ✅ Test: Deleting a group removes its membership rows in one statement
+     */
+    @Test
+    @SqlStatementBudget(4)
+    void testDeleteGroup() throws Exception {
+        groupService.deleteGroup(groupId);
+    }
+
+    /**
+     * ✅ Test: Updating name and members writes only the membership delta
+     */
+    @Test
+    @SqlStatementBudget(7)
+    void testUpdateGroup() throws Exception {
+        List<Long> memberIds = new ArrayList<>(ids(members.subList(0, 8)));
+        memberIds.addAll(ids(outsiders));
+        GroupDto dto = new GroupDto();
+        dto.setGroupName("Renamed Group");
+        dto.setMemberIds(memberIds);
+        groupService.updateGroup(groupId, dto);
+    }
+
+    /**
+     * ✅ Test: Adding members is one insert however many are added
+     */
+    @Test
+    @SqlStatementBudget(4)
+    void testAddMembers() throws Exception {
+        groupService.addMembers(groupId, ids(outsiders));
+    }
+
+    /**
+     * ✅ Test: Removing members is one delete however many are removed
+     */
+    @Test
+    @SqlStatementBudget(3)
+    void testRemoveMembers() throws Exception {
+        groupService.removeMembers(groupId, ids(members.subList(5, 10)));
+    }
+
+    /**
+     * ✅ Test: Importing a small array of IDs is one insert batch
+     */
+    @Test
+    @SqlStatementBudget(3)
+    void testImportMembers() throws Exception {
+        String body = ids(outsiders).toString();
+        groupService.importMembers(groupId, new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -1,19 +1,34 @@
 package com.sohamshinde.billsplit.service;
 
+import com.sohamshinde.billsplit.dto.GroupDetailDto;
 import com.sohamshinde.billsplit.dto.GroupDto;
+import com.sohamshinde.billsplit.dto.GroupMemberDto;
+import com.sohamshinde.billsplit.dto.GroupSummaryDto;
+import com.sohamshinde.billsplit.dto.MemberImportResultDto;
 import com.sohamshinde.billsplit.entity.Group;
 import com.sohamshinde.billsplit.entity.User;
+import com.sohamshinde.billsplit.enums.Currency;
 import com.sohamshinde.billsplit.exceptions.GroupException;
 import com.sohamshinde.billsplit.repository.GroupRepository;
+import com.sohamshinde.billsplit.security.AuthenticatedUser;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 
 import java.util.*;
 
@@ -28,6 +43,9 @@ class GroupServiceTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
     @InjectMocks
     private GroupService groupService;
 
@@ -47,8 +65,9 @@ class GroupServiceTest {
 
         // Set up a security context with the authenticated user
         SecurityContext securityContext = mock(SecurityContext.class);
-        when(securityContext.getAuthentication()).thenReturn(new UsernamePasswordAuthenticationToken(testUser, null));
+        when(securityContext.getAuthentication()).thenReturn(new UsernamePasswordAuthenticationToken(AuthenticatedUser.from(testUser), null));
         SecurityContextHolder.setContext(securityContext);
+        when(userService.getAuthenticatedUser()).thenReturn(testUser);
 
         // Create a mock group
         testGroup = new Group();
@@ -316,33 +335,29 @@ class GroupServiceTest {
         group.setId(1L);
         group.setGroupName("Old Group");
         group.setCreatedBy(testUser);
-        group.setMembers(new ArrayList<>(Arrays.asList(testUser)));
+        User leaving = new User();
+        leaving.setId(4L);
+        group.setMembers(new ArrayList<>(Arrays.asList(testUser, leaving)));
 
         // ✅ Define the update request
         GroupDto groupDto = new GroupDto();
         groupDto.setGroupName("Updated Group");
         groupDto.setMemberIds(Arrays.asList(2L, 3L));
 
-        // ✅ Mock new members
-        User member1 = new User();
-        member1.setId(2L);
-        User member2 = new User();
-        member2.setId(3L);
-        List<User> newMembers = Arrays.asList(member1, member2);
-
         // ✅ Mock repository and service calls
         when(groupRepository.findById(1L)).thenReturn(Optional.of(group));
         when(userService.getAuthenticatedUser()).thenReturn(testUser);
-        when(userService.fetchUsersByIds(groupDto.getMemberIds())).thenReturn(newMembers);
+        when(userService.findExistingUserIds(any())).thenReturn(Arrays.asList(1L, 2L, 3L));
         when(groupRepository.save(any(Group.class))).thenAnswer(invocation -> invocation.getArgument(0)); // ✅ Ensure save() returns the updated group
 
         // ✅ Call update function
         Group updatedGroup = groupService.updateGroup(1L, groupDto);
 
-        // ✅ Assertions
+        // ✅ Assertions: only the membership difference is written, and the creator stays
         assertNotNull(updatedGroup); // ✅ Prevent NullPointerException
         assertEquals("Updated Group", updatedGroup.getGroupName());
-        assertEquals(2, updatedGroup.getMembers().size());
+        verify(groupRepository).addMembers(1L, Arrays.asList(2L, 3L));
+        verify(groupRepository).removeMembers(1L, List.of(4L));
     }
 
     @Test
@@ -415,5 +430,151 @@ class GroupServiceTest {
         assertEquals(group.getMembers(), updatedGroup.getMembers());
     }
 
+    /**
+     * ✅ Test: Adding members inserts only the requested rows
+     */
+    @Test
+    void testAddMembers_Success() {
+        Group group = new Group();
+        group.setId(1L);
+        group.setCreatedBy(testUser);
+        when(groupRepository.findById(1L)).thenReturn(Optional.of(group));
+        when(userService.findExistingUserIds(any())).thenReturn(Arrays.asList(2L, 3L));
+        when(groupRepository.addMembers(eq(1L), any())).thenReturn(2);
+
+        int added = groupService.addMembers(1L, Arrays.asList(2L, 3L, 2L));
+
+        assertEquals(2, added);
+        verify(groupRepository).addMembers(1L, Arrays.asList(2L, 3L));
+        verify(groupRepository, never()).save(any(Group.class));
+    }
+
+    /**
+     * ❌ Test: Unknown user IDs are rejected
+     */
+    @Test
+    void testAddMembers_InvalidIds() {
+        Group group = new Group();
+        group.setId(1L);
+        group.setCreatedBy(testUser);
+        when(groupRepository.findById(1L)).thenReturn(Optional.of(group));
+        when(userService.findExistingUserIds(any())).thenReturn(List.of(2L));
+
+        Exception exception = assertThrows(GroupException.class, () -> groupService.addMembers(1L, Arrays.asList(2L, 99L)));
+        assertEquals("Invalid member IDs", exception.getMessage());
+        verify(groupRepository, never()).addMembers(anyLong(), any());
+    }
+
+    /**
+     * ❌ Test: The creator cannot be removed from their group
+     */
+    @Test
+    void testRemoveMembers_Creator() {
+        Group group = new Group();
+        group.setId(1L);
+        group.setCreatedBy(testUser);
+        when(groupRepository.findById(1L)).thenReturn(Optional.of(group));
+
+        Exception exception = assertThrows(GroupException.class, () -> groupService.removeMembers(1L, List.of(1L)));
+        assertEquals("The group creator cannot be removed.", exception.getMessage());
+    }
+
+    /**
+     * ✅ Test: A streamed import is inserted in fixed-size batches
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testImportMembers_Batches() throws Exception {
+        Group group = new Group();
+        group.setId(1L);
+        group.setCreatedBy(testUser);
+        when(groupRepository.findById(1L)).thenReturn(Optional.of(group));
+        when(groupRepository.addMembers(eq(1L), any())).thenAnswer(invocation -> ((Collection<Long>) invocation.getArgument(1)).size());
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        ReflectionTestUtils.setField(groupService, "batchSize", 2);
+
+        MemberImportResultDto result = groupService.importMembers(1L,
+                new ByteArrayInputStream("[2, 3, 4, 5, 6]".getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(5, result.getReceived());
+        assertEquals(5, result.getAdded());
+        assertEquals(3, result.getBatches());
+        verify(groupRepository).addMembers(1L, List.of(6L));
+    }
+
+    /**
+     * ✅ Test: Summary rows are folded into one entry per group with per-currency balances
+     */
+    @Test
+    void testGetGroupSummaries() {
+        GroupRepository.SummaryRow inr = summaryRow(100L, "Trip", 3L, "INR", new BigDecimal("25.00"));
+        GroupRepository.SummaryRow usd = summaryRow(100L, "Trip", 3L, "USD", new BigDecimal("-4.50"));
+        GroupRepository.SummaryRow empty = summaryRow(200L, "Flat", 2L, null, null);
+        when(groupRepository.findGroupSummariesByMemberId(1L)).thenReturn(List.of(inr, usd, empty));
+
+        List<GroupSummaryDto> summaries = groupService.getGroupSummariesForAuthenticatedUser();
+
+        assertEquals(2, summaries.size());
+        assertEquals(3L, summaries.get(0).getMemberCount());
+        assertEquals(new BigDecimal("25.00"), summaries.get(0).getBalances().get(Currency.INR));
+        assertEquals(new BigDecimal("-4.50"), summaries.get(0).getBalances().get(Currency.USD));
+        assertTrue(summaries.get(1).getBalances().isEmpty());
+    }
+
+    /**
+     * ❌ Test: Non-members cannot page through a group's members
+     */
+    @Test
+    void testGetGroupMembers_NotMember() {
+        when(groupRepository.existsById(100L)).thenReturn(true);
+        when(groupRepository.isMember(100L, 1L)).thenReturn(false);
 
-}
\ No newline at end of file
+        Exception exception = assertThrows(GroupException.class, () -> groupService.getGroupMembers(100L, PageRequest.of(0, 50)));
+        assertEquals("You do not have permission to access this group.", exception.getMessage());
+        verify(groupRepository, never()).findMembers(anyLong(), any());
+    }
+
+    /**
+     * ✅ Test: Group details are built from the group row and the member projection, without touching the members collection
+     */
+    @Test
+    void testGetGroupDetails() {
+        testGroup.setCreatedBy(testUser);
+        testGroup.setMembers(null);
+        when(groupRepository.findById(100L)).thenReturn(Optional.of(testGroup));
+        when(groupRepository.isMember(100L, 1L)).thenReturn(true);
+        when(groupRepository.findMembers(eq(100L), any())).thenReturn(new PageImpl<>(List.of(
+                new GroupMemberDto(1L, "John Doe", null), new GroupMemberDto(2L, "Alice", null))));
+
+        GroupDetailDto details = groupService.getGroupDetails(100L);
+
+        assertEquals("Test Group", details.getGroupName());
+        assertEquals(1L, details.getCreatedBy().getId());
+        assertEquals(2, details.getMembers().size());
+    }
+
+    /**
+     * ❌ Test: Non-members cannot read group details
+     */
+    @Test
+    void testGetGroupDetails_NotMember() {
+        testGroup.setCreatedBy(member1);
+        when(groupRepository.findById(100L)).thenReturn(Optional.of(testGroup));
+        when(groupRepository.isMember(100L, 1L)).thenReturn(false);
+
+        Exception exception = assertThrows(GroupException.class, () -> groupService.getGroupDetails(100L));
+        assertEquals("You do not have permission to access this group.", exception.getMessage());
+        verify(groupRepository, never()).findMembers(anyLong(), any());
+    }
+
+    private GroupRepository.SummaryRow summaryRow(Long id, String name, Long memberCount, String currency, BigDecimal balance) {
+        GroupRepository.SummaryRow row = mock(GroupRepository.SummaryRow.class);
+        when(row.getId()).thenReturn(id);
+        when(row.getGroupName()).thenReturn(name);
+        when(row.getMemberCount()).thenReturn(memberCount);
+        when(row.getCurrency()).thenReturn(currency);
+        when(row.getBalance()).thenReturn(balance);
+        return row;
+    }
+}
@@ -0,0 +1,125 @@
+package com.sohamshinde.billsplit.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sohamshinde.billsplit.exceptions.ExpenseException;
+import com.sohamshinde.billsplit.exceptions.IdempotencyConflictException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class IdempotencyServiceTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private UserService userService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private IdempotencyService idempotencyService;
+
+    private static final String REDIS_KEY = "idempotency:expense:1:abc";
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        when(userService.getAuthenticatedUserId()).thenReturn(1L);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+
+        idempotencyService = new IdempotencyService(redisTemplate, objectMapper, userService);
+    }
+
+    /**
+     * ✅ Test: The first request claims the key, runs once and stores its response
+     */
+    @Test
+    void testExecute_FirstRequestRunsAndStores() {
+        when(valueOperations.setIfAbsent(eq(REDIS_KEY), anyString(), any(Duration.class))).thenReturn(true);
+        AtomicInteger runs = new AtomicInteger();
+
+        IdempotencyService.StoredResponse response = idempotencyService.execute("expense", "abc", Map.of("amount", 10), () -> {
+            runs.incrementAndGet();
+            return new IdempotencyService.StoredResponse(200, "Expense added successfully");
+        });
+
+        assertEquals(1, runs.get());
+        assertEquals("Expense added successfully", response.body());
+
+        ArgumentCaptor<String> stored = ArgumentCaptor.forClass(String.class);
+        verify(valueOperations).set(eq(REDIS_KEY), stored.capture(), eq(Duration.ofHours(24)));
+        assertTrue(stored.getValue().contains("\"DONE\""));
+    }
+
+    /**
+     * ✅ Test: A retry gets the stored response without running the action
+     */
+    @Test
+    void testExecute_RetryReplaysStoredResponse() throws Exception {
+        Map<String, Integer> request = Map.of("amount", 10);
+        when(valueOperations.setIfAbsent(eq(REDIS_KEY), anyString(), any(Duration.class))).thenReturn(true, false);
+        AtomicInteger runs = new AtomicInteger();
+        IdempotencyService.IdempotentAction<RuntimeException> action = () -> {
+            runs.incrementAndGet();
+            return new IdempotencyService.StoredResponse(200, "Expense added successfully");
+        };
+
+        idempotencyService.execute("expense", "abc", request, action);
+        ArgumentCaptor<String> stored = ArgumentCaptor.forClass(String.class);
+        verify(valueOperations).set(eq(REDIS_KEY), stored.capture(), any(Duration.class));
+        when(valueOperations.get(REDIS_KEY)).thenReturn(stored.getValue());
+
+        IdempotencyService.StoredResponse replayed = idempotencyService.execute("expense", "abc", request, action);
+
+        assertEquals(1, runs.get());
+        assertEquals(200, replayed.status());
+        assertEquals("Expense added successfully", replayed.body());
+    }
+
+    /**
+     * ❌ Test: Reusing a key with a different payload is a conflict
+     */
+    @Test
+    void testExecute_DifferentPayloadConflicts() {
+        when(valueOperations.setIfAbsent(eq(REDIS_KEY), anyString(), any(Duration.class))).thenReturn(true, false);
+
+        idempotencyService.execute("expense", "abc", Map.of("amount", 10),
+                () -> new IdempotencyService.StoredResponse(200, "Expense added successfully"));
+        ArgumentCaptor<String> stored = ArgumentCaptor.forClass(String.class);
+        verify(valueOperations).set(eq(REDIS_KEY), stored.capture(), any(Duration.class));
+        when(valueOperations.get(REDIS_KEY)).thenReturn(stored.getValue());
+
+        assertThrows(IdempotencyConflictException.class, () -> idempotencyService.execute("expense", "abc", Map.of("amount", 99),
+                () -> new IdempotencyService.StoredResponse(200, "Expense added successfully")));
+    }
+
+    /**
+     * ❌ Test: A failed request releases the key so the client can retry
+     */
+    @Test
+    void testExecute_FailureReleasesKey() {
+        when(valueOperations.setIfAbsent(eq(REDIS_KEY), anyString(), any(Duration.class))).thenReturn(true);
+
+        assertThrows(ExpenseException.class, () -> idempotencyService.execute("expense", "abc", Map.of("amount", 10), () -> {
+            throw new ExpenseException("Payer not found");
+        }));
+
+        verify(redisTemplate, times(1)).delete(REDIS_KEY);
+        verify(valueOperations, never()).set(anyString(), anyString(), any(Duration.class));
+    }
+}
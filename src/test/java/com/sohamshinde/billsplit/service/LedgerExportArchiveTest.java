@@ -0,0 +1,101 @@
+package com.sohamshinde.billsplit.service;
+
+import com.sohamshinde.billsplit.dto.ExpenseDto;
+import com.sohamshinde.billsplit.entity.Group;
+import com.sohamshinde.billsplit.entity.User;
+import com.sohamshinde.billsplit.enums.Currency;
+import com.sohamshinde.billsplit.enums.ExpenseCategory;
+import com.sohamshinde.billsplit.enums.ExpenseStatus;
+import com.sohamshinde.billsplit.enums.SplitType;
+import com.sohamshinde.billsplit.repository.GroupRepository;
+import com.sohamshinde.billsplit.sqlbudget.StatementBudgetTestSupport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Archives a settled expense with {@link ExpenseArchiveService} and exports it with {@link LedgerExportService},
+ * against Postgres, to check the ledgers still list it with one row per participant.
+ */
+class LedgerExportArchiveTest extends StatementBudgetTestSupport {
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private ExpenseArchiveService expenseArchiveService;
+
+    @Autowired
+    private LedgerExportService ledgerExportService;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * ✅ Test: An archived expense is exported from its document, in both the group and the participant's ledger
+     */
+    @Test
+    void testArchivedExpenseIsExported() throws Exception {
+        List<User> members = createUsers(2);
+        User payer = members.get(0);
+        User friend = members.get(1);
+
+        Group group = new Group();
+        group.setGroupName("Export Archive Group");
+        group.setCreatedBy(payer);
+        group.setMembers(new ArrayList<>(members));
+        Long groupId = groupRepository.save(group).getId();
+
+        authenticate(payer);
+        expenseService.addExpense(ExpenseDto.builder()
+                .amount(new BigDecimal("80.00"))
+                .currency(Currency.INR)
+                .description("Old cabin trip")
+                .payerId(payer.getId())
+                .groupId(groupId)
+                .splitType(SplitType.EQUAL)
+                .status(ExpenseStatus.PENDING)
+                .category(ExpenseCategory.TRAVEL)
+                .build());
+        Long expenseId = jdbcTemplate.queryForObject("SELECT id FROM expense WHERE group_id = ?", Long.class, groupId);
+
+        // Settled long before anything else in the shared database, so this batch takes only this expense
+        jdbcTemplate.update("UPDATE expense SET status = 'SETTLED', updated_at = '2000-01-01' WHERE group_id = ?", groupId);
+        assertEquals(1, expenseArchiveService.archiveBatch(LocalDateTime.parse("2000-01-02T00:00:00")));
+
+        String[] groupLedger = export(ledgerExportService.exportGroupLedger(groupId));
+        assertEquals(3, groupLedger.length);
+        assertEquals(LedgerExportService.HEADER, groupLedger[0]);
+        String row = expenseId + "," + groupId + ",Old cabin trip,TRAVEL,INR,80.00,SETTLED,EQUAL," + payer.getId() + ",";
+        assertEquals(row + payer.getId() + ",40.00", withoutCreatedAt(groupLedger[1]));
+        assertEquals(row + friend.getId() + ",40.00", withoutCreatedAt(groupLedger[2]));
+
+        authenticate(friend);
+        String[] friendLedger = export(ledgerExportService.exportUserLedger());
+        assertEquals(3, friendLedger.length);
+    }
+
+    private static String[] export(StreamingResponseBody body) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+        return out.toString(StandardCharsets.UTF_8).split("\n");
+    }
+
+    private static String withoutCreatedAt(String line) {
+        String[] fields = line.split(",", 3);
+        return fields[0] + "," + fields[2];
+    }
+}
@@ -0,0 +1,111 @@
+package com.sohamshinde.billsplit.service;
+
+import com.sohamshinde.billsplit.entity.User;
+import com.sohamshinde.billsplit.exceptions.GroupException;
+import com.sohamshinde.billsplit.security.AuthenticatedUser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class LedgerExportServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private GroupService groupService;
+
+    private LedgerExportService ledgerExportService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        ledgerExportService = new LedgerExportService(jdbcTemplate, transactionManager, groupService);
+
+        User user = new User();
+        user.setId(1L);
+        SecurityContext securityContext = mock(SecurityContext.class);
+        when(securityContext.getAuthentication()).thenReturn(new UsernamePasswordAuthenticationToken(AuthenticatedUser.from(user), null));
+        SecurityContextHolder.setContext(securityContext);
+    }
+
+    /**
+     * ✅ Test: Each streamed row becomes one CSV line, after a header written before the single ordered query
+     */
+    @Test
+    void testExportGroupLedger_StreamsRows() throws Exception {
+        when(groupService.isMember(10L, 1L)).thenReturn(true);
+        ResultSet row = mock(ResultSet.class);
+        when(row.getLong(1)).thenReturn(5L);
+        when(row.getTimestamp(2)).thenReturn(Timestamp.valueOf(LocalDateTime.of(2024, 3, 1, 20, 15)));
+        when(row.getObject(3)).thenReturn(10L);
+        when(row.getString(4)).thenReturn("Dinner, Goa");
+        when(row.getObject(5)).thenReturn("FOOD");
+        when(row.getObject(6)).thenReturn("INR");
+        when(row.getObject(7)).thenReturn(new BigDecimal("900.00"));
+        when(row.getObject(8)).thenReturn("PENDING");
+        when(row.getObject(9)).thenReturn("EQUAL");
+        when(row.getObject(10)).thenReturn(1L);
+        when(row.getObject(11)).thenReturn(2L);
+        when(row.getObject(12)).thenReturn(new BigDecimal("300.00"));
+        doAnswer(invocation -> {
+            ((RowCallbackHandler) invocation.getArgument(1)).processRow(row);
+            return null;
+        }).doNothing().when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ledgerExportService.exportGroupLedger(10L).writeTo(out);
+
+        assertEquals(LedgerExportService.HEADER + "\n" +
+                        "5,2024-03-01T20:15,10,\"Dinner, Goa\",FOOD,INR,900.00,PENDING,EQUAL,1,2,300.00\n",
+                out.toString(StandardCharsets.UTF_8));
+        verify(jdbcTemplate, times(1)).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+        verify(groupService, never()).fetchGroupById(any());
+    }
+
+    /**
+     * ❌ Test: Non-members are rejected before anything is streamed
+     */
+    @Test
+    void testExportGroupLedger_NotMember() {
+        when(groupService.isMember(10L, 1L)).thenReturn(false);
+
+        assertThrows(GroupException.class, () -> ledgerExportService.exportGroupLedger(10L));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    /**
+     * ✅ Test: Free text is quoted and formula-like values are neutralized
+     */
+    @Test
+    void testCsvField() {
+        assertEquals("Taxi", LedgerExportService.csvField("Taxi"));
+        assertEquals("\"say \"\"hi\"\"\"", LedgerExportService.csvField("say \"hi\""));
+        assertEquals("'=SUM(A1)", LedgerExportService.csvField("=SUM(A1)"));
+        assertEquals("", LedgerExportService.csvField(null));
+    }
+}
@@ -0,0 +1,210 @@
+package com.sohamshinde.billsplit.service;
+
+import com.sohamshinde.billsplit.dto.RecurringExpenseDto;
+import com.sohamshinde.billsplit.entity.Expense;
+import com.sohamshinde.billsplit.entity.Group;
+import com.sohamshinde.billsplit.entity.RecurringExpense;
+import com.sohamshinde.billsplit.entity.User;
+import com.sohamshinde.billsplit.enums.Currency;
+import com.sohamshinde.billsplit.enums.ExpenseCategory;
+import com.sohamshinde.billsplit.enums.ExpenseStatus;
+import com.sohamshinde.billsplit.enums.SplitType;
+import com.sohamshinde.billsplit.exceptions.ExpenseException;
+import com.sohamshinde.billsplit.repository.ExpenseRepository;
+import com.sohamshinde.billsplit.repository.RecurringExpenseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RecurringExpenseServiceTest {
+
+    @Mock
+    private RecurringExpenseRepository recurringExpenseRepository;
+
+    @Mock
+    private ExpenseRepository expenseRepository;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private GroupService groupService;
+
+    @Mock
+    private BalanceService balanceService;
+
+    @InjectMocks
+    private RecurringExpenseService recurringExpenseService;
+
+    private User payer, participant;
+    private Group group;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        ReflectionTestUtils.setField(recurringExpenseService, "batchSize", 100);
+        ReflectionTestUtils.setField(recurringExpenseService, "maxCatchUp", 3);
+
+        payer = new User();
+        payer.setId(1L);
+
+        participant = new User();
+        participant.setId(2L);
+
+        group = new Group();
+        group.setId(10L);
+        group.setMembers(Arrays.asList(payer, participant));
+
+        when(userService.getAuthenticatedUser()).thenReturn(payer);
+        when(userService.getAuthenticatedUserId()).thenReturn(1L);
+        when(userService.fetchUserById(1L)).thenReturn(payer);
+        when(userService.fetchUserById(2L)).thenReturn(participant);
+        when(groupService.fetchGroupById(10L)).thenReturn(group);
+        when(recurringExpenseRepository.save(any(RecurringExpense.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    private RecurringExpense monthlyRent(LocalDateTime nextRunAt) {
+        return RecurringExpense.builder()
+                .id(5L)
+                .amount(new BigDecimal("1000.00"))
+                .currency(Currency.INR)
+                .description("Rent")
+                .payer(payer)
+                .group(group)
+                .splitType(SplitType.EQUAL)
+                .category(ExpenseCategory.UTILITIES)
+                .cronExpression("0 0 9 1 * *")
+                .nextRunAt(nextRunAt)
+                .createdBy(payer)
+                .build();
+    }
+
+    /**
+     * ✅ Test: Creating a template computes the first run from the cron expression
+     */
+    @Test
+    void testCreateTemplate_ComputesNextRun() throws ExpenseException {
+        RecurringExpenseDto dto = RecurringExpenseDto.builder()
+                .amount(new BigDecimal("1000.00"))
+                .currency(Currency.INR)
+                .payerId(1L)
+                .groupId(10L)
+                .splitType(SplitType.EQUAL)
+                .category(ExpenseCategory.UTILITIES)
+                .cronExpression("0 0 9 1 * *")
+                .startAt(LocalDateTime.of(2025, 3, 15, 0, 0))
+                .build();
+
+        RecurringExpenseDto created = recurringExpenseService.createTemplate(dto);
+
+        assertEquals(LocalDateTime.of(2025, 4, 1, 9, 0), created.getNextRunAt());
+        assertTrue(created.getActive());
+        assertEquals(10L, created.getGroupId());
+    }
+
+    /**
+     * ❌ Test: An invalid cron expression is rejected
+     */
+    @Test
+    void testCreateTemplate_InvalidCron() {
+        RecurringExpenseDto dto = RecurringExpenseDto.builder()
+                .amount(new BigDecimal("10.00"))
+                .payerId(1L)
+                .groupId(10L)
+                .splitType(SplitType.EQUAL)
+                .cronExpression("every month")
+                .build();
+
+        ExpenseException exception = assertThrows(ExpenseException.class, () -> recurringExpenseService.createTemplate(dto));
+        assertEquals("Invalid cron expression: every month", exception.getMessage());
+        verify(recurringExpenseRepository, never()).save(any());
+    }
+
+    /**
+     * ✅ Test: A due template materializes one occurrence and advances its next run
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testMaterializeDueBatch_CreatesOccurrence() {
+        RecurringExpense template = monthlyRent(LocalDateTime.of(2025, 4, 1, 9, 0));
+        when(recurringExpenseRepository.lockDueTemplates(any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of(template));
+
+        int handled = recurringExpenseService.materializeDueBatch(LocalDateTime.of(2025, 4, 1, 10, 0));
+
+        ArgumentCaptor<List<Expense>> captor = ArgumentCaptor.forClass(List.class);
+        verify(expenseRepository).saveAll(captor.capture());
+        List<Expense> occurrences = captor.getValue();
+
+        assertEquals(1, handled);
+        assertEquals(1, occurrences.size());
+        assertEquals(ExpenseStatus.PENDING, occurrences.get(0).getStatus());
+        assertEquals(5L, occurrences.get(0).getRecurringExpenseId());
+        assertEquals(LocalDateTime.of(2025, 5, 1, 9, 0), template.getNextRunAt());
+        verify(balanceService, times(1)).applyExpense(occurrences.get(0));
+    }
+
+    /**
+     * ✅ Test: Catch-up after downtime is capped per batch
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testMaterializeDueBatch_CatchUpIsCapped() {
+        RecurringExpense template = monthlyRent(LocalDateTime.of(2025, 1, 1, 9, 0));
+        when(recurringExpenseRepository.lockDueTemplates(any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of(template));
+
+        recurringExpenseService.materializeDueBatch(LocalDateTime.of(2025, 12, 15, 0, 0));
+
+        ArgumentCaptor<List<Expense>> captor = ArgumentCaptor.forClass(List.class);
+        verify(expenseRepository).saveAll(captor.capture());
+
+        assertEquals(3, captor.getValue().size());
+        assertEquals(LocalDateTime.of(2025, 4, 1, 9, 0), template.getNextRunAt()); // Remaining months follow in later batches
+    }
+
+    /**
+     * ✅ Test: Occurrences that already exist are not inserted again
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testMaterializeDueBatch_SkipsExistingOccurrence() {
+        LocalDateTime occurrence = LocalDateTime.of(2025, 4, 1, 9, 0);
+        RecurringExpense template = monthlyRent(occurrence);
+        when(recurringExpenseRepository.lockDueTemplates(any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of(template));
+        when(expenseRepository.existsByRecurringExpenseIdAndOccurrenceAt(5L, occurrence)).thenReturn(true);
+
+        recurringExpenseService.materializeDueBatch(LocalDateTime.of(2025, 4, 2, 0, 0));
+
+        ArgumentCaptor<List<Expense>> captor = ArgumentCaptor.forClass(List.class);
+        verify(expenseRepository).saveAll(captor.capture());
+
+        assertTrue(captor.getValue().isEmpty());
+        assertEquals(LocalDateTime.of(2025, 5, 1, 9, 0), template.getNextRunAt());
+    }
+
+    /**
+     * ❌ Test: Only the creator can stop a recurring expense
+     */
+    @Test
+    void testDeactivateTemplate_NotCreator() {
+        RecurringExpense template = monthlyRent(LocalDateTime.now());
+        template.setCreatedBy(participant);
+        when(recurringExpenseRepository.findById(5L)).thenReturn(Optional.of(template));
+
+        ExpenseException exception = assertThrows(ExpenseException.class, () -> recurringExpenseService.deactivateTemplate(5L));
+        assertEquals("You do not have permission to stop this recurring expense.", exception.getMessage());
+        assertTrue(template.isActive());
+    }
+}
@@ -0,0 +1,138 @@
+package com.sohamshinde.billsplit.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RedisVerificationTokenStoreTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private VerificationTokenStore legacyStore;
+
+    @Mock
+    private Supplier<LocalDateTime> legacyExpiry;
+
+    private RedisVerificationTokenStore tokenStore;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(legacyExpiry.get()).thenReturn(LocalDateTime.now().plusHours(12));
+
+        tokenStore = new RedisVerificationTokenStore(redisTemplate, legacyStore, legacyExpiry);
+    }
+
+    /**
+     * ✅ Test: A token is stored with a TTL that ends when it expires
+     */
+    @Test
+    void testSave_SetsTtlFromExpiry() {
+        tokenStore.save("abc", 7L, LocalDateTime.now().plusHours(24));
+
+        ArgumentCaptor<Duration> ttl = ArgumentCaptor.forClass(Duration.class);
+        verify(valueOperations).set(eq("verification:abc"), eq("7"), ttl.capture());
+        assertTrue(ttl.getValue().compareTo(Duration.ofHours(23)) > 0);
+        assertTrue(ttl.getValue().compareTo(Duration.ofHours(24)) <= 0);
+    }
+
+    /**
+     * ❌ Test: A token that is already expired is not stored
+     */
+    @Test
+    void testSave_SkipsExpiredToken() {
+        tokenStore.save("abc", 7L, LocalDateTime.now().minusMinutes(1));
+
+        verifyNoInteractions(valueOperations);
+    }
+
+    /**
+     * ✅ Test: Consuming a token reads and deletes it in one call, without touching the legacy table
+     */
+    @Test
+    void testConsume_GetsAndDeletes() {
+        when(valueOperations.getAndDelete("verification:abc")).thenReturn("7");
+
+        assertEquals(Optional.of(7L), tokenStore.consume("abc"));
+        verifyNoInteractions(legacyStore);
+    }
+
+    /**
+     * ✅ Test: Tokens missing from Redis are looked up in the legacy store
+     */
+    @Test
+    void testConsume_FallsBackToLegacyStore() {
+        when(valueOperations.getAndDelete("verification:old")).thenReturn(null);
+        when(legacyStore.consume("old")).thenReturn(Optional.of(3L));
+
+        assertEquals(Optional.of(3L), tokenStore.consume("old"));
+    }
+
+    /**
+     * ✅ Test: The last legacy expiry is looked up once, not on every miss
+     */
+    @Test
+    void testConsume_LegacyExpiryLookedUpOnce() {
+        when(valueOperations.getAndDelete(anyString())).thenReturn(null);
+        when(legacyStore.consume(anyString())).thenReturn(Optional.empty());
+
+        tokenStore.consume("one");
+        tokenStore.consume("two");
+
+        verify(legacyExpiry, times(1)).get();
+        verify(legacyStore, times(2)).consume(anyString());
+    }
+
+    /**
+     * ❌ Test: Once every legacy token has expired the table is no longer consulted
+     */
+    @Test
+    void testConsume_NoFallbackAfterLegacyTokensExpired() {
+        when(valueOperations.getAndDelete("verification:old")).thenReturn(null);
+        when(legacyExpiry.get()).thenReturn(LocalDateTime.now().minusMinutes(1));
+
+        assertTrue(tokenStore.consume("old").isEmpty());
+        verifyNoInteractions(legacyStore);
+    }
+
+    /**
+     * ❌ Test: An empty legacy table ends the fallback at once
+     */
+    @Test
+    void testConsume_NoFallbackWhenLegacyTableEmpty() {
+        when(valueOperations.getAndDelete("verification:old")).thenReturn(null);
+        when(legacyExpiry.get()).thenReturn(null);
+
+        assertTrue(tokenStore.consume("old").isEmpty());
+        verifyNoInteractions(legacyStore);
+    }
+
+    /**
+     * ❌ Test: Without a legacy store an unknown token is rejected
+     */
+    @Test
+    void testConsume_UnknownTokenWithoutFallback() {
+        when(valueOperations.getAndDelete("verification:missing")).thenReturn(null);
+
+        assertTrue(new RedisVerificationTokenStore(redisTemplate, null, legacyExpiry).consume("missing").isEmpty());
+        verifyNoInteractions(legacyExpiry);
+    }
+}
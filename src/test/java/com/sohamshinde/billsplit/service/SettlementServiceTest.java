@@ -0,0 +1,243 @@
+package com.sohamshinde.billsplit.service;
+
+import com.sohamshinde.billsplit.dto.SettlementDto;
+import com.sohamshinde.billsplit.entity.Group;
+import com.sohamshinde.billsplit.entity.GroupBalance;
+import com.sohamshinde.billsplit.entity.Settlement;
+import com.sohamshinde.billsplit.entity.SettlementBatch;
+import com.sohamshinde.billsplit.entity.User;
+import com.sohamshinde.billsplit.enums.Currency;
+import com.sohamshinde.billsplit.enums.ExpenseStatus;
+import com.sohamshinde.billsplit.exceptions.IdempotencyConflictException;
+import com.sohamshinde.billsplit.exceptions.SettlementException;
+import com.sohamshinde.billsplit.repository.ExpenseRepository;
+import com.sohamshinde.billsplit.repository.GroupBalanceRepository;
+import com.sohamshinde.billsplit.repository.SettlementBatchRepository;
+import com.sohamshinde.billsplit.repository.SettlementRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SettlementServiceTest {
+
+    @Mock
+    private SettlementRepository settlementRepository;
+
+    @Mock
+    private SettlementBatchRepository settlementBatchRepository;
+
+    @Mock
+    private GroupBalanceRepository groupBalanceRepository;
+
+    @Mock
+    private ExpenseRepository expenseRepository;
+
+    @Mock
+    private GroupService groupService;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private BalanceService balanceService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private SettlementService settlementService;
+
+    private User alice, bob, carol;
+    private Group group;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        alice = new User();
+        alice.setId(1L);
+        bob = new User();
+        bob.setId(2L);
+        carol = new User();
+        carol.setId(3L);
+
+        group = new Group();
+        group.setId(10L);
+        group.setMembers(Arrays.asList(alice, bob, carol));
+
+        when(userService.getAuthenticatedUser()).thenReturn(alice);
+        when(groupService.fetchGroupById(10L)).thenReturn(group);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        when(settlementRepository.saveAndFlush(any(Settlement.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    private SettlementDto alicePaysBob(String amount) {
+        return SettlementDto.builder()
+                .groupId(10L)
+                .payerId(1L)
+                .payeeId(2L)
+                .amount(new BigDecimal(amount))
+                .currency(Currency.INR)
+                .build();
+    }
+
+    /**
+     * ✅ Test: Recording a settlement updates balances
+     */
+    @Test
+    void testRecordSettlement_Success() {
+        SettlementDto result = settlementService.recordSettlement(alicePaysBob("25.00"), "key-1");
+
+        assertEquals(new BigDecimal("25.00"), result.getAmount());
+        verify(settlementRepository, times(1)).saveAndFlush(any(Settlement.class));
+        verify(balanceService, times(1)).applySettlement(any(Settlement.class));
+    }
+
+    /**
+     * ✅ Test: A retried request with the same key returns the original settlement
+     */
+    @Test
+    void testRecordSettlement_ReplaysExistingKey() {
+        Settlement existing = Settlement.builder()
+                .id(7L).group(group).payer(alice).payee(bob).createdBy(alice)
+                .amount(new BigDecimal("25.00")).currency(Currency.INR).idempotencyKey("key-1")
+                .build();
+        when(settlementRepository.findByIdempotencyKey("key-1")).thenReturn(Optional.of(existing));
+
+        SettlementDto result = settlementService.recordSettlement(alicePaysBob("25.00"), "key-1");
+
+        assertEquals(7L, result.getId());
+        verify(settlementRepository, never()).saveAndFlush(any());
+        verify(balanceService, never()).applySettlement(any());
+    }
+
+    /**
+     * ❌ Test: Reusing a key for a different payload is rejected
+     */
+    @Test
+    void testRecordSettlement_KeyReusedWithDifferentPayload() {
+        Settlement existing = Settlement.builder()
+                .id(7L).group(group).payer(alice).payee(bob).createdBy(alice)
+                .amount(new BigDecimal("25.00")).currency(Currency.INR).idempotencyKey("key-1")
+                .build();
+        when(settlementRepository.findByIdempotencyKey("key-1")).thenReturn(Optional.of(existing));
+
+        assertThrows(IdempotencyConflictException.class, () -> settlementService.recordSettlement(alicePaysBob("30.00"), "key-1"));
+    }
+
+    /**
+     * ❌ Test: Payer and payee must differ
+     */
+    @Test
+    void testRecordSettlement_SamePayerAndPayee() {
+        SettlementDto dto = alicePaysBob("10.00");
+        dto.setPayeeId(1L);
+
+        Exception exception = assertThrows(SettlementException.class, () -> settlementService.recordSettlement(dto, null));
+        assertEquals("Payer and payee must be different members", exception.getMessage());
+    }
+
+    /**
+     * ✅ Test: Greedy matching produces the minimal transfers with exact totals
+     */
+    @Test
+    void testMinimalTransfers() {
+        List<GroupBalance> balances = List.of(
+                new GroupBalance(1L, 10L, 1L, Currency.INR, new BigDecimal("60.00")),
+                new GroupBalance(2L, 10L, 2L, Currency.INR, new BigDecimal("-40.00")),
+                new GroupBalance(3L, 10L, 3L, Currency.INR, new BigDecimal("-20.00"))
+        );
+
+        List<SettlementService.Transfer> transfers = SettlementService.minimalTransfers(balances);
+
+        assertEquals(2, transfers.size());
+        assertEquals(new SettlementService.Transfer(2L, 1L, new BigDecimal("40.00")), transfers.get(0));
+        assertEquals(new SettlementService.Transfer(3L, 1L, new BigDecimal("20.00")), transfers.get(1));
+    }
+
+    /**
+     * ✅ Test: Settling a group zeroes balances and marks expenses settled in one bulk update
+     */
+    @Test
+    void testSettleGroup() {
+        GroupBalance aliceBalance = new GroupBalance(1L, 10L, 1L, Currency.INR, new BigDecimal("30.00"));
+        GroupBalance bobBalance = new GroupBalance(2L, 10L, 2L, Currency.INR, new BigDecimal("-30.00"));
+        when(groupBalanceRepository.lockAllByGroupId(10L)).thenReturn(List.of(aliceBalance, bobBalance));
+
+        List<SettlementDto> transfers = settlementService.settleGroup(10L, "settle-1");
+
+        assertEquals(1, transfers.size());
+        assertEquals(2L, transfers.get(0).getPayerId());
+        assertEquals(0, aliceBalance.getBalance().signum());
+        assertEquals(0, bobBalance.getBalance().signum());
+        verify(expenseRepository, times(1)).updateStatusForGroup(eq(10L), eq(ExpenseStatus.SETTLED), any(LocalDateTime.class));
+        verify(settlementBatchRepository, times(1)).saveAndFlush(any(SettlementBatch.class));
+    }
+
+    private Settlement batchTransfer() {
+        return Settlement.builder()
+                .id(8L).group(group).payer(bob).payee(alice).createdBy(alice)
+                .amount(new BigDecimal("30.00")).currency(Currency.INR).batchKey("settle-1")
+                .build();
+    }
+
+    /**
+     * ✅ Test: A retried settle-all returns the transfers of the first run without touching balances
+     */
+    @Test
+    void testSettleGroup_ReplaysExistingBatch() {
+        SettlementBatch batch = SettlementBatch.builder().id(1L).batchKey("settle-1").groupId(10L).createdBy(1L).build();
+        when(settlementBatchRepository.findByBatchKey("settle-1")).thenReturn(Optional.of(batch));
+        when(settlementRepository.findAllByBatchKeyOrderById("settle-1")).thenReturn(List.of(batchTransfer()));
+
+        List<SettlementDto> transfers = settlementService.settleGroup(10L, "settle-1");
+
+        assertEquals(1, transfers.size());
+        assertEquals(8L, transfers.get(0).getId());
+        verify(groupBalanceRepository, never()).lockAllByGroupId(any());
+        verify(expenseRepository, never()).updateStatusForGroup(any(), any(), any());
+    }
+
+    /**
+     * ✅ Test: A concurrent settle-all that loses the race on the batch key replays the winner's transfers
+     */
+    @Test
+    void testSettleGroup_ConcurrentRetryReplaysWinner() {
+        SettlementBatch batch = SettlementBatch.builder().id(1L).batchKey("settle-1").groupId(10L).createdBy(1L).build();
+        when(settlementBatchRepository.findByBatchKey("settle-1")).thenReturn(Optional.empty(), Optional.of(batch));
+        when(settlementBatchRepository.saveAndFlush(any(SettlementBatch.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicate key value violates unique constraint"));
+        when(settlementRepository.findAllByBatchKeyOrderById("settle-1")).thenReturn(List.of(batchTransfer()));
+
+        List<SettlementDto> transfers = settlementService.settleGroup(10L, "settle-1");
+
+        assertEquals(1, transfers.size());
+        assertEquals(8L, transfers.get(0).getId());
+        verify(groupBalanceRepository, never()).lockAllByGroupId(any());
+    }
+
+    /**
+     * ❌ Test: A batch key reused for another group is rejected
+     */
+    @Test
+    void testSettleGroup_KeyReusedForOtherGroup() {
+        SettlementBatch batch = SettlementBatch.builder().id(1L).batchKey("settle-1").groupId(11L).createdBy(1L).build();
+        when(settlementBatchRepository.findByBatchKey("settle-1")).thenReturn(Optional.of(batch));
+
+        assertThrows(IdempotencyConflictException.class, () -> settlementService.settleGroup(10L, "settle-1"));
+    }
+}
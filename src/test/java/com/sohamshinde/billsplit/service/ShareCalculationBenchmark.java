@@ -0,0 +1,72 @@
+package com.sohamshinde.billsplit.service;
+
+import com.sohamshinde.billsplit.entity.User;
+import com.sohamshinde.billsplit.enums.SplitType;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Times the sequential and fork/join share paths of every split type over growing participant counts,
+ * to pick {@code expense.parallel.min-participants}. EQUAL has no fork/join path, so its two columns show
+ * the noise floor. Not a test; run the main method directly.
+ */
+public class ShareCalculationBenchmark {
+
+    private static final int[] SIZES = {1_000, 5_000, 10_000, 20_000, 50_000, 100_000, 200_000};
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+
+    public static void main(String[] args) throws Exception {
+        System.out.printf("cores=%d%n", Runtime.getRuntime().availableProcessors());
+
+        for (SplitType splitType : SplitType.values()) {
+            System.out.printf("%n%s%n%10s %14s %14s %8s%n", splitType, "size", "sequential ms", "parallel ms", "speedup");
+
+            Integer crossover = null;
+            for (int size : SIZES) {
+                List<User> users = new ArrayList<>(size);
+                Map<Long, BigDecimal> shares = new HashMap<>();
+                BigDecimal share = splitType == SplitType.PERCENTAGE
+                        ? BigDecimal.valueOf(100).divide(BigDecimal.valueOf(size))
+                        : new BigDecimal("3.17");
+                for (long id = 1; id <= size; id++) {
+                    User user = new User();
+                    user.setId(id);
+                    users.add(user);
+                    shares.put(id, share);
+                }
+                BigDecimal total = BigDecimal.valueOf(size).multiply(new BigDecimal("3.17"));
+                Map<Long, BigDecimal> requested = splitType == SplitType.EQUAL ? null : shares;
+
+                double sequential = time(() -> ExpenseService.calculateShares(splitType, total, users, requested, Integer.MAX_VALUE));
+                double parallel = time(() -> ExpenseService.calculateShares(splitType, total, users, requested, 1));
+                System.out.printf("%10d %14.2f %14.2f %7.2fx%n", size, sequential, parallel, sequential / parallel);
+
+                if (crossover == null && parallel < sequential) {
+                    crossover = size;
+                }
+            }
+            System.out.println(crossover != null ? "parallel path wins from " + crossover + " participants" : "parallel path never won");
+        }
+    }
+
+    private static double time(Calculation calculation) throws Exception {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            calculation.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            calculation.run();
+        }
+        return (System.nanoTime() - start) / 1e6 / MEASURED_ROUNDS;
+    }
+
+    @FunctionalInterface
+    private interface Calculation {
+        Object run() throws Exception;
+    }
+}
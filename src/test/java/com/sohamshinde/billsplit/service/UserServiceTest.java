@@ -3,14 +3,13 @@ package com.sohamshinde.billsplit.service;
 import com.sohamshinde.billsplit.dto.UserRegistrationDto;
 import com.sohamshinde.billsplit.dto.UserUpdateDto;
 import com.sohamshinde.billsplit.entity.User;
-import com.sohamshinde.billsplit.entity.VerificationToken;
 import com.sohamshinde.billsplit.enums.Role;
 import com.sohamshinde.billsplit.exceptions.InvalidTokenException;
 import com.sohamshinde.billsplit.exceptions.ResourceNotFoundException;
 import com.sohamshinde.billsplit.exceptions.UserAlreadyExistsException;
 import com.sohamshinde.billsplit.exceptions.UserNotFoundException;
 import com.sohamshinde.billsplit.repository.UserRepository;
-import com.sohamshinde.billsplit.repository.VerificationTokenRepository;
+import com.sohamshinde.billsplit.security.AuthenticatedUser;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -24,7 +23,6 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.test.context.TestPropertySource;
-import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
@@ -38,7 +36,7 @@ class UserServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private VerificationTokenRepository verificationTokenRepository;
+    private VerificationTokenStore verificationTokenStore;
 
     @InjectMocks
     private UserService userService;
@@ -48,12 +46,13 @@ class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private VerificationMailer verificationMailer;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
 
-        ReflectionTestUtils.setField(userService, "mailersendAPIKey", "test-api-key");
-
         when(passwordEncoder.encode(anyString())).thenReturn("mockedEncodedPassword");
 
         // Set up a test user
@@ -82,7 +81,8 @@ class UserServiceTest {
         userService.registerUser(userDto);
 
         verify(userRepository, times(1)).save(any(User.class));
-        verify(verificationTokenRepository, times(1)).save(any(VerificationToken.class));
+        verify(verificationTokenStore, times(1)).save(anyString(), any(), any(LocalDateTime.class));
+        verify(verificationMailer, times(1)).send(eq("alice@example.com"), eq("Alice"), anyString(), anyString());
     }
 
     /**
@@ -98,8 +98,7 @@ class UserServiceTest {
     @Test
     void testVerifyEmailWithValidToken() {
         // Arrange
-        VerificationToken token = new VerificationToken("validToken", testUser, LocalDateTime.now().plusHours(24));
-        when(verificationTokenRepository.findByToken("validToken")).thenReturn(token);
+        when(verificationTokenStore.consume("validToken")).thenReturn(Optional.of(1L));
 
         // Act
         userService.verifyEmail("validToken");
@@ -110,7 +109,7 @@ class UserServiceTest {
 
         // Assert
         assertTrue(userCaptor.getValue().getEnabled()); // Check if user was enabled
-        verify(verificationTokenRepository, times(1)).delete(token);
+        verify(verificationTokenStore, times(1)).consume("validToken");
     }
 
 
@@ -119,11 +118,23 @@ class UserServiceTest {
      */
     @Test
     void testVerifyEmailWithInvalidToken() {
-        when(verificationTokenRepository.findByToken("invalidToken")).thenReturn(null);
+        when(verificationTokenStore.consume("invalidToken")).thenReturn(Optional.empty());
 
         assertThrows(InvalidTokenException.class, () -> userService.verifyEmail("invalidToken"));
     }
 
+    /**
+     * ❌ Test: Verify Email with a Token Whose User No Longer Exists
+     */
+    @Test
+    void testVerifyEmailWithTokenForMissingUser() {
+        when(verificationTokenStore.consume("orphanToken")).thenReturn(Optional.of(99L));
+        when(userRepository.findById(99L)).thenReturn(Optional.empty());
+
+        assertThrows(InvalidTokenException.class, () -> userService.verifyEmail("orphanToken"));
+        verify(userRepository, never()).save(any(User.class));
+    }
+
     /**
      * ✅ Test: Fetch User by ID (Existing User)
      */
@@ -153,12 +164,13 @@ class UserServiceTest {
     void testGetAuthenticatedUser() {
         SecurityContext securityContext = mock(SecurityContext.class);
         SecurityContextHolder.setContext(securityContext);
-        when(securityContext.getAuthentication()).thenReturn(new UsernamePasswordAuthenticationToken(testUser, null));
-        when(userRepository.findByEmail("johndoe@example.com")).thenReturn(Optional.of(testUser));
+        when(securityContext.getAuthentication()).thenReturn(new UsernamePasswordAuthenticationToken(AuthenticatedUser.from(testUser), null));
 
+        // The session only holds the ID, email and role; the rest is loaded
         User authenticatedUser = userService.getAuthenticatedUser();
         assertNotNull(authenticatedUser);
         assertEquals("John Doe", authenticatedUser.getName());
+        verify(userRepository).findById(1L);
     }
 
     /**
@@ -0,0 +1,34 @@
+package com.sohamshinde.billsplit.sqlbudget;
+
+import org.junit.jupiter.api.extension.ConditionEvaluationResult;
+import org.junit.jupiter.api.extension.ExecutionCondition;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.testcontainers.DockerClientFactory;
+
+/**
+ * Skips container-backed tests on machines without Docker, but fails them where they are expected to run:
+ * on CI (the {@code CI} environment variable is set) or when {@code -Dstatement-budget.required=true} is given.
+ * A silently skipped budget test would otherwise look like a passing one.
+ */
+public class DockerRequiredCondition implements ExecutionCondition {
+
+    static final String REQUIRED_PROPERTY = "statement-budget.required";
+
+    @Override
+    public ConditionEvaluationResult evaluateExecutionCondition(ExtensionContext context) {
+        if (DockerClientFactory.instance().isDockerAvailable()) {
+            return ConditionEvaluationResult.enabled("Docker is available");
+        }
+        if (required()) {
+            throw new IllegalStateException("Docker is not available, but " + context.getDisplayName()
+                    + " must run here (CI or -D" + REQUIRED_PROPERTY + "=true)");
+        }
+        return ConditionEvaluationResult.disabled("Docker is not available; set -D" + REQUIRED_PROPERTY
+                + "=true to fail instead of skipping");
+    }
+
+    private static boolean required() {
+        String ci = System.getenv("CI");
+        return Boolean.getBoolean(REQUIRED_PROPERTY) || (ci != null && !ci.isBlank() && !ci.equalsIgnoreCase("false"));
+    }
+}
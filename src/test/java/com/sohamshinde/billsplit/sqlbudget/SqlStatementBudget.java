@@ -0,0 +1,21 @@
+package com.sohamshinde.billsplit.sqlbudget;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Fails the annotated test if its body sends more than {@link #value()} SQL statements.
+ * Setup in {@code @BeforeEach} methods is not counted. The data source must be wrapped by
+ * {@link StatementCountingConfig}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(SqlStatementBudgetExtension.class)
+public @interface SqlStatementBudget {
+
+    int value();
+}
@@ -0,0 +1,45 @@
+package com.sohamshinde.billsplit.sqlbudget;
+
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Records the statements of each {@link SqlStatementBudget} test and compares them with its budget.
+ * The failure message lists every statement, so the new query is easy to spot.
+ */
+public class SqlStatementBudgetExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        if (context.getRequiredTestMethod().isAnnotationPresent(SqlStatementBudget.class)) {
+            StatementCounter.start();
+        }
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        SqlStatementBudget budget = context.getRequiredTestMethod().getAnnotation(SqlStatementBudget.class);
+        if (budget == null) {
+            return;
+        }
+
+        List<String> statements = StatementCounter.stop();
+        if (context.getExecutionException().isPresent()) {
+            return; // The test's own failure is the more useful one
+        }
+        if (statements.size() > budget.value()) {
+            StringBuilder message = new StringBuilder()
+                    .append(context.getDisplayName()).append(" sent ").append(statements.size())
+                    .append(" SQL statements, budget is ").append(budget.value()).append(':');
+            for (int i = 0; i < statements.size(); i++) {
+                message.append(System.lineSeparator()).append(i + 1).append(". ").append(statements.get(i));
+            }
+            fail(message.toString());
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.sohamshinde.billsplit.sqlbudget;
+
+import com.sohamshinde.billsplit.entity.User;
+import com.sohamshinde.billsplit.enums.Role;
+import com.sohamshinde.billsplit.repository.UserRepository;
+import com.sohamshinde.billsplit.security.AuthenticatedUser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Base class for {@link SqlStatementBudget} tests: a full application context on throwaway Postgres and
+ * Redis containers, with the data source wrapped by {@link StatementCounter}.
+ *
+ * The containers are shared by all subclasses, so the cached context stays valid between test classes.
+ * Without Docker the tests are skipped locally and fail on CI, see {@link DockerRequiredCondition}.
+ */
+@ExtendWith(DockerRequiredCondition.class)
+@SpringBootTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=update",
+        "rate-limit.enabled=false",
+        "cache.expense.enabled=false",
+        "mailerSend.apiKey=statement-budget",
+        "logging.level.org.hibernate.SQL=warn"
+})
+@Import(StatementCountingConfig.class)
+public abstract class StatementBudgetTestSupport {
+
+    private static PostgreSQLContainer<?> postgres;
+    private static GenericContainer<?> redis;
+    private static final AtomicLong USER_SEQUENCE = new AtomicLong();
+
+    @DynamicPropertySource
+    static void containerProperties(DynamicPropertyRegistry registry) {
+        startContainers();
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.data.redis.url", redis::getHost);
+        registry.add("spring.data.redis.port", () -> redis.getMappedPort(6379));
+        registry.add("spring.data.redis.password", () -> "");
+    }
+
+    private static synchronized void startContainers() {
+        if (postgres == null) {
+            postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+            postgres.start();
+            redis = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+            redis.start();
+        }
+    }
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    /**
+     * Saves {@code count} enabled users and returns them as loaded from the database.
+     */
+    protected List<User> createUsers(int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long n = USER_SEQUENCE.incrementAndGet();
+            User user = new User();
+            user.setName("Budget User " + n);
+            user.setEmail("budget" + n + "-" + System.nanoTime() + "@example.com");
+            user.setPhone(String.format("9%09d", n));
+            user.setPassword("not-used");
+            user.setGender(n % 2 == 0);
+            user.setEnabled(true);
+            user.setActive(true);
+            user.setRole(Role.USER);
+            users.add(user);
+        }
+        List<Long> ids = userRepository.saveAll(users).stream().map(User::getId).toList();
+        return ids.stream().map(id -> userRepository.findById(id).orElseThrow()).toList();
+    }
+
+    protected void authenticate(User user) {
+        AuthenticatedUser principal = AuthenticatedUser.from(user);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+}
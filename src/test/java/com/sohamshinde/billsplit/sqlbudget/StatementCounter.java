@@ -0,0 +1,145 @@
+package com.sohamshinde.billsplit.sqlbudget;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Counts the SQL statements sent to the database by the current thread while recording is on.
+ *
+ * {@link #wrap(DataSource)} returns a proxy whose connections and statements report every execution
+ * (a JDBC batch counts once, as it is one round trip). Counting is per thread, so schedulers running
+ * in the same application context do not show up in a test's count. Each recorded statement keeps the
+ * parameters that were bound to it, so a test can re-run it, for example under EXPLAIN.
+ */
+public final class StatementCounter {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private static final ThreadLocal<List<Executed>> RECORDED = new ThreadLocal<>();
+
+    /**
+     * A statement as it was executed: its SQL and the setter calls that bound its parameters, in index order.
+     */
+    public record Executed(String sql, List<Binding> bindings) {
+
+        /**
+         * Binds the same parameters to another prepared statement with the same placeholders.
+         */
+        public void bind(PreparedStatement target) throws SQLException {
+            for (Binding binding : bindings) {
+                try {
+                    binding.method().invoke(target, binding.args());
+                } catch (ReflectiveOperationException e) {
+                    throw new SQLException("Could not replay " + binding.method().getName(), e);
+                }
+            }
+        }
+    }
+
+    public record Binding(Method method, Object[] args) {
+    }
+
+    private StatementCounter() {
+    }
+
+    public static void start() {
+        RECORDED.set(new ArrayList<>());
+    }
+
+    /**
+     * Stops recording and returns the statements executed since {@link #start()}, in order.
+     */
+    public static List<String> stop() {
+        return stopWithBindings().stream().map(Executed::sql).toList();
+    }
+
+    /**
+     * Like {@link #stop()}, with the parameters bound to each statement.
+     */
+    public static List<Executed> stopWithBindings() {
+        List<Executed> recorded = RECORDED.get();
+        RECORDED.remove();
+        return recorded != null ? recorded : List.of();
+    }
+
+    // unwrap() and isWrapperFor() are passed through, so pool metrics still find the Hikari pool
+    public static DataSource wrap(DataSource dataSource) {
+        return proxy(DataSource.class, dataSource, (target, method, args) -> {
+            Object result = invoke(target, method, args);
+            return result instanceof Connection connection ? wrap(connection) : result;
+        });
+    }
+
+    private static Connection wrap(Connection connection) {
+        return proxy(Connection.class, connection, (target, method, args) -> {
+            Object result = invoke(target, method, args);
+            if (result instanceof CallableStatement statement) {
+                return wrap(CallableStatement.class, statement, (String) args[0]);
+            }
+            if (result instanceof PreparedStatement statement) {
+                return wrap(PreparedStatement.class, statement, (String) args[0]);
+            }
+            if (result instanceof Statement statement) {
+                return wrap(Statement.class, statement, null);
+            }
+            return result;
+        });
+    }
+
+    // Prepared statements know their SQL up front; plain statements receive it with each execute call.
+    // Parameter setters take the index first, so the latest call per index is the value that gets sent.
+    private static <S extends Statement> S wrap(Class<S> type, S statement, String preparedSql) {
+        Map<Integer, Binding> bindings = new TreeMap<>();
+        return proxy(type, statement, (target, method, args) -> {
+            String name = method.getName();
+            if (EXECUTE_METHODS.contains(name)) {
+                record(args != null && args.length > 0 && args[0] instanceof String sql ? sql : preparedSql,
+                        List.copyOf(bindings.values()));
+            } else if (name.equals("clearParameters")) {
+                bindings.clear();
+            } else if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                bindings.put(index, new Binding(method, args.clone()));
+            }
+            return invoke(target, method, args);
+        });
+    }
+
+    private static void record(String sql, List<Binding> bindings) {
+        List<Executed> recorded = RECORDED.get();
+        if (recorded != null) {
+            recorded.add(new Executed(sql, bindings));
+        }
+    }
+
+    private interface Handler<T> {
+        Object handle(T target, Method method, Object[] args) throws Throwable;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, Handler<T> handler) {
+        InvocationHandler invocationHandler = (proxy, method, args) -> handler.handle(target, method, args);
+        return (T) Proxy.newProxyInstance(StatementCounter.class.getClassLoader(), new Class<?>[]{type}, invocationHandler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
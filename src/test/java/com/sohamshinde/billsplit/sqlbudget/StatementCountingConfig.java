@@ -0,0 +1,27 @@
+package com.sohamshinde.billsplit.sqlbudget;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application's {@code dataSource} bean with {@link StatementCounter}, so {@link SqlStatementBudget}
+ * tests see all statements, including those from native queries and JdbcTemplate. Only that bean is wrapped:
+ * the pools behind it would count every statement twice.
+ */
+@TestConfiguration
+public class StatementCountingConfig {
+
+    @Bean
+    static BeanPostProcessor statementCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource && "dataSource".equals(beanName)
+                        ? StatementCounter.wrap(dataSource) : bean;
+            }
+        };
+    }
+}